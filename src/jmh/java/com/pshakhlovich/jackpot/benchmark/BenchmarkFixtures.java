@@ -0,0 +1,95 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.config.JackpotProperties;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FormulaContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FormulaRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Inputs shared by the benchmarks.
+ * <p>
+ * Jackpots are built from the profiles in {@code application.yml}, so benchmarks run against the
+ * parameters that are deployed. Bets and draws are generated from a fixed seed and cycled through,
+ * so every run sees the same inputs and none of them is constant.
+ * </p>
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * Number of generated inputs; a power of two, so that cycling through them is a mask.
+     */
+    static final int INPUTS = 1024;
+
+    private static final long SEED = 20_251_017L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Builds a jackpot from a profile in {@code application.yml}, with its pool at the initial pool.
+     *
+     * @throws IllegalArgumentException if no profile has the given id
+     */
+    static Jackpot jackpot(String profileId) {
+        return profiles().profiles().stream()
+                .filter(profile -> profile.id().equals(profileId))
+                .findFirst()
+                .map(JackpotProperties.JackpotProfileProperties::toJackpot)
+                .orElseThrow(() -> new IllegalArgumentException("No jackpot profile %s in application.yml".formatted(profileId)));
+    }
+
+    static StrategyRegistry strategyRegistry() {
+        return new StrategyRegistry(
+                List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy(), new FormulaContributionStrategy()),
+                List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy(), new FormulaRewardStrategy()));
+    }
+
+    /**
+     * Bet amounts between 1.00 and 500.00, in minor units.
+     */
+    static long[] betAmounts() {
+        return new SplittableRandom(SEED).longs(INPUTS, 100, 50_001).toArray();
+    }
+
+    /**
+     * Random draws in the range [0.0, 1.0).
+     */
+    static double[] draws() {
+        return new SplittableRandom(SEED).doubles(INPUTS).toArray();
+    }
+
+    static String[] betIds() {
+        String[] betIds = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            betIds[i] = "bet-" + (1_000_000 + i);
+        }
+        return betIds;
+    }
+
+    private static JackpotProperties profiles() {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                    .load("application.yml", new ClassPathResource("application.yml"));
+            return new Binder(ConfigurationPropertySources.from(sources), new PropertySourcesPlaceholdersResolver(sources))
+                    .bind("jackpot", JackpotProperties.class)
+                    .orElseThrow(() -> new IllegalStateException("No jackpot properties in application.yml"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.api.dto.BetRequest;
+import com.pshakhlovich.jackpot.api.mapper.BetMapper;
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Maps one bet request to the Avro record published to Kafka.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BetMapperBenchmark {
+
+    private final BetMapper betMapper = new BetMapper(Clock.systemUTC());
+
+    private BetRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] betIds = BenchmarkFixtures.betIds();
+        long[] betAmounts = BenchmarkFixtures.betAmounts();
+        requests = new BetRequest[BenchmarkFixtures.INPUTS];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new BetRequest(betIds[i], "user-" + (i % 64), "fixed-warmup", Money.toDecimal(betAmounts[i]));
+        }
+    }
+
+    @Benchmark
+    public Bet toAvro() {
+        return betMapper.toAvro(requests[next++ & (BenchmarkFixtures.INPUTS - 1)]);
+    }
+}
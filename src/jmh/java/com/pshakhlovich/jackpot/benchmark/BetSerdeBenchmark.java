@@ -0,0 +1,89 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.api.dto.BetRequest;
+import com.pshakhlovich.jackpot.api.mapper.BetMapper;
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.confluent.kafka.serializers.subject.TopicRecordNameStrategy;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes and deserializes bets with the Avro serdes configured for the bets topic.
+ * <p>
+ * Schemas are registered with an in-memory schema registry, so only the first call of each side
+ * reaches it and the measured calls hit the serdes' schema caches, as they do in production.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BetSerdeBenchmark {
+
+    private static final String SCHEMA_REGISTRY_SCOPE = "jmh";
+
+    private final KafkaAvroSerializer serializer = new KafkaAvroSerializer();
+    private final KafkaAvroDeserializer deserializer = new KafkaAvroDeserializer();
+
+    private Bet[] bets;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://" + SCHEMA_REGISTRY_SCOPE,
+                AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, TopicRecordNameStrategy.class,
+                KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true);
+        serializer.configure(config, false);
+        deserializer.configure(config, false);
+
+        BetMapper betMapper = new BetMapper(Clock.systemUTC());
+        String[] betIds = BenchmarkFixtures.betIds();
+        long[] betAmounts = BenchmarkFixtures.betAmounts();
+        bets = new Bet[BenchmarkFixtures.INPUTS];
+        payloads = new byte[BenchmarkFixtures.INPUTS][];
+        for (int i = 0; i < bets.length; i++) {
+            bets[i] = betMapper.toAvro(new BetRequest(betIds[i], "user-" + (i % 64), "fixed-warmup", Money.toDecimal(betAmounts[i])));
+            payloads[i] = serializer.serialize(KafkaTopicsConfig.BETS_TOPIC, bets[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+        MockSchemaRegistry.dropScope(SCHEMA_REGISTRY_SCOPE);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(KafkaTopicsConfig.BETS_TOPIC, bets[next++ & (BenchmarkFixtures.INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(KafkaTopicsConfig.BETS_TOPIC, payloads[next++ & (BenchmarkFixtures.INPUTS - 1)]);
+    }
+}
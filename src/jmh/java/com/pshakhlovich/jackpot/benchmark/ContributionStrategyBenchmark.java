@@ -0,0 +1,80 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.CompiledContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.ContributionStrategy;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Applies one bet with the contribution strategy of a configured profile.
+ * <p>
+ * {@code fixed-warmup} runs {@code FixedContributionStrategy}, {@code decaying-marathon}
+ * {@code VariableDecayContributionStrategy}, whose decay threshold of 10,000.00 lies between the two pools,
+ * and {@code formula-curve} {@code FormulaContributionStrategy}.
+ * The pool is put back before every bet, so each one sees the same pool.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ContributionStrategyBenchmark {
+
+    @Param({"fixed-warmup", "decaying-marathon", "formula-curve"})
+    private String profile;
+
+    @Param({"2500.00", "15000.00"})
+    private String pool;
+
+    private Jackpot jackpot;
+    private ContributionStrategy strategy;
+    private CompiledContributionStrategy compiled;
+    private long poolMinor;
+    private long[] betAmounts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jackpot = BenchmarkFixtures.jackpot(profile);
+        strategy = BenchmarkFixtures.strategyRegistry().getContributionStrategy(jackpot.getContributionStrategy());
+        compiled = strategy.compile(JackpotConfig.from(jackpot));
+        poolMinor = Money.ofDecimal(new BigDecimal(pool));
+        betAmounts = BenchmarkFixtures.betAmounts();
+    }
+
+    @Benchmark
+    public ContributionResult compiled() {
+        jackpot.setCurrentPoolMinor(poolMinor);
+        return compiled.contribute(jackpot, nextBetAmount());
+    }
+
+    /**
+     * Compiles the configuration for every bet, as {@link ContributionStrategy#contribute} does.
+     */
+    @Benchmark
+    public ContributionResult uncompiled() {
+        jackpot.setCurrentPoolMinor(poolMinor);
+        return strategy.contribute(jackpot, nextBetAmount());
+    }
+
+    private long nextBetAmount() {
+        return betAmounts[next++ & (BenchmarkFixtures.INPUTS - 1)];
+    }
+}
@@ -0,0 +1,42 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.support.DeterministicRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generates the random draw of one bet, seeded as an evaluation seeds it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DeterministicRandomBenchmark {
+
+    private static final String JACKPOT_ID = "fixed-warmup";
+
+    private String[] betIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        betIds = BenchmarkFixtures.betIds();
+    }
+
+    @Benchmark
+    public double draw() {
+        String betId = betIds[next++ & (BenchmarkFixtures.INPUTS - 1)];
+        return new DeterministicRandom(betId + JACKPOT_ID).nextDouble();
+    }
+}
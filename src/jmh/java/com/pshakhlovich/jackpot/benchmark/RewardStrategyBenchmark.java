@@ -0,0 +1,80 @@
+package com.pshakhlovich.jackpot.benchmark;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.strategy.reward.CompiledRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.RewardStrategy;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluates one bet with the reward strategy of a configured profile.
+ * <p>
+ * {@code fixed-warmup} runs {@code FixedRewardStrategy}, {@code decaying-marathon}
+ * {@code VariableRampRewardStrategy}, whose reward cap of 5,000.00 lies between the two pools,
+ * and {@code formula-curve} {@code FormulaRewardStrategy}.
+ * The pool is put back before every draw, as a win resets it.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RewardStrategyBenchmark {
+
+    @Param({"fixed-warmup", "decaying-marathon", "formula-curve"})
+    private String profile;
+
+    @Param({"2500.00", "7500.00"})
+    private String pool;
+
+    private Jackpot jackpot;
+    private RewardStrategy strategy;
+    private CompiledRewardStrategy compiled;
+    private long poolMinor;
+    private double[] draws;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jackpot = BenchmarkFixtures.jackpot(profile);
+        strategy = BenchmarkFixtures.strategyRegistry().getRewardStrategy(jackpot.getRewardStrategy());
+        compiled = strategy.compile(JackpotConfig.from(jackpot));
+        poolMinor = Money.ofDecimal(new BigDecimal(pool));
+        draws = BenchmarkFixtures.draws();
+    }
+
+    @Benchmark
+    public RewardResult compiled() {
+        jackpot.setCurrentPoolMinor(poolMinor);
+        return compiled.evaluate(jackpot, nextDraw());
+    }
+
+    /**
+     * Compiles the configuration for every draw, as {@link RewardStrategy#evaluate} does.
+     */
+    @Benchmark
+    public RewardResult uncompiled() {
+        jackpot.setCurrentPoolMinor(poolMinor);
+        return strategy.evaluate(jackpot, nextDraw());
+    }
+
+    private double nextDraw() {
+        return draws[next++ & (BenchmarkFixtures.INPUTS - 1)];
+    }
+}
@@ -3,10 +3,26 @@ package com.pshakhlovich.jackpot;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.config.BetIngestionProperties;
+import com.pshakhlovich.jackpot.config.JackpotCacheProperties;
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.config.JackpotPoolProperties;
 import com.pshakhlovich.jackpot.config.JackpotProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(JackpotProperties.class)
+@EnableConfigurationProperties({
+        JackpotProperties.class,
+        JackpotCacheProperties.class,
+        BetIngestionProperties.class,
+        JackpotPoolProperties.class,
+        BetConsumerProperties.class,
+        JackpotEngineProperties.class,
+        JackpotConcurrencyProperties.class
+})
+@EnableScheduling
 public class JackpotServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,10 +1,16 @@
 package com.pshakhlovich.jackpot.api;
 
+import com.pshakhlovich.jackpot.messaging.avro.AvroPayloadException;
+import com.pshakhlovich.jackpot.service.BetAdmissionException;
+import com.pshakhlovich.jackpot.service.JackpotEngineFlushException;
 import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.KafkaException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -28,6 +34,17 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    @ExceptionHandler(AvroPayloadException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidAvroPayload(AvroPayloadException ex) {
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid Avro payload",
+                ex.getMessage(),
+                List.of());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
         ApiErrorResponse body = new ApiErrorResponse(
@@ -39,6 +56,52 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
     }
 
+    @ExceptionHandler(BetAdmissionException.class)
+    public ResponseEntity<ApiErrorResponse> handleAdmissionRejected(BetAdmissionException ex) {
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests",
+                ex.getMessage(),
+                List.of());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfter().toSeconds()))
+                .body(body);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticConflict(OptimisticLockingFailureException ex) {
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                HttpStatus.CONFLICT.value(),
+                "Concurrent update",
+                "The jackpot was changed concurrently too many times, retry the request",
+                List.of());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(JackpotEngineFlushException.class)
+    public ResponseEntity<ApiErrorResponse> handleFlushFailure(JackpotEngineFlushException ex) {
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Write failed",
+                "The evaluation was not recorded, retry the request",
+                List.of());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(KafkaException.class)
+    public ResponseEntity<ApiErrorResponse> handleKafkaFailure(KafkaException ex) {
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Publishing failed",
+                ex.getMessage(),
+                List.of());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
     private ApiErrorResponse.Violation toViolation(FieldError error) {
         return new ApiErrorResponse.Violation(error.getField(), error.getDefaultMessage());
     }
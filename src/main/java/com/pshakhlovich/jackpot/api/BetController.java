@@ -1,11 +1,21 @@
 package com.pshakhlovich.jackpot.api;
 
+import com.pshakhlovich.jackpot.api.dto.BetAcknowledgementResponse;
+import com.pshakhlovich.jackpot.api.dto.BetBatchRequest;
+import com.pshakhlovich.jackpot.api.dto.BetBatchResponse;
 import com.pshakhlovich.jackpot.api.dto.BetRequest;
 import com.pshakhlovich.jackpot.api.dto.BetResponse;
+import com.pshakhlovich.jackpot.api.dto.BetStreamResponse;
+import com.pshakhlovich.jackpot.service.AvroBetPublishingService;
 import com.pshakhlovich.jackpot.service.BetPublishingService;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,7 +29,10 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class BetController {
 
+    static final String APPLICATION_AVRO_VALUE = "application/avro";
+
     private final BetPublishingService betPublishingService;
+    private final AvroBetPublishingService avroBetPublishingService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.ACCEPTED)
@@ -27,4 +40,32 @@ public class BetController {
         String betId = betPublishingService.publish(request);
         return new BetResponse(betId);
     }
+
+    @PostMapping("/async")
+    public CompletableFuture<ResponseEntity<BetAcknowledgementResponse>> publishBetAsync(@Valid @RequestBody BetRequest request) {
+        return betPublishingService.publishAsync(request)
+                .thenApply(ack -> ResponseEntity.status(HttpStatus.ACCEPTED).body(new BetAcknowledgementResponse(
+                        ack.betId(),
+                        ack.topic(),
+                        ack.partition(),
+                        ack.offset())));
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BetBatchResponse publishBets(@Valid @RequestBody BetBatchRequest request) {
+        return BetBatchResponse.from(betPublishingService.publishBatch(request.bets()));
+    }
+
+    @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BetStreamResponse publishBetStream(InputStream body) throws IOException {
+        return BetStreamResponse.from(betPublishingService.publishStream(body));
+    }
+
+    @PostMapping(path = "/avro", consumes = APPLICATION_AVRO_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BetBatchResponse publishAvroBets(@RequestBody byte[] body) {
+        return BetBatchResponse.from(avroBetPublishingService.publish(body, BetBatchRequest.MAX_BETS));
+    }
 }
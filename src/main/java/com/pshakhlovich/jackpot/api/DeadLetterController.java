@@ -0,0 +1,30 @@
+package com.pshakhlovich.jackpot.api;
+
+import com.pshakhlovich.jackpot.api.dto.DeadLetterRedriveResponse;
+import com.pshakhlovich.jackpot.messaging.DeadLetterRedriver;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dead-letters")
+@Validated
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    static final int MAX_REDRIVE = 100_000;
+
+    private final DeadLetterRedriver deadLetterRedriver;
+
+    @PostMapping("/redrive")
+    public ResponseEntity<DeadLetterRedriveResponse> redrive(
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(MAX_REDRIVE) int maxRecords) {
+        return ResponseEntity.ok(new DeadLetterRedriveResponse(deadLetterRedriver.redrive(maxRecords)));
+    }
+}
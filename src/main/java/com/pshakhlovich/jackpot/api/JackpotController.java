@@ -0,0 +1,42 @@
+package com.pshakhlovich.jackpot.api;
+
+import com.pshakhlovich.jackpot.api.dto.JackpotPoolResponse;
+import com.pshakhlovich.jackpot.service.JackpotPoolSnapshotStore;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/jackpots")
+@RequiredArgsConstructor
+public class JackpotController {
+
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final JackpotPoolBroadcaster poolBroadcaster;
+
+    @GetMapping
+    public List<JackpotPoolResponse> listPools() {
+        return poolSnapshotStore.findAll().stream()
+                .map(snapshot -> JackpotPoolResponse.from(snapshot, poolSnapshotStore.maxStaleness()))
+                .toList();
+    }
+
+    @GetMapping("/{jackpotId}")
+    public JackpotPoolResponse getPool(@PathVariable String jackpotId) {
+        return poolSnapshotStore.find(jackpotId)
+                .map(snapshot -> JackpotPoolResponse.from(snapshot, poolSnapshotStore.maxStaleness()))
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPools(@RequestParam(name = "jackpotId", required = false) Set<String> jackpotIds) {
+        return poolBroadcaster.subscribe(jackpotIds != null ? jackpotIds : Set.of());
+    }
+}
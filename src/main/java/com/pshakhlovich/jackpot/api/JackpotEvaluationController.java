@@ -1,13 +1,18 @@
 package com.pshakhlovich.jackpot.api;
 
+import com.pshakhlovich.jackpot.api.dto.JackpotBatchEvaluationRequest;
+import com.pshakhlovich.jackpot.api.dto.JackpotBatchEvaluationResponse;
 import com.pshakhlovich.jackpot.api.dto.JackpotEvaluationResponse;
 import com.pshakhlovich.jackpot.service.JackpotEvaluationService;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -39,4 +44,11 @@ public class JackpotEvaluationController {
 
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/batch")
+    public ResponseEntity<JackpotBatchEvaluationResponse> evaluateBatch(@Valid @RequestBody JackpotBatchEvaluationRequest request) {
+        return ResponseEntity.ok(JackpotBatchEvaluationResponse.from(
+                request.jackpotId(),
+                evaluationService.evaluateBatch(request.jackpotId(), request.betIds())));
+    }
 }
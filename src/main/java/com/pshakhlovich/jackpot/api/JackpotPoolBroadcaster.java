@@ -0,0 +1,222 @@
+package com.pshakhlovich.jackpot.api;
+
+import com.pshakhlovich.jackpot.api.dto.JackpotPoolResponse;
+import com.pshakhlovich.jackpot.config.JackpotPoolProperties;
+import com.pshakhlovich.jackpot.service.JackpotPoolSnapshotStore;
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes pool changes to server-sent event subscribers.
+ * <p>
+ * Changes are not forwarded as they happen. Only the latest snapshot per jackpot is kept and
+ * pending snapshots are handed out every {@code jackpot.pools.stream.interval}, so a jackpot receiving
+ * thousands of contributions per second still produces at most one event per interval.
+ * </p>
+ * <p>
+ * The scheduler thread never writes to a connection. Each subscriber has an outbox holding the latest
+ * undelivered snapshot per jackpot, drained by a virtual thread of its own, so a slow client only delays
+ * its own events. A subscriber whose write has been blocked for longer than
+ * {@code jackpot.pools.stream.send-timeout} is dropped.
+ * </p>
+ * <p>
+ * Subscribers receive the current snapshots on connect. Events carry the snapshot version, and a
+ * client should ignore an event older than the last one it has seen for that jackpot.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JackpotPoolBroadcaster implements DisposableBean {
+
+    static final String POOL_EVENT = "pool";
+
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final JackpotPoolProperties poolProperties;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, JackpotPoolSnapshot> pending = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Opens a stream of pool changes.
+     *
+     * @param jackpotIds the jackpots to follow, or an empty set for all
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Set<String> jackpotIds) {
+        SseEmitter emitter = new SseEmitter(poolProperties.stream().timeout().toMillis());
+        register(emitter, jackpotIds);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Set<String> jackpotIds) {
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(jackpotIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+        poolSnapshotStore.findAll().forEach(subscriber::offer);
+        deliver(subscriber);
+        log.debug("Pool stream subscribed: jackpots={}, subscribers={}", jackpotIds, subscribers.size());
+    }
+
+    @EventListener
+    public void onPoolChanged(JackpotPoolSnapshot snapshot) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        pending.merge(snapshot.config().id(), snapshot, JackpotPoolBroadcaster::latest);
+    }
+
+    @Scheduled(fixedRateString = "${jackpot.pools.stream.interval:PT0.2S}")
+    public void flush() {
+        dropStalled();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<JackpotPoolSnapshot> batch = new ArrayList<>(pending.size());
+        for (String jackpotId : pending.keySet()) {
+            JackpotPoolSnapshot snapshot = pending.remove(jackpotId);
+            if (snapshot != null) {
+                batch.add(snapshot);
+            }
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            batch.forEach(subscriber::offer);
+            deliver(subscriber);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${jackpot.pools.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue.set(true);
+            deliver(subscriber);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private static JackpotPoolSnapshot latest(JackpotPoolSnapshot queued, JackpotPoolSnapshot offered) {
+        return offered.version() >= queued.version() ? offered : queued;
+    }
+
+    // At most one drain per subscriber runs at a time; a drain finishing re-checks the outbox,
+    // so nothing offered while it was running is left behind
+    private void deliver(Subscriber subscriber) {
+        if (subscriber.hasWork() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.heartbeatDue.getAndSet(false)
+                    && !send(subscriber, SseEmitter.event().comment("heartbeat"))) {
+                return;
+            }
+            for (String jackpotId : subscriber.outbox.keySet()) {
+                JackpotPoolSnapshot snapshot = subscriber.outbox.remove(jackpotId);
+                if (snapshot != null && !send(subscriber, SseEmitter.event()
+                        .id(snapshot.config().id() + ":" + snapshot.version())
+                        .name(POOL_EVENT)
+                        .data(JackpotPoolResponse.from(snapshot, poolSnapshotStore.maxStaleness())))) {
+                    return;
+                }
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscribers.contains(subscriber)) {
+            deliver(subscriber);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        subscriber.sendStartedNanos = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (Exception ex) {
+            drop(subscriber, ex);
+            return false;
+        } finally {
+            subscriber.sendStartedNanos = 0;
+        }
+    }
+
+    // Completing the emitter closes the connection, which fails the blocked write
+    private void dropStalled() {
+        long timeoutNanos = poolProperties.stream().sendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedNanos;
+            if (started != 0 && now - started > timeoutNanos) {
+                drop(subscriber, new TimeoutException("Pool stream write blocked for more than %s"
+                        .formatted(poolProperties.stream().sendTimeout())));
+            }
+        }
+    }
+
+    // Disconnected clients surface as failed writes
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.outbox.clear();
+            subscriber.emitter.completeWithError(cause);
+            log.debug("Pool stream subscriber dropped: {}", cause.getMessage());
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> jackpotIds;
+        private final ConcurrentMap<String, JackpotPoolSnapshot> outbox = new ConcurrentHashMap<>();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the write in progress started, or 0 when idle
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Set<String> jackpotIds) {
+            this.emitter = emitter;
+            this.jackpotIds = jackpotIds;
+        }
+
+        void offer(JackpotPoolSnapshot snapshot) {
+            if (jackpotIds.isEmpty() || jackpotIds.contains(snapshot.config().id())) {
+                outbox.merge(snapshot.config().id(), snapshot, JackpotPoolBroadcaster::latest);
+            }
+        }
+
+        boolean hasWork() {
+            return !outbox.isEmpty() || heartbeatDue.get();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+public record BetAcknowledgementResponse(
+        String betId,
+        String topic,
+        int partition,
+        long offset
+) {
+}
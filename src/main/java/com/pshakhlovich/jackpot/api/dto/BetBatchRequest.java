@@ -0,0 +1,21 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Batch of bets submitted in a single call.
+ * <p>
+ * Individual bets are validated one by one so that a single malformed entry
+ * rejects only itself rather than the whole batch.
+ * </p>
+ */
+public record BetBatchRequest(
+        @NotEmpty(message = "bets must not be empty")
+        @Size(max = BetBatchRequest.MAX_BETS, message = "bets must contain at most " + BetBatchRequest.MAX_BETS + " entries")
+        List<BetRequest> bets
+) {
+
+    public static final int MAX_BETS = 10_000;
+}
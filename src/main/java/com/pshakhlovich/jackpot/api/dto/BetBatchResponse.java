@@ -0,0 +1,28 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import com.pshakhlovich.jackpot.service.dto.BetSubmissionResult;
+import java.util.ArrayList;
+import java.util.List;
+
+public record BetBatchResponse(
+        int accepted,
+        int rejected,
+        List<Item> results
+) {
+
+    public static BetBatchResponse from(List<BetSubmissionResult> submissions) {
+        List<Item> items = new ArrayList<>(submissions.size());
+        int accepted = 0;
+        for (int i = 0; i < submissions.size(); i++) {
+            BetSubmissionResult submission = submissions.get(i);
+            if (submission.accepted()) {
+                accepted++;
+            }
+            items.add(new Item(i, submission.betId(), submission.accepted(), submission.reason()));
+        }
+        return new BetBatchResponse(accepted, submissions.size() - accepted, items);
+    }
+
+    public record Item(int index, String betId, boolean accepted, String reason) {
+    }
+}
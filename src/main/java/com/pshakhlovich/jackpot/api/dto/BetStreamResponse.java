@@ -0,0 +1,25 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import com.pshakhlovich.jackpot.service.dto.BetStreamResult;
+import java.util.List;
+
+public record BetStreamResponse(
+        long lines,
+        long published,
+        long rejected,
+        List<Rejection> rejections
+) {
+
+    public static BetStreamResponse from(BetStreamResult result) {
+        return new BetStreamResponse(
+                result.lines(),
+                result.published(),
+                result.rejected(),
+                result.rejections().stream()
+                        .map(rejection -> new Rejection(rejection.line(), rejection.betId(), rejection.reason()))
+                        .toList());
+    }
+
+    public record Rejection(long line, String betId, String reason) {
+    }
+}
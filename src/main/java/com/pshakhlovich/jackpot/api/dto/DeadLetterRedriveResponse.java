@@ -0,0 +1,4 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+public record DeadLetterRedriveResponse(int redriven) {
+}
@@ -0,0 +1,18 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record JackpotBatchEvaluationRequest(
+        @NotBlank(message = "Jackpot ID is required")
+        String jackpotId,
+
+        @NotEmpty(message = "betIds must not be empty")
+        @Size(max = JackpotBatchEvaluationRequest.MAX_BETS, message = "betIds must contain at most " + JackpotBatchEvaluationRequest.MAX_BETS + " entries")
+        List<@NotBlank(message = "Bet ID is required") String> betIds
+) {
+
+    public static final int MAX_BETS = 1_000;
+}
@@ -0,0 +1,57 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.service.dto.EvaluationOutcome;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public record JackpotBatchEvaluationResponse(
+        String jackpotId,
+        int evaluated,
+        int wins,
+        List<Item> results
+) {
+
+    public static JackpotBatchEvaluationResponse from(String jackpotId, List<EvaluationOutcome> outcomes) {
+        int evaluated = 0;
+        int wins = 0;
+        List<Item> items = new ArrayList<>(outcomes.size());
+        for (EvaluationOutcome outcome : outcomes) {
+            RewardResult result = outcome.result();
+            if (result == null) {
+                items.add(new Item(outcome.betId(), null, false, false, null, null, null, null, outcome.reason()));
+                continue;
+            }
+            evaluated++;
+            if (result.win()) {
+                wins++;
+            }
+            items.add(new Item(
+                    outcome.betId(),
+                    outcome.sequence(),
+                    true,
+                    result.win(),
+                    result.payoutAmount(),
+                    result.updatedPool(),
+                    result.probability(),
+                    result.strategy(),
+                    null));
+        }
+        return new JackpotBatchEvaluationResponse(jackpotId, evaluated, wins, items);
+    }
+
+    public record Item(
+            String betId,
+            Integer sequence,
+            boolean evaluated,
+            boolean win,
+            BigDecimal payoutAmount,
+            BigDecimal currentJackpotPool,
+            BigDecimal probability,
+            RewardStrategyType strategy,
+            String reason
+    ) {
+    }
+}
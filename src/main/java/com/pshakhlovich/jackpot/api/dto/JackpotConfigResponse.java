@@ -0,0 +1,58 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import java.math.BigDecimal;
+
+public record JackpotConfigResponse(
+        String id,
+        String name,
+        BigDecimal initialPool,
+        ContributionStrategyType contributionStrategy,
+        RewardStrategyType rewardStrategy,
+        BigDecimal contributionRate,
+        BigDecimal minContributionRate,
+        BigDecimal decayThreshold,
+        BigDecimal decaySlope,
+        BigDecimal rewardBaseProbability,
+        BigDecimal rewardMaxProbability,
+        BigDecimal rewardRampRate,
+        BigDecimal rewardCap,
+        String contributionFormula,
+        String rewardFormula,
+        int poolStripes,
+        ConcurrencyMode concurrencyMode
+) {
+
+    public static JackpotConfigResponse from(JackpotConfig config) {
+        return new JackpotConfigResponse(
+                config.id(),
+                config.name(),
+                Money.toDecimal(config.initialPoolMinor()),
+                config.contributionStrategy(),
+                config.rewardStrategy(),
+                rate(config.contributionRatePpm()),
+                rate(config.minContributionRatePpm()),
+                amount(config.decayThresholdMinor()),
+                rate(config.decaySlopePpm()),
+                rate(config.rewardBaseProbabilityPpm()),
+                rate(config.rewardMaxProbabilityPpm()),
+                rate(config.rewardRampRatePpm()),
+                amount(config.rewardCapMinor()),
+                config.contributionFormula(),
+                config.rewardFormula(),
+                config.poolStripes(),
+                config.concurrencyMode());
+    }
+
+    private static BigDecimal amount(Long minor) {
+        return minor != null ? Money.toDecimal(minor) : null;
+    }
+
+    private static BigDecimal rate(Long ppm) {
+        return ppm != null ? Money.ppmToDecimal(ppm) : null;
+    }
+}
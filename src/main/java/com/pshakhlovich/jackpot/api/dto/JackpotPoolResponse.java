@@ -0,0 +1,30 @@
+package com.pshakhlovich.jackpot.api.dto;
+
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+public record JackpotPoolResponse(
+        String jackpotId,
+        String name,
+        BigDecimal currentPool,
+        long version,
+        Instant updatedAt,
+        Instant asOf,
+        Duration maxStaleness,
+        JackpotConfigResponse config
+) {
+
+    public static JackpotPoolResponse from(JackpotPoolSnapshot snapshot, Duration maxStaleness) {
+        return new JackpotPoolResponse(
+                snapshot.config().id(),
+                snapshot.config().name(),
+                snapshot.currentPool(),
+                snapshot.version(),
+                snapshot.updatedAt(),
+                snapshot.confirmedAt(),
+                maxStaleness,
+                JackpotConfigResponse.from(snapshot.config()));
+    }
+}
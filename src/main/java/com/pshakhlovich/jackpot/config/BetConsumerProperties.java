@@ -0,0 +1,93 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the bet consumer that applies contributions.
+ *
+ * @param mode how polled bets are handed to the contribution service
+ * @param concurrency the number of consumers in the group, each owning a share of the partitions
+ * @param offsetStorage where the consumer position is kept
+ * @param kafkaCommitInterval how often offsets are also committed to Kafka when they are stored in the database;
+ *                            these commits only feed lag monitoring and are never read back
+ * @param dedupe settings of duplicate bet detection
+ * @param retry settings of the retry topics that failed bets are forwarded to
+ */
+@ConfigurationProperties(prefix = "jackpot.consumer")
+public record BetConsumerProperties(
+        @DefaultValue("RECORD") Mode mode,
+        @DefaultValue("1") int concurrency,
+        @DefaultValue("KAFKA") OffsetStorage offsetStorage,
+        @DefaultValue("PT5S") Duration kafkaCommitInterval,
+        @DefaultValue Dedupe dedupe,
+        @DefaultValue Retry retry) {
+
+    public BetConsumerProperties {
+        if (mode == Mode.PARALLEL && offsetStorage == OffsetStorage.DATABASE) {
+            throw new IllegalArgumentException(
+                    "jackpot.consumer.offset-storage=DATABASE requires RECORD or BATCH mode; PARALLEL applies bets out of offset order");
+        }
+    }
+
+    public enum Mode {
+        /**
+         * Each bet is applied in its own transaction and its offset committed on its own. The default.
+         */
+        RECORD,
+        /**
+         * Each polled batch is applied in one transaction, locking every jackpot once,
+         * and its offsets are committed together.
+         */
+        BATCH,
+        /**
+         * Bets of a partition are fanned out to virtual threads and applied concurrently across
+         * jackpots, in order within a jackpot. Offsets are committed up to the lowest bet not yet applied.
+         */
+        PARALLEL
+    }
+
+    public enum OffsetStorage {
+        /**
+         * Offsets are committed to Kafka after the contributions have been committed to the database.
+         * A crash in between replays the bets.
+         */
+        KAFKA,
+        /**
+         * Offsets are written to the {@code consumer_offset} table in the transaction that applies the bets,
+         * and consumers seek to them on partition assignment.
+         */
+        DATABASE
+    }
+
+    /**
+     * Settings of the in-memory filters that detect redelivered bets before a jackpot is locked.
+     *
+     * @param expectedBets the number of applied bets each Bloom filter generation is sized for; once
+     *                     exceeded a new generation is started and the one before it is dropped
+     * @param falsePositiveRate the Bloom filter rate of new bets that still need a database check
+     * @param recentBets the number of most recently applied bets recognised without a database check
+     * @param warmupWindow how far back applied bets are loaded into the filters on startup
+     */
+    public record Dedupe(
+            @DefaultValue("1000000") long expectedBets,
+            @DefaultValue("0.01") double falsePositiveRate,
+            @DefaultValue("100000") int recentBets,
+            @DefaultValue("PT24H") Duration warmupWindow) {
+    }
+
+    /**
+     * Settings of non-blocking retries.
+     * <p>
+     * A bet that fails is forwarded to the first retry topic and the consumer moves on. Each retry
+     * topic is consumed by its own container, which holds a bet back until its delay has passed;
+     * a bet failing on the last retry topic goes to the dead-letter topic.
+     * </p>
+     *
+     * @param delays the delay of each retry topic, in order; one topic is used per delay
+     */
+    public record Retry(@DefaultValue({"PT1S", "PT10S", "PT1M"}) List<Duration> delays) {
+    }
+}
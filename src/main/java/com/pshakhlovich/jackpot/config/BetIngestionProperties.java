@@ -0,0 +1,55 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits applied to streaming bet ingestion.
+ *
+ * @param maxInFlight the maximum number of bets handed to the producer but not yet acknowledged;
+ *                    reading of the request body pauses once the limit is reached
+ * @param maxReportedRejections the maximum number of individual rejections returned in the summary
+ * @param maxLineLength the maximum length of a line of a bet stream, in bytes; longer lines are rejected
+ *                      without being buffered
+ * @param admission settings of lag-based admission control
+ */
+@ConfigurationProperties(prefix = "jackpot.ingestion")
+public record BetIngestionProperties(
+        @DefaultValue("1000") int maxInFlight,
+        @DefaultValue("100") int maxReportedRejections,
+        @DefaultValue("8192") int maxLineLength,
+        @DefaultValue Admission admission) {
+
+    /**
+     * Settings of admission control, which holds back bets for jackpots whose partition the
+     * contribution consumer has fallen behind on.
+     * <p>
+     * Below {@code throttleLag} bets are accepted as usual. Between the two thresholds each request
+     * is delayed in proportion to the lag, up to {@code maxThrottleDelay}. From {@code rejectLag} on
+     * bets are rejected with a retry hint derived from the consumer's processing rate.
+     * </p>
+     *
+     * @param enabled whether consumer lag is monitored and bets are throttled and rejected
+     * @param checkInterval how often consumer lag is fetched from the brokers
+     * @param throttleLag the partition lag, in bets, from which requests are delayed
+     * @param rejectLag the partition lag, in bets, from which bets are rejected
+     * @param maxThrottleDelay the delay applied just below {@code rejectLag}
+     * @param maxRetryAfter the upper bound of the retry hint returned with rejections
+     */
+    public record Admission(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("PT1S") Duration checkInterval,
+            @DefaultValue("10000") long throttleLag,
+            @DefaultValue("50000") long rejectLag,
+            @DefaultValue("PT0.2S") Duration maxThrottleDelay,
+            @DefaultValue("PT30S") Duration maxRetryAfter) {
+
+        public Admission {
+            if (throttleLag < 0 || rejectLag <= throttleLag) {
+                throw new IllegalArgumentException(
+                        "jackpot.ingestion.admission.reject-lag must be greater than throttle-lag, and throttle-lag not negative");
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.pshakhlovich.jackpot.config;
 
-import com.pshakhlovich.jackpot.domain.model.Jackpot;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.JackpotRegistry;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +15,7 @@ public class DataSeeder implements CommandLineRunner {
 
     private final JackpotProperties jackpotProperties;
     private final JackpotRepository jackpotRepository;
+    private final JackpotRegistry jackpotRegistry;
 
     @Override
     public void run(String... args) {
@@ -28,25 +29,11 @@ public class DataSeeder implements CommandLineRunner {
                 .ifPresentOrElse(
                         existing -> log.debug("Jackpot profile {} already present", existing.getId()),
                         () -> {
-                            Jackpot jackpot = Jackpot.builder()
-                                    .id(profile.id())
-                                    .name(profile.name())
-                                    .initialPool(profile.initialPool())
-                                    .currentPool(profile.initialPool())
-                                    .contributionStrategy(profile.contributionStrategy())
-                                    .rewardStrategy(profile.rewardStrategy())
-                                    .contributionRate(profile.contribution() != null ? profile.contribution().rate() : null)
-                                    .minContributionRate(profile.contribution() != null ? profile.contribution().minRate() : null)
-                                    .decayThreshold(profile.contribution() != null ? profile.contribution().decayThreshold() : null)
-                                    .decaySlope(profile.contribution() != null ? profile.contribution().decaySlope() : null)
-                                    .rewardBaseProbability(profile.reward() != null ? profile.reward().baseProbability() : null)
-                                    .rewardMaxProbability(profile.reward() != null ? profile.reward().maxProbability() : null)
-                                    .rewardRampRate(profile.reward() != null ? profile.reward().rampRate() : null)
-                                    .rewardCap(profile.reward() != null ? profile.reward().cap() : null)
-                                    .build();
-
-                            jackpotRepository.save(jackpot);
+                            jackpotRepository.save(profile.toJackpot());
                             log.info("Seeded jackpot profile {}", profile.id());
                         }));
+
+        // Drop anything looked up before seeding completed so the registry reflects the seeded state
+        jackpotRegistry.invalidateAll();
     }
 }
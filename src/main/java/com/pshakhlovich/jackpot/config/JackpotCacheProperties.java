@@ -0,0 +1,35 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jackpot.cache")
+public record JackpotCacheProperties(@DefaultValue Registry registry, @DefaultValue Evaluations evaluations) {
+
+    /**
+     * Sizing of the in-memory jackpot registry used on the bet publishing path.
+     *
+     * @param maximumSize the maximum number of jackpot configurations kept in memory
+     * @param refreshAfterWrite how long an entry is served before it is reloaded in the background
+     * @param expireAfterWrite how long an entry may be served at most without a successful reload
+     * @param unknownExpireAfterWrite how long a lookup of an unknown jackpot is answered without the database
+     */
+    public record Registry(
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("30s") Duration refreshAfterWrite,
+            @DefaultValue("5m") Duration expireAfterWrite,
+            @DefaultValue("10s") Duration unknownExpireAfterWrite) {
+    }
+
+    /**
+     * Sizing of the in-memory cache of recorded evaluation outcomes.
+     *
+     * @param maximumSize the maximum number of outcomes kept in memory
+     * @param expireAfterAccess how long an outcome is kept after it was last requested
+     */
+    public record Evaluations(
+            @DefaultValue("100000") long maximumSize,
+            @DefaultValue("10m") Duration expireAfterAccess) {
+    }
+}
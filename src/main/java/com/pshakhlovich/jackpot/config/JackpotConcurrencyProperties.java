@@ -0,0 +1,37 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of optimistic jackpot updates.
+ *
+ * @param retry how operations that lost a race on an optimistic jackpot are repeated
+ */
+@ConfigurationProperties(prefix = "jackpot.concurrency")
+public record JackpotConcurrencyProperties(@DefaultValue Retry retry) {
+
+    /**
+     * Retry policy for optimistic conflicts.
+     * <p>
+     * Each retry waits a random time between zero and an exponentially growing bound, so that
+     * operations that conflicted once do not collide again in lockstep.
+     * </p>
+     *
+     * @param maxAttempts how many times an operation is attempted before its conflict is reported
+     * @param initialBackoff the upper bound of the wait before the first retry
+     * @param maxBackoff the cap of the upper bound as it doubles with every retry
+     */
+    public record Retry(
+            @DefaultValue("5") int maxAttempts,
+            @DefaultValue("PT0.005S") Duration initialBackoff,
+            @DefaultValue("PT0.1S") Duration maxBackoff) {
+
+        public Retry {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("jackpot.concurrency.retry.max-attempts must be at least 1");
+            }
+        }
+    }
+}
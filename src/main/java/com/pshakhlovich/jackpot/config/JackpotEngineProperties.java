@@ -0,0 +1,61 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the engine that owns jackpot pools while contributions and evaluations are applied.
+ *
+ * @param mode where the pool of a jackpot is owned
+ * @param streams settings of the Kafka Streams engine, used in {@link Mode#STREAMS} mode only
+ */
+@ConfigurationProperties(prefix = "jackpot.engine")
+public record JackpotEngineProperties(
+        @DefaultValue("DATABASE") Mode mode,
+        @DefaultValue Streams streams) {
+
+    public enum Mode {
+        /**
+         * Every contribution and evaluation locks the jackpot row and writes through in its own transaction.
+         */
+        DATABASE,
+        /**
+         * Each jackpot is owned by an in-memory single writer and changes are written behind in batches.
+         * Only one instance may run in this mode, as pools held by different instances would diverge.
+         */
+        IN_MEMORY,
+        /**
+         * Contributions are computed by a Kafka Streams topology against pools held in partition-local
+         * state stores, and projected into the database by a separate consumer. Instances scale out
+         * with the partitions of the bets topic.
+         */
+        STREAMS
+    }
+
+    /**
+     * @param store the kind of state store that holds pools and applied bets; both are backed by a changelog topic
+     * @param dedupeRetention how long applied bets are remembered to skip bets delivered more than once
+     */
+    public record Streams(
+            @DefaultValue("ROCKS_DB") StoreType store,
+            @DefaultValue("PT24H") Duration dedupeRetention) {
+
+        public Streams {
+            if (dedupeRetention.isNegative() || dedupeRetention.isZero()) {
+                throw new IllegalArgumentException("jackpot.engine.streams.dedupe-retention must be positive");
+            }
+        }
+    }
+
+    public enum StoreType {
+        /**
+         * State is kept on local disk, so a restarted instance only restores what changed since its last checkpoint.
+         */
+        ROCKS_DB,
+        /**
+         * State is kept on the heap and fully restored from the changelog on every start.
+         */
+        IN_MEMORY
+    }
+}
@@ -0,0 +1,33 @@
+package com.pshakhlovich.jackpot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the in-memory pool snapshots served by the jackpots API.
+ *
+ * @param refreshInterval how often snapshots are reconciled with the database; this bounds how long
+ *                        a change committed outside this instance can go unnoticed
+ * @param stream settings of the live pool stream
+ */
+@ConfigurationProperties(prefix = "jackpot.pools")
+public record JackpotPoolProperties(
+        @DefaultValue("PT5S") Duration refreshInterval,
+        @DefaultValue Stream stream) {
+
+    /**
+     * Settings of the server-sent event stream of pool changes.
+     *
+     * @param interval how often pending changes are pushed; each jackpot produces at most one event per interval
+     * @param heartbeat how often an idle subscriber receives a keep-alive comment
+     * @param timeout how long a subscription stays open before the client has to reconnect
+     * @param sendTimeout how long a write to one subscriber may block before the subscriber is dropped
+     */
+    public record Stream(
+            @DefaultValue("PT0.2S") Duration interval,
+            @DefaultValue("PT15S") Duration heartbeat,
+            @DefaultValue("PT30M") Duration timeout,
+            @DefaultValue("PT5S") Duration sendTimeout) {
+    }
+}
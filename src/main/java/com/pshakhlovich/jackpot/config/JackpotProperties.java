@@ -1,6 +1,8 @@
 package com.pshakhlovich.jackpot.config;
 
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import java.math.BigDecimal;
 import java.util.Collections;
@@ -23,20 +25,50 @@ public record JackpotProperties(List<JackpotProfileProperties> profiles) {
             ContributionStrategyType contributionStrategy,
             RewardStrategyType rewardStrategy,
             Contribution contribution,
-            Reward reward) {
+            Reward reward,
+            Integer poolStripes,
+            ConcurrencyMode concurrencyMode) {
+
+        /**
+         * Builds a new jackpot from this profile, with its pool at the initial pool.
+         */
+        public Jackpot toJackpot() {
+            return Jackpot.builder()
+                    .id(id)
+                    .name(name)
+                    .initialPool(initialPool)
+                    .currentPool(initialPool)
+                    .contributionStrategy(contributionStrategy)
+                    .rewardStrategy(rewardStrategy)
+                    .contributionRate(contribution != null ? contribution.rate() : null)
+                    .minContributionRate(contribution != null ? contribution.minRate() : null)
+                    .decayThreshold(contribution != null ? contribution.decayThreshold() : null)
+                    .decaySlope(contribution != null ? contribution.decaySlope() : null)
+                    .rewardBaseProbability(reward != null ? reward.baseProbability() : null)
+                    .rewardMaxProbability(reward != null ? reward.maxProbability() : null)
+                    .rewardRampRate(reward != null ? reward.rampRate() : null)
+                    .rewardCap(reward != null ? reward.cap() : null)
+                    .contributionFormula(contribution != null ? contribution.formula() : null)
+                    .rewardFormula(reward != null ? reward.formula() : null)
+                    .poolStripes(poolStripes != null ? poolStripes : 1)
+                    .concurrencyMode(concurrencyMode != null ? concurrencyMode : ConcurrencyMode.PESSIMISTIC)
+                    .build();
+        }
     }
 
     public record Contribution(
             BigDecimal rate,
             BigDecimal minRate,
             BigDecimal decayThreshold,
-            BigDecimal decaySlope) {
+            BigDecimal decaySlope,
+            String formula) {
     }
 
     public record Reward(
             BigDecimal baseProbability,
             BigDecimal maxProbability,
             BigDecimal rampRate,
-            BigDecimal cap) {
+            BigDecimal cap,
+            String formula) {
     }
 }
@@ -1,19 +1,29 @@
 package com.pshakhlovich.jackpot.config;
 
 import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.messaging.BetRetryListener;
+import com.pshakhlovich.jackpot.messaging.BetRetryRouter;
+import com.pshakhlovich.jackpot.messaging.ConsumerOffsetStore;
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
@@ -22,6 +32,7 @@ import org.springframework.util.backoff.FixedBackOff;
 public class KafkaConsumerConfig {
 
     @Bean
+    @Primary
     public ConsumerFactory<String, Bet> betConsumerFactory(KafkaProperties kafkaProperties) {
         Map<String, Object> props = kafkaProperties.buildConsumerProperties();
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
@@ -32,15 +43,88 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Consumer for re-driving the dead-letter topic; values are forwarded as they were written.
+     */
     @Bean
-    public CommonErrorHandler kafkaErrorHandler() {
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 3L));
-        errorHandler.setAckAfterHandle(false);
-        return errorHandler;
+    public ConsumerFactory<String, byte[]> deadLetterConsumerFactory(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * Forwards a failed bet to the next retry topic or the dead-letter topic chosen by {@link BetRetryRouter}.
+     * Records that failed to deserialize are forwarded with their original bytes.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer betRecoverer(
+            @Qualifier(KafkaProducerConfig.ASYNC_BET_TEMPLATE) KafkaTemplate<String, Bet> betAsyncKafkaTemplate,
+            KafkaTemplate<String, byte[]> rawBetKafkaTemplate,
+            BetRetryRouter retryRouter) {
+
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(Bet.class, betAsyncKafkaTemplate);
+        templates.put(byte[].class, rawBetKafkaTemplate);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates, retryRouter::destination);
+        recoverer.setHeadersFunction(retryRouter::headers);
+        return recoverer;
+    }
+
+    /**
+     * Failed bets are forwarded at once instead of being retried in place, so a bad bet never
+     * holds up the rest of its partition.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer betRecoverer) {
+        return new DefaultErrorHandler(betRecoverer, new FixedBackOff(0L, 0L));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Bet> betListenerContainerFactory(
+            ConsumerFactory<String, Bet> betConsumerFactory,
+            CommonErrorHandler kafkaErrorHandler,
+            BetConsumerProperties consumerProperties,
+            JackpotEngineProperties engineProperties,
+            ConsumerOffsetStore offsetStore) {
+
+        ConcurrentKafkaListenerContainerFactory<String, Bet> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(betConsumerFactory);
+        switch (consumerProperties.mode()) {
+            case RECORD -> factory.getContainerProperties().setAckMode(AckMode.RECORD);
+            case BATCH -> {
+                factory.setBatchListener(true);
+                factory.getContainerProperties().setAckMode(AckMode.BATCH);
+            }
+            case PARALLEL -> {
+                // Acknowledgments arrive out of order from worker threads; the container commits up to
+                // the first gap and pauses the consumer until every record of the last poll is acknowledged
+                factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+                factory.getContainerProperties().setAsyncAcks(true);
+            }
+        }
+        if (offsetStore.isEnabled()) {
+            // The database holds the position; Kafka commits are kept only for lag monitoring
+            factory.getContainerProperties().setAckMode(AckMode.TIME);
+            factory.getContainerProperties().setAckTime(consumerProperties.kafkaCommitInterval().toMillis());
+            factory.getContainerProperties().setConsumerRebalanceListener(offsetStore);
+        }
+        factory.getContainerProperties().setObservationEnabled(true);
+        factory.setCommonErrorHandler(kafkaErrorHandler);
+        factory.setConcurrency(consumerProperties.concurrency());
+        // The Kafka Streams engine consumes the bets itself, in the same group
+        factory.setAutoStartup(engineProperties.mode() != JackpotEngineProperties.Mode.STREAMS);
+        return factory;
+    }
+
+    /**
+     * Record listener containers for the retry topics, one per topic, created by {@link BetRetryListener}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Bet> betRetryListenerContainerFactory(
             ConsumerFactory<String, Bet> betConsumerFactory,
             CommonErrorHandler kafkaErrorHandler) {
 
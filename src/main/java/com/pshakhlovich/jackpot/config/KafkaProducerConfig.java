@@ -1,14 +1,18 @@
 package com.pshakhlovich.jackpot.config;
 
 import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.avro.PoolAdjustment;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
 import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import io.confluent.kafka.serializers.subject.TopicRecordNameStrategy;
+import java.util.Map;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -16,28 +20,94 @@ import org.springframework.kafka.core.ProducerFactory;
 @Configuration
 public class KafkaProducerConfig {
 
+    public static final String ASYNC_BET_TEMPLATE = "betAsyncKafkaTemplate";
+
     private static final String DEFAULT_TRANSACTION_ID = "jackpot-producer";
+    private static final String RAW_TRANSACTION_ID_SUFFIX = "-raw";
 
     @Bean
+    @Primary
     public ProducerFactory<String, Bet> betProducerFactory(KafkaProperties kafkaProperties) {
-        var props = kafkaProperties.buildProducerProperties();
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        var props = producerProperties(kafkaProperties);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class);
-        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        props.put(ProducerConfig.ACKS_CONFIG, "all");
-        props.put(ProducerConfig.RETRIES_CONFIG, 3);
         props.put(AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, TopicRecordNameStrategy.class);
         DefaultKafkaProducerFactory<String, Bet> factory = new DefaultKafkaProducerFactory<>(props);
         // Set transaction ID prefix from application.yml to enable transactional support
-        String transactionIdPrefix = kafkaProperties.getProducer().getTransactionIdPrefix();
-        factory.setTransactionIdPrefix(transactionIdPrefix != null ? transactionIdPrefix : DEFAULT_TRANSACTION_ID);
+        factory.setTransactionIdPrefix(transactionIdPrefix(kafkaProperties));
+        return factory;
+    }
+
+    /**
+     * Producer factory for bets that arrive already Avro-encoded and are framed without re-serialization.
+     * <p>
+     * Uses its own transaction id prefix so its transactional producers never fence those of
+     * {@link #betProducerFactory(KafkaProperties)}.
+     * </p>
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> rawBetProducerFactory(KafkaProperties kafkaProperties) {
+        var props = producerProperties(kafkaProperties);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.setTransactionIdPrefix(transactionIdPrefix(kafkaProperties) + RAW_TRANSACTION_ID_SUFFIX);
         return factory;
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Bet> betKafkaTemplate(ProducerFactory<String, Bet> betProducerFactory) {
         KafkaTemplate<String, Bet> template = new KafkaTemplate<>(betProducerFactory);
         template.setObservationEnabled(true);
         return template;
     }
+
+    /**
+     * Template for sends that complete asynchronously on broker acknowledgement.
+     * <p>
+     * Outside a transaction it uses the factory's shared non-transactional producer, which
+     * is still idempotent with {@code acks=all}, so callers are not blocked by a transaction commit.
+     * </p>
+     */
+    @Bean(ASYNC_BET_TEMPLATE)
+    public KafkaTemplate<String, Bet> betAsyncKafkaTemplate(ProducerFactory<String, Bet> betProducerFactory) {
+        KafkaTemplate<String, Bet> template = new KafkaTemplate<>(betProducerFactory);
+        template.setObservationEnabled(true);
+        template.setAllowNonTransactional(true);
+        return template;
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> rawBetKafkaTemplate(ProducerFactory<String, byte[]> rawBetProducerFactory) {
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(rawBetProducerFactory);
+        template.setObservationEnabled(true);
+        return template;
+    }
+
+    /**
+     * Template for pool adjustments, sent without a producer transaction once the database transaction
+     * that changed the pool has committed.
+     */
+    @Bean
+    public KafkaTemplate<String, PoolAdjustment> poolAdjustmentKafkaTemplate(KafkaProperties kafkaProperties) {
+        var props = producerProperties(kafkaProperties);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class);
+        props.put(AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, TopicRecordNameStrategy.class);
+        KafkaTemplate<String, PoolAdjustment> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        template.setObservationEnabled(true);
+        return template;
+    }
+
+    private Map<String, Object> producerProperties(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildProducerProperties();
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+        return props;
+    }
+
+    private String transactionIdPrefix(KafkaProperties kafkaProperties) {
+        String transactionIdPrefix = kafkaProperties.getProducer().getTransactionIdPrefix();
+        return transactionIdPrefix != null ? transactionIdPrefix : DEFAULT_TRANSACTION_ID;
+    }
 }
@@ -0,0 +1,180 @@
+package com.pshakhlovich.jackpot.config;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.avro.ContributionEvent;
+import com.pshakhlovich.jackpot.avro.PoolAdjustment;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.messaging.BetContributionProcessor;
+import com.pshakhlovich.jackpot.messaging.PoolAdjustmentProcessor;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.JackpotRegistry;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.subject.TopicRecordNameStrategy;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import java.time.Duration;
+import java.util.Map;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowBytesStoreSupplier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Kafka Streams engine, enabled with {@code jackpot.engine.mode=STREAMS}.
+ * <p>
+ * Bets are consumed by a topology that keeps the pool of every jackpot in a state store of the task
+ * owning its partition, backed by a changelog topic, and emits one {@link ContributionEvent} per bet.
+ * The events are projected into the database by {@code ContributionEventListener}; the bet listeners
+ * stay stopped. Bets for unknown jackpots go straight to the dead-letter topic.
+ * </p>
+ * <p>
+ * The application id is the bet consumer group, so the engine resumes from the offsets the bet listeners
+ * committed and lag monitoring keeps working. The topology is configured through {@code spring.kafka.streams}.
+ * </p>
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(prefix = "jackpot.engine", name = "mode", havingValue = "STREAMS")
+public class KafkaStreamsConfig {
+
+    static final String PROJECTION_GROUP_ID_SUFFIX = "-projection";
+
+    private static final Duration PROJECTION_RETRY_INTERVAL = Duration.ofSeconds(1);
+
+    @Bean
+    public NewTopic jackpotContributionsTopic() {
+        return TopicBuilder.name(KafkaTopicsConfig.CONTRIBUTIONS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Must have as many partitions as the bets topic, as both feed the same pool stores.
+     */
+    @Bean
+    public NewTopic jackpotPoolAdjustmentsTopic() {
+        return TopicBuilder.name(KafkaTopicsConfig.POOL_ADJUSTMENTS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public KStream<String, ContributionEvent> contributionStream(StreamsBuilder streamsBuilder,
+                                                                 KafkaProperties kafkaProperties,
+                                                                 JackpotEngineProperties engineProperties,
+                                                                 JackpotRegistry jackpotRegistry,
+                                                                 StrategyRegistry strategyRegistry,
+                                                                 JackpotRepository jackpotRepository) {
+        JackpotEngineProperties.Streams settings = engineProperties.streams();
+        SpecificAvroSerde<Bet> betSerde = avroSerde(kafkaProperties);
+        SpecificAvroSerde<ContributionEvent> contributionSerde = avroSerde(kafkaProperties);
+        SpecificAvroSerde<PoolAdjustment> adjustmentSerde = avroSerde(kafkaProperties);
+
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(poolStore(settings), Serdes.String(), Serdes.Long()));
+        streamsBuilder.addStateStore(Stores.windowStoreBuilder(appliedBetStore(settings), Serdes.String(), Serdes.Long()));
+
+        KStream<String, Bet> bets = streamsBuilder.stream(KafkaTopicsConfig.BETS_TOPIC, Consumed.with(Serdes.String(), betSerde));
+        bets.filterNot((jackpotId, bet) -> jackpotRegistry.find(bet.getJackpotId()).isPresent())
+                .to(KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC, Produced.with(Serdes.String(), betSerde));
+
+        KStream<String, ContributionEvent> contributions = bets
+                .filter((jackpotId, bet) -> jackpotRegistry.find(bet.getJackpotId()).isPresent())
+                .process(() -> new BetContributionProcessor(jackpotRegistry, strategyRegistry, jackpotRepository,
+                                settings.dedupeRetention()),
+                        BetContributionProcessor.POOLS_STORE, BetContributionProcessor.APPLIED_BETS_STORE);
+        contributions.to(KafkaTopicsConfig.CONTRIBUTIONS_TOPIC, Produced.with(Serdes.String(), contributionSerde));
+
+        streamsBuilder.stream(KafkaTopicsConfig.POOL_ADJUSTMENTS_TOPIC, Consumed.with(Serdes.String(), adjustmentSerde))
+                .process(PoolAdjustmentProcessor::new, BetContributionProcessor.POOLS_STORE);
+        return contributions;
+    }
+
+    /**
+     * A stream thread that fails is replaced; with exactly-once processing its uncommitted work is redone by the new one.
+     */
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer streamThreadReplacement() {
+        return factoryBean -> factoryBean.setStreamsUncaughtExceptionHandler(ex -> StreamThreadExceptionResponse.REPLACE_THREAD);
+    }
+
+    /**
+     * Consumes contribution events in batches, reading only those of committed stream transactions.
+     * <p>
+     * A batch that fails to project is retried until it succeeds: its contributions are already part
+     * of the pools held by the topology.
+     * </p>
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ContributionEvent> contributionEventListenerContainerFactory(
+            KafkaProperties kafkaProperties,
+            BetConsumerProperties consumerProperties) {
+
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, kafkaProperties.getConsumer().getGroupId() + PROJECTION_GROUP_ID_SUFFIX);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, KafkaAvroDeserializer.class);
+        props.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        ConcurrentKafkaListenerContainerFactory<String, ContributionEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
+        factory.getContainerProperties().setObservationEnabled(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(PROJECTION_RETRY_INTERVAL.toMillis(), FixedBackOff.UNLIMITED_ATTEMPTS)));
+        factory.setConcurrency(consumerProperties.concurrency());
+        return factory;
+    }
+
+    private KeyValueBytesStoreSupplier poolStore(JackpotEngineProperties.Streams settings) {
+        return switch (settings.store()) {
+            case ROCKS_DB -> Stores.persistentKeyValueStore(BetContributionProcessor.POOLS_STORE);
+            case IN_MEMORY -> Stores.inMemoryKeyValueStore(BetContributionProcessor.POOLS_STORE);
+        };
+    }
+
+    // Segments older than the retention are dropped whole, so remembered bets never need purging one by one
+    private WindowBytesStoreSupplier appliedBetStore(JackpotEngineProperties.Streams settings) {
+        Duration retention = settings.dedupeRetention();
+        return switch (settings.store()) {
+            case ROCKS_DB -> Stores.persistentWindowStore(BetContributionProcessor.APPLIED_BETS_STORE, retention, retention, false);
+            case IN_MEMORY -> Stores.inMemoryWindowStore(BetContributionProcessor.APPLIED_BETS_STORE, retention, retention, false);
+        };
+    }
+
+    private <T extends SpecificRecord> SpecificAvroSerde<T> avroSerde(KafkaProperties kafkaProperties) {
+        Map<String, Object> config = kafkaProperties.buildStreamsProperties();
+        config.put(AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, TopicRecordNameStrategy.class);
+        SpecificAvroSerde<T> serde = new SpecificAvroSerde<>();
+        serde.configure(config, false);
+        return serde;
+    }
+}
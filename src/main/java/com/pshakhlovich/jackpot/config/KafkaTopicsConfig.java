@@ -1,14 +1,33 @@
 package com.pshakhlovich.jackpot.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
 
 @Configuration
 public class KafkaTopicsConfig {
 
     public static final String BETS_TOPIC = "jackpot-bets";
+    public static final String BETS_DEAD_LETTER_TOPIC = BETS_TOPIC + "-dlt";
+    /**
+     * Contributions computed by the Kafka Streams engine, keyed by jackpot.
+     */
+    public static final String CONTRIBUTIONS_TOPIC = "jackpot-contributions";
+    /**
+     * Pool changes made outside the Kafka Streams engine, keyed by jackpot; co-partitioned with {@link #BETS_TOPIC}.
+     */
+    public static final String POOL_ADJUSTMENTS_TOPIC = "jackpot-pool-adjustments";
+
+    /**
+     * Name of the retry topic for the given attempt, starting from {@code 0}.
+     */
+    public static String betsRetryTopic(int tier) {
+        return BETS_TOPIC + "-retry-" + tier;
+    }
 
     @Bean
     public NewTopic jackpotBetsTopic() {
@@ -17,4 +36,20 @@ public class KafkaTopicsConfig {
                 .replicas(1)
                 .build();
     }
+
+    @Bean
+    public KafkaAdmin.NewTopics jackpotBetsRetryTopics(BetConsumerProperties consumerProperties) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (int tier = 0; tier < consumerProperties.retry().delays().size(); tier++) {
+            topics.add(TopicBuilder.name(betsRetryTopic(tier))
+                    .partitions(3)
+                    .replicas(1)
+                    .build());
+        }
+        topics.add(TopicBuilder.name(BETS_DEAD_LETTER_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
 }
@@ -0,0 +1,21 @@
+package com.pshakhlovich.jackpot.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class TransactionConfig {
+
+    /**
+     * Programmatic counterpart of {@code @Transactional("transactionManager")} for services that
+     * do work outside the database transaction, such as answering from memory before opening one
+     * or publishing state once it has committed.
+     */
+    @Bean
+    public TransactionTemplate transactionTemplate(@Qualifier("transactionManager") PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+}
@@ -0,0 +1,30 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+/**
+ * Defines how concurrent contributions and evaluations of a jackpot are kept from overwriting each other.
+ * <p>
+ * Applies to the {@code DATABASE} engine; the in-memory engine serializes all operations on a jackpot itself.
+ * </p>
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * The jackpot row is locked for the whole transaction.
+     * <p>
+     * Concurrent operations wait for each other and never have to be repeated. Suits jackpots
+     * where conflicting operations are common.
+     * </p>
+     */
+    PESSIMISTIC,
+
+    /**
+     * The jackpot row is read without a lock and its version is checked at commit.
+     * <p>
+     * No connection waits for a lock; an operation that lost a race with a concurrent writer is
+     * rolled back and retried with backoff. Suits jackpots where conflicting operations are rare.
+     * </p>
+     *
+     * @see com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties
+     */
+    OPTIMISTIC
+}
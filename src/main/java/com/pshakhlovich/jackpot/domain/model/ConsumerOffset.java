@@ -0,0 +1,70 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Position of a consumer group in a topic partition, stored alongside the data it produced.
+ * <p>
+ * Written in the same transaction as the contributions of the consumed records, so the stored
+ * position always matches what has been applied. On partition assignment the consumer resumes
+ * from here instead of from the offset committed to Kafka.
+ * </p>
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "consumer_offset")
+public class ConsumerOffset {
+
+    @EmbeddedId
+    private Key key;
+
+    /**
+     * Offset of the next record to consume, i.e. one past the last applied record.
+     */
+    @Column(name = "next_offset", nullable = false)
+    private long nextOffset;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void onWrite() {
+        updatedAt = Instant.now();
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "group_id", nullable = false)
+        private String groupId;
+
+        @Column(name = "topic", nullable = false)
+        private String topic;
+
+        @Column(name = "partition_id", nullable = false)
+        private int partition;
+    }
+}
@@ -30,5 +30,16 @@ public enum ContributionStrategyType {
      *
      * @see com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy
      */
-    VARIABLE_DECAY
+    VARIABLE_DECAY,
+
+    /**
+     * Formula contribution strategy.
+     * <p>
+     * Applies the rate given by a formula stored with the jackpot, over the pool, the bet amount
+     * and the jackpot's configuration parameters. New contribution curves need no new code.
+     * </p>
+     *
+     * @see com.pshakhlovich.jackpot.domain.strategy.contribution.FormulaContributionStrategy
+     */
+    FORMULA
 }
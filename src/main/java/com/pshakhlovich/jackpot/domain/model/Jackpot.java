@@ -8,6 +8,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.Instant;
 import lombok.AllArgsConstructor;
@@ -46,7 +47,7 @@ import lombok.Setter;
  */
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -74,20 +75,21 @@ public class Jackpot {
      * <p>
      * This provides a guaranteed minimum pool for the next winner and ensures
      * the jackpot remains attractive even after a payout.
+     * Held in minor units; see {@link Money}.
      * </p>
      */
-    @Column(name = "initial_pool", nullable = false, precision = 19, scale = 2)
-    private BigDecimal initialPool;
+    @Column(name = "initial_pool_minor", nullable = false)
+    private long initialPoolMinor;
 
     /**
      * The current accumulated pool value.
      * <p>
-     * This value increases with each bet contribution and resets to {@link #initialPool}
-     * when the jackpot is won.
+     * This value increases with each bet contribution and resets to {@link #initialPoolMinor}
+     * when the jackpot is won. Held in minor units; see {@link Money}.
      * </p>
      */
-    @Column(name = "current_pool", nullable = false, precision = 19, scale = 2)
-    private BigDecimal currentPool;
+    @Column(name = "current_pool_minor", nullable = false)
+    private long currentPoolMinor;
 
     /**
      * The strategy used to calculate contribution amounts from bet amounts.
@@ -110,13 +112,13 @@ public class Jackpot {
     // === Contribution Strategy Configuration Fields ===
 
     /**
-     * The base/fixed contribution rate as a decimal (e.g., 0.05 for 5%).
+     * The base/fixed contribution rate in parts per million (e.g., 50000 for 5%).
      * <p>
      * <strong>Required for:</strong> FIXED_RATE, VARIABLE_DECAY
      * </p>
      */
-    @Column(name = "contribution_rate", precision = 8, scale = 6)
-    private BigDecimal contributionRate;
+    @Column(name = "contribution_rate_ppm")
+    private Long contributionRatePpm;
 
     /**
      * The minimum contribution rate for variable strategies (floor).
@@ -124,17 +126,17 @@ public class Jackpot {
      * <strong>Required for:</strong> VARIABLE_DECAY
      * </p>
      */
-    @Column(name = "min_contribution_rate", precision = 8, scale = 6)
-    private BigDecimal minContributionRate;
+    @Column(name = "min_contribution_rate_ppm")
+    private Long minContributionRatePpm;
 
     /**
-     * The pool size threshold at which variable contribution reaches minimum rate.
+     * The pool size, in minor units, at which variable contribution reaches minimum rate.
      * <p>
      * <strong>Required for:</strong> VARIABLE_DECAY
      * </p>
      */
-    @Column(name = "decay_threshold", precision = 19, scale = 2)
-    private BigDecimal decayThreshold;
+    @Column(name = "decay_threshold_minor")
+    private Long decayThresholdMinor;
 
     /**
      * How much the contribution rate decreases per unit of pool ratio.
@@ -143,28 +145,28 @@ public class Jackpot {
      * <strong>Required for:</strong> VARIABLE_DECAY
      * </p>
      */
-    @Column(name = "decay_slope", precision = 8, scale = 6)
-    private BigDecimal decaySlope;
+    @Column(name = "decay_slope_ppm")
+    private Long decaySlopePpm;
 
     // === Reward Strategy Configuration Fields ===
 
     /**
-     * The base/minimum probability of winning the jackpot (e.g., 0.01 for 1%).
+     * The base/minimum probability of winning the jackpot in parts per million (e.g., 10000 for 1%).
      * <p>
      * <strong>Required for:</strong> FIXED, VARIABLE_RAMP
      * </p>
      */
-    @Column(name = "reward_base_probability", precision = 8, scale = 6)
-    private BigDecimal rewardBaseProbability;
+    @Column(name = "reward_base_probability_ppm")
+    private Long rewardBaseProbabilityPpm;
 
     /**
-     * The maximum probability ceiling (e.g., 1.0 for 100%).
+     * The maximum probability ceiling in parts per million (e.g., 1000000 for 100%).
      * <p>
      * <strong>Required for:</strong> VARIABLE_RAMP
      * </p>
      */
-    @Column(name = "reward_max_probability", precision = 8, scale = 6)
-    private BigDecimal rewardMaxProbability;
+    @Column(name = "reward_max_probability_ppm")
+    private Long rewardMaxProbabilityPpm;
 
     /**
      * How much the probability increases per unit of pool ratio.
@@ -173,18 +175,75 @@ public class Jackpot {
      * <strong>Required for:</strong> VARIABLE_RAMP
      * </p>
      */
-    @Column(name = "reward_ramp_rate", precision = 8, scale = 6)
-    private BigDecimal rewardRampRate;
+    @Column(name = "reward_ramp_rate_ppm")
+    private Long rewardRampRatePpm;
 
     /**
-     * The maximum payout amount (caps the pool value for payouts).
+     * The maximum payout amount in minor units (caps the pool value for payouts).
      * <p>
      * Also used as the threshold for variable probability calculation in VARIABLE_RAMP.
-     * <strong>Required for:</strong> FIXED, VARIABLE_RAMP
+     * <strong>Required for:</strong> FIXED, VARIABLE_RAMP; optional for FORMULA
+     * </p>
+     */
+    @Column(name = "reward_cap_minor")
+    private Long rewardCapMinor;
+
+    // === Formula Strategy Configuration Fields ===
+
+    /**
+     * The formula giving the contribution rate, over {@code pool}, {@code bet} and the configuration parameters.
+     * <p>
+     * <strong>Required for:</strong> FORMULA contribution
+     * </p>
+     *
+     * @see com.pshakhlovich.jackpot.domain.strategy.formula.FormulaCompiler
+     */
+    @Column(name = "contribution_formula", length = 1024)
+    private String contributionFormula;
+
+    /**
+     * The formula giving the probability of winning, over {@code pool} and the configuration parameters.
+     * <p>
+     * <strong>Required for:</strong> FORMULA reward
+     * </p>
+     *
+     * @see com.pshakhlovich.jackpot.domain.strategy.formula.FormulaCompiler
+     */
+    @Column(name = "reward_formula", length = 1024)
+    private String rewardFormula;
+
+    /**
+     * Number of sub-pools contributions are spread over.
+     * <p>
+     * With more than one stripe, contributions are added to a {@link JackpotPoolStripe} chosen by bet
+     * instead of to {@link #currentPoolMinor}, without locking this row. The stripes are folded back into
+     * {@link #currentPoolMinor} whenever the row is locked, so evaluations see, and a win resets, the whole pool.
+     * </p>
+     */
+    @Builder.Default
+    @Column(name = "pool_stripes", nullable = false)
+    private int poolStripes = 1;
+
+    /**
+     * How concurrent operations on this jackpot are kept apart.
+     *
+     * @see ConcurrencyMode
+     */
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "concurrency_mode", nullable = false, length = 16)
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.PESSIMISTIC;
+
+    /**
+     * Incremented on every update; an update based on an outdated version fails.
+     * <p>
+     * This is what detects conflicts of {@link ConcurrencyMode#OPTIMISTIC} jackpots. Under a row lock
+     * the check always passes.
      * </p>
      */
-    @Column(name = "reward_cap", precision = 19, scale = 2)
-    private BigDecimal rewardCap;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 
     /**
      * Timestamp when this jackpot was first created.
@@ -212,12 +271,12 @@ public class Jackpot {
      * with pessimistic locking to prevent race conditions.
      * </p>
      *
-     * @param delta the amount to add to the pool (must be non-negative)
-     * @return the new pool value after increase
+     * @param delta the amount to add to the pool in minor units (must be non-negative)
+     * @return the new pool value after increase, in minor units
      */
-    public BigDecimal increasePool(BigDecimal delta) {
-        currentPool = currentPool.add(delta);
-        return currentPool;
+    public long increasePool(long delta) {
+        currentPoolMinor += delta;
+        return currentPoolMinor;
     }
 
     /**
@@ -228,7 +287,28 @@ public class Jackpot {
      * </p>
      */
     public void resetPoolToInitial() {
-        currentPool = initialPool;
+        currentPoolMinor = initialPoolMinor;
+    }
+
+    /**
+     * Returns the initial pool as an amount, for callers outside the strategy path.
+     */
+    public BigDecimal getInitialPool() {
+        return Money.toDecimal(initialPoolMinor);
+    }
+
+    /**
+     * Returns the current pool as an amount, for callers outside the strategy path.
+     */
+    public BigDecimal getCurrentPool() {
+        return Money.toDecimal(currentPoolMinor);
+    }
+
+    /**
+     * Sets the current pool from an amount, rounded half-up to minor units.
+     */
+    public void setCurrentPool(BigDecimal currentPool) {
+        currentPoolMinor = Money.ofDecimal(currentPool);
     }
 
     /**
@@ -248,4 +328,59 @@ public class Jackpot {
     void onUpdate() {
         updatedAt = Instant.now();
     }
+
+    /**
+     * Accepts amounts and rates as decimals, as they are configured, alongside the minor units and
+     * parts per million the jackpot holds them in.
+     */
+    public static class JackpotBuilder {
+
+        public JackpotBuilder initialPool(BigDecimal initialPool) {
+            return initialPoolMinor(Money.ofDecimal(initialPool));
+        }
+
+        public JackpotBuilder currentPool(BigDecimal currentPool) {
+            return currentPoolMinor(Money.ofDecimal(currentPool));
+        }
+
+        public JackpotBuilder contributionRate(BigDecimal contributionRate) {
+            return contributionRatePpm(ppm(contributionRate));
+        }
+
+        public JackpotBuilder minContributionRate(BigDecimal minContributionRate) {
+            return minContributionRatePpm(ppm(minContributionRate));
+        }
+
+        public JackpotBuilder decayThreshold(BigDecimal decayThreshold) {
+            return decayThresholdMinor(minor(decayThreshold));
+        }
+
+        public JackpotBuilder decaySlope(BigDecimal decaySlope) {
+            return decaySlopePpm(ppm(decaySlope));
+        }
+
+        public JackpotBuilder rewardBaseProbability(BigDecimal rewardBaseProbability) {
+            return rewardBaseProbabilityPpm(ppm(rewardBaseProbability));
+        }
+
+        public JackpotBuilder rewardMaxProbability(BigDecimal rewardMaxProbability) {
+            return rewardMaxProbabilityPpm(ppm(rewardMaxProbability));
+        }
+
+        public JackpotBuilder rewardRampRate(BigDecimal rewardRampRate) {
+            return rewardRampRatePpm(ppm(rewardRampRate));
+        }
+
+        public JackpotBuilder rewardCap(BigDecimal rewardCap) {
+            return rewardCapMinor(minor(rewardCap));
+        }
+
+        private static Long minor(BigDecimal amount) {
+            return amount != null ? Money.ofDecimal(amount) : null;
+        }
+
+        private static Long ppm(BigDecimal rate) {
+            return rate != null ? Money.ppmOf(rate) : null;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+/**
+ * Immutable view of a jackpot's configuration, detached from the persistence context.
+ * <p>
+ * Unlike {@link Jackpot}, this record carries no pool state and can be safely shared
+ * between threads and cached. It changes only when the jackpot itself is reconfigured.
+ * Amounts are in minor units and rates in parts per million, as the jackpot holds them; see {@link Money}.
+ * </p>
+ *
+ * @see Jackpot
+ */
+public record JackpotConfig(
+        String id,
+        String name,
+        long initialPoolMinor,
+        ContributionStrategyType contributionStrategy,
+        RewardStrategyType rewardStrategy,
+        Long contributionRatePpm,
+        Long minContributionRatePpm,
+        Long decayThresholdMinor,
+        Long decaySlopePpm,
+        Long rewardBaseProbabilityPpm,
+        Long rewardMaxProbabilityPpm,
+        Long rewardRampRatePpm,
+        Long rewardCapMinor,
+        String contributionFormula,
+        String rewardFormula,
+        int poolStripes,
+        ConcurrencyMode concurrencyMode
+) {
+
+    /**
+     * Returns whether contributions are spread over stripes instead of locking the jackpot.
+     */
+    public boolean striped() {
+        return poolStripes > 1;
+    }
+
+    /**
+     * Builds a jackpot with this configuration and the given pool, detached from the persistence context.
+     * <p>
+     * For strategies that need a jackpot where the row itself is not loaded; changes to it are never written.
+     * </p>
+     *
+     * @param currentPoolMinor the pool the jackpot holds, in minor units
+     * @return the detached jackpot
+     */
+    public Jackpot detached(long currentPoolMinor) {
+        return Jackpot.builder()
+                .id(id)
+                .name(name)
+                .initialPoolMinor(initialPoolMinor)
+                .currentPoolMinor(currentPoolMinor)
+                .contributionStrategy(contributionStrategy)
+                .rewardStrategy(rewardStrategy)
+                .contributionRatePpm(contributionRatePpm)
+                .minContributionRatePpm(minContributionRatePpm)
+                .decayThresholdMinor(decayThresholdMinor)
+                .decaySlopePpm(decaySlopePpm)
+                .rewardBaseProbabilityPpm(rewardBaseProbabilityPpm)
+                .rewardMaxProbabilityPpm(rewardMaxProbabilityPpm)
+                .rewardRampRatePpm(rewardRampRatePpm)
+                .rewardCapMinor(rewardCapMinor)
+                .contributionFormula(contributionFormula)
+                .rewardFormula(rewardFormula)
+                .poolStripes(poolStripes)
+                .concurrencyMode(concurrencyMode)
+                .build();
+    }
+
+    /**
+     * Captures the configuration of the given jackpot.
+     *
+     * @param jackpot the jackpot to read configuration from
+     * @return the configuration snapshot
+     */
+    public static JackpotConfig from(Jackpot jackpot) {
+        return new JackpotConfig(
+                jackpot.getId(),
+                jackpot.getName(),
+                jackpot.getInitialPoolMinor(),
+                jackpot.getContributionStrategy(),
+                jackpot.getRewardStrategy(),
+                jackpot.getContributionRatePpm(),
+                jackpot.getMinContributionRatePpm(),
+                jackpot.getDecayThresholdMinor(),
+                jackpot.getDecaySlopePpm(),
+                jackpot.getRewardBaseProbabilityPpm(),
+                jackpot.getRewardMaxProbabilityPpm(),
+                jackpot.getRewardRampRatePpm(),
+                jackpot.getRewardCapMinor(),
+                jackpot.getContributionFormula(),
+                jackpot.getRewardFormula(),
+                jackpot.getPoolStripes(),
+                jackpot.getConcurrencyMode());
+    }
+}
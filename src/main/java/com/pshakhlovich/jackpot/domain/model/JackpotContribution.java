@@ -37,6 +37,10 @@ import lombok.Setter;
  *   <li>Idempotency - Verify if a bet has already contributed (via betId)</li>
  *   <li>History - Reconstruct jackpot pool growth over time</li>
  * </ul>
+ * <p>
+ * <strong>Uniqueness:</strong> a bet contributes to a jackpot at most once, enforced by a unique
+ * constraint on {@code (betId, jackpotId)}.
+ * </p>
  *
  * @see Jackpot
  * @see ContributionStrategyType
@@ -50,6 +54,11 @@ import lombok.Setter;
 @Table(name = "jackpot_contribution")
 public class JackpotContribution {
 
+    /**
+     * Name of the unique constraint on {@code (betId, jackpotId)}.
+     */
+    public static final String UNIQUE_BET_CONSTRAINT = "uq_jackpot_contribution_bet";
+
     /**
      * Unique system-generated identifier for this contribution record.
      */
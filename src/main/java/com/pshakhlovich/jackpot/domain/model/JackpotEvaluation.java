@@ -0,0 +1,130 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Domain entity recording the outcome of evaluating a bet against a jackpot.
+ * <p>
+ * Every evaluation is recorded exactly once, whether it won or lost, and is never
+ * modified afterwards. Repeat evaluations of the same bet return the recorded outcome
+ * instead of drawing again, so the result a player sees is stable even though the
+ * pool keeps changing.
+ * </p>
+ * <p>
+ * <strong>Uniqueness:</strong> at most one evaluation exists per {@code (betId, jackpotId)},
+ * enforced by a unique constraint.
+ * </p>
+ *
+ * @see JackpotReward
+ * @see RewardResult
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jackpot_evaluation")
+public class JackpotEvaluation {
+
+    /**
+     * Name of the unique constraint on {@code (betId, jackpotId)}.
+     */
+    public static final String UNIQUE_BET_CONSTRAINT = "uq_jackpot_evaluation_bet";
+
+    /**
+     * Unique system-generated identifier for this evaluation record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "evaluation_id", nullable = false, updatable = false, length = 36)
+    private UUID id;
+
+    /**
+     * The ID of the evaluated bet.
+     */
+    @Column(name = "bet_id", nullable = false, length = 64)
+    private String betId;
+
+    /**
+     * The jackpot the bet was evaluated against.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "jackpot_id")
+    private Jackpot jackpot;
+
+    /**
+     * Whether the bet won the jackpot.
+     */
+    @Column(name = "win", nullable = false)
+    private boolean win;
+
+    /**
+     * The payout amount, or zero for a losing evaluation.
+     */
+    @Column(name = "payout_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal payoutAmount;
+
+    /**
+     * The jackpot pool immediately after this evaluation.
+     */
+    @Column(name = "post_evaluation_pool", nullable = false, precision = 19, scale = 2)
+    private BigDecimal postEvaluationPool;
+
+    /**
+     * The probability of winning that applied to this evaluation.
+     */
+    @Column(name = "probability", nullable = false, precision = 8, scale = 6)
+    private BigDecimal probability;
+
+    /**
+     * The reward strategy that was used for this evaluation.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "strategy", nullable = false, length = 32)
+    private RewardStrategyType strategy;
+
+    /**
+     * Timestamp when this evaluation was recorded.
+     * <p>
+     * Automatically set when the entity is first persisted.
+     * </p>
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Converts the recorded outcome back into the result returned to callers.
+     */
+    public RewardResult toResult() {
+        return new RewardResult(strategy, Money.ppmOf(probability), Money.ofDecimal(payoutAmount), Money.ofDecimal(postEvaluationPool), win);
+    }
+
+    /**
+     * JPA lifecycle callback that initializes the creation timestamp.
+     */
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One of the sub-pools a striped jackpot's contributions are spread over.
+ * <p>
+ * Contributions add to a single stripe with an atomic update instead of locking the jackpot row,
+ * so bets on a hot jackpot only contend when they hash to the same stripe. The jackpot's pool is
+ * {@link Jackpot#getCurrentPool()} plus the amounts of all its stripes; whoever locks the jackpot
+ * folds the stripes into it first.
+ * </p>
+ *
+ * @see Jackpot#getPoolStripes()
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jackpot_pool_stripe")
+public class JackpotPoolStripe {
+
+    @EmbeddedId
+    private Key key;
+
+    /**
+     * Contributions added to this stripe since the stripes were last folded into the jackpot, in minor units.
+     */
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "jackpot_id", nullable = false)
+        private String jackpotId;
+
+        @Column(name = "stripe", nullable = false)
+        private int stripe;
+    }
+}
@@ -39,11 +39,12 @@ import lombok.Setter;
  *   <li>Business intelligence - Analyze jackpot performance and optimize strategies</li>
  * </ul>
  * <p>
- * <strong>Note:</strong> This record is only created for wins. Losing evaluations
- * are not persisted to minimize database writes.
+ * <strong>Note:</strong> This record is only created for wins. The outcome of every
+ * evaluation, win or loss, is recorded separately in {@link JackpotEvaluation}.
  * </p>
  *
  * @see Jackpot
+ * @see JackpotEvaluation
  * @see RewardStrategyType
  */
 @Getter
@@ -0,0 +1,154 @@
+package com.pshakhlovich.jackpot.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on primitive {@code long}s for pool amounts and rates.
+ * <p>
+ * Amounts are held in minor units (hundredths, scale 2) and rates and probabilities in parts per
+ * million (scale 6), the scales they have always been stored and rounded at. Strategies compute on
+ * these values directly so that applying a bet allocates nothing; {@link BigDecimal} is only used at
+ * the edges, for audit rows, DTOs, events and configuration.
+ * </p>
+ * <p>
+ * Every rounding is half-up, giving exactly what {@link RoundingMode#HALF_UP} gives at the same scale.
+ * An intermediate product that does not fit in a {@code long} is divided as a 128-bit value.
+ * </p>
+ */
+public final class Money {
+
+    /**
+     * Decimal places of an amount.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Decimal places of a rate or probability.
+     */
+    public static final int RATE_SCALE = 6;
+
+    /**
+     * Parts per million of a rate of 1.
+     */
+    public static final long PPM = 1_000_000L;
+
+    // Bet amounts below this are converted without BigDecimal; their hundredths fit a double exactly enough
+    private static final double FAST_BET_AMOUNT_LIMIT = 1e13;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half-up to {@link #SCALE} places.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long}
+     */
+    public static long ofDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts minor units to an amount with {@link #SCALE} places.
+     */
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * Converts a rate to parts per million, rounding half-up to {@link #RATE_SCALE} places.
+     *
+     * @throws ArithmeticException if the rate does not fit in a {@code long}
+     */
+    public static long ppmOf(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts parts per million to a rate with {@link #RATE_SCALE} places.
+     */
+    public static BigDecimal ppmToDecimal(long ppm) {
+        return BigDecimal.valueOf(ppm, RATE_SCALE);
+    }
+
+    /**
+     * Converts a bet amount received as a {@code double} to minor units.
+     * <p>
+     * Rounds the decimal the double prints as, like {@code BigDecimal.valueOf(amount).setScale(2, HALF_UP)}.
+     * An amount with at most two decimals, which is every well-formed bet, is converted without allocating.
+     * </p>
+     *
+     * @throws ArithmeticException if the amount is not finite or does not fit in a {@code long}
+     */
+    public static long ofBetAmount(double amount) {
+        if (Math.abs(amount) < FAST_BET_AMOUNT_LIMIT) {
+            long minor = Math.round(amount * 100);
+            // Only a decimal with at most two places converts back to the same double
+            if (minor / 100.0 == amount) {
+                return minor;
+            }
+        }
+        if (!Double.isFinite(amount)) {
+            throw new ArithmeticException("Bet amount is not finite: " + amount);
+        }
+        return ofDecimal(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Computes {@code a * b / divisor}, rounded half-up.
+     *
+     * @param divisor a positive divisor
+     * @throws ArithmeticException if the result does not fit in a {@code long}
+     */
+    public static long mulDivHalfUp(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divHalfUp(low, divisor);
+        }
+        boolean negative = (a < 0) != (b < 0);
+        long magnitudeA = Math.absExact(a);
+        long magnitudeB = Math.absExact(b);
+        long quotient = divideUnsigned128HalfUp(Math.unsignedMultiplyHigh(magnitudeA, magnitudeB), magnitudeA * magnitudeB, divisor);
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * Computes {@code dividend / divisor}, rounded half-up.
+     *
+     * @param divisor a positive divisor
+     */
+    public static long divHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    // Shift-subtract division of the unsigned 128-bit value high:low
+    private static long divideUnsigned128HalfUp(long high, long low, long divisor) {
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        long remainder = high;
+        long quotient = 0;
+        for (int bit = 63; bit >= 0; bit--) {
+            boolean carry = remainder < 0;
+            remainder = (remainder << 1) | ((low >>> bit) & 1);
+            quotient <<= 1;
+            if (carry || Long.compareUnsigned(remainder, divisor) >= 0) {
+                remainder -= divisor;
+                quotient |= 1;
+            }
+        }
+        if (remainder >= divisor - remainder) {
+            quotient++;
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return quotient;
+    }
+}
@@ -30,5 +30,16 @@ public enum RewardStrategyType {
      *
      * @see com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy
      */
-    VARIABLE_RAMP
+    VARIABLE_RAMP,
+
+    /**
+     * Formula reward strategy.
+     * <p>
+     * Uses the probability given by a formula stored with the jackpot, over the pool and the
+     * jackpot's configuration parameters. New reward curves need no new code.
+     * </p>
+     *
+     * @see com.pshakhlovich.jackpot.domain.strategy.reward.FormulaRewardStrategy
+     */
+    FORMULA
 }
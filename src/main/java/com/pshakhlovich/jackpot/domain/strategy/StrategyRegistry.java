@@ -3,10 +3,15 @@ package com.pshakhlovich.jackpot.domain.strategy;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Component;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.CompiledContributionStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.contribution.ContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.CompiledRewardStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.reward.RewardStrategy;
 
 /**
@@ -32,6 +37,14 @@ import com.pshakhlovich.jackpot.domain.strategy.reward.RewardStrategy;
  * {@link ContributionStrategy} or {@link RewardStrategy}, annotate it with
  * {@code @Component}, and it will be automatically registered.
  * </p>
+ * <p>
+ * <strong>Compiled strategies:</strong> each jackpot's configuration is compiled once into a
+ * {@link CompiledContributionStrategy} and a {@link CompiledRewardStrategy}, cached by jackpot id
+ * together with the configuration they were compiled from. A changed configuration is a new version
+ * and is compiled afresh on its first use; a configuration that fails to compile is never cached.
+ * An equal configuration captured again takes the place of the cached one, so lookups with the instance
+ * the jackpot registry holds are settled by identity instead of comparing every field.
+ * </p>
  *
  * @see ContributionStrategy
  * @see RewardStrategy
@@ -41,6 +54,8 @@ public class StrategyRegistry {
 
     private final Map<ContributionStrategyType, ContributionStrategy> contributionStrategies;
     private final Map<RewardStrategyType, RewardStrategy> rewardStrategies;
+    private final Map<String, Compiled<CompiledContributionStrategy>> compiledContributionStrategies = new ConcurrentHashMap<>();
+    private final Map<String, Compiled<CompiledRewardStrategy>> compiledRewardStrategies = new ConcurrentHashMap<>();
 
     /**
      * Constructs the registry and indexes all strategy implementations.
@@ -94,4 +109,102 @@ public class StrategyRegistry {
         return strategy;
     }
 
+    /**
+     * Retrieves the contribution strategy of a jackpot, compiled for its configuration.
+     *
+     * @param config the jackpot configuration
+     * @return the compiled strategy, cached until the configuration changes
+     * @throws IllegalStateException if no strategy is registered for the configured type,
+     *                               or the configuration is invalid for it
+     */
+    public CompiledContributionStrategy contributionStrategyFor(JackpotConfig config) {
+        Compiled<CompiledContributionStrategy> cached = compiledContributionStrategies.get(config.id());
+        if (cached != null && cached.config() == config) {
+            return cached.strategy();
+        }
+        if (cached != null && cached.config().equals(config)) {
+            compiledContributionStrategies.put(config.id(), new Compiled<>(config, cached.strategy()));
+            return cached.strategy();
+        }
+        CompiledContributionStrategy strategy = getContributionStrategy(config.contributionStrategy()).compile(config);
+        compiledContributionStrategies.put(config.id(), new Compiled<>(config, strategy));
+        return strategy;
+    }
+
+    /**
+     * Retrieves the contribution strategy of a jackpot, compiled for its current configuration.
+     * <p>
+     * Captures and compares the configuration on every call; hot paths look the strategy up with the
+     * configuration held by the jackpot registry instead.
+     * </p>
+     *
+     * @param jackpot the jackpot
+     * @return the compiled strategy
+     * @throws IllegalStateException if the configuration is invalid for the configured strategy
+     */
+    public CompiledContributionStrategy contributionStrategyFor(Jackpot jackpot) {
+        return contributionStrategyFor(JackpotConfig.from(jackpot));
+    }
+
+    /**
+     * Retrieves the reward strategy of a jackpot, compiled for its configuration.
+     *
+     * @param config the jackpot configuration
+     * @return the compiled strategy, cached until the configuration changes
+     * @throws IllegalStateException if no strategy is registered for the configured type,
+     *                               or the configuration is invalid for it
+     */
+    public CompiledRewardStrategy rewardStrategyFor(JackpotConfig config) {
+        Compiled<CompiledRewardStrategy> cached = compiledRewardStrategies.get(config.id());
+        if (cached != null && cached.config() == config) {
+            return cached.strategy();
+        }
+        if (cached != null && cached.config().equals(config)) {
+            compiledRewardStrategies.put(config.id(), new Compiled<>(config, cached.strategy()));
+            return cached.strategy();
+        }
+        CompiledRewardStrategy strategy = getRewardStrategy(config.rewardStrategy()).compile(config);
+        compiledRewardStrategies.put(config.id(), new Compiled<>(config, strategy));
+        return strategy;
+    }
+
+    /**
+     * Retrieves the reward strategy of a jackpot, compiled for its current configuration.
+     * <p>
+     * Captures and compares the configuration on every call; hot paths look the strategy up with the
+     * configuration held by the jackpot registry instead.
+     * </p>
+     *
+     * @param jackpot the jackpot
+     * @return the compiled strategy
+     * @throws IllegalStateException if the configuration is invalid for the configured strategy
+     */
+    public CompiledRewardStrategy rewardStrategyFor(Jackpot jackpot) {
+        return rewardStrategyFor(JackpotConfig.from(jackpot));
+    }
+
+    /**
+     * Compiles both strategies of a jackpot configuration, failing if either is misconfigured.
+     *
+     * @param config the jackpot configuration
+     * @throws IllegalStateException if the configuration is invalid for either strategy
+     */
+    public void compile(JackpotConfig config) {
+        contributionStrategyFor(config);
+        rewardStrategyFor(config);
+    }
+
+    /**
+     * Drops the compiled strategies of a jackpot.
+     *
+     * @param jackpotId the jackpot identifier
+     */
+    public void invalidate(String jackpotId) {
+        compiledContributionStrategies.remove(jackpotId);
+        compiledRewardStrategies.remove(jackpotId);
+    }
+
+    // Configurations are records, so an unchanged one is equal even when captured again from the entity
+    private record Compiled<T>(JackpotConfig config, T strategy) {
+    }
 }
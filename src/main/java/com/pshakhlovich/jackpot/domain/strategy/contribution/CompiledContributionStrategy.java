@@ -0,0 +1,48 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+
+/**
+ * A contribution strategy bound to one jackpot configuration.
+ * <p>
+ * Created by {@link ContributionStrategy#compile}, which validates the configuration and
+ * precomputes what does not depend on the pool. Instances are immutable and thread-safe; only
+ * the pool is read from the jackpot passed in, so applying a bet is plain arithmetic.
+ * </p>
+ *
+ * @see com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry#contributionStrategyFor
+ */
+@FunctionalInterface
+public interface CompiledContributionStrategy {
+
+    /**
+     * Calculates the contribution of a bet and adds it to the jackpot pool.
+     *
+     * @param jackpot the jackpot to contribute to; must have the configuration this was compiled from
+     * @param betAmountMinor the bet amount, in minor units
+     * @return the contribution amount and the updated pool
+     */
+    ContributionResult contribute(Jackpot jackpot, long betAmountMinor);
+
+    /**
+     * Calculates the contributions of a batch of bets and adds them to the jackpot pool, bet by bet.
+     * <p>
+     * Gives exactly the contributions and pools that {@link #contribute} gives for each bet in turn.
+     * Strategies override this to compute runs of bets with primitive array kernels, vectorized where
+     * the JVM has the Vector API.
+     * </p>
+     *
+     * @param jackpot the jackpot to contribute to; must have the configuration this was compiled from
+     * @param betAmountsMinor the bet amounts, in minor units, in the order they contribute
+     * @param contributionsMinor receives the contribution of each bet, in minor units
+     * @param updatedPoolsMinor receives the pool after each bet, in minor units
+     */
+    default void contributeAll(Jackpot jackpot, long[] betAmountsMinor, long[] contributionsMinor, long[] updatedPoolsMinor) {
+        for (int i = 0; i < betAmountsMinor.length; i++) {
+            ContributionResult result = contribute(jackpot, betAmountsMinor[i]);
+            contributionsMinor[i] = result.contributionMinor();
+            updatedPoolsMinor[i] = result.updatedPoolMinor();
+        }
+    }
+}
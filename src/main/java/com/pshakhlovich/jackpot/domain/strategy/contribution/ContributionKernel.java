@@ -0,0 +1,28 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import com.pshakhlovich.jackpot.domain.model.Money;
+
+/**
+ * Computes fixed-rate contributions for a run of bets held in a primitive array.
+ * <p>
+ * This is the arithmetic the batch paths of the strategies share: a fixed rate, and a variable decay
+ * rate once the pool has reached the decay threshold. Every contribution is
+ * {@code Money.mulDivHalfUp(betAmount, rate, Money.PPM)}, whichever implementation computes it.
+ * </p>
+ *
+ * @see ContributionKernels#preferred()
+ */
+@FunctionalInterface
+interface ContributionKernel {
+
+    /**
+     * Calculates the contribution of each bet in {@code [from, to)} at the given rate.
+     *
+     * @param ratePpm the contribution rate, in parts per million (between 0 and {@link Money#PPM})
+     * @param betAmountsMinor the bet amounts, in minor units
+     * @param from the index of the first bet
+     * @param to the index after the last bet
+     * @param contributionsMinor receives the contributions, at the indexes of their bets
+     */
+    void contributeAtRate(long ratePpm, long[] betAmountsMinor, int from, int to, long[] contributionsMinor);
+}
@@ -0,0 +1,60 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import com.pshakhlovich.jackpot.domain.model.Money;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Selects the {@link ContributionKernel} for this JVM.
+ * <p>
+ * The Vector API is an incubator module and is only there when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, and then only worth using when the CPU has more than one
+ * {@code long} lane. Otherwise contributions are computed one at a time by {@link #SCALAR}.
+ * </p>
+ */
+@Slf4j
+final class ContributionKernels {
+
+    /**
+     * Computes each contribution with {@link Money#mulDivHalfUp}, as {@link CompiledContributionStrategy#contribute} does.
+     */
+    static final ContributionKernel SCALAR = ContributionKernels::contributeAtRateScalar;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final ContributionKernel PREFERRED = select();
+
+    private ContributionKernels() {
+    }
+
+    /**
+     * Returns the vectorized kernel if the JVM supports it, and the scalar one otherwise.
+     */
+    static ContributionKernel preferred() {
+        return PREFERRED;
+    }
+
+    static void contributeAtRateScalar(long ratePpm, long[] betAmountsMinor, int from, int to, long[] contributionsMinor) {
+        for (int i = from; i < to; i++) {
+            contributionsMinor[i] = Money.mulDivHalfUp(betAmountsMinor[i], ratePpm, Money.PPM);
+        }
+    }
+
+    private static ContributionKernel select() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("Computing contribution batches without the Vector API; start the JVM with --add-modules {} to vectorize them",
+                    VECTOR_MODULE);
+            return SCALAR;
+        }
+        try {
+            int lanes = VectorContributionKernel.lanes();
+            if (lanes > 1) {
+                log.info("Computing contribution batches with the Vector API: lanes={}", lanes);
+                return new VectorContributionKernel();
+            }
+            log.info("Computing contribution batches without the Vector API: the CPU has no vector lanes for longs");
+        } catch (LinkageError e) {
+            log.warn("Computing contribution batches without the Vector API: {}", e.toString());
+        }
+        return SCALAR;
+    }
+}
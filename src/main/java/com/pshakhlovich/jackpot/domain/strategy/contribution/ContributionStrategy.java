@@ -1,10 +1,9 @@
 package com.pshakhlovich.jackpot.domain.strategy.contribution;
 
-import java.math.BigDecimal;
-import java.util.Objects;
-
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.service.dto.ContributionResult;
 
 /**
@@ -33,6 +32,21 @@ public interface ContributionStrategy {
      */
     ContributionStrategyType type();
 
+    /**
+     * Validates a jackpot configuration and binds this strategy to it.
+     * <p>
+     * Everything that does not depend on the pool is checked and precomputed here, once per
+     * configuration, so that a misconfigured jackpot fails when its configuration is loaded
+     * rather than on some later bet. {@link com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry}
+     * caches the result for as long as the configuration does not change.
+     * </p>
+     *
+     * @param config the jackpot configuration (must not be null)
+     * @return the strategy bound to the configuration
+     * @throws IllegalStateException if the configuration is missing or invalid for this strategy
+     */
+    CompiledContributionStrategy compile(JackpotConfig config);
+
     /**
      * Calculates the contribution amount for a bet and updates the jackpot pool.
      * <p>
@@ -42,16 +56,36 @@ public interface ContributionStrategy {
      * </p>
      * <p>
      * <strong>Side effect:</strong> This method modifies the jackpot's current pool
-     * by calling {@link Jackpot#increasePool(BigDecimal)}.
+     * by calling {@link Jackpot#increasePool(long)}.
+     * </p>
+     * <p>
+     * Amounts are in minor units and rates in parts per million, see {@link Money}. The configuration is
+     * compiled on every call; code applying bets should use a {@link CompiledContributionStrategy} instead.
      * </p>
      *
      * @param jackpot the jackpot to which the contribution will be applied (must not be null)
-     * @param betAmount the bet amount from which to calculate the contribution (must not be null, must be positive)
+     * @param betAmountMinor the bet amount from which to calculate the contribution, in minor units (must be positive)
      * @return a result object containing the calculated contribution amount and updated pool size
      * @throws IllegalStateException if the jackpot is missing required configuration for this strategy
-     * @throws NullPointerException if jackpot or betAmount is null
+     * @throws NullPointerException if jackpot is null
+     */
+    default ContributionResult contribute(Jackpot jackpot, long betAmountMinor) {
+        return compile(JackpotConfig.from(jackpot)).contribute(jackpot, betAmountMinor);
+    }
+
+    /**
+     * Returns whether the contribution amount depends only on the bet and the jackpot configuration.
+     * <p>
+     * Contributions of pool-independent strategies are added to the pool with a single atomic update,
+     * without loading or locking the jackpot. The jackpot passed to {@link #contribute(Jackpot, long)}
+     * then carries the configuration but not the actual pool.
+     * </p>
+     *
+     * @return {@code true} if the current pool has no effect on the contribution amount
      */
-    ContributionResult contribute(Jackpot jackpot, BigDecimal betAmount);
+    default boolean poolIndependent() {
+        return false;
+    }
 
     /**
      * Helper method to validate required configuration values.
@@ -59,9 +93,27 @@ public interface ContributionStrategy {
      * @param value the configuration value to check
      * @param message the error message if value is null
      * @return the value if not null
-     * @throws NullPointerException if value is null
+     * @throws IllegalStateException if value is null
+     */
+    default long require(Long value, String message) {
+        if (value == null) {
+            throw new IllegalStateException(message);
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to validate a configured rate, which must lie between 0 and 1.
+     *
+     * @param value the rate, in parts per million
+     * @param name the name of the configuration value, for the error message
+     * @return the rate
+     * @throws IllegalStateException if the rate is out of range
      */
-    default BigDecimal require(BigDecimal value, String message) {
-        return Objects.requireNonNull(value, message);
+    default long requireRate(long value, String name) {
+        if (value < 0 || value > Money.PPM) {
+            throw new IllegalStateException(name + " must be between 0 and 1");
+        }
+        return value;
     }
 }
@@ -1,10 +1,10 @@
 package com.pshakhlovich.jackpot.domain.strategy.contribution;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import org.springframework.stereotype.Component;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.service.dto.ContributionResult;
 
 /**
@@ -25,7 +25,7 @@ import com.pshakhlovich.jackpot.service.dto.ContributionResult;
  * <strong>Required jackpot configuration:</strong>
  * </p>
  * <ul>
- *   <li>{@code contributionRate} - The fixed percentage rate (e.g., 0.05 for 5%)</li>
+ *   <li>{@code contributionRate} - The fixed percentage rate (e.g., 0.05 for 5%, held as 50000 ppm)</li>
  * </ul>
  *
  * @see ContributionStrategy
@@ -40,31 +40,49 @@ public class FixedContributionStrategy implements ContributionStrategy {
     }
 
     /**
-     * Calculates a fixed percentage contribution from the bet amount.
+     * The contribution is a fixed share of the bet, whatever the pool.
+     */
+    @Override
+    public boolean poolIndependent() {
+        return true;
+    }
+
+    /**
+     * Binds the strategy to the fixed contribution rate of a jackpot.
      *
-     * @param jackpot the jackpot to contribute to (must have {@code contributionRate} configured)
-     * @param betAmount the bet amount to calculate contribution from
-     * @return the contribution result with calculated amount and updated pool
-     * @throws IllegalStateException if {@code contributionRate} is not configured
+     * @param config the jackpot configuration (must have {@code contributionRate} configured)
+     * @return the strategy bound to the rate
+     * @throws IllegalStateException if {@code contributionRate} is not configured or out of range
      */
     @Override
-    public ContributionResult contribute(Jackpot jackpot, BigDecimal betAmount) {
-        // Retrieve the fixed contribution rate from jackpot configuration
-        BigDecimal rate = jackpot.getContributionRate();
-        if (rate == null) {
-            throw new IllegalStateException("Fixed contribution strategy requires contributionRate configuration");
-        }
+    public CompiledContributionStrategy compile(JackpotConfig config) {
+        long rate = require(config.contributionRatePpm(), "Fixed contribution strategy requires contributionRate configuration");
+        return new Compiled(requireRate(rate, "contributionRate"));
+    }
+
+    private record Compiled(long rate) implements CompiledContributionStrategy {
 
-        // Calculate contribution as: betAmount * rate
-        BigDecimal contribution = betAmount.multiply(rate)
-                .setScale(2, RoundingMode.HALF_UP); // Round to 2 decimal places for currency
+        @Override
+        public ContributionResult contribute(Jackpot jackpot, long betAmountMinor) {
+            // Calculate contribution as: betAmount * rate, rounded half-up to minor units
+            long contribution = Money.mulDivHalfUp(betAmountMinor, rate, Money.PPM);
 
-        // Update the jackpot pool by adding the contribution
-        BigDecimal updatedPool = jackpot.increasePool(contribution);
+            // Update the jackpot pool by adding the contribution
+            long updatedPool = jackpot.increasePool(contribution);
 
-        return new ContributionResult(
-                ContributionStrategyType.FIXED_RATE,
-                contribution,
-                updatedPool);
+            return new ContributionResult(
+                    ContributionStrategyType.FIXED_RATE,
+                    contribution,
+                    updatedPool);
+        }
+
+        @Override
+        public void contributeAll(Jackpot jackpot, long[] betAmountsMinor, long[] contributionsMinor, long[] updatedPoolsMinor) {
+            // No contribution depends on the pool, so all of them are computed before any is added
+            ContributionKernels.preferred().contributeAtRate(rate, betAmountsMinor, 0, betAmountsMinor.length, contributionsMinor);
+            for (int i = 0; i < betAmountsMinor.length; i++) {
+                updatedPoolsMinor[i] = jackpot.increasePool(contributionsMinor[i]);
+            }
+        }
     }
 }
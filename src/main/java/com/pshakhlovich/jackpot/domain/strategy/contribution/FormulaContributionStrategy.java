@@ -0,0 +1,90 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import org.springframework.stereotype.Component;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.strategy.formula.FormulaCompiler;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+
+/**
+ * Formula contribution strategy implementation.
+ * <p>
+ * This strategy applies the contribution rate given by a formula stored with the jackpot, so that a new
+ * contribution curve is a configuration change rather than a new strategy. The formula may refer to the
+ * current pool ({@code pool}), the bet amount ({@code bet}) and the jackpot's configuration parameters;
+ * see {@link FormulaCompiler}.
+ * </p>
+ * <p>
+ * <strong>Formula:</strong>
+ * </p>
+ * <pre>
+ * effectiveRate = clamp(contributionFormula, 0, 1), rounded half-up to 6 decimal places; 0 if not a number
+ * contribution = betAmount * effectiveRate
+ * </pre>
+ * <p>
+ * <strong>Example:</strong> a smooth exponential decay,
+ * {@code max(contributionRate * exp(-pool / decayThreshold), minContributionRate)}
+ * </p>
+ * <p>
+ * <strong>Required jackpot configuration:</strong>
+ * </p>
+ * <ul>
+ *   <li>{@code contributionFormula} - The formula giving the contribution rate</li>
+ *   <li>Any configuration parameter the formula refers to</li>
+ * </ul>
+ *
+ * @see ContributionStrategy
+ * @see ContributionStrategyType#FORMULA
+ */
+@Component
+public class FormulaContributionStrategy implements ContributionStrategy {
+
+    private static final List<String> VARIABLES = List.of("pool", "bet");
+
+    @Override
+    public ContributionStrategyType type() {
+        return ContributionStrategyType.FORMULA;
+    }
+
+    /**
+     * Compiles the contribution formula of a jackpot, with its parameters bound.
+     *
+     * @param config the jackpot configuration (must have {@code contributionFormula} configured)
+     * @return the strategy bound to the compiled formula
+     * @throws IllegalStateException if the formula is missing, malformed refers to an unconfigured parameter or is
+     *         a constant that is not a finite number
+     */
+    @Override
+    public CompiledContributionStrategy compile(JackpotConfig config) {
+        String formula = config.contributionFormula();
+        if (formula == null || formula.isBlank()) {
+            throw new IllegalStateException("Formula contribution strategy requires contributionFormula configuration");
+        }
+        return new Compiled(FormulaCompiler.compile(formula, VARIABLES, FormulaCompiler.parameters(config)));
+    }
+
+    private record Compiled(DoubleBinaryOperator curve) implements CompiledContributionStrategy {
+
+        @Override
+        public ContributionResult contribute(Jackpot jackpot, long betAmountMinor) {
+            double value = curve.applyAsDouble(
+                    FormulaCompiler.amount(jackpot.getCurrentPoolMinor()), FormulaCompiler.amount(betAmountMinor));
+            long effectiveRate = FormulaCompiler.toPpm(value);
+
+            // Calculate the actual contribution using the effective rate, rounded half-up to minor units
+            long contribution = Money.mulDivHalfUp(betAmountMinor, effectiveRate, Money.PPM);
+
+            // Update the jackpot pool by adding the contribution
+            long updatedPool = jackpot.increasePool(contribution);
+
+            return new ContributionResult(
+                    ContributionStrategyType.FORMULA,
+                    contribution,
+                    updatedPool);
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package com.pshakhlovich.jackpot.domain.strategy.contribution;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Objects;
 import org.springframework.stereotype.Component;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.service.dto.ContributionResult;
 
 /**
@@ -25,6 +24,13 @@ import com.pshakhlovich.jackpot.service.dto.ContributionResult;
  * contribution = betAmount * effectiveRate
  * </pre>
  * <p>
+ * The pool ratio is rounded half-up to 8 decimal places and the contribution to minor units. The
+ * effective rate is kept exact, in units of 10<sup>-14</sup>, so no other rounding takes place.
+ * The rate of a pool at or above the threshold is computed once, when the configuration is compiled.
+ * A batch of bets that has reached the threshold is computed at that rate, vectorized where the JVM
+ * supports it.
+ * </p>
+ * <p>
  * <strong>Example:</strong>
  * </p>
  * <ul>
@@ -48,6 +54,9 @@ import com.pshakhlovich.jackpot.service.dto.ContributionResult;
  *   <li>{@code decaySlope} - How much the rate decreases as pool fills (typically baseRate - minRate)</li>
  *   <li>{@code decayThreshold} - The pool size at which the rate reaches minimum (must be positive)</li>
  * </ul>
+ * <p>
+ * Rates must lie between 0 and 1.
+ * </p>
  *
  * @see ContributionStrategy
  * @see ContributionStrategyType#VARIABLE_DECAY
@@ -55,65 +64,113 @@ import com.pshakhlovich.jackpot.service.dto.ContributionResult;
 @Component
 public class VariableDecayContributionStrategy implements ContributionStrategy {
 
+    // A pool ratio of 1.0, the ratio being rounded to 8 decimal places
+    private static final long RATIO_ONE = 100_000_000L;
+
     @Override
     public ContributionStrategyType type() {
         return ContributionStrategyType.VARIABLE_DECAY;
     }
 
     /**
-     * Calculates a variable contribution that decays as the pool grows.
+     * Validates the decay configuration of a jackpot and binds the strategy to it.
      *
-     * @param jackpot the jackpot to contribute to (must have all required configuration)
-     * @param betAmount the bet amount to calculate contribution from
-     * @return the contribution result with calculated amount and updated pool
+     * @param config the jackpot configuration (must have all required configuration)
+     * @return the strategy bound to the configuration
      * @throws IllegalStateException if required configuration is missing or invalid
      */
     @Override
-    public ContributionResult contribute(Jackpot jackpot, BigDecimal betAmount) {
+    public CompiledContributionStrategy compile(JackpotConfig config) {
         // Validate and retrieve all required configuration parameters
-        BigDecimal baseRate = require(jackpot.getContributionRate(), "Variable decay strategy requires contributionRate configuration");
-        BigDecimal minRate = require(jackpot.getMinContributionRate(), "Variable decay strategy requires minContributionRate configuration");
-        BigDecimal decaySlope = require(jackpot.getDecaySlope(), "Variable decay strategy requires decaySlope configuration");
-        BigDecimal decayThreshold = require(jackpot.getDecayThreshold(), "Variable decay strategy requires decayThreshold configuration");
+        long baseRate = require(config.contributionRatePpm(), "Variable decay strategy requires contributionRate configuration");
+        long minRate = require(config.minContributionRatePpm(), "Variable decay strategy requires minContributionRate configuration");
+        long decaySlope = require(config.decaySlopePpm(), "Variable decay strategy requires decaySlope configuration");
+        long decayThreshold = require(config.decayThresholdMinor(), "Variable decay strategy requires decayThreshold configuration");
 
-        if (decayThreshold.signum() <= 0) {
+        if (decayThreshold <= 0) {
             throw new IllegalStateException("decayThreshold must be positive");
         }
 
-        // Calculate the pool ratio: how full is the pool compared to the threshold?
-        // Range: [0.0, 1.0] where 0.0 = empty pool, 1.0 = pool at or above threshold
-        BigDecimal poolRatio = jackpot.getCurrentPool()
-                .divide(decayThreshold, 8, RoundingMode.HALF_UP); // Use high precision for intermediate calculation
+        // Rates are scaled by RATIO_ONE so that the product with the ratio stays exact
+        long scaledBaseRate = requireRate(baseRate, "contributionRate") * RATIO_ONE;
+        long scaledMinRate = requireRate(minRate, "minContributionRate") * RATIO_ONE;
+        requireRate(decaySlope, "decaySlope");
+
+        // Every pool at or above the threshold has a ratio of 1.0 and so the same rate
+        long saturatedRate = Math.max(scaledBaseRate - decaySlope * RATIO_ONE, scaledMinRate);
+
+        return new Compiled(scaledBaseRate, scaledMinRate, decaySlope, decayThreshold, saturatedRate);
+    }
 
-        // Cap the ratio at 1.0 if pool exceeds threshold
-        if (poolRatio.compareTo(BigDecimal.ONE) > 0) {
-            poolRatio = BigDecimal.ONE;
+    // Rates are scaled by RATIO_ONE, the slope is in parts per million and the threshold in minor units
+    private record Compiled(long baseRate, long minRate, long decaySlope, long decayThreshold, long saturatedRate)
+            implements CompiledContributionStrategy {
+
+        @Override
+        public ContributionResult contribute(Jackpot jackpot, long betAmountMinor) {
+            long contribution = contribution(jackpot.getCurrentPoolMinor(), betAmountMinor);
+
+            // Update the jackpot pool by adding the contribution
+            long updatedPool = jackpot.increasePool(contribution);
+
+            return new ContributionResult(
+                    ContributionStrategyType.VARIABLE_DECAY,
+                    contribution,
+                    updatedPool);
         }
 
-        // Calculate effective rate using linear decay formula:
-        // effectiveRate = baseRate - (decaySlope * poolRatio)
-        //
-        // Example with poolRatio = 0.5:
-        //   baseRate = 0.10 (10%)
-        //   decaySlope = 0.08 (8% decay range)
-        //   effectiveRate = 0.10 - (0.08 * 0.5) = 0.06 (6%)
-        BigDecimal effectiveRate = baseRate.subtract(decaySlope.multiply(poolRatio));
-
-        // Enforce the minimum rate floor to ensure pool always grows
-        if (effectiveRate.compareTo(minRate) < 0) {
-            effectiveRate = minRate;
+        /**
+         * Applies the bets one at a time while the pool is below the threshold, where each rate depends on
+         * the pool the previous bets left. From the threshold on, every bet that cannot lower the pool has
+         * the saturated rate, so such runs of bets are computed at once as fixed-rate contributions.
+         */
+        @Override
+        public void contributeAll(Jackpot jackpot, long[] betAmountsMinor, long[] contributionsMinor, long[] updatedPoolsMinor) {
+            int i = 0;
+            while (i < betAmountsMinor.length) {
+                long pool = jackpot.getCurrentPoolMinor();
+                if (pool < decayThreshold || betAmountsMinor[i] < 0) {
+                    contributionsMinor[i] = contribution(pool, betAmountsMinor[i]);
+                    updatedPoolsMinor[i] = jackpot.increasePool(contributionsMinor[i]);
+                    i++;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < betAmountsMinor.length && betAmountsMinor[end] >= 0) {
+                    end++;
+                }
+                // The saturated rate is a whole number of ppm scaled by RATIO_ONE, and scaling both the rate and
+                // the divisor by RATIO_ONE leaves a half-up quotient unchanged
+                ContributionKernels.preferred().contributeAtRate(saturatedRate / RATIO_ONE, betAmountsMinor, i, end, contributionsMinor);
+                for (; i < end; i++) {
+                    updatedPoolsMinor[i] = jackpot.increasePool(contributionsMinor[i]);
+                }
+            }
         }
 
-        // Calculate the actual contribution using the effective rate
-        BigDecimal contribution = betAmount.multiply(effectiveRate)
-                .setScale(2, RoundingMode.HALF_UP); // Round to 2 decimal places for currency
+        private long contribution(long pool, long betAmountMinor) {
+            long effectiveRate = pool >= decayThreshold ? saturatedRate : effectiveRate(pool);
 
-        // Update the jackpot pool by adding the contribution
-        BigDecimal updatedPool = jackpot.increasePool(contribution);
+            // Calculate the actual contribution using the effective rate, rounded half-up to minor units
+            return Money.mulDivHalfUp(betAmountMinor, effectiveRate, Money.PPM * RATIO_ONE);
+        }
 
-        return new ContributionResult(
-                ContributionStrategyType.VARIABLE_DECAY,
-                contribution,
-                updatedPool);
+        private long effectiveRate(long pool) {
+            // Calculate the pool ratio: how full is the pool compared to the threshold?
+            // Range: [0, RATIO_ONE], as the pool is below the threshold
+            long poolRatio = Money.mulDivHalfUp(pool, RATIO_ONE, decayThreshold);
+
+            // Calculate effective rate using linear decay formula:
+            // effectiveRate = baseRate - (decaySlope * poolRatio)
+            //
+            // Example with poolRatio = 0.5:
+            //   baseRate = 0.10 (10%)
+            //   decaySlope = 0.08 (8% decay range)
+            //   effectiveRate = 0.10 - (0.08 * 0.5) = 0.06 (6%)
+            long effectiveRate = baseRate - decaySlope * poolRatio;
+
+            // Enforce the minimum rate floor to ensure pool always grows
+            return Math.max(effectiveRate, minRate);
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import com.pshakhlovich.jackpot.domain.model.Money;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ContributionKernel} on the Vector API, computing as many contributions at once as the CPU has
+ * {@code long} lanes.
+ * <p>
+ * A contribution is the bet times the rate divided by a million, rounded half-up. There is no vector
+ * integer division, so each quotient is estimated by a {@code double} division and corrected by its
+ * remainder. The estimate is within one of the exact quotient as long as the dividend converts to a
+ * {@code double} exactly; lanes holding a bet too large for that, or a negative one, are computed by
+ * the scalar kernel instead. The results are the same either way.
+ * </p>
+ */
+final class VectorContributionKernel implements ContributionKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    // Dividends up to 2^53 - 1 convert to double exactly
+    private static final long MAX_EXACT_DIVIDEND = (1L << 53) - 1;
+
+    private static final long HALF = Money.PPM / 2;
+
+    /**
+     * Returns the number of {@code long} lanes of the preferred vector shape.
+     */
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void contributeAtRate(long ratePpm, long[] betAmountsMinor, int from, int to, long[] contributionsMinor) {
+        long maxBet = ratePpm == 0 ? Long.MAX_VALUE : (MAX_EXACT_DIVIDEND - HALF) / ratePpm;
+        int lanes = SPECIES.length();
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += lanes) {
+            LongVector bets = LongVector.fromArray(SPECIES, betAmountsMinor, i);
+            if (bets.compare(VectorOperators.LT, 0).or(bets.compare(VectorOperators.GT, maxBet)).anyTrue()) {
+                ContributionKernels.contributeAtRateScalar(ratePpm, betAmountsMinor, i, i + lanes, contributionsMinor);
+                continue;
+            }
+            // For a non-negative product and an even divisor, half-up rounding is (product + PPM / 2) / PPM, truncated
+            LongVector dividends = bets.mul(ratePpm).add(HALF);
+            DoubleVector estimates = ((DoubleVector) dividends.convert(VectorOperators.L2D, 0)).div(Money.PPM);
+            LongVector quotients = (LongVector) estimates.convert(VectorOperators.D2L, 0);
+            LongVector remainders = dividends.sub(quotients.mul(Money.PPM));
+            quotients = quotients
+                    .sub(1, remainders.compare(VectorOperators.LT, 0))
+                    .add(1, remainders.compare(VectorOperators.GE, Money.PPM));
+            quotients.intoArray(contributionsMinor, i);
+        }
+        ContributionKernels.contributeAtRateScalar(ratePpm, betAmountsMinor, i, to, contributionsMinor);
+    }
+}
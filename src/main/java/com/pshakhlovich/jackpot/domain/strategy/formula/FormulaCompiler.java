@@ -0,0 +1,419 @@
+package com.pshakhlovich.jackpot.domain.strategy.formula;
+
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Compiles formulas, arithmetic expressions stored with a jackpot, into code.
+ * <p>
+ * A formula is an expression over up to two variables, such as the pool and the bet amount, and the
+ * configuration parameters of the jackpot; see {@link #parameters(JackpotConfig)}. For example:
+ * </p>
+ * <pre>
+ * max(contributionRate - decaySlope * min(pool / decayThreshold, 1), minContributionRate)
+ * </pre>
+ * <p>
+ * Formulas consist of numbers, names, parentheses, {@code + - * /}, {@code ^} for powers and the functions
+ * {@code min(a, b)}, {@code max(a, b)}, {@code clamp(x, low, high)}, {@code abs(x)}, {@code sqrt(x)},
+ * {@code exp(x)} and {@code ln(x)}. Amounts are in major units, as they are configured, and everything is
+ * computed in {@code double}.
+ * </p>
+ * <p>
+ * Parameters are bound as constants, and every part of a formula that depends on parameters alone is
+ * computed once, here. The rest becomes a tree of method handles over static methods, turned into a
+ * {@link DoubleBinaryOperator} by {@link MethodHandleProxies}. Since Java 22 that defines a hidden class holding
+ * the tree as a constant, so the JIT compiles a formula as if it had been written in Java; nothing is interpreted
+ * per call.
+ * </p>
+ * <p>
+ * A formula that is constant and not a finite number, such as {@code 0 / 0}, is rejected here. A formula can
+ * still leave its domain for some values of its variables, {@code sqrt(pool - 10000)} below that pool for
+ * example; {@link #toPpm(double)} turns such a value into zero rather than failing every bet until the
+ * jackpot is reconfigured.
+ * </p>
+ */
+public final class FormulaCompiler {
+
+    // Every node of the tree takes both variables, whichever it uses
+    private static final MethodType NODE = MethodType.methodType(double.class, double.class, double.class);
+
+    private static final Map<String, MethodHandle> FUNCTIONS = Map.of(
+            "min", math("min", 2),
+            "max", math("max", 2),
+            "abs", math("abs", 1),
+            "sqrt", math("sqrt", 1),
+            "exp", math("exp", 1),
+            "ln", math("log", 1),
+            "clamp", operator("clamp", 3));
+
+    private static final MethodHandle ADD = operator("add", 2);
+    private static final MethodHandle SUBTRACT = operator("subtract", 2);
+    private static final MethodHandle MULTIPLY = operator("multiply", 2);
+    private static final MethodHandle DIVIDE = operator("divide", 2);
+    private static final MethodHandle NEGATE = operator("negate", 1);
+    private static final MethodHandle POWER = math("pow", 2);
+
+    private FormulaCompiler() {
+    }
+
+    /**
+     * Compiles a formula into a function of its variables.
+     *
+     * @param formula the formula
+     * @param variables the names of the variables, at most two, in the order the function takes them
+     * @param parameters the values of the parameters the formula may refer to, by name
+     * @return the formula as a function; a second variable that is not declared is ignored
+     * @throws IllegalStateException if the formula is malformed, refers to an unknown name, takes more than two
+     *         variables or is a constant that is not a finite number
+     */
+    public static DoubleBinaryOperator compile(String formula, List<String> variables, Map<String, Double> parameters) {
+        if (variables.size() > 2) {
+            throw new IllegalStateException("A formula has at most two variables: " + variables);
+        }
+        Node root = new Parser(formula, variables, parameters).parse();
+        if (root.isConstant() && !Double.isFinite(root.value())) {
+            throw new IllegalStateException("Invalid formula '%s': always evaluates to %s".formatted(formula, root.value()));
+        }
+        return MethodHandleProxies.asInterfaceInstance(DoubleBinaryOperator.class, root.handle());
+    }
+
+    /**
+     * Returns the configuration parameters of a jackpot that formulas may refer to.
+     * <p>
+     * These are {@code initialPool} and every configured strategy parameter: {@code contributionRate},
+     * {@code minContributionRate}, {@code decayThreshold}, {@code decaySlope}, {@code rewardBaseProbability},
+     * {@code rewardMaxProbability}, {@code rewardRampRate} and {@code rewardCap}. Amounts are in major units
+     * and rates are fractions, as they are configured.
+     * </p>
+     */
+    public static Map<String, Double> parameters(JackpotConfig config) {
+        Map<String, Double> parameters = new HashMap<>();
+        parameters.put("initialPool", amount(config.initialPoolMinor()));
+        putRate(parameters, "contributionRate", config.contributionRatePpm());
+        putRate(parameters, "minContributionRate", config.minContributionRatePpm());
+        putAmount(parameters, "decayThreshold", config.decayThresholdMinor());
+        putRate(parameters, "decaySlope", config.decaySlopePpm());
+        putRate(parameters, "rewardBaseProbability", config.rewardBaseProbabilityPpm());
+        putRate(parameters, "rewardMaxProbability", config.rewardMaxProbabilityPpm());
+        putRate(parameters, "rewardRampRate", config.rewardRampRatePpm());
+        putAmount(parameters, "rewardCap", config.rewardCapMinor());
+        return parameters;
+    }
+
+    /**
+     * Converts minor units to the amount a formula sees.
+     */
+    public static double amount(long minor) {
+        return minor / 100.0;
+    }
+
+    /**
+     * Converts the value of a rate or probability formula to parts per million.
+     * <p>
+     * The value is clamped to the range [0, 1] and rounded half-up to {@link Money#RATE_SCALE} places. A value
+     * that is not a number, where the formula is undefined for the current variables, counts as zero: nothing
+     * is contributed and nothing is won.
+     * </p>
+     *
+     * @param value the value of the formula
+     * @return the rate, in parts per million
+     */
+    public static long toPpm(double value) {
+        if (Double.isNaN(value)) {
+            return 0;
+        }
+        return Math.round(Math.min(Math.max(value, 0), 1) * Money.PPM);
+    }
+
+    private static void putRate(Map<String, Double> parameters, String name, Long ppm) {
+        if (ppm != null) {
+            parameters.put(name, (double) ppm / Money.PPM);
+        }
+    }
+
+    private static void putAmount(Map<String, Double> parameters, String name, Long minor) {
+        if (minor != null) {
+            parameters.put(name, amount(minor));
+        }
+    }
+
+    private static MethodHandle math(String name, int arity) {
+        return find(Math.class, name, arity);
+    }
+
+    private static MethodHandle operator(String name, int arity) {
+        return find(FormulaCompiler.class, name, arity);
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, int arity) {
+        Class<?>[] parameterTypes = new Class<?>[arity];
+        Arrays.fill(parameterTypes, double.class);
+        try {
+            return MethodHandles.lookup().findStatic(owner, name, MethodType.methodType(double.class, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double add(double a, double b) {
+        return a + b;
+    }
+
+    private static double subtract(double a, double b) {
+        return a - b;
+    }
+
+    private static double multiply(double a, double b) {
+        return a * b;
+    }
+
+    private static double divide(double a, double b) {
+        return a / b;
+    }
+
+    private static double negate(double a) {
+        return -a;
+    }
+
+    private static double clamp(double value, double low, double high) {
+        return Math.min(Math.max(value, low), high);
+    }
+
+    /**
+     * A compiled part of a formula: a constant, or a method handle of type {@link #NODE}.
+     */
+    private record Node(MethodHandle tree, double value) {
+
+        static Node constant(double value) {
+            return new Node(null, value);
+        }
+
+        boolean isConstant() {
+            return tree == null;
+        }
+
+        MethodHandle handle() {
+            if (tree != null) {
+                return tree;
+            }
+            return MethodHandles.dropArguments(MethodHandles.constant(double.class, value), 0, double.class, double.class);
+        }
+
+        /**
+         * Applies a function to nodes, computing it now if they are all constant.
+         */
+        static Node apply(MethodHandle function, List<Node> arguments) {
+            if (arguments.stream().allMatch(Node::isConstant)) {
+                try {
+                    return constant((double) function.invokeWithArguments(arguments.stream().map(Node::value).toList()));
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            // Each argument becomes the handle computing it, from the last so that the earlier positions stay put,
+            // and as every handle takes both variables, both are passed to each of them
+            MethodHandle combined = function;
+            for (int i = arguments.size() - 1; i >= 0; i--) {
+                combined = MethodHandles.collectArguments(combined, i, arguments.get(i).handle());
+            }
+            int[] reorder = new int[2 * arguments.size()];
+            for (int i = 0; i < reorder.length; i++) {
+                reorder[i] = i % 2;
+            }
+            return new Node(MethodHandles.permuteArguments(combined, NODE, reorder), 0);
+        }
+
+        static Node apply(MethodHandle function, Node... arguments) {
+            return apply(function, List.of(arguments));
+        }
+    }
+
+    /**
+     * Recursive descent parser, compiling as it parses:
+     * <pre>
+     * expression = term { ("+" | "-") term }
+     * term       = unary { ("*" | "/") unary }
+     * unary      = "-" unary | power
+     * power      = primary [ "^" unary ]
+     * primary    = number | name | name "(" expression { "," expression } ")" | "(" expression ")"
+     * </pre>
+     */
+    private static final class Parser {
+
+        private final String formula;
+        private final List<String> variables;
+        private final Map<String, Double> parameters;
+        private int position;
+
+        Parser(String formula, List<String> variables, Map<String, Double> parameters) {
+            this.formula = formula;
+            this.variables = variables;
+            this.parameters = parameters;
+        }
+
+        Node parse() {
+            Node node = expression();
+            skipWhitespace();
+            if (position < formula.length()) {
+                throw error("unexpected '" + formula.charAt(position) + "'");
+            }
+            return node;
+        }
+
+        private Node expression() {
+            Node node = term();
+            while (true) {
+                if (accept('+')) {
+                    node = Node.apply(ADD, node, term());
+                } else if (accept('-')) {
+                    node = Node.apply(SUBTRACT, node, term());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node term() {
+            Node node = unary();
+            while (true) {
+                if (accept('*')) {
+                    node = Node.apply(MULTIPLY, node, unary());
+                } else if (accept('/')) {
+                    node = Node.apply(DIVIDE, node, unary());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node unary() {
+            if (accept('-')) {
+                return Node.apply(NEGATE, unary());
+            }
+            return power();
+        }
+
+        private Node power() {
+            Node base = primary();
+            // Right-associative, and binding tighter than a minus sign on the left: -2^2 is -4
+            return accept('^') ? Node.apply(POWER, base, unary()) : base;
+        }
+
+        private Node primary() {
+            skipWhitespace();
+            if (accept('(')) {
+                Node node = expression();
+                expect(')');
+                return node;
+            }
+            if (position < formula.length() && (Character.isDigit(formula.charAt(position)) || formula.charAt(position) == '.')) {
+                return Node.constant(number());
+            }
+            if (position < formula.length() && Character.isJavaIdentifierStart(formula.charAt(position))) {
+                int start = position;
+                String name = name();
+                return accept('(') ? call(name, start) : reference(name, start);
+            }
+            throw error(position < formula.length() ? "unexpected '" + formula.charAt(position) + "'" : "unexpected end");
+        }
+
+        private Node call(String name, int start) {
+            MethodHandle function = FUNCTIONS.get(name);
+            if (function == null) {
+                throw error("unknown function " + name, start);
+            }
+            List<Node> arguments = new ArrayList<>();
+            do {
+                arguments.add(expression());
+            } while (accept(','));
+            expect(')');
+            int arity = function.type().parameterCount();
+            if (arguments.size() != arity) {
+                throw error("%s takes %d argument%s".formatted(name, arity, arity == 1 ? "" : "s"), start);
+            }
+            return Node.apply(function, arguments);
+        }
+
+        private Node reference(String name, int start) {
+            int variable = variables.indexOf(name);
+            if (variable >= 0) {
+                // The identity of the variable's argument, with the other one dropped around it
+                MethodHandle identity = MethodHandles.identity(double.class);
+                return new Node(MethodHandles.dropArguments(identity, variable == 0 ? 1 : 0, double.class), 0);
+            }
+            Double value = parameters.get(name);
+            if (value == null) {
+                throw error("unknown or unconfigured name " + name, start);
+            }
+            return Node.constant(value);
+        }
+
+        private double number() {
+            int start = position;
+            while (position < formula.length() && (Character.isDigit(formula.charAt(position)) || formula.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < formula.length() && (formula.charAt(position) == 'e' || formula.charAt(position) == 'E')) {
+                position++;
+                if (position < formula.length() && (formula.charAt(position) == '+' || formula.charAt(position) == '-')) {
+                    position++;
+                }
+                while (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+                    position++;
+                }
+            }
+            try {
+                return Double.parseDouble(formula.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("malformed number " + formula.substring(start, position), start);
+            }
+        }
+
+        private String name() {
+            int start = position;
+            while (position < formula.length() && Character.isJavaIdentifierPart(formula.charAt(position))) {
+                position++;
+            }
+            return formula.substring(start, position);
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < formula.length() && formula.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < formula.length() && Character.isWhitespace(formula.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalStateException error(String problem) {
+            return error(problem, position);
+        }
+
+        private IllegalStateException error(String problem, int at) {
+            return new IllegalStateException("Invalid formula '%s': %s at position %d".formatted(formula, problem, at + 1));
+        }
+    }
+}
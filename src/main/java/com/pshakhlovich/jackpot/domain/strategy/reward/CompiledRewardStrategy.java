@@ -0,0 +1,27 @@
+package com.pshakhlovich.jackpot.domain.strategy.reward;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+
+/**
+ * A reward strategy bound to one jackpot configuration.
+ * <p>
+ * Created by {@link RewardStrategy#compile}, which validates the configuration and precomputes
+ * what does not depend on the pool. Instances are immutable and thread-safe; only the pool is
+ * read from the jackpot passed in, so evaluating a bet is plain arithmetic.
+ * </p>
+ *
+ * @see com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry#rewardStrategyFor
+ */
+@FunctionalInterface
+public interface CompiledRewardStrategy {
+
+    /**
+     * Evaluates whether a bet wins the jackpot, resetting the pool on a win.
+     *
+     * @param jackpot the jackpot being evaluated; must have the configuration this was compiled from
+     * @param randomDraw a random value in the range [0.0, 1.0)
+     * @return the evaluation outcome, probability and payout
+     */
+    RewardResult evaluate(Jackpot jackpot, double randomDraw);
+}
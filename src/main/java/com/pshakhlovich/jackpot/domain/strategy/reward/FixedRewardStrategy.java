@@ -1,10 +1,9 @@
 package com.pshakhlovich.jackpot.domain.strategy.reward;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Objects;
 import org.springframework.stereotype.Component;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
 
@@ -56,41 +55,56 @@ public class FixedRewardStrategy implements RewardStrategy {
     }
 
     /**
-     * Evaluates a bet for jackpot reward using fixed probability.
+     * Binds the strategy to the fixed probability and reward cap of a jackpot.
      *
-     * @param jackpot the jackpot being evaluated (must have required configuration)
-     * @param randomDraw a random value in [0.0, 1.0) used to determine win
-     * @return the reward evaluation result
-     * @throws IllegalStateException if required configuration is missing
+     * @param config the jackpot configuration (must have required configuration)
+     * @return the strategy bound to the configuration
+     * @throws IllegalStateException if required configuration is missing or invalid
      */
     @Override
-    public RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+    public CompiledRewardStrategy compile(JackpotConfig config) {
         // Retrieve fixed probability and maximum payout configuration
-        BigDecimal probability = require(jackpot.getRewardBaseProbability(), "Fixed reward strategy requires rewardBaseProbability");
-        BigDecimal rewardCap = require(jackpot.getRewardCap(), "Fixed reward strategy requires rewardCap");
+        long probability = require(config.rewardBaseProbabilityPpm(), "Fixed reward strategy requires rewardBaseProbability");
+        long rewardCap = require(config.rewardCapMinor(), "Fixed reward strategy requires rewardCap");
 
-        // Determine if this bet wins by comparing random draw to fixed probability
-        // Example: randomDraw=0.005 < probability=0.01 → WIN!
-        boolean win = BigDecimal.valueOf(randomDraw).compareTo(probability) < 0;
+        if (rewardCap < 0) {
+            throw new IllegalStateException("rewardCap must not be negative");
+        }
+
+        // The division is correctly rounded, so comparing against it agrees with comparing the draw's decimal form
+        double winBelow = (double) requireProbability(probability, "rewardBaseProbability") / Money.PPM;
 
-        BigDecimal payout = BigDecimal.ZERO;
+        return new Compiled(probability, rewardCap, winBelow);
+    }
 
-        if (win) {
-            // Calculate payout as the lesser of current pool and reward cap
-            // This ensures we never pay out more than configured maximum
-            payout = jackpot.getCurrentPool().min(rewardCap).setScale(2, RoundingMode.HALF_UP);
+    // The probability is in parts per million and the cap in minor units
+    private record Compiled(long probability, long rewardCap, double winBelow) implements CompiledRewardStrategy {
 
-            // Reset the jackpot pool to its initial value after winning
-            // This starts a new jackpot cycle
-            jackpot.resetPoolToInitial();
-        }
+        @Override
+        public RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+            // Determine if this bet wins by comparing random draw to fixed probability
+            // Example: randomDraw=0.005 < probability=0.01 → WIN!
+            boolean win = randomDraw < winBelow;
 
-        // Return comprehensive result with strategy type, probability, payout, updated pool, and win status
-        return new RewardResult(
-                RewardStrategyType.FIXED,
-                probability.setScale(6, RoundingMode.HALF_UP),
-                payout,
-                jackpot.getCurrentPool(),
-                win);
+            long payout = 0;
+
+            if (win) {
+                // Calculate payout as the lesser of current pool and reward cap
+                // This ensures we never pay out more than configured maximum
+                payout = Math.min(jackpot.getCurrentPoolMinor(), rewardCap);
+
+                // Reset the jackpot pool to its initial value after winning
+                // This starts a new jackpot cycle
+                jackpot.resetPoolToInitial();
+            }
+
+            // Return comprehensive result with strategy type, probability, payout, updated pool, and win status
+            return new RewardResult(
+                    RewardStrategyType.FIXED,
+                    probability,
+                    payout,
+                    jackpot.getCurrentPoolMinor(),
+                    win);
+        }
     }
 }
@@ -0,0 +1,106 @@
+package com.pshakhlovich.jackpot.domain.strategy.reward;
+
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import org.springframework.stereotype.Component;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.formula.FormulaCompiler;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+
+/**
+ * Formula reward strategy implementation.
+ * <p>
+ * This strategy uses the probability of winning given by a formula stored with the jackpot, so that a new
+ * reward curve is a configuration change rather than a new strategy. The formula may refer to the current
+ * pool ({@code pool}) and the jackpot's configuration parameters; see {@link FormulaCompiler}.
+ * </p>
+ * <p>
+ * <strong>Formula:</strong>
+ * </p>
+ * <pre>
+ * probability = clamp(rewardFormula, 0, 1), rounded half-up to 6 decimal places; 0 if not a number
+ * win = randomDraw &lt; probability
+ * payout = min(currentPool, rewardCap) if win, else 0
+ * </pre>
+ * <p>
+ * <strong>Example:</strong> a quadratic ramp,
+ * {@code min(rewardBaseProbability + rewardRampRate * (pool / rewardCap) ^ 2, rewardMaxProbability)}
+ * </p>
+ * <p>
+ * <strong>Required jackpot configuration:</strong>
+ * </p>
+ * <ul>
+ *   <li>{@code rewardFormula} - The formula giving the probability of winning</li>
+ *   <li>Any configuration parameter the formula refers to</li>
+ * </ul>
+ * <p>
+ * Without a {@code rewardCap}, a win pays out the whole pool.
+ * </p>
+ *
+ * @see RewardStrategy
+ * @see RewardStrategyType#FORMULA
+ */
+@Component
+public class FormulaRewardStrategy implements RewardStrategy {
+
+    private static final List<String> VARIABLES = List.of("pool");
+
+    @Override
+    public RewardStrategyType type() {
+        return RewardStrategyType.FORMULA;
+    }
+
+    /**
+     * Compiles the reward formula of a jackpot, with its parameters bound.
+     *
+     * @param config the jackpot configuration (must have {@code rewardFormula} configured)
+     * @return the strategy bound to the compiled formula
+     * @throws IllegalStateException if the formula is missing, malformed, refers to an unconfigured parameter or
+     *                               is a constant that is not a finite number, or if {@code rewardCap} is negative
+     */
+    @Override
+    public CompiledRewardStrategy compile(JackpotConfig config) {
+        String formula = config.rewardFormula();
+        if (formula == null || formula.isBlank()) {
+            throw new IllegalStateException("Formula reward strategy requires rewardFormula");
+        }
+        long rewardCap = config.rewardCapMinor() != null ? config.rewardCapMinor() : Long.MAX_VALUE;
+        if (rewardCap < 0) {
+            throw new IllegalStateException("rewardCap must not be negative");
+        }
+        return new Compiled(FormulaCompiler.compile(formula, VARIABLES, FormulaCompiler.parameters(config)), rewardCap);
+    }
+
+    // The cap is in minor units
+    private record Compiled(DoubleBinaryOperator curve, long rewardCap) implements CompiledRewardStrategy {
+
+        @Override
+        public RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+            long pool = jackpot.getCurrentPoolMinor();
+            long probability = FormulaCompiler.toPpm(curve.applyAsDouble(FormulaCompiler.amount(pool), 0));
+
+            // The division is correctly rounded, so this agrees with comparing the draw's decimal form
+            boolean win = randomDraw < (double) probability / Money.PPM;
+
+            long payout = 0;
+
+            if (win) {
+                // Calculate payout as the lesser of current pool and reward cap
+                payout = Math.min(pool, rewardCap);
+
+                // Reset the jackpot pool to its initial value after winning
+                jackpot.resetPoolToInitial();
+            }
+
+            return new RewardResult(
+                    RewardStrategyType.FORMULA,
+                    probability,
+                    payout,
+                    jackpot.getCurrentPoolMinor(),
+                    win);
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package com.pshakhlovich.jackpot.domain.strategy.reward;
 
-import java.math.BigDecimal;
-import java.util.Objects;
-
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
 
@@ -33,6 +32,21 @@ public interface RewardStrategy {
      */
     RewardStrategyType type();
 
+    /**
+     * Validates a jackpot configuration and binds this strategy to it.
+     * <p>
+     * Everything that does not depend on the pool is checked and precomputed here, once per
+     * configuration, so that a misconfigured jackpot fails when its configuration is loaded
+     * rather than on some later evaluation. {@link com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry}
+     * caches the result for as long as the configuration does not change.
+     * </p>
+     *
+     * @param config the jackpot configuration (must not be null)
+     * @return the strategy bound to the configuration
+     * @throws IllegalStateException if the configuration is missing or invalid for this strategy
+     */
+    CompiledRewardStrategy compile(JackpotConfig config);
+
     /**
      * Evaluates whether a bet wins the jackpot and calculates the payout.
      * <p>
@@ -45,6 +59,10 @@ public interface RewardStrategy {
      * <strong>Side effect:</strong> If the bet wins, this method resets the jackpot
      * pool to its initial value by calling {@link Jackpot#resetPoolToInitial()}.
      * </p>
+     * <p>
+     * Amounts are in minor units and probabilities in parts per million, see {@link Money}. The configuration
+     * is compiled on every call; code evaluating bets should use a {@link CompiledRewardStrategy} instead.
+     * </p>
      *
      * @param jackpot the jackpot being evaluated (must not be null)
      * @param randomDraw a random value in the range [0.0, 1.0) used to determine if the bet wins
@@ -52,7 +70,9 @@ public interface RewardStrategy {
      * @throws IllegalStateException if the jackpot is missing required configuration for this strategy
      * @throws NullPointerException if jackpot is null
      */
-    RewardResult evaluate(Jackpot jackpot, double randomDraw);
+    default RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+        return compile(JackpotConfig.from(jackpot)).evaluate(jackpot, randomDraw);
+    }
 
     /**
      * Helper method to validate required configuration values.
@@ -60,9 +80,27 @@ public interface RewardStrategy {
      * @param value the configuration value to check
      * @param message the error message if value is null
      * @return the value if not null
-     * @throws NullPointerException if value is null
+     * @throws IllegalStateException if value is null
+     */
+    default long require(Long value, String message) {
+        if (value == null) {
+            throw new IllegalStateException(message);
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to validate a configured probability, which must lie between 0 and 1.
+     *
+     * @param value the probability, in parts per million
+     * @param name the name of the configuration value, for the error message
+     * @return the probability
+     * @throws IllegalStateException if the probability is out of range
      */
-    default BigDecimal require(BigDecimal value, String message) {
-        return Objects.requireNonNull(value, message);
+    default long requireProbability(long value, String name) {
+        if (value < 0 || value > Money.PPM) {
+            throw new IllegalStateException(name + " must be between 0 and 1");
+        }
+        return value;
     }
 }
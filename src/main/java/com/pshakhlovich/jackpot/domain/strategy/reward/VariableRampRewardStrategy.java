@@ -1,10 +1,9 @@
 package com.pshakhlovich.jackpot.domain.strategy.reward;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Objects;
 import org.springframework.stereotype.Component;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
 
@@ -27,6 +26,11 @@ import com.pshakhlovich.jackpot.service.dto.RewardResult;
  * payout = min(currentPool, rewardCap) if win, else 0
  * </pre>
  * <p>
+ * The pool ratio is rounded half-up to 6 decimal places. The probability is drawn against exactly,
+ * in units of 10<sup>-12</sup>, and reported rounded half-up to 6 decimal places. The probability of a pool
+ * at or above the cap is computed once, when the configuration is compiled.
+ * </p>
+ * <p>
  * <strong>Example:</strong>
  * </p>
  * <ul>
@@ -55,6 +59,9 @@ import com.pshakhlovich.jackpot.service.dto.RewardResult;
  *   <li>{@code rewardRampRate} - How much probability increases as pool fills (typically maxProb - baseProb)</li>
  *   <li>{@code rewardCap} - The pool size at which probability reaches maximum (must be positive)</li>
  * </ul>
+ * <p>
+ * Probabilities and the ramp rate must lie between 0 and 1.
+ * </p>
  *
  * @see RewardStrategy
  * @see RewardStrategyType#VARIABLE_RAMP
@@ -62,85 +69,110 @@ import com.pshakhlovich.jackpot.service.dto.RewardResult;
 @Component
 public class VariableRampRewardStrategy implements RewardStrategy {
 
+    // A probability of 1.0, the probability being exact to 12 decimal places
+    private static final long PROBABILITY_ONE = Money.PPM * Money.PPM;
+
     @Override
     public RewardStrategyType type() {
         return RewardStrategyType.VARIABLE_RAMP;
     }
 
     /**
-     * Evaluates a bet for jackpot reward using variable ramping probability.
+     * Validates the ramp configuration of a jackpot and binds the strategy to it.
      *
-     * @param jackpot the jackpot being evaluated (must have all required configuration)
-     * @param randomDraw a random value in [0.0, 1.0) used to determine win
-     * @return the reward evaluation result
+     * @param config the jackpot configuration (must have all required configuration)
+     * @return the strategy bound to the configuration
      * @throws IllegalStateException if required configuration is missing or invalid
      */
     @Override
-    public RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+    public CompiledRewardStrategy compile(JackpotConfig config) {
         // Validate and retrieve all required configuration parameters
-        BigDecimal baseProbability = require(jackpot.getRewardBaseProbability(), "Variable ramp strategy requires base probability");
-        BigDecimal maxProbability = require(jackpot.getRewardMaxProbability(), "Variable ramp strategy requires max probability");
-        BigDecimal rampRate = require(jackpot.getRewardRampRate(), "Variable ramp strategy requires ramp rate");
-        BigDecimal rewardCap = require(jackpot.getRewardCap(), "Variable ramp strategy requires reward cap");
+        long baseProbability = require(config.rewardBaseProbabilityPpm(), "Variable ramp strategy requires base probability");
+        long maxProbability = require(config.rewardMaxProbabilityPpm(), "Variable ramp strategy requires max probability");
+        long rampRate = require(config.rewardRampRatePpm(), "Variable ramp strategy requires ramp rate");
+        long rewardCap = require(config.rewardCapMinor(), "Variable ramp strategy requires reward cap");
 
-        if (rewardCap.signum() <= 0) {
+        if (rewardCap <= 0) {
             throw new IllegalStateException("rewardCap must be positive");
         }
 
-        // Calculate the pool ratio: how full is the pool compared to the cap?
-        // Range: [0.0, 1.0] where 0.0 = empty pool, 1.0 = pool at or above cap
-        BigDecimal poolRatio = jackpot.getCurrentPool()
-                .divide(rewardCap, 6, RoundingMode.HALF_UP); // Use 6 decimal precision for probability calculations
+        // Probabilities are scaled by PPM so that the product with the ratio stays exact
+        long scaledBaseProbability = requireProbability(baseProbability, "rewardBaseProbability") * Money.PPM;
+        long scaledMaxProbability = requireProbability(maxProbability, "rewardMaxProbability") * Money.PPM;
+        requireProbability(rampRate, "rewardRampRate");
 
-        // Cap the ratio at 1.0 if pool exceeds the reward cap
-        if (poolRatio.compareTo(BigDecimal.ONE) > 0) {
-            poolRatio = BigDecimal.ONE;
-        }
+        // Every pool at or above the cap has a ratio of 1.0 and so the same probability
+        long capProbability = Math.min(scaledBaseProbability + rampRate * Money.PPM, scaledMaxProbability);
 
-        // Calculate probability using linear ramp formula:
-        // probability = baseProbability + (rampRate * poolRatio)
-        //
-        // Example with poolRatio = 0.75:
-        //   baseProbability = 0.001 (0.1%)
-        //   rampRate = 0.999 (99.9% increase range)
-        //   probability = 0.001 + (0.999 * 0.75) = 0.75025 (75%)
-        //
-        // This creates increasing urgency as the pool fills:
-        //   Pool at 25% → ~25% win chance
-        //   Pool at 50% → ~50% win chance
-        //   Pool at 75% → ~75% win chance
-        //   Pool at 100% → 100% win chance (guaranteed)
-        BigDecimal probability = baseProbability.add(rampRate.multiply(poolRatio));
-
-        // Enforce the maximum probability ceiling
-        // This prevents probability from exceeding 100% or other configured limits
-        if (probability.compareTo(maxProbability) > 0) {
-            probability = maxProbability;
-        }
+        return new Compiled(scaledBaseProbability, scaledMaxProbability, rampRate, rewardCap,
+                capProbability, (double) capProbability / PROBABILITY_ONE);
+    }
+
+    // Probabilities are scaled by PPM, the ramp rate is in parts per million and the cap in minor units
+    private record Compiled(long baseProbability, long maxProbability, long rampRate, long rewardCap,
+                            long capProbability, double capWinBelow) implements CompiledRewardStrategy {
+
+        @Override
+        public RewardResult evaluate(Jackpot jackpot, double randomDraw) {
+            long pool = jackpot.getCurrentPoolMinor();
+            long probability;
+            boolean win;
+            if (pool >= rewardCap) {
+                probability = capProbability;
+                win = randomDraw < capWinBelow;
+            } else {
+                probability = probability(pool);
+                // Determine if this bet wins by comparing random draw to calculated probability
+                // Example: randomDraw=0.500 < probability=0.75025 → WIN!
+                // The division is correctly rounded, so this agrees with comparing the draw's decimal form
+                win = randomDraw < (double) probability / PROBABILITY_ONE;
+            }
 
-        // Determine if this bet wins by comparing random draw to calculated probability
-        // Example: randomDraw=0.500 < probability=0.75025 → WIN!
-        boolean win = BigDecimal.valueOf(randomDraw).compareTo(probability) < 0;
+            long payout = 0;
 
-        BigDecimal payout = BigDecimal.ZERO;
+            if (win) {
+                // Calculate payout as the lesser of current pool and reward cap
+                // This ensures we never pay out more than configured maximum
+                payout = Math.min(pool, rewardCap);
 
-        if (win) {
-            // Calculate payout as the lesser of current pool and reward cap
-            // This ensures we never pay out more than configured maximum
-            payout = jackpot.getCurrentPool().min(rewardCap).setScale(2, RoundingMode.HALF_UP);
+                // Reset the jackpot pool to its initial value after winning
+                // This starts a new jackpot cycle from the beginning
+                jackpot.resetPoolToInitial();
+            }
 
-            // Reset the jackpot pool to its initial value after winning
-            // This starts a new jackpot cycle from the beginning
-            jackpot.resetPoolToInitial();
+            // Return comprehensive result with strategy type, calculated probability,
+            // payout amount, updated pool, and win status
+            return new RewardResult(
+                    RewardStrategyType.VARIABLE_RAMP,
+                    Money.divHalfUp(probability, Money.PPM),
+                    payout,
+                    jackpot.getCurrentPoolMinor(),
+                    win);
         }
 
-        // Return comprehensive result with strategy type, calculated probability,
-        // payout amount, updated pool, and win status
-        return new RewardResult(
-                RewardStrategyType.VARIABLE_RAMP,
-                probability.setScale(6, RoundingMode.HALF_UP),
-                payout,
-                jackpot.getCurrentPool(),
-                win);
+        private long probability(long pool) {
+            // Calculate the pool ratio: how full is the pool compared to the cap?
+            // Range: [0, PPM], as the pool is below the cap
+            long poolRatio = Money.mulDivHalfUp(pool, Money.PPM, rewardCap);
+
+            // Calculate probability using linear ramp formula:
+            // probability = baseProbability + (rampRate * poolRatio)
+            //
+            // Example with poolRatio = 0.75:
+            //   baseProbability = 0.001 (0.1%)
+            //   rampRate = 0.999 (99.9% increase range)
+            //   probability = 0.001 + (0.999 * 0.75) = 0.75025 (75%)
+            //
+            // This creates increasing urgency as the pool fills:
+            //   Pool at 25% → ~25% win chance
+            //   Pool at 50% → ~50% win chance
+            //   Pool at 75% → ~75% win chance
+            //   Pool at 100% → 100% win chance (guaranteed)
+            long probability = baseProbability + rampRate * poolRatio;
+
+            // Enforce the maximum probability ceiling
+            // This prevents probability from exceeding 100% or other configured limits
+            return Math.min(probability, maxProbability);
+        }
     }
 }
@@ -0,0 +1,108 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.service.ContributionService;
+import com.pshakhlovich.jackpot.service.JackpotConcurrencyControl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Applies each polled batch of bets in a single transaction.
+ * <p>
+ * If the batch fails as a whole, nothing of it was written and its bets are replayed one at a time,
+ * each in its own transaction. The first bet that fails again is reported to the error handler by
+ * index, which commits the offsets of the bets before it and retries from there, as in record mode.
+ * </p>
+ * <p>
+ * With database offset storage the consumed offsets are stored in the transaction that applies the bets,
+ * which is repeated as a whole while it conflicts on an optimistic jackpot; see {@link JackpotConcurrencyControl}.
+ * Otherwise the listener opens no transaction of its own and the contribution service runs its own, so
+ * no connection is held while the in-memory engine writes the bets behind.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jackpot.consumer", name = "mode", havingValue = "BATCH")
+public class BetBatchMessageListener {
+
+    private final ContributionService contributionService;
+    private final ConsumerOffsetStore offsetStore;
+    private final JackpotConcurrencyControl concurrencyControl;
+    private final TransactionOperations transactionOperations;
+
+    @KafkaListener(topics = KafkaTopicsConfig.BETS_TOPIC, containerFactory = "betListenerContainerFactory")
+    public void onBets(List<ConsumerRecord<String, Bet>> records) {
+        List<Bet> bets = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Bet> record : records) {
+            // Batch listeners receive records that failed to deserialize with a null value
+            if (record.value() == null) {
+                log.error("Skipping undeserializable bet at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            bets.add(record.value());
+        }
+        log.debug("Received {} bets", bets.size());
+        try {
+            applyAll(bets, records);
+        } catch (RuntimeException ex) {
+            log.warn("Batch of {} bets failed, applying them one at a time: {}", bets.size(), ex.getMessage());
+            applyIndividually(records);
+        }
+    }
+
+    private void applyIndividually(List<ConsumerRecord<String, Bet>> records) {
+        for (int index = 0; index < records.size(); index++) {
+            ConsumerRecord<String, Bet> record = records.get(index);
+            Bet bet = record.value();
+            if (bet == null) {
+                continue;
+            }
+            try {
+                apply(bet, record);
+            } catch (RuntimeException ex) {
+                throw new BatchListenerFailedException("Failed to apply bet %s".formatted(bet.getBetId()), ex, index);
+            }
+        }
+    }
+
+    private void applyAll(List<Bet> bets, List<ConsumerRecord<String, Bet>> records) {
+        if (!offsetStore.isEnabled()) {
+            if (!bets.isEmpty()) {
+                contributionService.applyContributions(bets);
+            }
+            return;
+        }
+        Set<String> jackpotIds = bets.stream().map(Bet::getJackpotId).collect(Collectors.toSet());
+        concurrencyControl.run("contribution-batch", jackpotIds,
+                () -> transactionOperations.executeWithoutResult(status -> {
+                    if (!bets.isEmpty()) {
+                        contributionService.applyContributions(bets);
+                    }
+                    offsetStore.store(records);
+                }));
+    }
+
+    private void apply(Bet bet, ConsumerRecord<String, Bet> record) {
+        if (!offsetStore.isEnabled()) {
+            contributionService.applyContribution(bet);
+            return;
+        }
+        concurrencyControl.run("contribution", List.of(bet.getJackpotId()),
+                () -> transactionOperations.executeWithoutResult(status -> {
+                    contributionService.applyContribution(bet);
+                    offsetStore.store(record);
+                }));
+    }
+}
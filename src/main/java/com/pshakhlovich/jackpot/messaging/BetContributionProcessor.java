@@ -0,0 +1,110 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.avro.ContributionEvent;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.JackpotRegistry;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+
+/**
+ * Applies the contribution of each bet to the pool of its jackpot, held in a state store of the stream task.
+ * <p>
+ * Bets are keyed by jackpot, so all bets of a jackpot reach the same task, one after another, and its
+ * pool is read and written without a lock. Each applied bet is forwarded as a {@link ContributionEvent}
+ * carrying the pool it left. With exactly-once processing the store update, the event and the bet's
+ * offset commit together, so a bet replayed after a failure is applied once.
+ * </p>
+ * <p>
+ * A jackpot seen by the task for the first time starts from its pool in the database. Pools are
+ * stored in minor units, as the database holds them.
+ * </p>
+ * <p>
+ * A bet seen again within {@code jackpot.engine.streams.dedupe-retention} of its first delivery is skipped.
+ * </p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BetContributionProcessor implements Processor<String, Bet, String, ContributionEvent> {
+
+    public static final String POOLS_STORE = "jackpot-pools";
+    public static final String APPLIED_BETS_STORE = "jackpot-applied-bets";
+
+    private final JackpotRegistry jackpotRegistry;
+    private final StrategyRegistry strategyRegistry;
+    private final JackpotRepository jackpotRepository;
+    private final Duration dedupeRetention;
+
+    private ProcessorContext<String, ContributionEvent> context;
+    private KeyValueStore<String, Long> pools;
+    private WindowStore<String, Long> appliedBets;
+
+    @Override
+    public void init(ProcessorContext<String, ContributionEvent> context) {
+        this.context = context;
+        this.pools = context.getStateStore(POOLS_STORE);
+        this.appliedBets = context.getStateStore(APPLIED_BETS_STORE);
+    }
+
+    @Override
+    public void process(Record<String, Bet> record) {
+        Bet bet = record.value();
+        String appliedBetKey = bet.getJackpotId() + ':' + bet.getBetId();
+        if (isApplied(appliedBetKey, record.timestamp())) {
+            log.info("Skipping duplicate bet: betId={}, jackpotId={}", bet.getBetId(), bet.getJackpotId());
+            return;
+        }
+        Optional<JackpotConfig> config = jackpotRegistry.find(bet.getJackpotId());
+        if (config.isEmpty()) {
+            // Removed since the topology routed it here; nothing to contribute to
+            log.warn("Dropping bet {} for unknown jackpot {}", bet.getBetId(), bet.getJackpotId());
+            return;
+        }
+
+        Jackpot jackpot = config.get().detached(pool(config.get()));
+        long betAmount = Money.ofBetAmount(bet.getBetAmount());
+        ContributionResult result = strategyRegistry.contributionStrategyFor(config.get()).contribute(jackpot, betAmount);
+
+        pools.put(jackpot.getId(), result.updatedPoolMinor());
+        appliedBets.put(appliedBetKey, record.timestamp(), record.timestamp());
+        context.forward(record.withValue(ContributionEvent.newBuilder()
+                .setBetId(bet.getBetId())
+                .setUserId(bet.getUserId())
+                .setJackpotId(bet.getJackpotId())
+                .setBetAmount(Money.toDecimal(betAmount))
+                .setContributionAmount(result.contributionAmount())
+                .setPostContributionPool(result.updatedPool())
+                .setStrategy(result.strategy().name())
+                .setCreatedAt(Instant.ofEpochMilli(record.timestamp()))
+                .build()));
+    }
+
+    private boolean isApplied(String appliedBetKey, long timestamp) {
+        try (WindowStoreIterator<Long> applied = appliedBets.fetch(appliedBetKey,
+                Instant.ofEpochMilli(timestamp).minus(dedupeRetention), Instant.ofEpochMilli(timestamp))) {
+            return applied.hasNext();
+        }
+    }
+
+    private long pool(JackpotConfig config) {
+        Long stored = pools.get(config.id());
+        if (stored != null) {
+            return stored;
+        }
+        return jackpotRepository.findCurrentPool(config.id()).orElse(config.initialPoolMinor());
+    }
+}
@@ -3,24 +3,48 @@ package com.pshakhlovich.jackpot.messaging;
 import com.pshakhlovich.jackpot.avro.Bet;
 import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
 import com.pshakhlovich.jackpot.service.ContributionService;
+import com.pshakhlovich.jackpot.service.JackpotConcurrencyControl;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+/**
+ * Applies each bet on its own.
+ * <p>
+ * With database offset storage the offset is stored in the transaction that applies the bet, which is repeated
+ * as a whole while it conflicts on an optimistic jackpot; see {@link JackpotConcurrencyControl}. Otherwise the
+ * listener opens no transaction of its own and the contribution service runs its own, so no connection is held
+ * while the in-memory engine writes the bet behind.
+ * </p>
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jackpot.consumer", name = "mode", havingValue = "RECORD", matchIfMissing = true)
 public class BetMessageListener {
 
     private final ContributionService contributionService;
+    private final ConsumerOffsetStore offsetStore;
+    private final JackpotConcurrencyControl concurrencyControl;
+    private final TransactionOperations transactionOperations;
 
-    @Transactional("transactionManager")
     @KafkaListener(topics = KafkaTopicsConfig.BETS_TOPIC, containerFactory = "betListenerContainerFactory")
-    public void onBet(@Payload Bet bet) {
+    public void onBet(ConsumerRecord<String, Bet> record) {
+        Bet bet = record.value();
         log.debug("Received bet {} for jackpot {}", bet.getBetId(), bet.getJackpotId());
-        contributionService.applyContribution(bet);
+        if (!offsetStore.isEnabled()) {
+            contributionService.applyContribution(bet);
+            return;
+        }
+        concurrencyControl.run("contribution", List.of(bet.getJackpotId()),
+                () -> transactionOperations.executeWithoutResult(status -> {
+                    contributionService.applyContribution(bet);
+                    offsetStore.store(record);
+                }));
     }
 }
@@ -1,9 +1,15 @@
 package com.pshakhlovich.jackpot.messaging;
 
 import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaProducerConfig;
 import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.messaging.avro.BetWireFormat;
+import com.pshakhlovich.jackpot.messaging.avro.ScannedBet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
@@ -14,6 +20,10 @@ import org.springframework.stereotype.Component;
 public class BetMessageProducer {
 
     private final KafkaTemplate<String, Bet> kafkaTemplate;
+    @Qualifier(KafkaProducerConfig.ASYNC_BET_TEMPLATE)
+    private final KafkaTemplate<String, Bet> asyncKafkaTemplate;
+    private final KafkaTemplate<String, byte[]> rawKafkaTemplate;
+    private final BetWireFormat betWireFormat;
 
     public void publish(Bet bet) {
         kafkaTemplate.executeInTransaction(operations -> {
@@ -23,6 +33,73 @@ public class BetMessageProducer {
         });
     }
 
+    /**
+     * Publishes all bets within a single producer transaction, so the whole batch
+     * pays for one transaction begin/commit instead of one per bet.
+     */
+    public void publishAll(List<Bet> bets) {
+        if (bets.isEmpty()) {
+            return;
+        }
+        kafkaTemplate.executeInTransaction(operations -> {
+            bets.forEach(bet -> operations.send(KafkaTopicsConfig.BETS_TOPIC, bet.getJackpotId(), bet)
+                    .whenComplete((result, throwable) -> handleResult(bet, result, throwable)));
+            return null;
+        });
+        log.info("Published batch of {} bets to topic {}", bets.size(), KafkaTopicsConfig.BETS_TOPIC);
+    }
+
+    /**
+     * Publishes already-encoded bets within a single producer transaction.
+     * <p>
+     * Each datum is framed with the registered bet schema id and sent as is, skipping
+     * Avro serialization entirely.
+     * </p>
+     */
+    public void publishAllEncoded(List<ScannedBet> bets) {
+        if (bets.isEmpty()) {
+            return;
+        }
+        rawKafkaTemplate.executeInTransaction(operations -> {
+            bets.forEach(bet -> operations.send(KafkaTopicsConfig.BETS_TOPIC, bet.jackpotId(), betWireFormat.frame(bet))
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            log.error("Failed to publish bet {} to topic {}", bet.betId(), KafkaTopicsConfig.BETS_TOPIC, throwable);
+                        }
+                    }));
+            return null;
+        });
+        log.info("Published {} encoded bets to topic {}", bets.size(), KafkaTopicsConfig.BETS_TOPIC);
+    }
+
+    /**
+     * Publishes a bet without a producer transaction and without blocking the caller.
+     *
+     * @return a future completed with the send result once the broker acknowledges the record
+     */
+    public CompletableFuture<SendResult<String, Bet>> publishAsync(Bet bet) {
+        return asyncKafkaTemplate.send(KafkaTopicsConfig.BETS_TOPIC, bet.getJackpotId(), bet)
+                .whenComplete((result, throwable) -> handleResult(bet, result, throwable));
+    }
+
+    /**
+     * Publishes a bet without a producer transaction for bulk ingestion.
+     * <p>
+     * Only failures are logged; per-bet success logging would dominate the cost of
+     * replaying large files.
+     * </p>
+     *
+     * @return a future completed with the send result once the broker acknowledges the record
+     */
+    public CompletableFuture<SendResult<String, Bet>> publishBulk(Bet bet) {
+        return asyncKafkaTemplate.send(KafkaTopicsConfig.BETS_TOPIC, bet.getJackpotId(), bet)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish bet {} to topic {}", bet.getBetId(), KafkaTopicsConfig.BETS_TOPIC, throwable);
+                    }
+                });
+    }
+
     private void handleResult(Bet bet, SendResult<String, Bet> result, Throwable throwable) {
         if (throwable != null) {
             log.error("Failed to publish bet {} to topic {}", bet.getBetId(), KafkaTopicsConfig.BETS_TOPIC, throwable);
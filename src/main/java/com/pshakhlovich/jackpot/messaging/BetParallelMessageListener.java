@@ -0,0 +1,78 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.service.ContributionService;
+import com.pshakhlovich.jackpot.support.KeyOrderedExecutor;
+import java.util.concurrent.Executors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies bets of a partition concurrently, keeping bets of the same jackpot in order.
+ * <p>
+ * The listener only hands each bet to the worker of its jackpot and returns, so one partition
+ * feeds as many workers as it carries jackpots. A bet is acknowledged once applied; the container
+ * commits offsets up to the lowest unacknowledged one, so a restart never skips a bet still in flight.
+ * </p>
+ * <p>
+ * A bet that fails is forwarded with {@code betRecoverer} to the retry topics and acknowledged,
+ * as the container error handler does in the other modes. A record without a value, a tombstone or
+ * one that failed to deserialize, is logged and acknowledged without being applied.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jackpot.consumer", name = "mode", havingValue = "PARALLEL")
+public class BetParallelMessageListener implements DisposableBean {
+
+    private final ContributionService contributionService;
+    private final ConsumerRecordRecoverer betRecoverer;
+    private final KeyOrderedExecutor<String> workers = new KeyOrderedExecutor<>(Executors.newVirtualThreadPerTaskExecutor());
+
+    @KafkaListener(topics = KafkaTopicsConfig.BETS_TOPIC, containerFactory = "betListenerContainerFactory")
+    public void onBet(ConsumerRecord<String, Bet> record, Acknowledgment acknowledgment) {
+        Bet bet = record.value();
+        if (bet == null) {
+            log.error("Skipping bet without a value at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+        log.debug("Received bet {} for jackpot {}", bet.getBetId(), bet.getJackpotId());
+        workers.submit(bet.getJackpotId(), () -> {
+            if (apply(record)) {
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    private boolean apply(ConsumerRecord<String, Bet> record) {
+        try {
+            contributionService.applyContribution(record.value());
+            return true;
+        } catch (RuntimeException ex) {
+            try {
+                betRecoverer.accept(record, ex);
+                return true;
+            } catch (RuntimeException forwardFailure) {
+                // Left unacknowledged, so offsets are not committed past it and it is consumed again after a restart
+                log.error("Failed to forward bet at {}-{}@{} for retry",
+                        record.topic(), record.partition(), record.offset(), forwardFailure);
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        workers.close();
+    }
+}
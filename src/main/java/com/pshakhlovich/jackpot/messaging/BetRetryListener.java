@@ -0,0 +1,100 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.service.ContributionService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes the retry topics, one container per topic.
+ * <p>
+ * Every bet on a retry topic was delayed by the same amount, so bets become due in offset order.
+ * A container therefore simply waits until the bet at the head of its partition is due; the wait
+ * is cut short when the container stops. A bet that fails again is forwarded by the container
+ * error handler to the next retry topic or the dead-letter topic.
+ * </p>
+ */
+@Slf4j
+@Component
+public class BetRetryListener implements SmartLifecycle {
+
+    private final ContributionService contributionService;
+    private final BetRetryRouter retryRouter;
+    private final ConcurrentKafkaListenerContainerFactory<String, Bet> containerFactory;
+    private final boolean autoStartup;
+    private final List<ConcurrentMessageListenerContainer<String, Bet>> containers = new ArrayList<>();
+
+    public BetRetryListener(ContributionService contributionService,
+                            BetRetryRouter retryRouter,
+                            @Qualifier("betRetryListenerContainerFactory")
+                            ConcurrentKafkaListenerContainerFactory<String, Bet> containerFactory,
+                            JackpotEngineProperties engineProperties) {
+        this.contributionService = contributionService;
+        this.retryRouter = retryRouter;
+        this.containerFactory = containerFactory;
+        // The Kafka Streams engine never forwards bets to the retry topics
+        this.autoStartup = engineProperties.mode() != JackpotEngineProperties.Mode.STREAMS;
+    }
+
+    void onRetry(ConsumerRecord<String, Bet> record, MessageListenerContainer container) throws InterruptedException {
+        Duration remaining = retryRouter.remainingDelay(record);
+        if (!remaining.isZero()) {
+            ListenerUtils.stoppableSleep(container, remaining.toMillis());
+        }
+        Bet bet = record.value();
+        log.debug("Retrying bet {} for jackpot {} from {}", bet.getBetId(), bet.getJackpotId(), record.topic());
+        contributionService.applyContribution(bet);
+    }
+
+    @Override
+    public synchronized void start() {
+        for (String topic : retryRouter.retryTopics()) {
+            ConcurrentMessageListenerContainer<String, Bet> container = containerFactory.createContainer(topic);
+            container.setBeanName(topic + "-listener");
+            container.setupMessageListener((MessageListener<String, Bet>) record -> {
+                try {
+                    onRetry(record, container);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting to retry bet", ex);
+                }
+            });
+            container.start();
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    // Start and stop alongside the @KafkaListener containers
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 100;
+    }
+}
@@ -0,0 +1,118 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.support.UniqueConstraints;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides where a bet that failed to apply goes next.
+ * <p>
+ * A bet from the main topic goes to the first retry topic, a bet from a retry topic to the next
+ * one, and a bet from the last retry topic to the dead-letter topic. Bets that can never succeed
+ * skip the retries: undeserializable records go straight to the dead-letter topic, and bets
+ * rejected by the unique contribution key have already been applied and are dropped. Any other
+ * integrity violation, such as a bet ID longer than its column, is retried like other failures.
+ * </p>
+ * <p>
+ * Forwarded bets carry the time they become due in the {@value #DUE_AT_HEADER} header.
+ * </p>
+ */
+@Slf4j
+@Component
+public class BetRetryRouter {
+
+    public static final String DUE_AT_HEADER = "jackpot-retry-due-at";
+
+    // Let the producer partition by key, so bets of a jackpot stay together on every topic
+    private static final int ANY_PARTITION = -1;
+
+    private final List<Duration> delays;
+    private final List<String> retryTopics;
+    private final Clock clock;
+
+    public BetRetryRouter(BetConsumerProperties consumerProperties, Clock clock) {
+        this.delays = List.copyOf(consumerProperties.retry().delays());
+        this.retryTopics = IntStream.range(0, delays.size())
+                .mapToObj(KafkaTopicsConfig::betsRetryTopic)
+                .toList();
+        this.clock = clock;
+    }
+
+    public List<String> retryTopics() {
+        return retryTopics;
+    }
+
+    /**
+     * Destination for a failed record, in the form expected by {@code DeadLetterPublishingRecoverer}.
+     *
+     * @return the next topic, or {@code null} to drop the record
+     */
+    public TopicPartition destination(ConsumerRecord<?, ?> record, Exception failure) {
+        if (UniqueConstraints.isViolated(failure, JackpotContribution.UNIQUE_BET_CONSTRAINT)) {
+            log.warn("Dropping bet at {}-{}@{}: already applied", record.topic(), record.partition(), record.offset());
+            return null;
+        }
+        int next = nextTier(record, failure);
+        String topic = next < retryTopics.size() ? retryTopics.get(next) : KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC;
+        log.warn("Forwarding failed bet at {}-{}@{} to {}: {}",
+                record.topic(), record.partition(), record.offset(), topic, failure.getMessage());
+        return new TopicPartition(topic, ANY_PARTITION);
+    }
+
+    /**
+     * Headers added to a forwarded record.
+     */
+    public Headers headers(ConsumerRecord<?, ?> record, Exception failure) {
+        RecordHeaders headers = new RecordHeaders();
+        int next = nextTier(record, failure);
+        if (next < delays.size()) {
+            Instant dueAt = clock.instant().plus(delays.get(next));
+            headers.add(DUE_AT_HEADER, Long.toString(dueAt.toEpochMilli()).getBytes(StandardCharsets.UTF_8));
+        }
+        return headers;
+    }
+
+    /**
+     * How long a record read from a retry topic must still be held back.
+     */
+    public Duration remainingDelay(ConsumerRecord<?, ?> record) {
+        Header dueAt = record.headers().lastHeader(DUE_AT_HEADER);
+        if (dueAt == null) {
+            return Duration.ZERO;
+        }
+        long dueAtMillis = Long.parseLong(new String(dueAt.value(), StandardCharsets.UTF_8));
+        long remaining = dueAtMillis - clock.millis();
+        return remaining > 0 ? Duration.ofMillis(remaining) : Duration.ZERO;
+    }
+
+    private int nextTier(ConsumerRecord<?, ?> record, Exception failure) {
+        if (hasCause(failure, DeserializationException.class)) {
+            return retryTopics.size();
+        }
+        return retryTopics.indexOf(record.topic()) + 1;
+    }
+
+    private static boolean hasCause(Throwable failure, Class<? extends Throwable> type) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
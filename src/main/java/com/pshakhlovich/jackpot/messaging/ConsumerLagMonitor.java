@@ -0,0 +1,260 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.config.BetIngestionProperties;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how far the contribution consumer group is behind on each partition of the bets topic.
+ * <p>
+ * Lag is the distance between the end of a partition and the offset the group last committed;
+ * the processing rate is derived from how fast that committed offset moves and is smoothed across
+ * checks. Both are exported as gauges tagged by partition. A jackpot's lag is the lag of the
+ * partition its bets are keyed to.
+ * </p>
+ * <p>
+ * Offsets are fetched with the non-blocking admin API: the scheduled check only issues the requests,
+ * and the lag is recomputed on the admin client's thread once they complete. A check is skipped while
+ * the previous one is still outstanding. Lag is only monitored while admission control is enabled; the
+ * admin client is created on the first check.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ConsumerLagMonitor implements DisposableBean {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    // Weight of the latest observation in the smoothed processing rate
+    private static final double RATE_SMOOTHING = 0.5;
+
+    private final Supplier<Admin> adminFactory;
+    private final String groupId;
+    private final boolean enabled;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Set<Integer> registeredPartitions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile Admin admin;
+
+    public ConsumerLagMonitor(KafkaAdmin kafkaAdmin,
+                              KafkaProperties kafkaProperties,
+                              BetIngestionProperties ingestionProperties,
+                              Clock clock,
+                              MeterRegistry meterRegistry) {
+        this(() -> Admin.create(kafkaAdmin.getConfigurationProperties()),
+                kafkaProperties.getConsumer().getGroupId(), ingestionProperties.admission().enabled(), clock, meterRegistry);
+    }
+
+    ConsumerLagMonitor(Supplier<Admin> adminFactory, String groupId, boolean enabled, Clock clock, MeterRegistry meterRegistry) {
+        this.adminFactory = adminFactory;
+        this.groupId = groupId;
+        this.enabled = enabled;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the lag of the partition that bets of the given jackpot are published to.
+     *
+     * @param jackpotId the jackpot identifier, which is also the record key
+     * @return the partition lag, or empty while lag has not been measured yet
+     */
+    public Optional<PartitionLag> lagOf(String jackpotId) {
+        Snapshot current = snapshot;
+        if (current.partitions().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.partitions().get(partitionOf(jackpotId, current.partitionCount())));
+    }
+
+    /**
+     * Requests committed and end offsets of the bets topic and recomputes lag once both have arrived.
+     * <p>
+     * Returns without waiting for the brokers. When they cannot be reached within the request timeout
+     * the previous measurement is kept.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${jackpot.ingestion.admission.check-interval:PT1S}")
+    public void refresh() {
+        if (!enabled || !checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Admin client = admin();
+            int timeoutMs = (int) REQUEST_TIMEOUT.toMillis();
+            CompletionStage<Map<TopicPartition, OffsetAndMetadata>> committed = client
+                    .listConsumerGroupOffsets(groupId, new ListConsumerGroupOffsetsOptions().timeoutMs(timeoutMs))
+                    .partitionsToOffsetAndMetadata()
+                    .toCompletionStage();
+            client.describeTopics(List.of(KafkaTopicsConfig.BETS_TOPIC), new DescribeTopicsOptions().timeoutMs(timeoutMs))
+                    .allTopicNames()
+                    .toCompletionStage()
+                    .thenCompose(topics -> client.listOffsets(
+                                    topics.get(KafkaTopicsConfig.BETS_TOPIC).partitions().stream()
+                                            .map(info -> new TopicPartition(KafkaTopicsConfig.BETS_TOPIC, info.partition()))
+                                            .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest())),
+                                    new ListOffsetsOptions().timeoutMs(timeoutMs))
+                            .all()
+                            .toCompletionStage())
+                    .thenCombine(committed, (ends, offsets) -> {
+                        updateFrom(ends, offsets);
+                        return null;
+                    })
+                    .whenComplete((result, failure) -> {
+                        checking.set(false);
+                        if (failure != null) {
+                            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                    ? failure.getCause()
+                                    : failure;
+                            log.warn("Failed to fetch lag of consumer group {}: {}", groupId, cause.getMessage());
+                        }
+                    });
+        } catch (RuntimeException ex) {
+            checking.set(false);
+            log.warn("Failed to fetch lag of consumer group {}: {}", groupId, ex.getMessage());
+        }
+    }
+
+    private void updateFrom(Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends,
+                            Map<TopicPartition, OffsetAndMetadata> committed) {
+        Map<Integer, Long> endOffsets = new HashMap<>();
+        ends.forEach((partition, info) -> endOffsets.put(partition.partition(), info.offset()));
+        Map<Integer, Long> committedOffsets = new HashMap<>();
+        committed.forEach((partition, offset) -> {
+            if (offset != null && KafkaTopicsConfig.BETS_TOPIC.equals(partition.topic())) {
+                committedOffsets.put(partition.partition(), offset.offset());
+            }
+        });
+        update(endOffsets, committedOffsets);
+    }
+
+    void update(Map<Integer, Long> endOffsets, Map<Integer, Long> committedOffsets) {
+        Instant now = clock.instant();
+        Snapshot previous = snapshot;
+        double elapsedSeconds = previous.measuredAt() != null
+                ? Duration.between(previous.measuredAt(), now).toMillis() / 1000.0
+                : 0;
+
+        Map<Integer, PartitionLag> partitions = new HashMap<>();
+        endOffsets.forEach((partition, endOffset) -> {
+            Long committedOffset = committedOffsets.get(partition);
+            // Nothing committed yet: the group has not started on this partition, so there is no position to measure from
+            if (committedOffset == null) {
+                return;
+            }
+            long lag = Math.max(0, endOffset - committedOffset);
+
+            PartitionLag last = previous.partitions().get(partition);
+            double rate = last != null ? last.rate() : 0;
+            if (last != null && elapsedSeconds > 0) {
+                double observed = Math.max(0, committedOffset - last.committedOffset()) / elapsedSeconds;
+                rate = RATE_SMOOTHING * observed + (1 - RATE_SMOOTHING) * last.rate();
+            }
+            partitions.put(partition, new PartitionLag(partition, committedOffset, lag, rate));
+            registerGauges(partition);
+        });
+        snapshot = new Snapshot(Map.copyOf(partitions), endOffsets.size(), now);
+    }
+
+    @Override
+    public void destroy() {
+        Admin client = admin;
+        if (client != null) {
+            client.close(REQUEST_TIMEOUT);
+        }
+    }
+
+    private Admin admin() {
+        Admin client = admin;
+        if (client == null) {
+            synchronized (this) {
+                client = admin;
+                if (client == null) {
+                    client = adminFactory.get();
+                    admin = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns the partition a record keyed by the jackpot id is assigned to by the default partitioner.
+     */
+    static int partitionOf(String jackpotId, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(jackpotId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    private void registerGauges(int partition) {
+        if (!registeredPartitions.add(partition)) {
+            return;
+        }
+        String tag = Integer.toString(partition);
+        Gauge.builder("jackpot.consumer.lag", this, monitor -> monitor.measure(partition, PartitionLag::lag))
+                .description("Bets published but not yet applied by the contribution consumer")
+                .baseUnit("bets")
+                .tag("topic", KafkaTopicsConfig.BETS_TOPIC)
+                .tag("partition", tag)
+                .register(meterRegistry);
+        Gauge.builder("jackpot.consumer.rate", this, monitor -> monitor.measure(partition, PartitionLag::rate))
+                .description("Smoothed rate at which the contribution consumer applies bets")
+                .baseUnit("bets/s")
+                .tag("topic", KafkaTopicsConfig.BETS_TOPIC)
+                .tag("partition", tag)
+                .register(meterRegistry);
+    }
+
+    private double measure(int partition, ToDoubleFunction<PartitionLag> metric) {
+        PartitionLag lag = snapshot.partitions().get(partition);
+        return lag != null ? metric.applyAsDouble(lag) : Double.NaN;
+    }
+
+    /**
+     * Consumer position on one partition of the bets topic.
+     *
+     * @param partition the partition number
+     * @param committedOffset the offset the group last committed
+     * @param lag the number of bets between the committed offset and the end of the partition
+     * @param rate the smoothed number of bets applied per second
+     */
+    public record PartitionLag(int partition, long committedOffset, long lag, double rate) {
+    }
+
+    private record Snapshot(Map<Integer, PartitionLag> partitions, int partitionCount, Instant measuredAt) {
+
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), 0, null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.domain.model.ConsumerOffset;
+import com.pshakhlovich.jackpot.repository.ConsumerOffsetRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the bet consumer position in the database when {@code jackpot.consumer.offset-storage=DATABASE}.
+ * <p>
+ * Listeners call {@link #store} inside the transaction that applies the consumed bets, so the
+ * contributions and the position commit or roll back together. On partition assignment the
+ * consumer is moved to the stored position, which makes replays after a crash skip exactly the
+ * bets that were already applied. With Kafka offset storage every method is a no-op.
+ * </p>
+ * <p>
+ * Database offset storage cannot be combined with the in-memory engine, which writes contributions
+ * behind in a transaction of its own; the position would commit before the bets it covers.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ConsumerOffsetStore implements ConsumerAwareRebalanceListener {
+
+    private final ConsumerOffsetRepository offsetRepository;
+    private final String groupId;
+    private final boolean enabled;
+
+    public ConsumerOffsetStore(ConsumerOffsetRepository offsetRepository,
+                               KafkaProperties kafkaProperties,
+                               BetConsumerProperties consumerProperties,
+                               JackpotEngineProperties engineProperties) {
+        this.offsetRepository = offsetRepository;
+        this.groupId = kafkaProperties.getConsumer().getGroupId();
+        this.enabled = consumerProperties.offsetStorage() == BetConsumerProperties.OffsetStorage.DATABASE;
+        if (enabled && engineProperties.mode() == JackpotEngineProperties.Mode.IN_MEMORY) {
+            throw new IllegalArgumentException(
+                    "jackpot.consumer.offset-storage=DATABASE cannot be used with jackpot.engine.mode=IN_MEMORY; "
+                            + "contributions are written behind, outside the transaction that stores the offsets");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the records as consumed, in the caller's transaction.
+     *
+     * @param records the applied records; only the highest offset per partition is written
+     */
+    @Transactional(value = "transactionManager", propagation = Propagation.MANDATORY)
+    public void store(Collection<? extends ConsumerRecord<?, ?>> records) {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> nextOffsets = records.stream().collect(Collectors.toMap(
+                record -> new TopicPartition(record.topic(), record.partition()),
+                record -> record.offset() + 1,
+                Math::max));
+
+        nextOffsets.forEach((partition, nextOffset) -> {
+            ConsumerOffset.Key key = new ConsumerOffset.Key(groupId, partition.topic(), partition.partition());
+            Optional<ConsumerOffset> stored = offsetRepository.findById(key);
+            if (stored.isPresent()) {
+                stored.get().setNextOffset(Math.max(stored.get().getNextOffset(), nextOffset));
+            } else {
+                offsetRepository.save(ConsumerOffset.builder().key(key).nextOffset(nextOffset).build());
+            }
+        });
+    }
+
+    @Transactional(value = "transactionManager", propagation = Propagation.MANDATORY)
+    public void store(ConsumerRecord<?, ?> record) {
+        store(List.of(record));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!enabled || partitions.isEmpty()) {
+            return;
+        }
+        Map<String, List<TopicPartition>> byTopic = partitions.stream()
+                .collect(Collectors.groupingBy(TopicPartition::topic));
+
+        byTopic.forEach((topic, assigned) -> {
+            Map<Integer, Long> stored = offsetRepository.findByGroupIdAndTopic(groupId, topic).stream()
+                    .collect(Collectors.toMap(offset -> offset.getKey().getPartition(), ConsumerOffset::getNextOffset));
+            for (TopicPartition partition : assigned) {
+                Long nextOffset = stored.get(partition.partition());
+                // Partitions never consumed in this mode keep the Kafka position or auto.offset.reset
+                if (nextOffset != null) {
+                    consumer.seek(partition, nextOffset);
+                    log.info("Resuming {} from stored offset {}", partition, nextOffset);
+                }
+            }
+        });
+    }
+}
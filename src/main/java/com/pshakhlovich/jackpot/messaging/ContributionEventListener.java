@@ -0,0 +1,46 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.ContributionEvent;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.service.ContributionProjection;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Projects the contributions computed by the Kafka Streams engine into the database, one polled batch per transaction.
+ * <p>
+ * A batch that fails is retried whole by the container error handler; contributions it already
+ * recorded are skipped on the next attempt.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jackpot.engine", name = "mode", havingValue = "STREAMS")
+public class ContributionEventListener {
+
+    private final ContributionProjection contributionProjection;
+
+    @KafkaListener(topics = KafkaTopicsConfig.CONTRIBUTIONS_TOPIC, containerFactory = "contributionEventListenerContainerFactory")
+    public void onContributions(List<ConsumerRecord<String, ContributionEvent>> records) {
+        List<ContributionEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, ContributionEvent> record : records) {
+            // Batch listeners receive records that failed to deserialize with a null value
+            if (record.value() == null) {
+                log.error("Skipping undeserializable contribution at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            events.add(record.value());
+        }
+        log.debug("Received {} contributions", events.size());
+        if (!events.isEmpty()) {
+            contributionProjection.project(events);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves bets from the dead-letter topic back to the bets topic.
+ * <p>
+ * Dead letters are read with a dedicated consumer group and forwarded byte for byte, keyed as
+ * they were, in one producer transaction per poll; the group offset is committed afterwards. A
+ * crash in between re-drives those bets again, which the consumer detects as duplicates.
+ * </p>
+ */
+@Slf4j
+@Component
+public class DeadLetterRedriver {
+
+    static final String GROUP_ID_SUFFIX = "-dlt-redrive";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+    private final KafkaTemplate<String, byte[]> rawBetKafkaTemplate;
+    private final String groupId;
+
+    public DeadLetterRedriver(ConsumerFactory<String, byte[]> deadLetterConsumerFactory,
+                              KafkaTemplate<String, byte[]> rawBetKafkaTemplate,
+                              KafkaProperties kafkaProperties) {
+        this.deadLetterConsumerFactory = deadLetterConsumerFactory;
+        this.rawBetKafkaTemplate = rawBetKafkaTemplate;
+        this.groupId = kafkaProperties.getConsumer().getGroupId() + GROUP_ID_SUFFIX;
+    }
+
+    /**
+     * Re-drives dead letters, oldest first.
+     *
+     * @param maxRecords the maximum number of dead letters to move
+     * @return the number of dead letters moved
+     */
+    public synchronized int redrive(int maxRecords) {
+        try (Consumer<String, byte[]> consumer = deadLetterConsumerFactory.createConsumer(groupId, null)) {
+            // Assigned rather than subscribed, so the first poll does not wait for a group rebalance
+            List<TopicPartition> partitions = consumer.partitionsFor(KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            int redriven = 0;
+            while (redriven < maxRecords) {
+                int limit = maxRecords - redriven;
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<ConsumerRecord<String, byte[]>> batch = new ArrayList<>();
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (batch.size() == limit) {
+                        break;
+                    }
+                    batch.add(record);
+                    offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                rawBetKafkaTemplate.executeInTransaction(operations -> {
+                    batch.forEach(record -> operations.send(KafkaTopicsConfig.BETS_TOPIC, record.key(), record.value()));
+                    return null;
+                });
+                // Records polled beyond the limit are not committed and are read again next time
+                consumer.commitSync(offsets);
+                redriven += batch.size();
+            }
+            log.info("Re-drove {} dead-letter bets", redriven);
+            return redriven;
+        }
+    }
+}
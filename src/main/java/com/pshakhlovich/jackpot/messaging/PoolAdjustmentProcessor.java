@@ -0,0 +1,41 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.PoolAdjustment;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Applies pool changes made outside the topology, such as a win resetting the pool, to the pools held by
+ * {@link BetContributionProcessor}.
+ * <p>
+ * An adjustment is the change the database pool went through, so the stored pool keeps counting
+ * contributions that were computed before the win but projected after it. A jackpot without a stored
+ * pool needs no adjustment: it is read from the database, win included, when its next bet arrives.
+ * </p>
+ */
+@Slf4j
+public class PoolAdjustmentProcessor implements Processor<String, PoolAdjustment, Void, Void> {
+
+    private KeyValueStore<String, Long> pools;
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        this.pools = context.getStateStore(BetContributionProcessor.POOLS_STORE);
+    }
+
+    @Override
+    public void process(Record<String, PoolAdjustment> record) {
+        PoolAdjustment adjustment = record.value();
+        Long stored = pools.get(adjustment.getJackpotId());
+        if (stored == null) {
+            return;
+        }
+        long pool = stored + Money.ofDecimal(adjustment.getAmount());
+        pools.put(adjustment.getJackpotId(), pool);
+        log.debug("Adjusted pool of jackpot {} by {} to {}", adjustment.getJackpotId(), adjustment.getAmount(), Money.toDecimal(pool));
+    }
+}
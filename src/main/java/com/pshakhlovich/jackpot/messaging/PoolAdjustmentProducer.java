@@ -0,0 +1,60 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import com.pshakhlovich.jackpot.avro.PoolAdjustment;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.support.TransactionHooks;
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the Kafka Streams engine about pool changes made in the database, so the pools it holds follow them.
+ * <p>
+ * Does nothing unless {@code jackpot.engine.mode=STREAMS}. An adjustment that fails to send leaves the
+ * engine's pool of that jackpot above the database pool by its amount, which only affects the rate of
+ * pool-dependent contribution strategies; the database pool stays right.
+ * </p>
+ *
+ * @see PoolAdjustmentProcessor
+ */
+@Slf4j
+@Component
+public class PoolAdjustmentProducer {
+
+    private final KafkaTemplate<String, PoolAdjustment> kafkaTemplate;
+    private final boolean enabled;
+
+    public PoolAdjustmentProducer(KafkaTemplate<String, PoolAdjustment> kafkaTemplate,
+                                  JackpotEngineProperties engineProperties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = engineProperties.mode() == JackpotEngineProperties.Mode.STREAMS;
+    }
+
+    /**
+     * Publishes the change of a jackpot's pool once the current transaction commits.
+     *
+     * @param jackpotId the jackpot identifier
+     * @param amountMinor the amount the pool changed by, in minor units; negative when a win reset it
+     */
+    public void publishAfterCommit(String jackpotId, long amountMinor) {
+        if (!enabled || amountMinor == 0) {
+            return;
+        }
+        BigDecimal amount = Money.toDecimal(amountMinor);
+        PoolAdjustment adjustment = PoolAdjustment.newBuilder()
+                .setJackpotId(jackpotId)
+                .setAmount(amount)
+                .setCreatedAt(Instant.now())
+                .build();
+        TransactionHooks.afterCommit(() -> kafkaTemplate.send(KafkaTopicsConfig.POOL_ADJUSTMENTS_TOPIC, jackpotId, adjustment)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish pool adjustment of {} for jackpot {}", amount, jackpotId, throwable);
+                    }
+                }));
+    }
+}
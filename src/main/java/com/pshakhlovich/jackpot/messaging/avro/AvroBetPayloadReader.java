@@ -0,0 +1,93 @@
+package com.pshakhlovich.jackpot.messaging.avro;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+
+/**
+ * Splits an {@code application/avro} request body into bet datums.
+ * <p>
+ * A body is either a single binary-encoded {@code Bet} datum or an Avro object container file.
+ * Container blocks are decompressed with the file's codec and scanned in place; their datums are
+ * never decoded into records. The writer schema of a container must have the same parsing form
+ * as {@code bet.avsc}, which guarantees the datums can be forwarded under the registered schema.
+ * </p>
+ */
+public final class AvroBetPayloadReader {
+
+    private static final long BET_SCHEMA_FINGERPRINT = SchemaNormalization.parsingFingerprint64(Bet.getClassSchema());
+
+    private AvroBetPayloadReader() {
+    }
+
+    /**
+     * Reads all bet datums of a request body.
+     *
+     * @param body the request body
+     * @param maxBets the maximum number of datums accepted in one body
+     * @return the scanned bets, in body order
+     * @throws AvroPayloadException if the body is not valid bet data or holds too many bets
+     */
+    public static List<ScannedBet> read(byte[] body, int maxBets) {
+        if (body.length == 0) {
+            throw new AvroPayloadException("Request body is empty");
+        }
+        return isContainer(body) ? readContainer(body, maxBets) : readDatum(body);
+    }
+
+    private static boolean isContainer(byte[] body) {
+        return body.length >= DataFileConstants.MAGIC.length
+                && Arrays.equals(body, 0, DataFileConstants.MAGIC.length, DataFileConstants.MAGIC, 0, DataFileConstants.MAGIC.length);
+    }
+
+    private static List<ScannedBet> readDatum(byte[] body) {
+        BetDatumScanner scanner = new BetDatumScanner(body, 0, body.length);
+        ScannedBet bet = scanner.next();
+        if (scanner.hasRemaining()) {
+            throw new AvroPayloadException("Trailing bytes after bet datum; send several bets as a container file");
+        }
+        return List.of(bet);
+    }
+
+    private static List<ScannedBet> readContainer(byte[] body, int maxBets) {
+        try (DataFileStream<Object> stream = new DataFileStream<>(new ByteArrayInputStream(body), new GenericDatumReader<>())) {
+            Schema writerSchema = stream.getSchema();
+            if (SchemaNormalization.parsingFingerprint64(writerSchema) != BET_SCHEMA_FINGERPRINT) {
+                throw new AvroPayloadException("Container schema %s does not match the bet schema".formatted(writerSchema.getFullName()));
+            }
+
+            List<ScannedBet> bets = new ArrayList<>();
+            while (stream.hasNext()) {
+                ByteBuffer block = stream.nextBlock();
+                long count = stream.getBlockCount();
+                if (bets.size() + count > maxBets) {
+                    throw new AvroPayloadException("Container holds more than %d bets".formatted(maxBets));
+                }
+
+                // Block buffers are reused by the stream, so each block gets its own copy for the scanned datums to share
+                byte[] data = new byte[block.remaining()];
+                block.duplicate().get(data);
+                BetDatumScanner scanner = new BetDatumScanner(data, 0, data.length);
+                for (long i = 0; i < count; i++) {
+                    bets.add(scanner.next());
+                }
+                if (scanner.hasRemaining()) {
+                    throw new AvroPayloadException("Block holds more data than its %d bets".formatted(count));
+                }
+            }
+            return bets;
+        } catch (IOException | AvroRuntimeException ex) {
+            throw new AvroPayloadException("Invalid Avro container file: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.pshakhlovich.jackpot.messaging.avro;
+
+/**
+ * Raised when an Avro request body cannot be read as {@code bet.avsc} data.
+ */
+public class AvroPayloadException extends RuntimeException {
+
+    public AvroPayloadException(String message) {
+        super(message);
+    }
+
+    public AvroPayloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pshakhlovich.jackpot.messaging.avro;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads binary-encoded {@code Bet} datums in place.
+ * <p>
+ * Walks the field layout of {@code bet.avsc} (three strings, a double and a long) directly over
+ * the buffer, decoding only the values needed to admit a bet. No {@code Bet} instance is created,
+ * so an admitted datum can be forwarded to Kafka byte for byte.
+ * </p>
+ */
+public final class BetDatumScanner {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BetDatumScanner(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Scans the next datum.
+     *
+     * @return the scanned bet
+     * @throws AvroPayloadException if the buffer ends mid-datum or holds an invalid encoding
+     */
+    public ScannedBet next() {
+        int start = position;
+        String betId = readString();
+        String userId = readString();
+        String jackpotId = readString();
+        double betAmount = readDouble();
+        long createdAt = readLong();
+        return new ScannedBet(betId, userId, jackpotId, betAmount, createdAt, buffer, start, position - start);
+    }
+
+    private String readString() {
+        long length = readLong();
+        if (length < 0 || length > limit - position) {
+            throw new AvroPayloadException("Invalid string length %d at byte %d".formatted(length, position));
+        }
+        String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private double readDouble() {
+        require(Double.BYTES);
+        long bits = 0;
+        for (int i = 0; i < Double.BYTES; i++) {
+            bits |= (buffer[position + i] & 0xFFL) << (8 * i);
+        }
+        position += Double.BYTES;
+        return Double.longBitsToDouble(bits);
+    }
+
+    // Zig-zag encoded variable-length long, at most ten bytes
+    private long readLong() {
+        long raw = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            raw |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new AvroPayloadException("Invalid long encoding at byte %d".formatted(position));
+    }
+
+    private void require(int bytes) {
+        if (limit - position < bytes) {
+            throw new AvroPayloadException("Unexpected end of datum at byte %d".formatted(position));
+        }
+    }
+}
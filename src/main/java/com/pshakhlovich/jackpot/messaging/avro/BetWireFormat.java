@@ -0,0 +1,73 @@
+package com.pshakhlovich.jackpot.messaging.avro;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientFactory;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.subject.TopicRecordNameStrategy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.KafkaException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Frames raw bet datums in the schema registry wire format expected by {@code KafkaAvroDeserializer}.
+ * <p>
+ * The frame is a zero magic byte, the big-endian schema id and the datum bytes unchanged. The schema
+ * id is resolved once under the subject {@code KafkaAvroSerializer} uses for the bets topic, so framed
+ * records are indistinguishable from serialized ones.
+ * </p>
+ */
+@Component
+public class BetWireFormat {
+
+    private static final byte MAGIC_BYTE = 0x0;
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+    private static final int IDENTITY_MAP_CAPACITY = 100;
+
+    private final SchemaRegistryClient schemaRegistryClient;
+    private final AvroSchema betSchema = new AvroSchema(Bet.getClassSchema());
+    private final String subject = new TopicRecordNameStrategy().subjectName(KafkaTopicsConfig.BETS_TOPIC, false, betSchema);
+    private volatile Integer schemaId;
+
+    public BetWireFormat(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildProducerProperties();
+        String urls = String.valueOf(props.get(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG));
+        this.schemaRegistryClient = SchemaRegistryClientFactory.newClient(
+                Arrays.asList(urls.split(",")),
+                IDENTITY_MAP_CAPACITY,
+                List.of(new AvroSchemaProvider()),
+                props,
+                Map.of());
+    }
+
+    public byte[] frame(ScannedBet bet) {
+        return ByteBuffer.allocate(HEADER_LENGTH + bet.length())
+                .put(MAGIC_BYTE)
+                .putInt(schemaId())
+                .put(bet.source(), bet.offset(), bet.length())
+                .array();
+    }
+
+    private int schemaId() {
+        Integer id = schemaId;
+        if (id == null) {
+            try {
+                // Same registration the serializer performs with auto.register.schemas
+                id = schemaRegistryClient.register(subject, betSchema);
+            } catch (IOException | RestClientException ex) {
+                throw new KafkaException("Failed to resolve schema id for subject " + subject, ex);
+            }
+            schemaId = id;
+        }
+        return id;
+    }
+}
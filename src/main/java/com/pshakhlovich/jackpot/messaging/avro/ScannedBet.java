@@ -0,0 +1,64 @@
+package com.pshakhlovich.jackpot.messaging.avro;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Field values of a binary-encoded bet together with the location of its datum.
+ * <p>
+ * The datum bytes are not copied; {@code source} is shared with the buffer the bet was scanned from.
+ * Equality and hashing compare the datum bytes rather than the buffer, so two bets scanned from
+ * different buffers are equal when their fields and datums are.
+ * </p>
+ *
+ * @param betId the bet identifier
+ * @param userId the user identifier
+ * @param jackpotId the jackpot identifier, used as the record key
+ * @param betAmount the bet amount
+ * @param createdAt the creation time in epoch milliseconds
+ * @param source the buffer holding the datum
+ * @param offset the start of the datum within {@code source}
+ * @param length the length of the datum in bytes
+ */
+public record ScannedBet(
+        String betId,
+        String userId,
+        String jackpotId,
+        double betAmount,
+        long createdAt,
+        byte[] source,
+        int offset,
+        int length
+) {
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScannedBet other)) {
+            return false;
+        }
+        return Double.compare(betAmount, other.betAmount) == 0
+                && createdAt == other.createdAt
+                && Objects.equals(betId, other.betId)
+                && Objects.equals(userId, other.userId)
+                && Objects.equals(jackpotId, other.jackpotId)
+                && Arrays.equals(source, offset, offset + length, other.source, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(betId, userId, jackpotId, betAmount, createdAt);
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + source[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ScannedBet[betId=%s, userId=%s, jackpotId=%s, betAmount=%s, createdAt=%d, length=%d]"
+                .formatted(betId, userId, jackpotId, betAmount, createdAt, length);
+    }
+}
@@ -0,0 +1,13 @@
+package com.pshakhlovich.jackpot.repository;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.pshakhlovich.jackpot.domain.model.ConsumerOffset;
+
+public interface ConsumerOffsetRepository extends JpaRepository<ConsumerOffset, ConsumerOffset.Key> {
+
+    @Query("SELECT o FROM ConsumerOffset o WHERE o.key.groupId = :groupId AND o.key.topic = :topic")
+    List<ConsumerOffset> findByGroupIdAndTopic(@Param("groupId") String groupId, @Param("topic") String topic);
+}
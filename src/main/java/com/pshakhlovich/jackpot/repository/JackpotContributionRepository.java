@@ -1,9 +1,13 @@
 package com.pshakhlovich.jackpot.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +15,29 @@ public interface JackpotContributionRepository extends JpaRepository<JackpotCont
 
     @Query("SELECT c FROM JackpotContribution c WHERE c.betId = :betId AND c.jackpot.id = :jackpotId")
     Optional<JackpotContribution> findByBetIdAndJackpotId(@Param("betId") String betId, @Param("jackpotId") String jackpotId);
+
+    @Query("SELECT COUNT(c) > 0 FROM JackpotContribution c WHERE c.betId = :betId AND c.jackpot.id = :jackpotId")
+    boolean existsByBetIdAndJackpotId(@Param("betId") String betId, @Param("jackpotId") String jackpotId);
+
+    /**
+     * Returns the keys of contributions recorded since the given instant, newest first.
+     */
+    @Query("SELECT c.betId AS betId, c.jackpot.id AS jackpotId FROM JackpotContribution c "
+            + "WHERE c.createdAt >= :since ORDER BY c.createdAt DESC")
+    List<ContributionKey> findKeysCreatedSince(@Param("since") Instant since, Limit limit);
+
+    /**
+     * Returns which of the given bets have contributed to a jackpot, in the order their
+     * contributions were recorded.
+     */
+    @Query("SELECT c.betId FROM JackpotContribution c WHERE c.jackpot.id = :jackpotId AND c.betId IN :betIds "
+            + "ORDER BY c.createdAt, c.betId")
+    List<String> findContributedBetIds(@Param("jackpotId") String jackpotId, @Param("betIds") Collection<String> betIds);
+
+    interface ContributionKey {
+
+        String getBetId();
+
+        String getJackpotId();
+    }
 }
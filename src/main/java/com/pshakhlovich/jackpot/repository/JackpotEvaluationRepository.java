@@ -0,0 +1,19 @@
+package com.pshakhlovich.jackpot.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.pshakhlovich.jackpot.domain.model.JackpotEvaluation;
+
+public interface JackpotEvaluationRepository extends JpaRepository<JackpotEvaluation, UUID> {
+
+    @Query("SELECT e FROM JackpotEvaluation e WHERE e.betId = :betId AND e.jackpot.id = :jackpotId")
+    Optional<JackpotEvaluation> findByBetIdAndJackpotId(@Param("betId") String betId, @Param("jackpotId") String jackpotId);
+
+    @Query("SELECT e FROM JackpotEvaluation e WHERE e.jackpot.id = :jackpotId AND e.betId IN :betIds")
+    List<JackpotEvaluation> findByJackpotIdAndBetIds(@Param("jackpotId") String jackpotId, @Param("betIds") Collection<String> betIds);
+}
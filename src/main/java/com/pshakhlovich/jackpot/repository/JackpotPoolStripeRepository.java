@@ -0,0 +1,53 @@
+package com.pshakhlovich.jackpot.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.pshakhlovich.jackpot.domain.model.JackpotPoolStripe;
+
+public interface JackpotPoolStripeRepository extends JpaRepository<JackpotPoolStripe, JackpotPoolStripe.Key> {
+
+    /**
+     * Adds to a stripe in a single statement, holding its row lock only until the transaction ends.
+     *
+     * @param jackpotId the jackpot identifier
+     * @param stripe the stripe number
+     * @param delta the amount to add, in minor units
+     * @return the number of updated rows, 0 if the stripe does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE JackpotPoolStripe s SET s.amountMinor = s.amountMinor + :delta WHERE s.key.jackpotId = :jackpotId AND s.key.stripe = :stripe")
+    int addToStripe(@Param("jackpotId") String jackpotId,
+                    @Param("stripe") int stripe,
+                    @Param("delta") long delta);
+
+    /**
+     * Locks all stripes of a jackpot, in stripe order so that concurrent contributors cannot deadlock with the caller.
+     *
+     * @param jackpotId the jackpot identifier
+     * @return the locked stripes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("SELECT s FROM JackpotPoolStripe s WHERE s.key.jackpotId = :jackpotId ORDER BY s.key.stripe")
+    List<JackpotPoolStripe> findByJackpotIdForUpdate(@Param("jackpotId") String jackpotId);
+
+    @Query("SELECT COALESCE(SUM(s.amountMinor), 0L) FROM JackpotPoolStripe s WHERE s.key.jackpotId = :jackpotId")
+    long sumByJackpotId(@Param("jackpotId") String jackpotId);
+
+    @Query("SELECT s.key.jackpotId AS jackpotId, SUM(s.amountMinor) AS amountMinor FROM JackpotPoolStripe s GROUP BY s.key.jackpotId")
+    List<StripeTotal> sumAllByJackpot();
+
+    interface StripeTotal {
+
+        String getJackpotId();
+
+        long getAmountMinor();
+    }
+}
@@ -2,9 +2,11 @@ package com.pshakhlovich.jackpot.repository;
 
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -31,4 +33,45 @@ public interface JackpotRepository extends JpaRepository<Jackpot, String> {
     @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
     @Query("SELECT j FROM Jackpot j WHERE j.id = :id")
     Optional<Jackpot> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Reads the jackpot for an optimistic update.
+     * <p>
+     * No lock is taken. The version read here is checked when the transaction commits, even if the
+     * jackpot was not modified, so a draw against a pool that changed meanwhile is rolled back too.
+     * </p>
+     *
+     * @param id the jackpot identifier
+     * @return Optional containing the jackpot if found
+     */
+    @Lock(LockModeType.OPTIMISTIC)
+    @Query("SELECT j FROM Jackpot j WHERE j.id = :id")
+    Optional<Jackpot> findByIdOptimistic(@Param("id") String id);
+
+    /**
+     * Adds to the pool of a jackpot in a single statement, without loading it.
+     * <p>
+     * The row lock taken by the update is held only until the transaction ends, and concurrent additions
+     * never conflict. The version is incremented so that optimistic readers still see the change.
+     * </p>
+     *
+     * @param id the jackpot identifier
+     * @param delta the amount to add, in minor units
+     * @param updatedAt when the pool changed
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Jackpot j SET j.currentPoolMinor = j.currentPoolMinor + :delta, j.updatedAt = :updatedAt, j.version = j.version + 1 WHERE j.id = :id")
+    int addToPool(@Param("id") String id,
+                  @Param("delta") long delta,
+                  @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Reads the pool of a jackpot; after {@link #addToPool} in the same transaction this is the pool that update left.
+     *
+     * @param id the jackpot identifier
+     * @return the current pool in minor units, or empty if the jackpot does not exist
+     */
+    @Query("SELECT j.currentPoolMinor FROM Jackpot j WHERE j.id = :id")
+    Optional<Long> findCurrentPool(@Param("id") String id);
 }
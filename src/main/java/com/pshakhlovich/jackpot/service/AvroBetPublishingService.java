@@ -0,0 +1,99 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.messaging.BetMessageProducer;
+import com.pshakhlovich.jackpot.messaging.avro.AvroBetPayloadReader;
+import com.pshakhlovich.jackpot.messaging.avro.ScannedBet;
+import com.pshakhlovich.jackpot.service.BetAdmissionControl.Admission;
+import com.pshakhlovich.jackpot.service.dto.BetSubmissionResult;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes bets submitted as binary Avro.
+ * <p>
+ * Datums are checked in place against the same rules {@code BetRequest} enforces and forwarded
+ * to Kafka without being decoded into records or re-serialized. Unlike JSON submissions, the
+ * {@code createdAt} supplied by the client is kept.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvroBetPublishingService {
+
+    private final BetMessageProducer betMessageProducer;
+    private final JackpotRegistry jackpotRegistry;
+    private final BetAdmissionControl admissionControl;
+
+    /**
+     * Validates and publishes the bets of an Avro request body in a single producer transaction.
+     *
+     * @param body a single bet datum or an object container file of bets
+     * @param maxBets the maximum number of bets accepted in one body
+     * @return one result per bet, in body order
+     */
+    public List<BetSubmissionResult> publish(byte[] body, int maxBets) {
+        List<ScannedBet> bets = AvroBetPayloadReader.read(body, maxBets);
+        Set<String> existingJackpotIds = jackpotRegistry.findAll(bets.stream()
+                .map(ScannedBet::jackpotId)
+                .collect(Collectors.toSet())).keySet();
+        Map<String, Admission> admissions = admissionControl.admitAll(existingJackpotIds);
+
+        List<BetSubmissionResult> results = new ArrayList<>(bets.size());
+        List<ScannedBet> accepted = new ArrayList<>(bets.size());
+        Set<String> seenBets = new HashSet<>();
+
+        for (ScannedBet bet : bets) {
+            String rejection = validate(bet, existingJackpotIds);
+            if (rejection == null && !seenBets.add(bet.jackpotId() + ':' + bet.betId())) {
+                rejection = "Duplicate betId %s for jackpot %s in batch".formatted(bet.betId(), bet.jackpotId());
+            }
+            if (rejection == null) {
+                rejection = admissionControl.rejectionReason(bet.jackpotId(), admissions.get(bet.jackpotId()));
+            }
+            if (rejection != null) {
+                results.add(BetSubmissionResult.rejected(bet.betId(), rejection));
+                continue;
+            }
+            accepted.add(bet);
+            results.add(BetSubmissionResult.accepted(bet.betId()));
+        }
+
+        admissionControl.acquireAll(admissions.values());
+        betMessageProducer.publishAllEncoded(accepted);
+        log.debug("Avro bets processed: accepted={}, rejected={}", accepted.size(), bets.size() - accepted.size());
+        return results;
+    }
+
+    private String validate(ScannedBet bet, Set<String> existingJackpotIds) {
+        List<String> violations = new ArrayList<>(4);
+        if (bet.betId().isBlank()) {
+            violations.add("betId is required");
+        }
+        if (bet.userId().isBlank()) {
+            violations.add("userId is required");
+        }
+        if (bet.jackpotId().isBlank()) {
+            violations.add("jackpotId is required");
+        }
+        // Also rejects NaN
+        if (!(bet.betAmount() > 0) || Double.isInfinite(bet.betAmount())) {
+            violations.add("betAmount must be positive");
+        }
+        if (!violations.isEmpty()) {
+            return violations.stream().sorted().collect(Collectors.joining("; "));
+        }
+
+        if (!existingJackpotIds.contains(bet.jackpotId())) {
+            return "Jackpot %s not found".formatted(bet.jackpotId());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.config.BetIngestionProperties;
+import com.pshakhlovich.jackpot.messaging.ConsumerLagMonitor;
+import com.pshakhlovich.jackpot.messaging.ConsumerLagMonitor.PartitionLag;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether bets for a jackpot are accepted, delayed or rejected, based on how far the
+ * contribution consumer is behind on the jackpot's partition.
+ * <p>
+ * Shedding load at ingress keeps the backlog bounded: a client that is told to come back later
+ * does not add bets that would only be applied after its own retry anyway. Lag is read from the
+ * last measurement of {@link ConsumerLagMonitor}, so decisions cost no broker round trip.
+ * </p>
+ */
+@Component
+public class BetAdmissionControl {
+
+    private final ConsumerLagMonitor lagMonitor;
+    private final BetIngestionProperties.Admission properties;
+    private final Counter throttled;
+    private final Counter rejected;
+
+    public BetAdmissionControl(ConsumerLagMonitor lagMonitor,
+                               BetIngestionProperties ingestionProperties,
+                               MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.properties = ingestionProperties.admission();
+        this.throttled = Counter.builder("jackpot.bets.admission")
+                .description("Bet submissions held back because the contribution consumer is behind")
+                .tag("outcome", "throttled")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("jackpot.bets.admission")
+                .description("Bet submissions held back because the contribution consumer is behind")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the admission decision for a bet on the given jackpot.
+     *
+     * @param jackpotId the jackpot the bet contributes to
+     * @return the decision; lag that has not been measured yet admits the bet
+     */
+    public Admission admit(String jackpotId) {
+        if (!properties.enabled()) {
+            return Admission.ACCEPT;
+        }
+        return lagMonitor.lagOf(jackpotId)
+                .map(this::decide)
+                .orElse(Admission.ACCEPT);
+    }
+
+    /**
+     * Takes one admission decision per jackpot, so every bet of a request is treated alike.
+     *
+     * @param jackpotIds the distinct jackpots of a request
+     * @return the decision for each jackpot
+     */
+    public Map<String, Admission> admitAll(Collection<String> jackpotIds) {
+        Map<String, Admission> admissions = new HashMap<>();
+        jackpotIds.forEach(jackpotId -> admissions.put(jackpotId, admit(jackpotId)));
+        return admissions;
+    }
+
+    /**
+     * Admits a single bet, waiting out any throttling delay.
+     *
+     * @param jackpotId the jackpot the bet contributes to
+     * @throws BetAdmissionException if the jackpot's partition is too far behind
+     */
+    public void acquire(String jackpotId) {
+        Admission admission = admit(jackpotId);
+        if (admission.rejected()) {
+            rejected.increment();
+            throw new BetAdmissionException(jackpotId, admission.delay());
+        }
+        pause(admission);
+    }
+
+    /**
+     * Waits out the longest throttling delay of the given decisions, once for the whole request.
+     * Rejected decisions are ignored; the caller reports those per bet.
+     *
+     * @param admissions the decisions taken for the bets of one request
+     */
+    public void acquireAll(Collection<Admission> admissions) {
+        admissions.stream()
+                .filter(admission -> admission.outcome() == Outcome.THROTTLE)
+                .max(Comparator.comparing(Admission::delay))
+                .ifPresent(this::pause);
+    }
+
+    /**
+     * Returns the reason a bet is rejected under a decision taken with {@link #admit(String)},
+     * for requests that report rejections per bet.
+     *
+     * @param jackpotId the jackpot the bet contributes to
+     * @param admission the decision taken for the jackpot, may be {@code null}
+     * @return the rejection reason, or {@code null} if the bet is admitted
+     */
+    public String rejectionReason(String jackpotId, Admission admission) {
+        if (admission == null || !admission.rejected()) {
+            return null;
+        }
+        rejected.increment();
+        return "Jackpot %s is overloaded, retry after %d seconds".formatted(jackpotId, admission.delay().toSeconds());
+    }
+
+    private Admission decide(PartitionLag lag) {
+        if (lag.lag() < properties.throttleLag()) {
+            return Admission.ACCEPT;
+        }
+        if (lag.lag() >= properties.rejectLag()) {
+            return new Admission(Outcome.REJECT, retryAfter(lag));
+        }
+        double pressure = (double) (lag.lag() - properties.throttleLag())
+                / (properties.rejectLag() - properties.throttleLag());
+        long delayMillis = Math.round(properties.maxThrottleDelay().toMillis() * pressure);
+        return new Admission(Outcome.THROTTLE, Duration.ofMillis(delayMillis));
+    }
+
+    // Time for the consumer to work the lag back down to the throttling threshold at its current rate
+    private Duration retryAfter(PartitionLag lag) {
+        Duration max = properties.maxRetryAfter();
+        if (lag.rate() <= 0) {
+            return max;
+        }
+        double seconds = Math.ceil((lag.lag() - properties.throttleLag()) / lag.rate());
+        if (seconds >= max.toSeconds()) {
+            return max;
+        }
+        return Duration.ofSeconds(Math.max(1, (long) seconds));
+    }
+
+    private void pause(Admission admission) {
+        if (admission.outcome() != Outcome.THROTTLE || admission.delay().isZero()) {
+            return;
+        }
+        throttled.increment();
+        try {
+            // Request threads are virtual, so holding one back does not tie up a platform thread
+            Thread.sleep(admission.delay());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Outcome {
+        ACCEPT,
+        THROTTLE,
+        REJECT
+    }
+
+    /**
+     * An admission decision.
+     *
+     * @param outcome whether the bet is accepted, delayed or rejected
+     * @param delay how long the request is held back when throttled, or when to retry when rejected
+     */
+    public record Admission(Outcome outcome, Duration delay) {
+
+        static final Admission ACCEPT = new Admission(Outcome.ACCEPT, Duration.ZERO);
+
+        public boolean rejected() {
+            return outcome == Outcome.REJECT;
+        }
+    }
+}
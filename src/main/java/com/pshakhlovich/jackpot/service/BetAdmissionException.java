@@ -0,0 +1,21 @@
+package com.pshakhlovich.jackpot.service;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Thrown when a bet is not accepted because the contribution consumer is too far behind on its jackpot.
+ */
+@Getter
+public class BetAdmissionException extends RuntimeException {
+
+    private final String jackpotId;
+    private final Duration retryAfter;
+
+    public BetAdmissionException(String jackpotId, Duration retryAfter) {
+        super("Bets for jackpot %s are not accepted right now, retry after %d seconds"
+                .formatted(jackpotId, retryAfter.toSeconds()));
+        this.jackpotId = jackpotId;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -2,8 +2,32 @@ package com.pshakhlovich.jackpot.service;
 
 import com.pshakhlovich.jackpot.api.dto.BetRequest;
 import com.pshakhlovich.jackpot.api.mapper.BetMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.BetIngestionProperties;
 import com.pshakhlovich.jackpot.messaging.BetMessageProducer;
+import com.pshakhlovich.jackpot.service.BetAdmissionControl.Admission;
+import com.pshakhlovich.jackpot.service.dto.BetAcknowledgement;
+import com.pshakhlovich.jackpot.service.dto.BetStreamResult;
+import com.pshakhlovich.jackpot.service.dto.BetSubmissionResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,13 +39,298 @@ public class BetPublishingService {
 
     private final BetMapper betMapper;
     private final BetMessageProducer betMessageProducer;
-    private final JackpotService jackpotService;
+    private final JackpotRegistry jackpotRegistry;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BetIngestionProperties ingestionProperties;
+    private final BetAdmissionControl admissionControl;
 
     public String publish(BetRequest request) {
-        jackpotService.getRequired(request.jackpotId());
+        jackpotRegistry.require(request.jackpotId());
+        admissionControl.acquire(request.jackpotId());
         Bet bet = betMapper.toAvro(request);
         betMessageProducer.publish(bet);
         log.debug("Bet {} published for jackpot {}", bet.getBetId(), bet.getJackpotId());
         return bet.getBetId().toString();
     }
+
+    /**
+     * Publishes a bet and completes once the broker has acknowledged it.
+     * <p>
+     * The calling thread is released as soon as the record is handed to the producer,
+     * so slow broker acknowledgements do not hold request threads.
+     * </p>
+     *
+     * @param request the bet to publish
+     * @return a future completed with the partition and offset assigned by the broker
+     */
+    public CompletableFuture<BetAcknowledgement> publishAsync(BetRequest request) {
+        jackpotRegistry.require(request.jackpotId());
+        admissionControl.acquire(request.jackpotId());
+        Bet bet = betMapper.toAvro(request);
+        return betMessageProducer.publishAsync(bet)
+                .thenApply(result -> new BetAcknowledgement(
+                        bet.getBetId(),
+                        result.getRecordMetadata().topic(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset()));
+    }
+
+    /**
+     * Validates and publishes a batch of bets.
+     * <p>
+     * Each bet is validated individually and jackpot existence is resolved once for all
+     * distinct jackpot identifiers in the batch. Accepted bets are published in a single
+     * producer transaction; rejected bets are reported back without affecting the rest.
+     * </p>
+     * <p>
+     * Bets for jackpots the consumer is too far behind on are rejected individually; when any
+     * jackpot of the batch is being throttled, the whole batch waits out the longest delay.
+     * </p>
+     *
+     * @param requests the bets to publish
+     * @return one result per request, in request order
+     */
+    public List<BetSubmissionResult> publishBatch(List<BetRequest> requests) {
+        Set<String> jackpotIds = requests.stream()
+                .filter(Objects::nonNull)
+                .map(BetRequest::jackpotId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existingJackpotIds = jackpotRegistry.findAll(jackpotIds).keySet();
+        Map<String, Admission> admissions = admissionControl.admitAll(existingJackpotIds);
+
+        List<BetSubmissionResult> results = new ArrayList<>(requests.size());
+        List<Bet> accepted = new ArrayList<>(requests.size());
+        Set<String> seenBets = new HashSet<>();
+
+        for (BetRequest request : requests) {
+            String rejection = validate(request, existingJackpotIds::contains);
+            if (rejection == null && !seenBets.add(request.jackpotId() + ':' + request.betId())) {
+                rejection = "Duplicate betId %s for jackpot %s in batch".formatted(request.betId(), request.jackpotId());
+            }
+            if (rejection == null) {
+                rejection = admissionControl.rejectionReason(request.jackpotId(), admissions.get(request.jackpotId()));
+            }
+            if (rejection != null) {
+                results.add(BetSubmissionResult.rejected(request != null ? request.betId() : null, rejection));
+                continue;
+            }
+            accepted.add(betMapper.toAvro(request));
+            results.add(BetSubmissionResult.accepted(request.betId()));
+        }
+
+        admissionControl.acquireAll(admissions.values());
+        betMessageProducer.publishAll(accepted);
+        log.debug("Bet batch processed: accepted={}, rejected={}", accepted.size(), requests.size() - accepted.size());
+        return results;
+    }
+
+    /**
+     * Publishes a newline-delimited JSON stream of bets.
+     * <p>
+     * Lines are read into a buffer of {@code jackpot.ingestion.max-line-length} bytes and parsed
+     * from there one at a time, so memory use depends neither on the size of the stream nor on the
+     * length of its lines; a longer line is skipped and rejected. At most {@code jackpot.ingestion.max-in-flight} bets are awaiting a broker
+     * acknowledgement at any time; once the limit is reached reading pauses until the producer
+     * catches up, which in turn stops draining the request body and pushes back on the client.
+     * </p>
+     * <p>
+     * Malformed or invalid lines are rejected individually and do not stop the stream. Duplicate
+     * bets are not detected here, as that would require remembering every bet of the stream.
+     * </p>
+     * <p>
+     * Lines for jackpots the consumer is too far behind on are rejected. Throttling delays are not
+     * applied per line; the in-flight limit already paces the stream.
+     * </p>
+     *
+     * @param input the request body, one {@link BetRequest} JSON object per line
+     * @return a summary once every published bet has been acknowledged or has failed
+     * @throws IOException if the request body cannot be read
+     */
+    public BetStreamResult publishStream(InputStream input) throws IOException {
+        ObjectReader betReader = objectMapper.readerFor(BetRequest.class);
+        int maxInFlight = ingestionProperties.maxInFlight();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        StreamTally tally = new StreamTally(ingestionProperties.maxReportedRejections());
+
+        LineReader reader = new LineReader(input, ingestionProperties.maxLineLength());
+        long lineNumber = 0;
+        while (reader.next()) {
+            lineNumber++;
+            if (reader.isBlank()) {
+                continue;
+            }
+            tally.lines++;
+            if (reader.isTruncated()) {
+                tally.reject(lineNumber, null, "Line longer than %d bytes".formatted(ingestionProperties.maxLineLength()));
+                continue;
+            }
+
+            BetRequest request;
+            try {
+                request = reader.read(betReader);
+            } catch (JsonProcessingException ex) {
+                tally.reject(lineNumber, null, "Malformed JSON: " + ex.getOriginalMessage());
+                continue;
+            }
+
+            String rejection = validate(request, jackpotId -> jackpotRegistry.find(jackpotId).isPresent());
+            if (rejection == null) {
+                rejection = admissionControl.rejectionReason(request.jackpotId(), admissionControl.admit(request.jackpotId()));
+            }
+            if (rejection != null) {
+                tally.reject(lineNumber, request != null ? request.betId() : null, rejection);
+                continue;
+            }
+
+            inFlight.acquireUninterruptibly();
+            long currentLine = lineNumber;
+            try {
+                betMessageProducer.publishBulk(betMapper.toAvro(request))
+                        .whenComplete((result, throwable) -> {
+                            if (throwable != null) {
+                                tally.reject(currentLine, request.betId(), "Publishing failed");
+                            } else {
+                                tally.published.incrementAndGet();
+                            }
+                            inFlight.release();
+                        });
+            } catch (RuntimeException ex) {
+                inFlight.release();
+                log.error("Failed to hand bet {} to the producer", request.betId(), ex);
+                tally.reject(currentLine, request.betId(), "Publishing failed");
+            }
+        }
+
+        // Wait for the outstanding acknowledgements so the summary is final
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        BetStreamResult result = tally.toResult();
+        log.info("Bet stream processed: lines={}, published={}, rejected={}",
+                result.lines(), result.published(), result.rejected());
+        return result;
+    }
+
+    private String validate(BetRequest request, Predicate<String> jackpotExists) {
+        if (request == null) {
+            return "bet must not be null";
+        }
+
+        Set<ConstraintViolation<BetRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!jackpotExists.test(request.jackpotId())) {
+            return "Jackpot %s not found".formatted(request.jackpotId());
+        }
+        return null;
+    }
+
+    /**
+     * Reads a stream line by line into a buffer of fixed size, so that neither a long line nor a body
+     * without line breaks is held in memory; the rest of a line that does not fit is skipped.
+     */
+    private static final class LineReader {
+
+        private final InputStream input;
+        private final byte[] chunk = new byte[8192];
+        private final byte[] line;
+        private int position;
+        private int limit;
+        private int length;
+        private boolean truncated;
+
+        private LineReader(InputStream input, int maxLineLength) {
+            this.input = input;
+            this.line = new byte[maxLineLength];
+        }
+
+        /**
+         * Advances to the next line.
+         *
+         * @return {@code false} at the end of the stream
+         */
+        private boolean next() throws IOException {
+            length = 0;
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = input.read(chunk);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return read;
+                    }
+                }
+                read = true;
+                byte b = chunk[position++];
+                if (b == '\n') {
+                    if (!truncated && length > 0 && line[length - 1] == '\r') {
+                        length--;
+                    }
+                    return true;
+                }
+                if (length < line.length) {
+                    line[length++] = b;
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+
+        private boolean isTruncated() {
+            return truncated;
+        }
+
+        private boolean isBlank() {
+            if (truncated) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(line[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private <T> T read(ObjectReader reader) throws IOException {
+            return reader.readValue(line, 0, length);
+        }
+    }
+
+    private static final class StreamTally {
+
+        private final int maxReportedRejections;
+        private final AtomicLong published = new AtomicLong();
+        private final List<BetStreamResult.Rejection> rejections = new ArrayList<>();
+        private long rejected;
+        private long lines;
+
+        private StreamTally(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+
+        // Called from the reading thread and from producer callbacks
+        private synchronized void reject(long line, String betId, String reason) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new BetStreamResult.Rejection(line, betId, reason));
+            }
+        }
+
+        private synchronized BetStreamResult toResult() {
+            List<BetStreamResult.Rejection> ordered = rejections.stream()
+                    .sorted(Comparator.comparingLong(BetStreamResult.Rejection::line))
+                    .toList();
+            return new BetStreamResult(lines, published.get(), rejected, ordered);
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.avro.ContributionEvent;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Records contributions computed by the Kafka Streams engine in the database.
+ * <p>
+ * The engine owns the pools that contribution strategies see; the database pool only receives the
+ * contribution amounts, with one atomic addition per jackpot and batch, so evaluations keep drawing
+ * against, and resetting, every projected contribution. Post-contribution pools are recorded as the
+ * engine computed them.
+ * </p>
+ * <p>
+ * Events are delivered at least once. An event whose contribution is already recorded is skipped,
+ * so a batch replayed after a failure is projected once.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContributionProjection {
+
+    private final JackpotRepository jackpotRepository;
+    private final JackpotContributionRepository contributionRepository;
+    private final JackpotRegistry jackpotRegistry;
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final DuplicateBetFilter duplicateBetFilter;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Projects a batch of contribution events in one transaction.
+     * <p>
+     * Jackpots are updated in id order so that concurrent batches cannot deadlock.
+     * </p>
+     *
+     * @param events the events, in the order they were emitted
+     * @throws IllegalArgumentException if an event refers to a jackpot that no longer exists
+     */
+    public void project(List<ContributionEvent> events) {
+        Map<String, Map<String, ContributionEvent>> eventsByJackpot = new TreeMap<>();
+        // A bet is emitted once by the engine; a repeat here is a redelivered event
+        events.forEach(event -> eventsByJackpot.computeIfAbsent(event.getJackpotId(), id -> new LinkedHashMap<>())
+                .putIfAbsent(event.getBetId(), event));
+        transactionOperations.executeWithoutResult(status ->
+                eventsByJackpot.forEach((jackpotId, jackpotEvents) -> project(jackpotId, jackpotEvents)));
+    }
+
+    private void project(String jackpotId, Map<String, ContributionEvent> events) {
+        Set<String> recorded = new HashSet<>(contributionRepository.findContributedBetIds(jackpotId, events.keySet()));
+        Jackpot jackpot = jackpotRepository.getReferenceById(jackpotId);
+        List<JackpotContribution> contributions = new ArrayList<>(events.size());
+        long total = 0;
+        for (ContributionEvent event : events.values()) {
+            if (recorded.contains(event.getBetId())) {
+                continue;
+            }
+            contributions.add(JackpotContribution.builder()
+                    .betId(event.getBetId())
+                    .jackpot(jackpot)
+                    .betAmount(event.getBetAmount())
+                    .contributionAmount(event.getContributionAmount())
+                    .postContributionPool(event.getPostContributionPool())
+                    .strategy(ContributionStrategyType.valueOf(event.getStrategy()))
+                    .build());
+            total += Money.ofDecimal(event.getContributionAmount());
+            duplicateBetFilter.rememberAfterCommit(event.getBetId(), jackpotId);
+        }
+        if (contributions.isEmpty()) {
+            log.info("Skipping {} already projected contributions: jackpotId={}", events.size(), jackpotId);
+            return;
+        }
+
+        Instant updatedAt = Instant.now();
+        if (jackpotRepository.addToPool(jackpotId, total, updatedAt) == 0) {
+            throw new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId));
+        }
+        contributionRepository.saveAll(contributions);
+
+        long pool = jackpotRepository.findCurrentPool(jackpotId)
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+        jackpotRegistry.find(jackpotId).ifPresent(config -> publish(config, pool, updatedAt));
+
+        log.info("Projected contributions: jackpotId={}, bets={}, total={}, pool={}",
+                jackpotId, contributions.size(), Money.toDecimal(total), Money.toDecimal(pool));
+    }
+
+    private void publish(JackpotConfig config, long pool, Instant updatedAt) {
+        Jackpot committed = config.detached(pool);
+        committed.setUpdatedAt(updatedAt);
+        poolSnapshotStore.publishAfterCommit(committed);
+    }
+}
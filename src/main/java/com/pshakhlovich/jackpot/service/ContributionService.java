@@ -2,18 +2,32 @@ package com.pshakhlovich.jackpot.service;
 
 import com.pshakhlovich.jackpot.avro.Bet;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
 import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.CompiledContributionStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.contribution.ContributionStrategy;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
 import com.pshakhlovich.jackpot.service.dto.ContributionResult;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 @Slf4j
 @Service
@@ -23,40 +37,298 @@ public class ContributionService {
     private final JackpotRepository jackpotRepository;
     private final JackpotContributionRepository contributionRepository;
     private final StrategyRegistry strategyRegistry;
+    private final JackpotRegistry jackpotRegistry;
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final DuplicateBetFilter duplicateBetFilter;
+    private final JackpotPoolStripes poolStripes;
+    private final JackpotConcurrencyControl concurrencyControl;
+    private final InMemoryJackpotEngine engine;
+    private final TransactionOperations transactionOperations;
 
-    @Transactional("transactionManager")
     public void applyContribution(Bet bet) {
-        BigDecimal betAmount = BigDecimal.valueOf(bet.getBetAmount()).setScale(2, RoundingMode.HALF_UP);
+        if (engine.isEnabled()) {
+            InMemoryJackpotEngine.join(engine.submit(bet.getJackpotId(), state -> contributeInMemory(state, List.of(bet))));
+            return;
+        }
+        concurrencyControl.run("contribution", List.of(bet.getJackpotId()),
+                () -> transactionOperations.executeWithoutResult(status -> applyContributionLocked(bet)));
+    }
+
+    private void applyContributionLocked(Bet bet) {
+        if (duplicateBetFilter.isDuplicate(bet.getBetId(), bet.getJackpotId())) {
+            log.info("Skipping duplicate bet: betId={}, jackpotId={}", bet.getBetId(), bet.getJackpotId());
+            return;
+        }
+
+        JackpotContribution contribution = contributeWithoutLock(bet.getJackpotId(), List.of(bet))
+                .map(List::getFirst)
+                .orElseGet(() -> {
+                    // Load jackpot with pessimistic write lock to ensure exclusive access during pool updates
+                    // This prevents race conditions in concurrent contribution processing
+                    Jackpot jackpot = lockJackpot(bet.getJackpotId());
+                    JackpotContribution locked = contribute(contributionStrategyFor(jackpot), jackpot, bet);
+                    jackpotRepository.save(jackpot);
+                    poolSnapshotStore.publishAfterCommit(jackpot);
+                    return locked;
+                });
+        contributionRepository.save(contribution);
+        duplicateBetFilter.rememberAfterCommit(bet.getBetId(), bet.getJackpotId());
+
+        if (log.isInfoEnabled()) {
+            long betAmount = Money.ofDecimal(contribution.getBetAmount());
+            long effectiveRate = betAmount > 0
+                    ? Money.mulDivHalfUp(Money.ofDecimal(contribution.getContributionAmount()), Money.PPM, betAmount)
+                    : 0;
+
+            log.info("Applied contribution: betId={}, jackpotId={}, strategy={}, contribution={}, pool={}, effectiveRate={}",
+                    bet.getBetId(),
+                    bet.getJackpotId(),
+                    contribution.getStrategy(),
+                    contribution.getContributionAmount(),
+                    contribution.getPostContributionPool(),
+                    Money.ppmToDecimal(effectiveRate));
+        }
+    }
+
+    /**
+     * Applies the contributions of several bets in one transaction.
+     * <p>
+     * Bets are grouped by jackpot and each jackpot is locked once, in id order so that concurrent
+     * batches cannot deadlock. Within a jackpot, bets contribute in the order given, which for a
+     * consumed batch is offset order. Contribution rows are inserted together at flush.
+     * Bets that already contributed, or repeat earlier in the same batch, are skipped before any lock is taken.
+     * </p>
+     * <p>
+     * Bets on a striped jackpot do not lock it; their contributions are summed per stripe and added
+     * to the stripes in stripe order. See {@link JackpotPoolStripes}.
+     * </p>
+     * <p>
+     * Nor do bets on a jackpot whose contribution strategy is
+     * {@link ContributionStrategy#poolIndependent() pool-independent}: their contributions are added
+     * to the pool with one atomic update per jackpot, and the jackpot is never loaded.
+     * </p>
+     * <p>
+     * Optimistic jackpots are read without a lock; if any of them was changed concurrently, the whole batch
+     * is rolled back and applied again. See {@link JackpotConcurrencyControl}.
+     * </p>
+     * <p>
+     * With the in-memory engine each jackpot's bets are applied by its writer instead, and this method
+     * returns once they have been written behind.
+     * </p>
+     *
+     * @param bets the bets to apply, in the order they were produced
+     * @throws IllegalArgumentException if a bet targets an unknown jackpot; nothing is applied then,
+     *                                  except to other jackpots with the in-memory engine
+     */
+    public void applyContributions(List<Bet> bets) {
+        if (engine.isEnabled()) {
+            applyInMemory(bets);
+            return;
+        }
+        Set<String> jackpotIds = bets.stream().map(Bet::getJackpotId).collect(Collectors.toSet());
+        concurrencyControl.run("contribution-batch", jackpotIds,
+                () -> transactionOperations.executeWithoutResult(status -> applyContributionsLocked(bets)));
+    }
 
-        // Load jackpot with pessimistic write lock to ensure exclusive access during pool updates
-        // This prevents race conditions in concurrent contribution processing
-        Jackpot jackpot = jackpotRepository.findByIdForUpdate(bet.getJackpotId())
-                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(bet.getJackpotId())));
+    private void applyContributionsLocked(List<Bet> bets) {
+        Map<String, List<Bet>> betsByJackpot = new TreeMap<>();
+        Map<String, Set<String>> betIdsByJackpot = new HashMap<>();
+        int duplicates = 0;
+        for (Bet bet : bets) {
+            boolean first = betIdsByJackpot.computeIfAbsent(bet.getJackpotId(), id -> new HashSet<>()).add(bet.getBetId());
+            if (!first || duplicateBetFilter.isDuplicate(bet.getBetId(), bet.getJackpotId())) {
+                duplicates++;
+                continue;
+            }
+            betsByJackpot.computeIfAbsent(bet.getJackpotId(), id -> new ArrayList<>()).add(bet);
+        }
+        if (duplicates > 0) {
+            log.info("Skipping {} duplicate bets of {}", duplicates, bets.size());
+        }
 
-        ContributionStrategy strategy = strategyRegistry.getContributionStrategy(jackpot.getContributionStrategy());
+        List<JackpotContribution> contributions = new ArrayList<>(bets.size());
+        for (Map.Entry<String, List<Bet>> entry : betsByJackpot.entrySet()) {
+            Optional<List<JackpotContribution>> unlocked = contributeWithoutLock(entry.getKey(), entry.getValue());
+            if (unlocked.isPresent()) {
+                contributions.addAll(unlocked.get());
+                entry.getValue().forEach(bet -> duplicateBetFilter.rememberAfterCommit(bet.getBetId(), bet.getJackpotId()));
+                log.info("Applied contribution batch without locking: jackpotId={}, bets={}", entry.getKey(), entry.getValue().size());
+                continue;
+            }
+            Jackpot jackpot = lockJackpot(entry.getKey());
+            CompiledContributionStrategy strategy = contributionStrategyFor(jackpot);
+            long poolBefore = jackpot.getCurrentPoolMinor();
+            contributions.addAll(contributeAll(strategy, jackpot, entry.getValue()));
+            entry.getValue().forEach(bet -> duplicateBetFilter.rememberAfterCommit(bet.getBetId(), bet.getJackpotId()));
+            jackpotRepository.save(jackpot);
+            poolSnapshotStore.publishAfterCommit(jackpot);
+
+            log.info("Applied contribution batch: jackpotId={}, bets={}, poolBefore={}, pool={}",
+                    jackpot.getId(), entry.getValue().size(), Money.toDecimal(poolBefore), jackpot.getCurrentPool());
+        }
+        contributionRepository.saveAll(contributions);
+    }
+
+    private void applyInMemory(List<Bet> bets) {
+        Map<String, List<Bet>> betsByJackpot = new LinkedHashMap<>();
+        bets.forEach(bet -> betsByJackpot.computeIfAbsent(bet.getJackpotId(), id -> new ArrayList<>()).add(bet));
+
+        // All jackpots are applied concurrently and covered by the same flush
+        List<CompletableFuture<Integer>> applied = new ArrayList<>(betsByJackpot.size());
+        betsByJackpot.forEach((jackpotId, jackpotBets) ->
+                applied.add(engine.submit(jackpotId, state -> contributeInMemory(state, jackpotBets))));
+        applied.forEach(InMemoryJackpotEngine::join);
+    }
+
+    // Runs on the jackpot's writer
+    private int contributeInMemory(InMemoryJackpotEngine.JackpotState state, List<Bet> bets) {
+        Jackpot jackpot = state.jackpot();
+        CompiledContributionStrategy strategy = contributionStrategyFor(jackpot);
+        long poolBefore = jackpot.getCurrentPoolMinor();
+        Set<String> fresh = new LinkedHashSet<>();
+        for (Bet bet : bets) {
+            // Pending bets are not in the filter yet; they are added once written, before they stop being pending
+            if (!state.hasPendingContribution(bet.getBetId())
+                    && !duplicateBetFilter.isDuplicate(bet.getBetId(), bet.getJackpotId())) {
+                fresh.add(bet.getBetId());
+            }
+        }
+        if (!fresh.isEmpty()) {
+            // The filters miss bets older than their warm-up window; written again, such a bet would fail
+            // the whole flush, and with it the bets of every other caller
+            contributionRepository.findContributedBetIds(jackpot.getId(), fresh).forEach(fresh::remove);
+        }
+        int applied = 0;
+        for (Bet bet : bets) {
+            // Removed once applied, so a bet repeated in the list is skipped too
+            if (!fresh.remove(bet.getBetId())) {
+                log.info("Skipping duplicate bet: betId={}, jackpotId={}", bet.getBetId(), bet.getJackpotId());
+                continue;
+            }
+            state.add(contribute(strategy, jackpot, bet));
+            applied++;
+        }
+        log.debug("Applied contributions in memory: jackpotId={}, bets={}, poolBefore={}, pool={}",
+                jackpot.getId(), applied, Money.toDecimal(poolBefore), jackpot.getCurrentPool());
+        return applied;
+    }
+
+    // The registry's configuration is the instance the strategy was compiled for, so the lookup compares no fields;
+    // a jackpot the registry does not know has its configuration captured instead
+    private CompiledContributionStrategy contributionStrategyFor(Jackpot jackpot) {
+        return strategyRegistry.contributionStrategyFor(
+                jackpotRegistry.find(jackpot.getId()).orElseGet(() -> JackpotConfig.from(jackpot)));
+    }
+
+    private Jackpot lockJackpot(String jackpotId) {
+        // Optimistic jackpots are read without a lock; a concurrent writer is detected by the version check at commit
+        Optional<Jackpot> found = concurrencyControl.isOptimistic(jackpotId)
+                ? jackpotRepository.findByIdOptimistic(jackpotId)
+                : jackpotRepository.findByIdForUpdate(jackpotId);
+        Jackpot jackpot = found
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+        // Stripes left over from a higher stripe count must count towards the pool the strategy sees
+        poolStripes.fold(jackpot);
+        return jackpot;
+    }
+
+    // Striped and pool-independent jackpots take their contributions without the jackpot row being loaded or locked
+    private Optional<List<JackpotContribution>> contributeWithoutLock(String jackpotId, List<Bet> bets) {
+        Optional<JackpotConfig> striped = poolStripes.stripedConfig(jackpotId);
+        if (striped.isPresent()) {
+            return Optional.of(contributeToStripes(striped.get(), bets));
+        }
+        return jackpotRegistry.find(jackpotId)
+                .filter(config -> strategyRegistry.getContributionStrategy(config.contributionStrategy()).poolIndependent())
+                .map(config -> contributeAtomically(config, bets));
+    }
+
+    // Amounts do not depend on the pool, so they are computed first and added with one UPDATE. The update
+    // holds the row lock until commit, so the pool read back after it is the one these bets left.
+    private List<JackpotContribution> contributeAtomically(JackpotConfig config, List<Bet> bets) {
+        CompiledContributionStrategy strategy = strategyRegistry.contributionStrategyFor(config);
+        Jackpot detached = config.detached(0);
+        Jackpot jackpot = jackpotRepository.getReferenceById(config.id());
+        // The detached pool starts at zero, so after each bet it holds the running total of the batch
+        long[] runningTotals = new long[bets.size()];
+        List<JackpotContribution> contributions = contributeAll(strategy, detached, bets, new long[bets.size()], runningTotals);
+        contributions.forEach(contribution -> contribution.setJackpot(jackpot));
+        long total = detached.getCurrentPoolMinor();
+
+        Instant updatedAt = Instant.now();
+        if (jackpotRepository.addToPool(config.id(), total, updatedAt) == 0) {
+            throw new IllegalArgumentException("Jackpot %s not found".formatted(config.id()));
+        }
+        long pool = jackpotRepository.findCurrentPool(config.id())
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(config.id())));
+
+        long poolBefore = pool - total;
+        for (int i = 0; i < contributions.size(); i++) {
+            contributions.get(i).setPostContributionPool(Money.toDecimal(poolBefore + runningTotals[i]));
+        }
+
+        Jackpot committed = config.detached(pool);
+        committed.setUpdatedAt(updatedAt);
+        poolSnapshotStore.publishAfterCommit(committed);
+        return contributions;
+    }
+
+    // Post-contribution pools are estimates here: the strategy runs against the latest snapshot,
+    // and the pool is only published once the stripes are folded or the snapshots are refreshed
+    private List<JackpotContribution> contributeToStripes(JackpotConfig config, List<Bet> bets) {
+        CompiledContributionStrategy strategy = strategyRegistry.contributionStrategyFor(config);
+        Jackpot estimate = poolStripes.estimate(config);
+        Jackpot jackpot = jackpotRepository.getReferenceById(config.id());
+        Map<Integer, Long> deltas = new TreeMap<>();
+        long[] amounts = new long[bets.size()];
+        List<JackpotContribution> contributions = contributeAll(strategy, estimate, bets, amounts, new long[bets.size()]);
+        for (int i = 0; i < bets.size(); i++) {
+            contributions.get(i).setJackpot(jackpot);
+            deltas.merge(JackpotPoolStripes.stripeOf(bets.get(i).getBetId(), config.poolStripes()), amounts[i], Long::sum);
+        }
+        deltas.forEach((stripe, delta) -> poolStripes.add(config.id(), stripe, delta));
+        return contributions;
+    }
+
+    private List<JackpotContribution> contributeAll(CompiledContributionStrategy strategy, Jackpot jackpot, List<Bet> bets) {
+        return contributeAll(strategy, jackpot, bets, new long[bets.size()], new long[bets.size()]);
+    }
+
+    // Applies the bets in order through the strategy's batch path, which leaves each contribution and the pool
+    // after it in the arrays, and builds their contribution rows
+    private List<JackpotContribution> contributeAll(CompiledContributionStrategy strategy, Jackpot jackpot, List<Bet> bets,
+                                                    long[] contributionsMinor, long[] updatedPoolsMinor) {
+        long[] betAmounts = new long[bets.size()];
+        for (int i = 0; i < betAmounts.length; i++) {
+            betAmounts[i] = Money.ofBetAmount(bets.get(i).getBetAmount());
+        }
+        strategy.contributeAll(jackpot, betAmounts, contributionsMinor, updatedPoolsMinor);
+
+        List<JackpotContribution> contributions = new ArrayList<>(betAmounts.length);
+        for (int i = 0; i < betAmounts.length; i++) {
+            contributions.add(JackpotContribution.builder()
+                    .betId(bets.get(i).getBetId())
+                    .jackpot(jackpot)
+                    .betAmount(Money.toDecimal(betAmounts[i]))
+                    .contributionAmount(Money.toDecimal(contributionsMinor[i]))
+                    .postContributionPool(Money.toDecimal(updatedPoolsMinor[i]))
+                    .strategy(jackpot.getContributionStrategy())
+                    .build());
+        }
+        return contributions;
+    }
+
+    private JackpotContribution contribute(CompiledContributionStrategy strategy, Jackpot jackpot, Bet bet) {
+        long betAmount = Money.ofBetAmount(bet.getBetAmount());
         ContributionResult result = strategy.contribute(jackpot, betAmount);
 
-        contributionRepository.save(JackpotContribution.builder()
+        return JackpotContribution.builder()
                 .betId(bet.getBetId())
                 .jackpot(jackpot)
-                .betAmount(betAmount)
+                .betAmount(Money.toDecimal(betAmount))
                 .contributionAmount(result.contributionAmount())
                 .postContributionPool(result.updatedPool())
                 .strategy(result.strategy())
-                .build());
-
-        jackpotRepository.save(jackpot);
-
-        BigDecimal effectiveRate = betAmount.signum() > 0
-                ? result.contributionAmount().divide(betAmount, 6, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-
-        log.info("Applied contribution: betId={}, jackpotId={}, strategy={}, contribution={}, pool={}, effectiveRate={}",
-                bet.getBetId(),
-                bet.getJackpotId(),
-                result.strategy(),
-                result.contributionAmount(),
-                result.updatedPool(),
-                effectiveRate);
+                .build();
     }
 }
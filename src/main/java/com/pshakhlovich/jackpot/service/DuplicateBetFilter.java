@@ -0,0 +1,169 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository.ContributionKey;
+import com.pshakhlovich.jackpot.support.BloomFilter;
+import com.pshakhlovich.jackpot.support.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects bets that have already contributed to a jackpot without locking the jackpot.
+ * <p>
+ * A bet is checked against, in order:
+ * </p>
+ * <ol>
+ *   <li>an LRU of the most recently applied bets - a hit is a duplicate, no database access;</li>
+ *   <li>a Bloom filter of applied bets - a miss means the bet is new, no database access;</li>
+ *   <li>{@code jackpot_contribution} - only for Bloom filter hits, most of which are real duplicates.</li>
+ * </ol>
+ * <p>
+ * The filters only know bets applied by this instance since startup, plus those loaded from the
+ * last {@code jackpot.consumer.dedupe.warmup-window}, and Bloom filter generations are dropped once
+ * full. A duplicate they miss is rejected by the unique {@code (bet_id, jackpot_id)} constraint,
+ * which rolls back its contribution.
+ * </p>
+ * <p>
+ * Bets are added only after the transaction that applied them commits, so a rolled-back bet is
+ * never mistaken for a duplicate when it is redelivered.
+ * </p>
+ */
+@Slf4j
+@Component
+public class DuplicateBetFilter {
+
+    private final JackpotContributionRepository contributionRepository;
+    private final BetConsumerProperties.Dedupe settings;
+    private final Clock clock;
+    private final Cache<Key, Boolean> recentBets;
+    private final Counter recentDuplicates;
+    private final Counter storedDuplicates;
+    private final Counter databaseProbes;
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    public DuplicateBetFilter(JackpotContributionRepository contributionRepository,
+                              BetConsumerProperties consumerProperties,
+                              Clock clock,
+                              MeterRegistry meterRegistry) {
+        this.contributionRepository = contributionRepository;
+        this.settings = consumerProperties.dedupe();
+        this.clock = clock;
+        // Entries are tiny; evicting on the consumer thread is cheaper than a hop to the common pool
+        this.recentBets = Caffeine.newBuilder()
+                .maximumSize(settings.recentBets())
+                .executor(Runnable::run)
+                .build();
+        this.recentDuplicates = Counter.builder("jackpot.bets.duplicates")
+                .description("Redelivered bets skipped before locking the jackpot")
+                .tag("detected-by", "recent")
+                .register(meterRegistry);
+        this.storedDuplicates = Counter.builder("jackpot.bets.duplicates")
+                .description("Redelivered bets skipped before locking the jackpot")
+                .tag("detected-by", "database")
+                .register(meterRegistry);
+        this.databaseProbes = Counter.builder("jackpot.bets.dedupe.probes")
+                .description("Bets checked against jackpot_contribution after a Bloom filter hit")
+                .register(meterRegistry);
+        this.current = newGeneration();
+    }
+
+    /**
+     * Tells whether a bet has already contributed to a jackpot.
+     *
+     * @param betId the bet
+     * @param jackpotId the jackpot it contributes to
+     * @return {@code true} if the bet must be skipped
+     */
+    public boolean isDuplicate(String betId, String jackpotId) {
+        Key key = new Key(betId, jackpotId);
+        if (recentBets.getIfPresent(key) != null) {
+            recentDuplicates.increment();
+            return true;
+        }
+        long hash = key.hash();
+        BloomFilter older = previous;
+        if (!current.mightContain(hash) && (older == null || !older.mightContain(hash))) {
+            return false;
+        }
+        databaseProbes.increment();
+        if (contributionRepository.existsByBetIdAndJackpotId(betId, jackpotId)) {
+            storedDuplicates.increment();
+            recentBets.put(key, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a bet applied in the current transaction once the transaction commits.
+     */
+    public void rememberAfterCommit(String betId, String jackpotId) {
+        Key key = new Key(betId, jackpotId);
+        TransactionHooks.afterCommit(() -> remember(key));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ContributionKey> keys = contributionRepository.findKeysCreatedSince(
+                clock.instant().minus(settings.warmupWindow()), Limit.of(Math.toIntExact(settings.expectedBets())));
+        // Oldest first, so the most recent bets end up in the LRU
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            remember(new Key(keys.get(i).getBetId(), keys.get(i).getJackpotId()));
+        }
+        log.info("Duplicate bet filter warmed up with {} bets from the last {}", keys.size(), settings.warmupWindow());
+    }
+
+    private void remember(Key key) {
+        recentBets.put(key, Boolean.TRUE);
+        BloomFilter filter = current;
+        filter.put(key.hash());
+        if (filter.isSaturated()) {
+            rotate(filter);
+        }
+    }
+
+    private synchronized void rotate(BloomFilter saturated) {
+        if (current == saturated) {
+            previous = saturated;
+            current = newGeneration();
+        }
+    }
+
+    private BloomFilter newGeneration() {
+        return new BloomFilter(settings.expectedBets(), settings.falsePositiveRate());
+    }
+
+    private record Key(String betId, String jackpotId) {
+
+        // FNV-1a over both ids, finished with a 64-bit mix so both halves are usable as Bloom hashes
+        long hash() {
+            long hash = 0xcbf29ce484222325L;
+            hash = mix(hash, jackpotId);
+            hash = (hash ^ 0xff) * 0x100000001b3L;
+            hash = mix(hash, betId);
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            return hash ^ (hash >>> 33);
+        }
+
+        private static long mix(long hash, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
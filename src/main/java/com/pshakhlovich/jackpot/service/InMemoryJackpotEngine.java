@@ -0,0 +1,522 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.JackpotEvaluation;
+import com.pshakhlovich.jackpot.domain.model.JackpotReward;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotEvaluationRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRewardRepository;
+import com.pshakhlovich.jackpot.support.KeyOrderedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Owns jackpot pools in memory when {@code jackpot.engine.mode} is {@code IN_MEMORY}.
+ * <p>
+ * Each jackpot has a single writer: operations on a jackpot run one after another on its own
+ * chain of a {@link KeyOrderedExecutor}, against a pool held in memory, without a row lock.
+ * Contribution, evaluation and reward rows and the resulting pool values are queued and written
+ * behind by one flusher thread, in one transaction per flush.
+ * </p>
+ * <p>
+ * Flushes are group commits: an operation completes only once a flush that started after it has
+ * committed, and every operation that finishes while a flush is running is covered by the next
+ * one. Nothing is therefore reported to a caller, or acknowledged to Kafka, before it is durable;
+ * after a crash the consumer resumes from its last committed offset and rebuilds the pools from
+ * the database. If a flush fails, all pools are dropped and reloaded from the database, and every
+ * operation waiting for a flush fails with a {@link JackpotEngineFlushException}, so that its bets are
+ * redelivered. Contributions are checked against {@code jackpot_contribution} before they are queued, so that
+ * a redelivered bet the duplicate filters miss cannot fail a flush shared with other bets.
+ * </p>
+ * <p>
+ * Pending rows stay visible to operations until their flush has committed, so a bet is always found
+ * either in memory or in the database. Operations that read the database before running check
+ * {@link JackpotState#flushedSince(long)} to detect rows that moved from one to the other meanwhile.
+ * </p>
+ * <p>
+ * Pools are written as the change made since the previous flush, added to the stored pool, never as an
+ * absolute value, so changes made by other writers (resets, increments, projections) are kept. The pool
+ * is read back in the flush transaction, and whatever other writers added is carried into memory.
+ * Configuration changes announced by {@link JackpotRegistry.Invalidated} are loaded into the jackpots
+ * held in memory on their writers, keeping their pools.
+ * </p>
+ */
+@Slf4j
+@Component
+public class InMemoryJackpotEngine implements SmartLifecycle {
+
+    private final JackpotRepository jackpotRepository;
+    private final JackpotContributionRepository contributionRepository;
+    private final JackpotEvaluationRepository evaluationRepository;
+    private final JackpotRewardRepository rewardRepository;
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final DuplicateBetFilter duplicateBetFilter;
+    private final JackpotPoolStripes poolStripes;
+    private final TransactionOperations transactionOperations;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Timer flushTimer;
+    private final KeyOrderedExecutor<String> writers = new KeyOrderedExecutor<>(Executors.newVirtualThreadPerTaskExecutor());
+    private final AtomicLong committedFlushes = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private Generation generation = new Generation();
+    private Thread flusher;
+    private volatile boolean running;
+
+    public InMemoryJackpotEngine(JackpotRepository jackpotRepository,
+                                 JackpotContributionRepository contributionRepository,
+                                 JackpotEvaluationRepository evaluationRepository,
+                                 JackpotRewardRepository rewardRepository,
+                                 JackpotPoolSnapshotStore poolSnapshotStore,
+                                 DuplicateBetFilter duplicateBetFilter,
+                                 JackpotPoolStripes poolStripes,
+                                 TransactionOperations transactionOperations,
+                                 Clock clock,
+                                 JackpotEngineProperties engineProperties,
+                                 MeterRegistry meterRegistry) {
+        this.jackpotRepository = jackpotRepository;
+        this.contributionRepository = contributionRepository;
+        this.evaluationRepository = evaluationRepository;
+        this.rewardRepository = rewardRepository;
+        this.poolSnapshotStore = poolSnapshotStore;
+        this.duplicateBetFilter = duplicateBetFilter;
+        this.poolStripes = poolStripes;
+        this.transactionOperations = transactionOperations;
+        this.clock = clock;
+        this.enabled = engineProperties.mode() == JackpotEngineProperties.Mode.IN_MEMORY;
+        this.flushTimer = Timer.builder("jackpot.engine.flushes")
+                .description("Write-behind flushes of the in-memory jackpot engine")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a mark to pass to {@link JackpotState#flushedSince(long)}; take it before reading the database.
+     */
+    public long flushMark() {
+        return committedFlushes.get();
+    }
+
+    /**
+     * Runs an operation on the single writer of a jackpot.
+     *
+     * @param jackpotId the jackpot to operate on
+     * @param operation the operation; it may change the pool and queue rows through the state
+     * @param <T> the operation result
+     * @return a future completed with the operation result once its changes have been written
+     */
+    public <T> CompletableFuture<T> submit(String jackpotId, Function<JackpotState, T> operation) {
+        Generation submittedIn = currentGeneration();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        writers.submit(jackpotId, () -> {
+            try {
+                result.complete(operation.apply(submittedIn.state(jackpotId)));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result.thenCompose(value -> awaitFlush(submittedIn).thenApply(flushed -> value));
+    }
+
+    /**
+     * Reloads the configuration of jackpots held in memory once it has changed.
+     * <p>
+     * The reload runs on each jackpot's writer, after the operations already submitted for it.
+     * </p>
+     *
+     * @param invalidated the jackpots whose configuration may have changed
+     */
+    @EventListener
+    public void onJackpotInvalidated(JackpotRegistry.Invalidated invalidated) {
+        if (!running) {
+            return;
+        }
+        Generation current = currentGeneration();
+        current.states.keySet().stream()
+                .filter(invalidated::covers)
+                .forEach(jackpotId -> writers.submit(jackpotId, () -> current.reload(jackpotId)));
+    }
+
+    /**
+     * Waits for a future returned by {@link #submit(String, Function)}, rethrowing its failure unwrapped.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofVirtual().name("jackpot-engine-flusher").start(this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        lock.lock();
+        try {
+            // Operations that finished after the last flush started are not written
+            generation.nextFlush.completeExceptionally(new IllegalStateException("Jackpot engine stopped"));
+        } finally {
+            lock.unlock();
+        }
+        writers.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the listener containers and the web server, so the last operations are still written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private Generation currentGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> awaitFlush(Generation waiting) {
+        lock.lock();
+        try {
+            if (waiting.failure != null) {
+                return CompletableFuture.failedFuture(waiting.failure);
+            }
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Jackpot engine is not running"));
+            }
+            waiting.flushRequested = true;
+            flushRequested.signal();
+            return waiting.nextFlush;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Generation flushing;
+            CompletableFuture<Void> flushed;
+            lock.lock();
+            try {
+                while (running && !generation.flushRequested) {
+                    flushRequested.awaitUninterruptibly();
+                }
+                flushing = generation;
+                // Operations that finish from here on wait for the next flush
+                flushed = flushing.nextFlush;
+                flushing.nextFlush = new CompletableFuture<>();
+                flushing.flushRequested = false;
+            } finally {
+                lock.unlock();
+            }
+            flush(flushing, flushed);
+            if (!running) {
+                return;
+            }
+        }
+    }
+
+    private void flush(Generation flushing, CompletableFuture<Void> flushed) {
+        // Drained on each jackpot's writer, after every operation that requested this flush
+        List<CompletableFuture<Pending>> draining = new ArrayList<>();
+        flushing.states.values().forEach(state -> {
+            CompletableFuture<Pending> drained = new CompletableFuture<>();
+            writers.submit(state.jackpot.getId(), () -> drained.complete(state.drain()));
+            draining.add(drained);
+        });
+        List<Pending> pending = draining.stream()
+                .map(CompletableFuture::join)
+                .filter(Pending::hasChanges)
+                .toList();
+        if (pending.isEmpty()) {
+            flushed.complete(null);
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> transactionOperations.executeWithoutResult(status -> pending.forEach(this::write)));
+        } catch (RuntimeException ex) {
+            log.error("Write-behind flush of {} jackpots failed, reloading all pools from the database", pending.size(), ex);
+            JackpotEngineFlushException failure = new JackpotEngineFlushException(
+                    "Write-behind flush of %d jackpots failed (%s); nothing was applied".formatted(pending.size(), ex.getClass().getSimpleName()));
+            lock.lock();
+            try {
+                flushing.failure = failure;
+                flushing.nextFlush.completeExceptionally(failure);
+                generation = new Generation();
+            } finally {
+                lock.unlock();
+            }
+            flushed.completeExceptionally(failure);
+            return;
+        }
+
+        List<CompletableFuture<Void>> released = new ArrayList<>(pending.size());
+        pending.forEach(written -> released.add(writers.submit(written.jackpotId(), () ->
+                flushing.states.get(written.jackpotId()).release(written))));
+        released.forEach(CompletableFuture::join);
+        committedFlushes.incrementAndGet();
+        flushed.complete(null);
+    }
+
+    private void write(Pending pending) {
+        Jackpot jackpot = jackpotRepository.getReferenceById(pending.jackpotId());
+        pending.contributions().forEach(contribution -> contribution.setJackpot(jackpot));
+        pending.evaluations().forEach(evaluation -> evaluation.setJackpot(jackpot));
+        pending.rewards().forEach(reward -> reward.setJackpot(jackpot));
+
+        contributionRepository.saveAll(pending.contributions());
+        evaluationRepository.saveAll(pending.evaluations());
+        rewardRepository.saveAll(pending.rewards());
+        if (pending.pool() != null) {
+            if (jackpotRepository.addToPool(pending.jackpotId(), pending.poolDelta(), pending.pool().getUpdatedAt()) == 0) {
+                throw new IllegalStateException("Jackpot %s not found".formatted(pending.jackpotId()));
+            }
+            // Includes changes of other writers, which release() carries into memory
+            pending.pool().setCurrentPoolMinor(jackpotRepository.findCurrentPool(pending.jackpotId())
+                    .orElseThrow(() -> new IllegalStateException("Jackpot %s not found".formatted(pending.jackpotId()))));
+            poolSnapshotStore.publishAfterCommit(pending.pool());
+        }
+        pending.contributions().forEach(contribution ->
+                duplicateBetFilter.rememberAfterCommit(contribution.getBetId(), pending.jackpotId()));
+    }
+
+    // A single writer needs no stripes, but stripes written in DATABASE mode must not be counted twice
+    // once the pool they were folded into is written behind
+    private void foldStripes(Jackpot jackpot) {
+        transactionOperations.executeWithoutResult(status -> {
+            long before = jackpot.getCurrentPoolMinor();
+            if (poolStripes.fold(jackpot)) {
+                jackpotRepository.addToPool(jackpot.getId(), jackpot.getCurrentPoolMinor() - before, clock.instant());
+            }
+        });
+    }
+
+    /**
+     * Pools and pending rows of all jackpots, from one load of the database up to a failed flush.
+     */
+    private final class Generation {
+
+        private final Map<String, JackpotState> states = new ConcurrentHashMap<>();
+        // Guarded by the engine lock
+        private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+        private boolean flushRequested;
+        private RuntimeException failure;
+
+        // Only called on the jackpot's writer
+        private JackpotState state(String jackpotId) {
+            JackpotState state = states.get(jackpotId);
+            if (state == null) {
+                Jackpot jackpot = jackpotRepository.findById(jackpotId)
+                        .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+                foldStripes(jackpot);
+                state = new JackpotState(jackpot);
+                states.put(jackpotId, state);
+            }
+            return state;
+        }
+
+        // Only called on the jackpot's writer
+        private void reload(String jackpotId) {
+            JackpotState state = states.get(jackpotId);
+            if (state == null) {
+                return;
+            }
+            // A deleted jackpot keeps its state: its pending rows fail the next flush rather than being lost
+            jackpotRepository.findById(jackpotId).ifPresentOrElse(
+                    state::reconfigure,
+                    () -> log.warn("Jackpot {} held in memory no longer exists", jackpotId));
+        }
+    }
+
+    /**
+     * The in-memory pool of one jackpot and its rows not yet written.
+     * <p>
+     * Only to be used by operations passed to {@link #submit(String, Function)}, which all run on the jackpot's writer.
+     * </p>
+     */
+    public final class JackpotState {
+
+        private Jackpot jackpot;
+        // The stored pool the next flush adds its change to, as last read back by a flush
+        private long flushedPool;
+        // Rows not yet committed, including those of a flush in progress
+        private final Map<String, JackpotContribution> contributions = new LinkedHashMap<>();
+        private final Map<String, JackpotEvaluation> evaluations = new LinkedHashMap<>();
+        private final List<JackpotContribution> newContributions = new ArrayList<>();
+        private final List<JackpotEvaluation> newEvaluations = new ArrayList<>();
+        private final List<JackpotReward> newRewards = new ArrayList<>();
+        private boolean poolChanged;
+
+        private JackpotState(Jackpot jackpot) {
+            this.jackpot = jackpot;
+            this.flushedPool = jackpot.getCurrentPoolMinor();
+        }
+
+        /**
+         * The jackpot as owned by this writer; strategies may change its pool.
+         */
+        public Jackpot jackpot() {
+            return jackpot;
+        }
+
+        /**
+         * Whether the bet contributed to this jackpot in a change not yet committed.
+         */
+        public boolean hasPendingContribution(String betId) {
+            return contributions.containsKey(betId);
+        }
+
+        /**
+         * Bets whose contributions are not yet committed, in the order they were applied.
+         */
+        public List<String> pendingContributionBetIds() {
+            return List.copyOf(contributions.keySet());
+        }
+
+        /**
+         * The evaluation of the bet, if it is not yet committed.
+         */
+        public Optional<JackpotEvaluation> pendingEvaluation(String betId) {
+            return Optional.ofNullable(evaluations.get(betId));
+        }
+
+        /**
+         * Whether rows read from the database before {@link #flushMark()} returned the given mark
+         * may have been written since, and have to be read again.
+         */
+        public boolean flushedSince(long mark) {
+            return committedFlushes.get() != mark;
+        }
+
+        public void add(JackpotContribution contribution) {
+            contributions.put(contribution.getBetId(), contribution);
+            newContributions.add(contribution);
+            touchPool();
+        }
+
+        public void add(JackpotEvaluation evaluation) {
+            evaluations.put(evaluation.getBetId(), evaluation);
+            newEvaluations.add(evaluation);
+        }
+
+        public void add(JackpotReward reward) {
+            newRewards.add(reward);
+            touchPool();
+        }
+
+        private void touchPool() {
+            jackpot.setUpdatedAt(clock.instant());
+            poolChanged = true;
+        }
+
+        private void reconfigure(Jackpot loaded) {
+            jackpot = loaded.toBuilder()
+                    .currentPoolMinor(jackpot.getCurrentPoolMinor())
+                    .updatedAt(jackpot.getUpdatedAt())
+                    .build();
+            log.info("Jackpot engine reloaded configuration of {}", jackpot.getId());
+        }
+
+        private Pending drain() {
+            Pending pending = new Pending(jackpot.getId(),
+                    List.copyOf(newContributions),
+                    List.copyOf(newEvaluations),
+                    List.copyOf(newRewards),
+                    // A copy, as the pool keeps changing while the flush runs
+                    poolChanged ? jackpot.toBuilder().build() : null,
+                    jackpot.getCurrentPoolMinor() - flushedPool);
+            newContributions.clear();
+            newEvaluations.clear();
+            newRewards.clear();
+            poolChanged = false;
+            return pending;
+        }
+
+        private void release(Pending written) {
+            written.contributions().forEach(contribution -> contributions.remove(contribution.getBetId()));
+            written.evaluations().forEach(evaluation -> evaluations.remove(evaluation.getBetId()));
+            if (written.pool() != null) {
+                long stored = written.pool().getCurrentPoolMinor();
+                long external = stored - (flushedPool + written.poolDelta());
+                if (external != 0) {
+                    log.debug("Jackpot {} pool changed by {} outside the engine", jackpot.getId(), Money.toDecimal(external));
+                    jackpot.increasePool(external);
+                }
+                flushedPool = stored;
+            }
+        }
+    }
+
+    private record Pending(String jackpotId,
+                           List<JackpotContribution> contributions,
+                           List<JackpotEvaluation> evaluations,
+                           List<JackpotReward> rewards,
+                           Jackpot pool,
+                           long poolDelta) {
+
+        private boolean hasChanges() {
+            return !contributions.isEmpty() || !evaluations.isEmpty() || !rewards.isEmpty() || pool != null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs jackpot transactions according to the {@link ConcurrencyMode} of the jackpots they touch.
+ * <p>
+ * Transactions that only touch pessimistic jackpots run once; they wait for row locks instead of
+ * conflicting. Transactions that touch an optimistic jackpot are repeated when a concurrent writer
+ * changed the jackpot first, up to {@code jackpot.concurrency.retry.max-attempts} times, with a
+ * randomized exponential backoff between attempts.
+ * </p>
+ * <p>
+ * A transaction joined from an enclosing one cannot be repeated on its own, as its conflict only
+ * surfaces when the enclosing transaction commits. It runs once, and the caller that owns the
+ * transaction repeats it through this class. Consumed bets are applied in transactions of the
+ * contribution service, except with database offset storage, where the bet listeners own the
+ * transaction that also stores the offsets and repeat that one.
+ * </p>
+ * <p>
+ * Conflicts are counted in {@code jackpot.concurrency.conflicts}, tagged by jackpot and operation, and
+ * attempts per operation are recorded in {@code jackpot.concurrency.attempts}. A pessimistic jackpot
+ * with few conflicts when run optimistically pays for its locks for nothing; an optimistic jackpot
+ * with many conflicts is better off pessimistic.
+ * </p>
+ */
+@Slf4j
+@Component
+public class JackpotConcurrencyControl {
+
+    private final JackpotRegistry jackpotRegistry;
+    private final JackpotConcurrencyProperties.Retry retry;
+    private final MeterRegistry meterRegistry;
+
+    public JackpotConcurrencyControl(JackpotRegistry jackpotRegistry,
+                                     JackpotConcurrencyProperties concurrencyProperties,
+                                     MeterRegistry meterRegistry) {
+        this.jackpotRegistry = jackpotRegistry;
+        this.retry = concurrencyProperties.retry();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns whether a jackpot is updated optimistically; unknown jackpots are not.
+     *
+     * @param jackpotId the jackpot identifier
+     */
+    public boolean isOptimistic(String jackpotId) {
+        return jackpotRegistry.find(jackpotId)
+                .map(config -> config.concurrencyMode() == ConcurrencyMode.OPTIMISTIC)
+                .orElse(false);
+    }
+
+    /**
+     * Runs a transaction, repeating it while it conflicts on an optimistic jackpot.
+     *
+     * @param operation the operation name, used to tag metrics
+     * @param jackpotIds the jackpots the transaction touches
+     * @param transaction the transaction; each call must begin and end a transaction of its own
+     * @param <T> the transaction result
+     * @return the result of the attempt that committed
+     * @throws OptimisticLockingFailureException if the last allowed attempt conflicted too
+     */
+    public <T> T execute(String operation, Collection<String> jackpotIds, Supplier<T> transaction) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || jackpotIds.stream().noneMatch(this::isOptimistic)) {
+            return transaction.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transaction.get();
+                recordAttempts(operation, attempt);
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                recordConflict(operation, ex);
+                if (attempt >= retry.maxAttempts()) {
+                    recordAttempts(operation, attempt);
+                    log.warn("Giving up {} after {} conflicting attempts: {}", operation, attempt, ex.getMessage());
+                    throw ex;
+                }
+                backOff(attempt, ex);
+            }
+        }
+    }
+
+    /**
+     * Runs a transaction without a result, repeating it while it conflicts on an optimistic jackpot.
+     *
+     * @see #execute(String, Collection, Supplier)
+     */
+    public void run(String operation, Collection<String> jackpotIds, Runnable transaction) {
+        execute(operation, jackpotIds, () -> {
+            transaction.run();
+            return null;
+        });
+    }
+
+    // Full jitter: a uniform wait up to the exponential bound spreads out writers that collided together
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long boundMillis = Math.min(retry.maxBackoff().toMillis(), retry.initialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        if (boundMillis <= 0) {
+            return;
+        }
+        try {
+            // Callers run on virtual threads, so waiting does not tie up a platform thread
+            Thread.sleep(Duration.ofMillis(ThreadLocalRandom.current().nextLong(boundMillis + 1)));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private void recordConflict(String operation, OptimisticLockingFailureException ex) {
+        String jackpotId = ex instanceof ObjectOptimisticLockingFailureException stale && stale.getIdentifier() != null
+                ? stale.getIdentifier().toString()
+                : "unknown";
+        Counter.builder("jackpot.concurrency.conflicts")
+                .description("Optimistic jackpot updates rolled back because a concurrent writer changed the jackpot first")
+                .tag("jackpot", jackpotId)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordAttempts(String operation, int attempts) {
+        DistributionSummary.builder("jackpot.concurrency.attempts")
+                .description("Attempts needed by operations on optimistic jackpots")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(attempts);
+    }
+}
@@ -0,0 +1,17 @@
+package com.pshakhlovich.jackpot.service;
+
+/**
+ * Thrown to operations of the {@link InMemoryJackpotEngine} whose changes were lost because the flush that was
+ * to write them failed.
+ * <p>
+ * Nothing of the operation was applied, so it can be retried. A flush covers the operations of many callers, and
+ * its failure may have been caused by any of them; the cause is logged by the engine rather than attached, so
+ * that no caller mistakes another one's failure, such as a unique key violation, for its own.
+ * </p>
+ */
+public class JackpotEngineFlushException extends RuntimeException {
+
+    public JackpotEngineFlushException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,50 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pshakhlovich.jackpot.config.JackpotCacheProperties;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory cache of committed evaluation outcomes.
+ * <p>
+ * Recorded outcomes never change, so entries need no invalidation; they are only bounded
+ * in number and evicted after {@code jackpot.cache.evaluations.expire-after-access} without
+ * requests. Only outcomes that have been committed to {@code jackpot_evaluation} may be added.
+ * </p>
+ * <p>
+ * Hit and miss statistics are exported under the {@code jackpot.evaluations} cache name.
+ * </p>
+ */
+@Component
+public class JackpotEvaluationCache {
+
+    static final String CACHE_NAME = "jackpot.evaluations";
+
+    private final Cache<Key, RewardResult> cache;
+
+    public JackpotEvaluationCache(JackpotCacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        JackpotCacheProperties.Evaluations settings = cacheProperties.evaluations();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterAccess(settings.expireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<RewardResult> find(String betId, String jackpotId) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(betId, jackpotId)));
+    }
+
+    public void put(String betId, String jackpotId, RewardResult result) {
+        cache.put(new Key(betId, jackpotId), result);
+    }
+
+    private record Key(String betId, String jackpotId) {
+    }
+}
@@ -1,18 +1,33 @@
 package com.pshakhlovich.jackpot.service;
 
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotEvaluation;
 import com.pshakhlovich.jackpot.domain.model.JackpotReward;
 import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
-import com.pshakhlovich.jackpot.domain.strategy.reward.RewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.CompiledRewardStrategy;
+import com.pshakhlovich.jackpot.messaging.PoolAdjustmentProducer;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotEvaluationRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRewardRepository;
+import com.pshakhlovich.jackpot.service.dto.EvaluationOutcome;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
 import com.pshakhlovich.jackpot.support.DeterministicRandom;
+import com.pshakhlovich.jackpot.support.UniqueConstraints;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 @Slf4j
 @Service
@@ -22,10 +37,76 @@ public class JackpotEvaluationService {
     private final JackpotContributionRepository contributionRepository;
     private final JackpotRepository jackpotRepository;
     private final JackpotRewardRepository rewardRepository;
+    private final JackpotEvaluationRepository evaluationRepository;
+    private final JackpotEvaluationCache evaluationCache;
     private final StrategyRegistry strategyRegistry;
+    private final JackpotRegistry jackpotRegistry;
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+    private final JackpotPoolStripes poolStripes;
+    private final JackpotConcurrencyControl concurrencyControl;
+    private final TransactionOperations transactionOperations;
+    private final InMemoryJackpotEngine engine;
+    private final PoolAdjustmentProducer poolAdjustments;
 
-    @Transactional("transactionManager")
+    /**
+     * Evaluates a bet against a jackpot, at most once.
+     * <p>
+     * The first evaluation draws under the jackpot lock and records the outcome, win or loss.
+     * Later evaluations of the same bet return the recorded outcome: from memory without opening
+     * a transaction, or from {@code jackpot_evaluation} without taking the jackpot lock.
+     * </p>
+     * <p>
+     * For an optimistic jackpot the draw runs without the lock and is repeated, against the new pool,
+     * if the jackpot changed before it committed. Two first evaluations of the same bet may then both
+     * draw; the one that commits second is rejected by the unique key and returns the outcome the
+     * other recorded.
+     * </p>
+     * <p>
+     * With the in-memory engine the draw runs on the jackpot's writer instead of under the lock,
+     * and the outcome is returned once it has been written behind. With the Kafka Streams engine a win
+     * is also published as a {@link PoolAdjustmentProducer pool adjustment}.
+     * </p>
+     *
+     * @param betId the bet to evaluate
+     * @param jackpotId the jackpot to evaluate against
+     * @return the outcome of the bet's one and only evaluation
+     */
     public RewardResult evaluate(String betId, String jackpotId) {
+        Optional<RewardResult> cached = evaluationCache.find(betId, jackpotId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        RewardResult result = engine.isEnabled()
+                ? evaluateInMemory(betId, jackpotId)
+                : evaluateInDatabase(betId, jackpotId);
+        // Committed at this point, so the outcome is final
+        evaluationCache.put(betId, jackpotId, result);
+        return result;
+    }
+
+    private RewardResult evaluateInDatabase(String betId, String jackpotId) {
+        try {
+            return concurrencyControl.execute("evaluation", List.of(jackpotId),
+                    () -> transactionOperations.execute(status -> evaluateOnce(betId, jackpotId)));
+        } catch (DataIntegrityViolationException ex) {
+            if (!UniqueConstraints.isViolated(ex, JackpotEvaluation.UNIQUE_BET_CONSTRAINT)) {
+                throw ex;
+            }
+            // A concurrent first evaluation of the bet committed first; its outcome is the one recorded
+            log.debug("Evaluation of bet {} for jackpot {} was recorded concurrently", betId, jackpotId);
+            return evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId)
+                    .map(JackpotEvaluation::toResult)
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    private RewardResult evaluateOnce(String betId, String jackpotId) {
+        Optional<JackpotEvaluation> recorded = evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId);
+        if (recorded.isPresent()) {
+            return recorded.get().toResult();
+        }
+
         // Verify bet contribution exists
         contributionRepository.findByBetIdAndJackpotId(betId, jackpotId)
                 .orElseThrow(() -> new IllegalArgumentException(
@@ -33,30 +114,236 @@ public class JackpotEvaluationService {
 
         // Load jackpot with pessimistic write lock to prevent concurrent evaluation race conditions
         // Lock timeout is 5 seconds - concurrent requests will wait in queue and be evaluated sequentially
-        Jackpot jackpot = jackpotRepository.findByIdForUpdate(jackpotId)
+        Jackpot jackpot = lockJackpot(jackpotId);
+
+        // A concurrent evaluation of the same bet may have committed while this one waited for the lock
+        recorded = evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId);
+        if (recorded.isPresent()) {
+            return recorded.get().toResult();
+        }
+
+        long poolBefore = jackpot.getCurrentPoolMinor();
+        RewardResult result = draw(rewardStrategyFor(jackpot), jackpot, betId, jackpotId);
+        evaluationRepository.save(toEvaluation(betId, jackpot, result));
+
+        // Persist reward and save updated jackpot state if win
+        if (result.win()) {
+            rewardRepository.save(toReward(betId, jackpot, result));
+            jackpotRepository.save(jackpot);
+            poolSnapshotStore.publishAfterCommit(jackpot);
+            poolAdjustments.publishAfterCommit(jackpotId, jackpot.getCurrentPoolMinor() - poolBefore);
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates several bets against one jackpot under a single lock.
+     * <p>
+     * Contributions of all bets are checked with one query and the jackpot row is locked once.
+     * Bets are evaluated in the order their contributions were recorded, each against the pool
+     * left by the previous one, so a win resets the pool before the next bet is drawn, exactly as
+     * if the bets had been evaluated one by one in that order. Rewards are saved in one flush.
+     * </p>
+     * <p>
+     * Bets that were evaluated before return their recorded outcome without a new draw. Bets
+     * without a contribution and repeated bet IDs are reported as not evaluated.
+     * </p>
+     *
+     * @param jackpotId the jackpot to evaluate against
+     * @param betIds the bets to evaluate
+     * @return one outcome per requested bet ID, in request order
+     */
+    public List<EvaluationOutcome> evaluateBatch(String jackpotId, List<String> betIds) {
+        List<EvaluationOutcome> results = engine.isEnabled()
+                ? evaluateBatchInMemory(jackpotId, betIds)
+                : concurrencyControl.execute("evaluation-batch", List.of(jackpotId),
+                        () -> transactionOperations.execute(status -> evaluateBatchOnce(jackpotId, betIds)));
+        results.stream()
+                .filter(EvaluationOutcome::evaluated)
+                .forEach(outcome -> evaluationCache.put(outcome.betId(), jackpotId, outcome.result()));
+        return results;
+    }
+
+    private List<EvaluationOutcome> evaluateBatchOnce(String jackpotId, List<String> betIds) {
+        Set<String> distinctBetIds = new LinkedHashSet<>(betIds);
+        // A bet may have been delivered more than once; evaluate it once, at its first contribution
+        Set<String> evaluationOrder = new LinkedHashSet<>(contributionRepository.findContributedBetIds(jackpotId, distinctBetIds));
+
+        Jackpot jackpot = lockJackpot(jackpotId);
+        CompiledRewardStrategy strategy = rewardStrategyFor(jackpot);
+        long poolBefore = jackpot.getCurrentPoolMinor();
+
+        Map<String, EvaluationOutcome> outcomes = new HashMap<>(evaluationOrder.size());
+        if (!evaluationOrder.isEmpty()) {
+            evaluationRepository.findByJackpotIdAndBetIds(jackpotId, evaluationOrder).forEach(evaluation ->
+                    outcomes.put(evaluation.getBetId(), EvaluationOutcome.recorded(evaluation.getBetId(), evaluation.toResult())));
+        }
+
+        List<JackpotEvaluation> evaluations = new ArrayList<>();
+        List<JackpotReward> rewards = new ArrayList<>();
+        int sequence = 0;
+        for (String betId : evaluationOrder) {
+            if (outcomes.containsKey(betId)) {
+                continue;
+            }
+            RewardResult result = draw(strategy, jackpot, betId, jackpotId);
+            evaluations.add(toEvaluation(betId, jackpot, result));
+            if (result.win()) {
+                rewards.add(toReward(betId, jackpot, result));
+            }
+            outcomes.put(betId, EvaluationOutcome.evaluated(betId, sequence++, result));
+        }
+
+        evaluationRepository.saveAll(evaluations);
+        if (!rewards.isEmpty()) {
+            rewardRepository.saveAll(rewards);
+            jackpotRepository.save(jackpot);
+            poolSnapshotStore.publishAfterCommit(jackpot);
+            poolAdjustments.publishAfterCommit(jackpotId, jackpot.getCurrentPoolMinor() - poolBefore);
+        }
+        log.info("Batch evaluation completed: jackpotId={}, requested={}, evaluated={}, wins={}",
+                jackpotId, betIds.size(), evaluations.size(), rewards.size());
+
+        return inRequestOrder(jackpotId, betIds, outcomes);
+    }
+
+    private RewardResult evaluateInMemory(String betId, String jackpotId) {
+        // Rows already written are looked up before queueing on the writer, which only checks pending ones
+        long mark = engine.flushMark();
+        Optional<RewardResult> recorded = evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId)
+                .map(JackpotEvaluation::toResult);
+        if (recorded.isPresent()) {
+            return recorded.get();
+        }
+        boolean contributed = contributionRepository.existsByBetIdAndJackpotId(betId, jackpotId);
+
+        return InMemoryJackpotEngine.join(engine.submit(jackpotId, state -> {
+            Optional<JackpotEvaluation> pending = state.pendingEvaluation(betId);
+            if (pending.isPresent()) {
+                return pending.get().toResult();
+            }
+            boolean hasContribution = contributed || state.hasPendingContribution(betId);
+            if (state.flushedSince(mark)) {
+                // Rows may have moved from memory to the database since they were looked up
+                Optional<JackpotEvaluation> written = evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId);
+                if (written.isPresent()) {
+                    return written.get().toResult();
+                }
+                hasContribution = hasContribution || contributionRepository.existsByBetIdAndJackpotId(betId, jackpotId);
+            }
+            if (!hasContribution) {
+                throw new IllegalArgumentException(
+                        "No contribution found for betId=%s and jackpotId=%s".formatted(betId, jackpotId));
+            }
+
+            Jackpot jackpot = state.jackpot();
+            RewardResult result = draw(rewardStrategyFor(jackpot), jackpot, betId, jackpotId);
+            state.add(toEvaluation(betId, jackpot, result));
+            if (result.win()) {
+                state.add(toReward(betId, jackpot, result));
+            }
+            return result;
+        }));
+    }
+
+    private List<EvaluationOutcome> evaluateBatchInMemory(String jackpotId, List<String> betIds) {
+        Set<String> distinctBetIds = new LinkedHashSet<>(betIds);
+        long mark = engine.flushMark();
+        List<String> contributedBetIds = contributionRepository.findContributedBetIds(jackpotId, distinctBetIds);
+        List<JackpotEvaluation> recorded = evaluationRepository.findByJackpotIdAndBetIds(jackpotId, distinctBetIds);
+
+        Map<String, EvaluationOutcome> outcomes = InMemoryJackpotEngine.join(engine.submit(jackpotId, state -> {
+            List<String> written = contributedBetIds;
+            List<JackpotEvaluation> writtenEvaluations = recorded;
+            if (state.flushedSince(mark)) {
+                written = contributionRepository.findContributedBetIds(jackpotId, distinctBetIds);
+                writtenEvaluations = evaluationRepository.findByJackpotIdAndBetIds(jackpotId, distinctBetIds);
+            }
+            // Written contributions precede pending ones, so this is the order they were applied in
+            Set<String> evaluationOrder = new LinkedHashSet<>(written);
+            state.pendingContributionBetIds().stream()
+                    .filter(distinctBetIds::contains)
+                    .forEach(evaluationOrder::add);
+
+            Map<String, EvaluationOutcome> evaluated = new HashMap<>(evaluationOrder.size());
+            writtenEvaluations.forEach(evaluation ->
+                    evaluated.put(evaluation.getBetId(), EvaluationOutcome.recorded(evaluation.getBetId(), evaluation.toResult())));
+
+            Jackpot jackpot = state.jackpot();
+            CompiledRewardStrategy strategy = rewardStrategyFor(jackpot);
+            int sequence = 0;
+            int wins = 0;
+            for (String betId : evaluationOrder) {
+                if (evaluated.containsKey(betId)) {
+                    continue;
+                }
+                Optional<JackpotEvaluation> pending = state.pendingEvaluation(betId);
+                if (pending.isPresent()) {
+                    evaluated.put(betId, EvaluationOutcome.recorded(betId, pending.get().toResult()));
+                    continue;
+                }
+                RewardResult result = draw(strategy, jackpot, betId, jackpotId);
+                state.add(toEvaluation(betId, jackpot, result));
+                if (result.win()) {
+                    state.add(toReward(betId, jackpot, result));
+                    wins++;
+                }
+                evaluated.put(betId, EvaluationOutcome.evaluated(betId, sequence++, result));
+            }
+            log.info("Batch evaluation completed in memory: jackpotId={}, requested={}, evaluated={}, wins={}",
+                    jackpotId, betIds.size(), sequence, wins);
+            return evaluated;
+        }));
+        return inRequestOrder(jackpotId, betIds, outcomes);
+    }
+
+    private List<EvaluationOutcome> inRequestOrder(String jackpotId, List<String> betIds, Map<String, EvaluationOutcome> outcomes) {
+        Set<String> reported = new HashSet<>();
+        List<EvaluationOutcome> results = new ArrayList<>(betIds.size());
+        for (String betId : betIds) {
+            if (!reported.add(betId)) {
+                results.add(EvaluationOutcome.skipped(betId, "Duplicate betId %s in batch".formatted(betId)));
+            } else if (outcomes.containsKey(betId)) {
+                results.add(outcomes.get(betId));
+            } else {
+                results.add(EvaluationOutcome.skipped(betId,
+                        "No contribution found for betId=%s and jackpotId=%s".formatted(betId, jackpotId)));
+            }
+        }
+        return results;
+    }
+
+    // The registry's configuration is the instance the strategy was compiled for, so the lookup compares no fields;
+    // a jackpot the registry does not know has its configuration captured instead
+    private CompiledRewardStrategy rewardStrategyFor(Jackpot jackpot) {
+        return strategyRegistry.rewardStrategyFor(
+                jackpotRegistry.find(jackpot.getId()).orElseGet(() -> JackpotConfig.from(jackpot)));
+    }
+
+    private Jackpot lockJackpot(String jackpotId) {
+        // Optimistic jackpots are read without a lock; a concurrent writer is detected by the version check at commit
+        Optional<Jackpot> found = concurrencyControl.isOptimistic(jackpotId)
+                ? jackpotRepository.findByIdOptimistic(jackpotId)
+                : jackpotRepository.findByIdForUpdate(jackpotId);
+        Jackpot jackpot = found
                 .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+        // Draw against, and let a win reset, the contributions held in stripes too
+        if (poolStripes.fold(jackpot)) {
+            poolSnapshotStore.publishAfterCommit(jackpot);
+        }
+        return jackpot;
+    }
 
+    private RewardResult draw(CompiledRewardStrategy strategy, Jackpot jackpot, String betId, String jackpotId) {
         // Generate deterministic random draw
         DeterministicRandom random = new DeterministicRandom(betId + jackpotId);
         double randomDraw = random.nextDouble();
 
         // Apply reward strategy
-        RewardStrategy strategy = strategyRegistry.getRewardStrategy(jackpot.getRewardStrategy());
         RewardResult result = strategy.evaluate(jackpot, randomDraw);
 
-        // Persist reward and save updated jackpot state if win
         if (result.win()) {
-            JackpotReward reward = JackpotReward.builder()
-                    .betId(betId)
-                    .jackpot(jackpot)
-                    .payoutAmount(result.payoutAmount())
-                    .probability(result.probability())
-                    .strategy(result.strategy())
-                    .build();
-
-            rewardRepository.save(reward);
-            jackpotRepository.save(jackpot);
-
             log.info("Jackpot reward paid: betId={}, jackpotId={}, strategy={}, probability={}, payout={}, updatedPool={}",
                     betId,
                     jackpotId,
@@ -72,7 +359,28 @@ public class JackpotEvaluationService {
                     result.probability(),
                     randomDraw);
         }
-
         return result;
     }
+
+    private JackpotEvaluation toEvaluation(String betId, Jackpot jackpot, RewardResult result) {
+        return JackpotEvaluation.builder()
+                .betId(betId)
+                .jackpot(jackpot)
+                .win(result.win())
+                .payoutAmount(result.payoutAmount())
+                .postEvaluationPool(result.updatedPool())
+                .probability(result.probability())
+                .strategy(result.strategy())
+                .build();
+    }
+
+    private JackpotReward toReward(String betId, Jackpot jackpot, RewardResult result) {
+        return JackpotReward.builder()
+                .betId(betId)
+                .jackpot(jackpot)
+                .payoutAmount(result.payoutAmount())
+                .probability(result.probability())
+                .strategy(result.strategy())
+                .build();
+    }
 }
@@ -0,0 +1,132 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.config.JackpotPoolProperties;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.repository.JackpotPoolStripeRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import com.pshakhlovich.jackpot.support.TransactionHooks;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory snapshots of jackpot pools for readers that must not touch the database.
+ * <p>
+ * Services that change a pool publish the committed value after their transaction commits.
+ * Reads are plain map lookups and never contend with the {@code findByIdForUpdate} writers.
+ * Because commit callbacks of consecutive writers may run out of order, a snapshot only
+ * replaces one whose row was written earlier.
+ * </p>
+ * <p>
+ * All snapshots are also reconciled with the database every {@code jackpot.pools.refresh-interval},
+ * which picks up changes made by other instances and contributions held in pool stripes, and
+ * bounds their staleness. The database is authoritative, so reconciling replaces a snapshot whatever
+ * its {@code updatedAt}: that is stamped by the writer's clock before its update waits for the row lock,
+ * so with clock skew between instances, or a writer that waited behind a later one, it does not order
+ * the changes.
+ * </p>
+ * <p>
+ * Every snapshot that changes the pool or configuration is published as an application event.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JackpotPoolSnapshotStore {
+
+    private final JackpotRepository jackpotRepository;
+    private final JackpotPoolStripeRepository stripeRepository;
+    private final JackpotPoolProperties poolProperties;
+    private final Clock clock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentMap<String, JackpotPoolSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public Optional<JackpotPoolSnapshot> find(String jackpotId) {
+        return Optional.ofNullable(snapshots.get(jackpotId));
+    }
+
+    public List<JackpotPoolSnapshot> findAll() {
+        return snapshots.values().stream()
+                .sorted(Comparator.comparing(snapshot -> snapshot.config().id()))
+                .toList();
+    }
+
+    /**
+     * Upper bound on how far a snapshot may lag behind a change committed by another instance.
+     */
+    public Duration maxStaleness() {
+        return poolProperties.refreshInterval();
+    }
+
+    /**
+     * Publishes the pool of a jackpot modified in the current transaction once it commits.
+     * <p>
+     * The jackpot is read in the commit callback, when the values flushed to the database are final.
+     * </p>
+     *
+     * @param jackpot the modified jackpot
+     */
+    public void publishAfterCommit(Jackpot jackpot) {
+        TransactionHooks.afterCommit(() -> apply(JackpotConfig.from(jackpot), jackpot.getCurrentPool(), jackpot.getUpdatedAt(), false));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jackpot.pools.refresh-interval:PT5S}", fixedDelayString = "${jackpot.pools.refresh-interval:PT5S}")
+    public void refresh() {
+        List<Jackpot> jackpots = jackpotRepository.findAll();
+        Map<String, Long> stripeTotals = stripeRepository.sumAllByJackpot().stream()
+                .collect(Collectors.toMap(JackpotPoolStripeRepository.StripeTotal::getJackpotId,
+                        JackpotPoolStripeRepository.StripeTotal::getAmountMinor));
+        jackpots.forEach(jackpot -> apply(
+                JackpotConfig.from(jackpot),
+                Money.toDecimal(jackpot.getCurrentPoolMinor() + stripeTotals.getOrDefault(jackpot.getId(), 0L)),
+                jackpot.getUpdatedAt(),
+                true));
+
+        Set<String> existing = jackpots.stream().map(Jackpot::getId).collect(Collectors.toSet());
+        snapshots.keySet().retainAll(existing);
+        log.debug("Pool snapshots refreshed: jackpots={}", existing.size());
+    }
+
+    // A committed pool yields to a snapshot written later; a pool read from the database replaces any snapshot
+    private void apply(JackpotConfig config, BigDecimal currentPool, Instant updatedAt, boolean authoritative) {
+        Instant now = clock.instant();
+        // Decided inside compute, so that of two concurrent changes each publishes the version it produced
+        JackpotPoolSnapshot[] changed = new JackpotPoolSnapshot[1];
+        snapshots.compute(config.id(), (id, current) -> {
+            if (current == null) {
+                return changed[0] = new JackpotPoolSnapshot(config, currentPool, updatedAt, 1, now);
+            }
+            if (!authoritative && updatedAt.isBefore(current.updatedAt())) {
+                // A commit that was overtaken by a later one
+                return current;
+            }
+            if (currentPool.compareTo(current.currentPool()) == 0 && config.equals(current.config())) {
+                return new JackpotPoolSnapshot(config, currentPool, updatedAt, current.version(), now);
+            }
+            return changed[0] = new JackpotPoolSnapshot(config, currentPool, updatedAt, current.version() + 1, now);
+        });
+        if (changed[0] != null) {
+            eventPublisher.publishEvent(changed[0]);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotPoolStripe;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.repository.JackpotPoolStripeRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sub-pool counters that let contributions to a hot jackpot proceed without its row lock.
+ * <p>
+ * A jackpot configured with more than one {@link Jackpot#getPoolStripes() stripe} receives each
+ * contribution on the stripe its bet hashes to, through an atomic update of that stripe's row.
+ * Contributions therefore only serialize with other bets on the same stripe, not with every bet
+ * on the jackpot. Whoever locks the jackpot row folds all stripes into its pool and zeroes them
+ * in the same transaction, so evaluations draw against, and a win resets, the whole pool.
+ * </p>
+ * <p>
+ * Pool-dependent strategies such as {@code VARIABLE_DECAY} see an {@link #estimate(JackpotConfig) estimate}
+ * of the pool instead: the latest snapshot, which lags committed contributions by at most
+ * {@link JackpotPoolSnapshotStore#maxStaleness()}.
+ * </p>
+ * <p>
+ * Locks are always taken in the same order: jackpot row, then its stripes by number; jackpots by id.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class JackpotPoolStripes {
+
+    private final JackpotPoolStripeRepository stripeRepository;
+    private final JackpotRepository jackpotRepository;
+    private final JackpotRegistry jackpotRegistry;
+    private final JackpotPoolSnapshotStore poolSnapshotStore;
+
+    /**
+     * Returns the configuration of a jackpot if its contributions go to stripes.
+     *
+     * @param jackpotId the jackpot identifier
+     * @return the configuration, or empty if contributions lock the jackpot
+     * @throws IllegalArgumentException if the jackpot does not exist
+     */
+    public Optional<JackpotConfig> stripedConfig(String jackpotId) {
+        JackpotConfig config = jackpotRegistry.require(jackpotId);
+        return config.striped() ? Optional.of(config) : Optional.empty();
+    }
+
+    /**
+     * Returns the stripe a bet contributes to.
+     */
+    public static int stripeOf(String betId, int stripes) {
+        return Math.floorMod(betId.hashCode(), stripes);
+    }
+
+    /**
+     * Builds a detached jackpot for contribution strategies, holding the configuration and an estimate of the pool.
+     * <p>
+     * The estimate is the latest snapshot; without one it is read from the database, stripes included.
+     * Changes made to the returned jackpot are never written.
+     * </p>
+     *
+     * @param config the jackpot configuration
+     * @return the detached jackpot
+     */
+    public Jackpot estimate(JackpotConfig config) {
+        long pool = poolSnapshotStore.find(config.id())
+                .map(snapshot -> Money.ofDecimal(snapshot.currentPool()))
+                .orElseGet(() -> readPool(config.id()));
+        return config.detached(pool);
+    }
+
+    /**
+     * Adds a contribution to a stripe, creating the stripe on its first contribution.
+     * <p>
+     * Two transactions creating the same stripe at once conflict on its primary key; the one that fails
+     * is retried like any other failed contribution and then finds the stripe.
+     * </p>
+     *
+     * @param jackpotId the jackpot identifier
+     * @param stripe the stripe number
+     * @param delta the amount to add, in minor units
+     */
+    public void add(String jackpotId, int stripe, long delta) {
+        if (stripeRepository.addToStripe(jackpotId, stripe, delta) == 0) {
+            stripeRepository.save(new JackpotPoolStripe(new JackpotPoolStripe.Key(jackpotId, stripe), delta));
+        }
+    }
+
+    /**
+     * Moves the amounts of all stripes of a jackpot into its pool.
+     * <p>
+     * Must be called with the jackpot row locked, or read for an optimistic update, in the transaction
+     * that writes the jackpot.
+     * Stripes stay in place with a zero amount.
+     * </p>
+     *
+     * @param jackpot the jackpot read in the current transaction
+     * @return whether the pool changed
+     */
+    public boolean fold(Jackpot jackpot) {
+        List<JackpotPoolStripe> stripes = stripeRepository.findByJackpotIdForUpdate(jackpot.getId());
+        long total = 0;
+        for (JackpotPoolStripe stripe : stripes) {
+            total += stripe.getAmountMinor();
+            stripe.setAmountMinor(0);
+        }
+        if (total == 0) {
+            return false;
+        }
+        jackpot.increasePool(total);
+        return true;
+    }
+
+    private long readPool(String jackpotId) {
+        long base = jackpotRepository.findById(jackpotId)
+                .map(Jackpot::getCurrentPoolMinor)
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+        return base + stripeRepository.sumByJackpotId(jackpotId);
+    }
+}
@@ -0,0 +1,214 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.pshakhlovich.jackpot.config.JackpotCacheProperties;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory registry of jackpot configurations for hot read paths.
+ * <p>
+ * Answers existence and configuration lookups without touching the database once an
+ * entry is loaded. Entries are bounded in number, reloaded in the background after
+ * {@code jackpot.cache.registry.refresh-after-write} and dropped entirely after
+ * {@code expire-after-write}. Unknown jackpot ids are remembered separately for
+ * {@code unknown-expire-after-write}, so repeated lookups of an id that does not exist skip the
+ * database too; creating a jackpot forgets its id once the creating transaction commits.
+ * </p>
+ * <p>
+ * Configuration changes are pushed in by {@link JackpotRegistryListener}; pool-only
+ * updates leave the cached configuration untouched.
+ * </p>
+ * <p>
+ * Every replaced or dropped configuration is announced with an {@link Invalidated} application event,
+ * including configurations that a background reload finds changed, for components that keep their own
+ * copy of a jackpot.
+ * </p>
+ * <p>
+ * Every configuration is compiled into its strategies by {@link StrategyRegistry} as it is loaded,
+ * so a misconfigured jackpot fails its lookup instead of the bets applied to it.
+ * </p>
+ * <p>
+ * Hit, miss and load statistics are exported under the {@code jackpot.registry} cache name.
+ * </p>
+ */
+@Slf4j
+@Component
+public class JackpotRegistry {
+
+    static final String CACHE_NAME = "jackpot.registry";
+
+    private final LoadingCache<String, JackpotConfig> cache;
+
+    private final Cache<String, Boolean> unknown;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public JackpotRegistry(JackpotRepository jackpotRepository,
+                           StrategyRegistry strategyRegistry,
+                           JackpotCacheProperties cacheProperties,
+                           MeterRegistry meterRegistry,
+                           ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        JackpotCacheProperties.Registry settings = cacheProperties.registry();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .refreshAfterWrite(settings.refreshAfterWrite())
+                .expireAfterWrite(settings.expireAfterWrite())
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public JackpotConfig load(String jackpotId) {
+                        return jackpotRepository.findById(jackpotId)
+                                .map(JackpotConfig::from)
+                                .map(config -> compiled(strategyRegistry, config))
+                                .orElse(null);
+                    }
+
+                    @Override
+                    public JackpotConfig reload(String jackpotId, JackpotConfig oldConfig) {
+                        JackpotConfig config = load(jackpotId);
+                        if (!oldConfig.equals(config)) {
+                            eventPublisher.publishEvent(new Invalidated(jackpotId));
+                        }
+                        return config;
+                    }
+
+                    @Override
+                    public Map<String, JackpotConfig> loadAll(Set<? extends String> jackpotIds) {
+                        return jackpotRepository.findAllById(jackpotIds).stream()
+                                .map(JackpotConfig::from)
+                                .map(config -> compiled(strategyRegistry, config))
+                                .collect(Collectors.toMap(JackpotConfig::id, Function.identity()));
+                    }
+                });
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterWrite(settings.unknownExpireAfterWrite())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    private static JackpotConfig compiled(StrategyRegistry strategyRegistry, JackpotConfig config) {
+        strategyRegistry.compile(config);
+        return config;
+    }
+
+    /**
+     * Looks up the configuration of a jackpot.
+     *
+     * @param jackpotId the jackpot identifier
+     * @return the configuration, or empty if the jackpot does not exist
+     */
+    public Optional<JackpotConfig> find(String jackpotId) {
+        if (unknown.getIfPresent(jackpotId) != null) {
+            return Optional.empty();
+        }
+        JackpotConfig config = cache.get(jackpotId);
+        if (config == null) {
+            unknown.put(jackpotId, Boolean.TRUE);
+        }
+        return Optional.ofNullable(config);
+    }
+
+    /**
+     * Looks up the configuration of a jackpot that must exist.
+     *
+     * @param jackpotId the jackpot identifier
+     * @return the configuration
+     * @throws IllegalArgumentException if the jackpot does not exist
+     */
+    public JackpotConfig require(String jackpotId) {
+        return find(jackpotId)
+                .orElseThrow(() -> new IllegalArgumentException("Jackpot %s not found".formatted(jackpotId)));
+    }
+
+    /**
+     * Looks up several jackpots at once, loading all missing entries with a single query.
+     *
+     * @param jackpotIds the jackpot identifiers
+     * @return the configurations of the jackpots that exist, keyed by identifier
+     */
+    public Map<String, JackpotConfig> findAll(Collection<String> jackpotIds) {
+        List<String> candidates = jackpotIds.stream()
+                .filter(jackpotId -> unknown.getIfPresent(jackpotId) == null)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, JackpotConfig> configs = cache.getAll(candidates);
+        candidates.stream()
+                .filter(jackpotId -> !configs.containsKey(jackpotId))
+                .forEach(jackpotId -> unknown.put(jackpotId, Boolean.TRUE));
+        return configs;
+    }
+
+    /**
+     * Checks whether the cached configuration of a jackpot differs from the given one.
+     * <p>
+     * Does not count towards hit/miss statistics.
+     * </p>
+     *
+     * @param config the current configuration of the jackpot
+     * @return {@code true} if the jackpot is cached with a different configuration
+     */
+    public boolean isStale(JackpotConfig config) {
+        JackpotConfig cached = cache.asMap().get(config.id());
+        return cached != null && !cached.equals(config);
+    }
+
+    /**
+     * Replaces the cached configuration of a jackpot if it is cached.
+     * <p>
+     * Entries that are not cached are left alone; they are loaded on first use.
+     * </p>
+     *
+     * @param config the committed configuration of the jackpot
+     */
+    public void update(JackpotConfig config) {
+        if (cache.asMap().computeIfPresent(config.id(), (id, cached) -> config) != null) {
+            log.info("Jackpot registry refreshed configuration of {}", config.id());
+            eventPublisher.publishEvent(new Invalidated(config.id()));
+        }
+    }
+
+    public void invalidate(String jackpotId) {
+        cache.invalidate(jackpotId);
+        unknown.invalidate(jackpotId);
+        eventPublisher.publishEvent(new Invalidated(jackpotId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        unknown.invalidateAll();
+        eventPublisher.publishEvent(new Invalidated(null));
+    }
+
+    /**
+     * Published when the configuration of a jackpot, or of all jackpots, may have changed.
+     *
+     * @param jackpotId the jackpot identifier, or {@code null} for all jackpots
+     */
+    public record Invalidated(String jackpotId) {
+
+        public boolean covers(String id) {
+            return jackpotId == null || jackpotId.equals(id);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.pshakhlovich.jackpot.service;
+
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.support.TransactionHooks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that keeps {@link JackpotRegistry} in line with committed jackpot changes.
+ * <p>
+ * Registered for {@link Jackpot} in {@code META-INF/orm.xml}, so the domain model does not depend on
+ * the service layer.
+ * </p>
+ * <p>
+ * Pool-only updates produce an identical {@link JackpotConfig} and are ignored, so the
+ * frequent contribution and reward writes do not churn the cache. Changes are applied
+ * after the surrounding transaction commits.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class JackpotRegistryListener {
+
+    // Resolved lazily: entity listeners are created together with the EntityManagerFactory,
+    // before the repositories that the registry depends on exist.
+    private final ObjectProvider<JackpotRegistry> registry;
+    private final ObjectProvider<StrategyRegistry> strategyRegistry;
+
+    @PostPersist
+    void onCreated(Jackpot jackpot) {
+        strategyRegistry.getObject().compile(JackpotConfig.from(jackpot));
+        // The id may have been looked up, and cached as unknown, before the jackpot existed
+        String jackpotId = jackpot.getId();
+        TransactionHooks.afterCommit(() -> registry.getObject().invalidate(jackpotId));
+    }
+
+    @PostUpdate
+    void onSaved(Jackpot jackpot) {
+        JackpotConfig config = JackpotConfig.from(jackpot);
+        if (registry.getObject().isStale(config)) {
+            strategyRegistry.getObject().compile(config);
+            TransactionHooks.afterCommit(() -> registry.getObject().update(config));
+        }
+    }
+
+    @PostRemove
+    void onRemoved(Jackpot jackpot) {
+        String jackpotId = jackpot.getId();
+        TransactionHooks.afterCommit(() -> {
+            registry.getObject().invalidate(jackpotId);
+            strategyRegistry.getObject().invalidate(jackpotId);
+        });
+    }
+}
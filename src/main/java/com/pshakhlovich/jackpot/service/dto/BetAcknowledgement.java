@@ -0,0 +1,17 @@
+package com.pshakhlovich.jackpot.service.dto;
+
+/**
+ * Broker acknowledgement of a published bet.
+ *
+ * @param betId the published bet identifier
+ * @param topic the topic the bet was written to
+ * @param partition the partition the bet was written to
+ * @param offset the offset assigned by the broker
+ */
+public record BetAcknowledgement(
+        String betId,
+        String topic,
+        int partition,
+        long offset
+) {
+}
@@ -0,0 +1,17 @@
+package com.pshakhlovich.jackpot.service.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a streaming ingestion run.
+ *
+ * @param lines the number of non-blank lines read
+ * @param published the number of bets acknowledged by the broker
+ * @param rejected the number of lines that were rejected or failed to publish
+ * @param rejections details of the first rejected lines, capped by {@code jackpot.ingestion.max-reported-rejections}
+ */
+public record BetStreamResult(long lines, long published, long rejected, List<Rejection> rejections) {
+
+    public record Rejection(long line, String betId, String reason) {
+    }
+}
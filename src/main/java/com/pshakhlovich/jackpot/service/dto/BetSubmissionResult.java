@@ -0,0 +1,23 @@
+package com.pshakhlovich.jackpot.service.dto;
+
+/**
+ * Outcome of submitting a single bet as part of a batch.
+ *
+ * @param betId the bet identifier as supplied by the caller (may be {@code null} for malformed entries)
+ * @param accepted {@code true} if the bet was published to Kafka
+ * @param reason the rejection reason, or {@code null} if the bet was accepted
+ */
+public record BetSubmissionResult(
+        String betId,
+        boolean accepted,
+        String reason
+) {
+
+    public static BetSubmissionResult accepted(String betId) {
+        return new BetSubmissionResult(betId, true, null);
+    }
+
+    public static BetSubmissionResult rejected(String betId, String reason) {
+        return new BetSubmissionResult(betId, false, reason);
+    }
+}
@@ -2,22 +2,37 @@ package com.pshakhlovich.jackpot.service.dto;
 
 import java.math.BigDecimal;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Money;
 
 /**
  * Data transfer object containing the result of a jackpot contribution calculation.
  * <p>
  * This immutable record encapsulates all information about a contribution that was
  * applied to a jackpot pool, including the strategy used, the calculated contribution
- * amount, and the resulting pool size.
+ * amount, and the resulting pool size. Amounts are in minor units; see {@link Money}.
  * </p>
  *
  * @param strategy the contribution strategy that was applied
- * @param contributionAmount the calculated amount contributed to the jackpot pool (scaled to 2 decimal places)
- * @param updatedPool the jackpot pool size after applying the contribution
+ * @param contributionMinor the calculated amount contributed to the jackpot pool, in minor units
+ * @param updatedPoolMinor the jackpot pool size after applying the contribution, in minor units
  */
 public record ContributionResult(
         ContributionStrategyType strategy,
-        BigDecimal contributionAmount,
-        BigDecimal updatedPool
+        long contributionMinor,
+        long updatedPoolMinor
 ) {
+
+    /**
+     * Returns the contributed amount, scaled to 2 decimal places.
+     */
+    public BigDecimal contributionAmount() {
+        return Money.toDecimal(contributionMinor);
+    }
+
+    /**
+     * Returns the pool after the contribution, scaled to 2 decimal places.
+     */
+    public BigDecimal updatedPool() {
+        return Money.toDecimal(updatedPoolMinor);
+    }
 }
@@ -0,0 +1,30 @@
+package com.pshakhlovich.jackpot.service.dto;
+
+/**
+ * Outcome of evaluating one bet of a batch.
+ *
+ * @param betId the bet identifier
+ * @param sequence the position of the bet in evaluation order, or {@code null} if it was not evaluated
+ *                 by this batch
+ * @param result the reward evaluation result, recorded earlier or by this batch, or {@code null} if the bet
+ *               has never been evaluated
+ * @param reason why the bet was not evaluated, or {@code null} if it was
+ */
+public record EvaluationOutcome(String betId, Integer sequence, RewardResult result, String reason) {
+
+    public static EvaluationOutcome evaluated(String betId, int sequence, RewardResult result) {
+        return new EvaluationOutcome(betId, sequence, result, null);
+    }
+
+    public static EvaluationOutcome recorded(String betId, RewardResult result) {
+        return new EvaluationOutcome(betId, null, result, null);
+    }
+
+    public static EvaluationOutcome skipped(String betId, String reason) {
+        return new EvaluationOutcome(betId, null, null, reason);
+    }
+
+    public boolean evaluated() {
+        return result != null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.pshakhlovich.jackpot.service.dto;
+
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Point-in-time view of a jackpot's pool, held in memory for lock-free reads.
+ *
+ * @param config the jackpot configuration
+ * @param currentPool the committed pool value
+ * @param updatedAt when the jackpot row carrying this pool value was last written
+ * @param version a counter incremented each time the pool value or configuration changes
+ * @param confirmedAt when this value was last known to be current
+ */
+public record JackpotPoolSnapshot(
+        JackpotConfig config,
+        BigDecimal currentPool,
+        Instant updatedAt,
+        long version,
+        Instant confirmedAt
+) {
+}
@@ -1,6 +1,7 @@
 package com.pshakhlovich.jackpot.service.dto;
 
 import java.math.BigDecimal;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 
 /**
@@ -9,19 +10,41 @@ import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
  * This immutable record encapsulates all information about a reward evaluation,
  * including the strategy used, the calculated win probability, whether the bet won,
  * the payout amount (if won), and the resulting pool size after the evaluation.
+ * Amounts are in minor units and the probability in parts per million; see {@link Money}.
  * </p>
  *
  * @param strategy the reward strategy that was used for evaluation
- * @param probability the calculated probability of winning at the time of evaluation (scaled to 6 decimal places)
- * @param payoutAmount the payout amount if the bet won, or zero if it lost
- * @param updatedPool the jackpot pool size after the evaluation (reset to initial if won, unchanged if lost)
+ * @param probabilityPpm the calculated probability of winning at the time of evaluation, in parts per million
+ * @param payoutMinor the payout amount if the bet won, or zero if it lost, in minor units
+ * @param updatedPoolMinor the jackpot pool size after the evaluation (reset to initial if won, unchanged if lost), in minor units
  * @param win {@code true} if the bet won the jackpot, {@code false} otherwise
  */
 public record RewardResult(
         RewardStrategyType strategy,
-        BigDecimal probability,
-        BigDecimal payoutAmount,
-        BigDecimal updatedPool,
+        long probabilityPpm,
+        long payoutMinor,
+        long updatedPoolMinor,
         boolean win
 ) {
+
+    /**
+     * Returns the probability of winning, scaled to 6 decimal places.
+     */
+    public BigDecimal probability() {
+        return Money.ppmToDecimal(probabilityPpm);
+    }
+
+    /**
+     * Returns the payout amount, scaled to 2 decimal places.
+     */
+    public BigDecimal payoutAmount() {
+        return Money.toDecimal(payoutMinor);
+    }
+
+    /**
+     * Returns the pool after the evaluation, scaled to 2 decimal places.
+     */
+    public BigDecimal updatedPool() {
+        return Money.toDecimal(updatedPoolMinor);
+    }
 }
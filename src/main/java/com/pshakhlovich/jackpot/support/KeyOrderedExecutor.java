@@ -0,0 +1,55 @@
+package com.pshakhlovich.jackpot.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs tasks concurrently across keys and sequentially within a key.
+ * <p>
+ * Each key has a chain of pending tasks; a task starts once the previous task for its key has
+ * finished, whether it succeeded or not. Chains of idle keys are dropped, so memory is bounded by
+ * the number of keys with work in flight.
+ * </p>
+ *
+ * @param <K> the ordering key
+ */
+public final class KeyOrderedExecutor<K> implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final ConcurrentMap<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules a task after all tasks previously submitted for the same key.
+     *
+     * @param key the ordering key
+     * @param task the task to run
+     * @return a future completed when the task has run
+     */
+    public CompletableFuture<Void> submit(K key, Runnable task) {
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(task, executor)
+                : tail.handle((result, failure) -> null).thenRunAsync(task, executor));
+        return next.whenComplete((result, failure) -> tails.remove(key, next));
+    }
+
+    /**
+     * Number of keys that currently have tasks queued or running.
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Stops accepting tasks and waits for submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
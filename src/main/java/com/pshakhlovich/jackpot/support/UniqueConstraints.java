@@ -0,0 +1,43 @@
+package com.pshakhlovich.jackpot.support;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import org.hibernate.exception.ConstraintViolationException;
+
+/**
+ * Recognizes failures caused by a particular unique constraint.
+ * <p>
+ * A {@link org.springframework.dao.DataIntegrityViolationException} alone does not say which constraint was
+ * violated, or whether a constraint was violated at all rather than, say, a column length. The constraint is
+ * identified by the name Hibernate extracted, or else by the database's message, which names it on every
+ * database the service runs on.
+ * </p>
+ */
+public final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Returns whether a failure, or one of its causes, is a violation of the given constraint.
+     *
+     * @param failure the failure
+     * @param constraint the name of the constraint, as declared in the migrations
+     */
+    public static boolean isViolated(Throwable failure, String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && names(violation.getConstraintName(), name)) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && names(sqlException.getMessage(), name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean names(String text, String constraint) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+}
@@ -0,0 +1,13 @@
+CREATE TABLE jackpot_evaluation (
+    evaluation_id UUID PRIMARY KEY,
+    bet_id VARCHAR(64) NOT NULL,
+    jackpot_id VARCHAR(64) NOT NULL,
+    win BOOLEAN NOT NULL,
+    payout_amount DECIMAL(19, 2) NOT NULL,
+    post_evaluation_pool DECIMAL(19, 2) NOT NULL,
+    probability DECIMAL(8, 6) NOT NULL,
+    strategy VARCHAR(32) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_jackpot_evaluation_jackpot FOREIGN KEY (jackpot_id) REFERENCES jackpot (jackpot_id),
+    CONSTRAINT uq_jackpot_evaluation_bet UNIQUE (bet_id, jackpot_id)
+);
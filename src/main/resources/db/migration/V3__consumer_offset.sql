@@ -0,0 +1,8 @@
+CREATE TABLE consumer_offset (
+    group_id VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    partition_id INT NOT NULL,
+    next_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_consumer_offset PRIMARY KEY (group_id, topic, partition_id)
+);
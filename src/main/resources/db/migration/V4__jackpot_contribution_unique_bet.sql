@@ -0,0 +1,17 @@
+-- Redelivered bets could be applied more than once before this constraint existed. Keep the earliest
+-- contribution of each bet (the lowest id among equally early ones) and drop the rest, so the constraint
+-- can be added. Pool amounts are left as they are: the extra contributions went into pools that may
+-- have been won and reset since.
+DELETE FROM jackpot_contribution c
+WHERE EXISTS (
+    SELECT 1
+    FROM jackpot_contribution kept
+    WHERE kept.bet_id = c.bet_id
+      AND kept.jackpot_id = c.jackpot_id
+      AND (kept.created_at < c.created_at
+           OR (kept.created_at = c.created_at AND kept.contribution_id < c.contribution_id))
+);
+
+-- A bet contributes to a jackpot at most once; the unique index also serves lookups by bet_id
+ALTER TABLE jackpot_contribution ADD CONSTRAINT uq_jackpot_contribution_bet UNIQUE (bet_id, jackpot_id);
+DROP INDEX idx_jackpot_contribution_bet;
@@ -0,0 +1,11 @@
+-- Contributions to a striped jackpot are added to one of its stripes instead of to current_pool;
+-- the pool is current_pool plus the sum of its stripes
+ALTER TABLE jackpot ADD COLUMN pool_stripes INT DEFAULT 1 NOT NULL;
+
+CREATE TABLE jackpot_pool_stripe (
+    jackpot_id VARCHAR(64) NOT NULL,
+    stripe INT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    CONSTRAINT pk_jackpot_pool_stripe PRIMARY KEY (jackpot_id, stripe),
+    CONSTRAINT fk_jackpot_pool_stripe_jackpot FOREIGN KEY (jackpot_id) REFERENCES jackpot (jackpot_id)
+);
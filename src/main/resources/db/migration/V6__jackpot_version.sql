@@ -0,0 +1,3 @@
+-- Optimistic jackpots are written with a version check instead of holding a row lock
+ALTER TABLE jackpot ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE jackpot ADD COLUMN concurrency_mode VARCHAR(16) DEFAULT 'PESSIMISTIC' NOT NULL;
@@ -0,0 +1,40 @@
+-- Amounts move to BIGINT minor units (hundredths) and rates to BIGINT parts per million, the scales they
+-- were stored at, so strategies compute on longs. Audit rows keep their DECIMAL columns.
+ALTER TABLE jackpot ADD COLUMN initial_pool_minor BIGINT;
+ALTER TABLE jackpot ADD COLUMN current_pool_minor BIGINT;
+ALTER TABLE jackpot ADD COLUMN decay_threshold_minor BIGINT;
+ALTER TABLE jackpot ADD COLUMN reward_cap_minor BIGINT;
+ALTER TABLE jackpot ADD COLUMN contribution_rate_ppm BIGINT;
+ALTER TABLE jackpot ADD COLUMN min_contribution_rate_ppm BIGINT;
+ALTER TABLE jackpot ADD COLUMN decay_slope_ppm BIGINT;
+ALTER TABLE jackpot ADD COLUMN reward_base_probability_ppm BIGINT;
+ALTER TABLE jackpot ADD COLUMN reward_max_probability_ppm BIGINT;
+ALTER TABLE jackpot ADD COLUMN reward_ramp_rate_ppm BIGINT;
+UPDATE jackpot SET
+    initial_pool_minor = CAST(ROUND(initial_pool * 100) AS BIGINT),
+    current_pool_minor = CAST(ROUND(current_pool * 100) AS BIGINT),
+    decay_threshold_minor = CAST(ROUND(decay_threshold * 100) AS BIGINT),
+    reward_cap_minor = CAST(ROUND(reward_cap * 100) AS BIGINT),
+    contribution_rate_ppm = CAST(ROUND(contribution_rate * 1000000) AS BIGINT),
+    min_contribution_rate_ppm = CAST(ROUND(min_contribution_rate * 1000000) AS BIGINT),
+    decay_slope_ppm = CAST(ROUND(decay_slope * 1000000) AS BIGINT),
+    reward_base_probability_ppm = CAST(ROUND(reward_base_probability * 1000000) AS BIGINT),
+    reward_max_probability_ppm = CAST(ROUND(reward_max_probability * 1000000) AS BIGINT),
+    reward_ramp_rate_ppm = CAST(ROUND(reward_ramp_rate * 1000000) AS BIGINT);
+ALTER TABLE jackpot ALTER COLUMN initial_pool_minor SET NOT NULL;
+ALTER TABLE jackpot ALTER COLUMN current_pool_minor SET NOT NULL;
+ALTER TABLE jackpot DROP COLUMN initial_pool;
+ALTER TABLE jackpot DROP COLUMN current_pool;
+ALTER TABLE jackpot DROP COLUMN decay_threshold;
+ALTER TABLE jackpot DROP COLUMN reward_cap;
+ALTER TABLE jackpot DROP COLUMN contribution_rate;
+ALTER TABLE jackpot DROP COLUMN min_contribution_rate;
+ALTER TABLE jackpot DROP COLUMN decay_slope;
+ALTER TABLE jackpot DROP COLUMN reward_base_probability;
+ALTER TABLE jackpot DROP COLUMN reward_max_probability;
+ALTER TABLE jackpot DROP COLUMN reward_ramp_rate;
+
+ALTER TABLE jackpot_pool_stripe ADD COLUMN amount_minor BIGINT;
+UPDATE jackpot_pool_stripe SET amount_minor = CAST(ROUND(amount * 100) AS BIGINT);
+ALTER TABLE jackpot_pool_stripe ALTER COLUMN amount_minor SET NOT NULL;
+ALTER TABLE jackpot_pool_stripe DROP COLUMN amount;
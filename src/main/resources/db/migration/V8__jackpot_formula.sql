@@ -0,0 +1,3 @@
+-- FORMULA strategies keep their contribution rate and win probability as expressions on the jackpot
+ALTER TABLE jackpot ADD COLUMN contribution_formula VARCHAR(1024);
+ALTER TABLE jackpot ADD COLUMN reward_formula VARCHAR(1024);
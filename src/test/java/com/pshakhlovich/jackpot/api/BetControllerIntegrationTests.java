@@ -1,7 +1,10 @@
 package com.pshakhlovich.jackpot.api;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.pshakhlovich.jackpot.avro.Bet;
@@ -11,9 +14,19 @@ import com.pshakhlovich.jackpot.domain.model.Jackpot;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
 import org.awaitility.Awaitility;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -32,6 +45,7 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
@@ -81,7 +95,8 @@ class BetControllerIntegrationTests {
 
         DefaultKafkaConsumerFactory<String, Bet> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps);
         avroConsumer = consumerFactory.createConsumer();
-        embeddedKafkaBroker.consumeFromAnEmbeddedTopic(avroConsumer, KafkaTopicsConfig.BETS_TOPIC);
+        // Start from the end of the topic so each test only observes the bets it publishes itself
+        embeddedKafkaBroker.consumeFromAnEmbeddedTopic(avroConsumer, true, KafkaTopicsConfig.BETS_TOPIC);
     }
 
     private void seedJackpotProfiles() {
@@ -145,4 +160,197 @@ class BetControllerIntegrationTests {
         assertThat(contribution.getContributionAmount()).isEqualByComparingTo("5.00");
         assertThat(contribution.getPostContributionPool()).isEqualByComparingTo("505.00");
     }
+
+    @Test
+    void shouldPublishBatchAndReportRejectedBets() throws Exception {
+        String payload = "{\"bets\":[" +
+                "{\"betId\":\"batch-1\",\"userId\":\"user-1\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":10.0}," +
+                "{\"betId\":\"batch-2\",\"userId\":\"user-1\",\"jackpotId\":\"unknown-jackpot\",\"betAmount\":10.0}," +
+                "{\"betId\":\"batch-3\",\"userId\":\"user-1\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":-5.0}," +
+                "{\"betId\":\"batch-4\",\"userId\":\"user-2\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":20.0}," +
+                "{\"betId\":\"batch-4\",\"userId\":\"user-2\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":20.0}" +
+                "]}";
+
+        mockMvc.perform(post("/api/bets/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.results[0].accepted").value(true))
+                .andExpect(jsonPath("$.results[1].reason").value(org.hamcrest.Matchers.containsString("not found")))
+                .andExpect(jsonPath("$.results[2].reason").value("betAmount must be positive"))
+                .andExpect(jsonPath("$.results[3].accepted").value(true))
+                .andExpect(jsonPath("$.results[4].reason").value(org.hamcrest.Matchers.containsString("Duplicate")));
+
+        List<String> publishedBetIds = new ArrayList<>();
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            KafkaTestUtils.getRecords(avroConsumer, Duration.ofMillis(500))
+                    .forEach(record -> publishedBetIds.add(record.value().getBetId()));
+            assertThat(publishedBetIds).contains("batch-1", "batch-4");
+        });
+        assertThat(publishedBetIds).doesNotContain("batch-2", "batch-3");
+        avroConsumer.commitSync();
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(2));
+    }
+
+    @Test
+    void shouldAcknowledgeAsyncBetWithPartitionAndOffset() throws Exception {
+        String payload = "{" +
+                "\"betId\":\"bet-async\"," +
+                "\"userId\":\"user-1\"," +
+                "\"jackpotId\":\"fixed-warmup\"," +
+                "\"betAmount\":30.0" +
+                "}";
+
+        MvcResult pending = mockMvc.perform(post("/api/bets/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.betId").value("bet-async"))
+                .andExpect(jsonPath("$.topic").value(KafkaTopicsConfig.BETS_TOPIC))
+                .andExpect(jsonPath("$.partition").value(org.hamcrest.Matchers.greaterThanOrEqualTo(0)))
+                .andExpect(jsonPath("$.offset").value(org.hamcrest.Matchers.greaterThanOrEqualTo(0)));
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldStreamNdjsonBetsAndReportRejectedLines() throws Exception {
+        String payload = String.join("\n",
+                "{\"betId\":\"stream-1\",\"userId\":\"user-1\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":10.0}",
+                "{\"betId\":\"stream-2\",\"userId\":\"user-1\",",
+                "",
+                "{\"betId\":\"stream-3\",\"userId\":\"user-1\",\"jackpotId\":\"unknown-jackpot\",\"betAmount\":10.0}",
+                "{\"betId\":\"stream-4\",\"userId\":\"user-2\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":0}",
+                "{\"betId\":\"stream-5\",\"userId\":\"user-2\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":20.0}");
+
+        mockMvc.perform(post("/api/bets/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(payload))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.lines").value(5))
+                .andExpect(jsonPath("$.published").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejections[0].line").value(2))
+                .andExpect(jsonPath("$.rejections[0].reason").value(org.hamcrest.Matchers.startsWith("Malformed JSON")))
+                .andExpect(jsonPath("$.rejections[1].line").value(4))
+                .andExpect(jsonPath("$.rejections[1].betId").value("stream-3"))
+                .andExpect(jsonPath("$.rejections[2].line").value(5))
+                .andExpect(jsonPath("$.rejections[2].reason").value("betAmount must be positive"));
+
+        List<String> publishedBetIds = new ArrayList<>();
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            KafkaTestUtils.getRecords(avroConsumer, Duration.ofMillis(500))
+                    .forEach(record -> publishedBetIds.add(record.value().getBetId()));
+            assertThat(publishedBetIds).containsExactly("stream-1", "stream-5");
+        });
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(2));
+    }
+
+    @Test
+    void shouldRejectStreamLinesLongerThanTheLimitWithoutStoppingTheStream() throws Exception {
+        String payload = "{\"betId\":\"" + "x".repeat(10_000) + "\"}\n"
+                + "{\"betId\":\"stream-long-1\",\"userId\":\"user-1\",\"jackpotId\":\"fixed-warmup\",\"betAmount\":10.0}";
+
+        mockMvc.perform(post("/api/bets/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(payload))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.lines").value(2))
+                .andExpect(jsonPath("$.published").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].line").value(1))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Line longer than 8192 bytes"));
+
+        List<String> publishedBetIds = new ArrayList<>();
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            KafkaTestUtils.getRecords(avroConsumer, Duration.ofMillis(500))
+                    .forEach(record -> publishedBetIds.add(record.value().getBetId()));
+            assertThat(publishedBetIds).containsExactly("stream-long-1");
+        });
+    }
+
+    @Test
+    void shouldForwardAvroContainerFileAndReportRejectedBets() throws Exception {
+        Instant createdAt = Instant.parse("2025-01-01T12:00:00Z");
+        ByteArrayOutputStream container = new ByteArrayOutputStream();
+        try (DataFileWriter<Bet> writer = new DataFileWriter<>(new SpecificDatumWriter<>(Bet.class))) {
+            writer.setCodec(CodecFactory.deflateCodec(6));
+            writer.create(Bet.getClassSchema(), container);
+            writer.append(avroBet("avro-1", "fixed-warmup", 40.0, createdAt));
+            writer.append(avroBet("avro-2", "unknown-jackpot", 10.0, createdAt));
+            writer.append(avroBet("avro-3", "fixed-warmup", -1.0, createdAt));
+            writer.append(avroBet("avro-4", "fixed-warmup", 60.0, createdAt));
+        }
+
+        mockMvc.perform(post("/api/bets/avro")
+                        .contentType(BetController.APPLICATION_AVRO_VALUE)
+                        .content(container.toByteArray()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[1].reason").value("Jackpot unknown-jackpot not found"))
+                .andExpect(jsonPath("$.results[2].reason").value("betAmount must be positive"));
+
+        List<Bet> published = new ArrayList<>();
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            KafkaTestUtils.getRecords(avroConsumer, Duration.ofMillis(500))
+                    .forEach(record -> published.add(record.value()));
+            assertThat(published).extracting(Bet::getBetId).containsExactly("avro-1", "avro-4");
+        });
+        assertThat(published.get(0).getBetAmount()).isEqualTo(40.0);
+        assertThat(published.get(0).getCreatedAt()).isEqualTo(createdAt);
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(2));
+    }
+
+    @Test
+    void shouldForwardSingleAvroDatumAndRejectTruncatedOne() throws Exception {
+        ByteArrayOutputStream datum = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(datum, null);
+        new SpecificDatumWriter<>(Bet.class).write(avroBet("avro-single", "fixed-warmup", 25.0, Instant.now()), encoder);
+        encoder.flush();
+        byte[] encoded = datum.toByteArray();
+
+        mockMvc.perform(post("/api/bets/avro")
+                        .contentType(BetController.APPLICATION_AVRO_VALUE)
+                        .content(encoded))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.results[0].betId").value("avro-single"));
+
+        mockMvc.perform(post("/api/bets/avro")
+                        .contentType(BetController.APPLICATION_AVRO_VALUE)
+                        .content(Arrays.copyOf(encoded, encoded.length - 3)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Avro payload"));
+
+        var records = KafkaTestUtils.getRecords(avroConsumer, Duration.ofSeconds(5));
+        assertThat(records.count()).isEqualTo(1);
+        assertThat(records.iterator().next().value().getBetId()).isEqualTo("avro-single");
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(1));
+    }
+
+    private Bet avroBet(String betId, String jackpotId, double amount, Instant createdAt) {
+        return Bet.newBuilder()
+                .setBetId(betId)
+                .setUserId("user-avro")
+                .setJackpotId(jackpotId)
+                .setBetAmount(amount)
+                .setCreatedAt(createdAt)
+                .build();
+    }
 }
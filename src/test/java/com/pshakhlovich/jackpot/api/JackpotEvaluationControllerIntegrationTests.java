@@ -11,6 +11,7 @@ import com.pshakhlovich.jackpot.domain.model.Jackpot;
 import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotEvaluationRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRewardRepository;
 import java.math.BigDecimal;
@@ -51,6 +52,9 @@ class JackpotEvaluationControllerIntegrationTests {
     @Autowired
     private JackpotRewardRepository rewardRepository;
 
+    @Autowired
+    private JackpotEvaluationRepository evaluationRepository;
+
     private Jackpot fixedJackpot;
     private Jackpot variableJackpot;
 
@@ -90,6 +94,7 @@ class JackpotEvaluationControllerIntegrationTests {
 
     @AfterEach
     void tearDown() {
+        evaluationRepository.deleteAll();
         rewardRepository.deleteAll();
         contributionRepository.deleteAll();
         jackpotRepository.deleteAll();
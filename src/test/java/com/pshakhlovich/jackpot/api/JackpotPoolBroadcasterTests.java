@@ -0,0 +1,170 @@
+package com.pshakhlovich.jackpot.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.JackpotPoolProperties;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.service.JackpotPoolSnapshotStore;
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+class JackpotPoolBroadcasterTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private JackpotPoolSnapshotStore poolSnapshotStore;
+
+    private JackpotPoolBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new JackpotPoolBroadcaster(poolSnapshotStore, new JackpotPoolProperties(
+                Duration.ofSeconds(5),
+                new JackpotPoolProperties.Stream(Duration.ofMillis(200), Duration.ofSeconds(15), Duration.ofMinutes(30),
+                        Duration.ofMillis(300))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void shouldSendCurrentPoolsOnSubscribeAndCoalesceLaterChanges() {
+        when(poolSnapshotStore.findAll()).thenReturn(List.of(snapshot("fixed-warmup", "500.00", 1)));
+        when(poolSnapshotStore.maxStaleness()).thenReturn(Duration.ofSeconds(5));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        broadcaster.register(emitter, Set.of());
+        awaitEvents(emitter, 1);
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "510.00", 2));
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "520.00", 3));
+        // A commit callback running late must not roll the pending value back
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "515.00", 2));
+        broadcaster.flush();
+        broadcaster.flush();
+
+        awaitEvents(emitter, 2);
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(0)).contains("id:fixed-warmup:1", "event:pool", "currentPool=500.00");
+        assertThat(emitter.events.get(1)).contains("id:fixed-warmup:3", "currentPool=520.00");
+    }
+
+    @Test
+    void shouldOnlySendFollowedJackpots() {
+        when(poolSnapshotStore.maxStaleness()).thenReturn(Duration.ofSeconds(5));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        broadcaster.register(emitter, Set.of("other"));
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "510.00", 2));
+        broadcaster.onPoolChanged(snapshot("other", "900.00", 4));
+        broadcaster.flush();
+
+        awaitEvents(emitter, 1);
+        assertThat(emitter.events).singleElement().asString().contains("id:other:4");
+    }
+
+    @Test
+    void shouldDropSubscriberWhoseConnectionFailed() {
+        when(poolSnapshotStore.maxStaleness()).thenReturn(Duration.ofSeconds(5));
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, Set.of());
+        emitter.failing = true;
+
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "510.00", 2));
+        broadcaster.flush();
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> broadcaster.subscriberCount() == 0);
+    }
+
+    @Test
+    void shouldNotLetBlockedSubscriberDelayOthers() throws InterruptedException {
+        when(poolSnapshotStore.maxStaleness()).thenReturn(Duration.ofSeconds(5));
+        RecordingEmitter blocked = new RecordingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.register(blocked, Set.of());
+        broadcaster.register(healthy, Set.of());
+        blocked.blocking = new CountDownLatch(1);
+
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "510.00", 2));
+        broadcaster.flush();
+        awaitEvents(healthy, 1);
+        broadcaster.onPoolChanged(snapshot("fixed-warmup", "520.00", 3));
+        broadcaster.flush();
+        awaitEvents(healthy, 2);
+        assertThat(blocked.events).isEmpty();
+
+        // Past the send timeout the next flush drops the blocked subscriber
+        Thread.sleep(400);
+        broadcaster.flush();
+        assertThat(broadcaster.subscriberCount()).isOne();
+        blocked.blocking.countDown();
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) {
+        Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> emitter.events.size() >= count);
+    }
+
+    private JackpotPoolSnapshot snapshot(String jackpotId, String pool, long version) {
+        Jackpot jackpot = Jackpot.builder()
+                .id(jackpotId)
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal(pool))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .build();
+        return new JackpotPoolSnapshot(JackpotConfig.from(jackpot), new BigDecimal(pool), NOW, version, NOW);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile CountDownLatch blocking;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (blocking != null) {
+                try {
+                    blocking.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Connection closed");
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+    }
+}
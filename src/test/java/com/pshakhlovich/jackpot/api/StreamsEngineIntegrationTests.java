@@ -0,0 +1,147 @@
+package com.pshakhlovich.jackpot.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.pshakhlovich.jackpot.avro.PoolAdjustment;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.properties.schema.registry.url=mock://jackpot",
+        "spring.kafka.producer.properties.schema.registry.url=mock://jackpot",
+        "spring.kafka.properties.schema.registry.url=mock://jackpot",
+        "spring.kafka.streams.cleanup.on-startup=true",
+        // Lets the task fetch an adjustment sent before a bet before processing the bet
+        "spring.kafka.streams.properties.max.task.idle.ms=5000",
+        "jackpot.engine.mode=STREAMS",
+        "jackpot.engine.streams.store=IN_MEMORY"
+})
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 1, topics = {
+        KafkaTopicsConfig.BETS_TOPIC,
+        KafkaTopicsConfig.CONTRIBUTIONS_TOPIC,
+        KafkaTopicsConfig.POOL_ADJUSTMENTS_TOPIC
+}, brokerProperties = {
+        "transaction.state.log.replication.factor=1",
+        "transaction.state.log.min.isr=1"
+})
+@ExtendWith(SpringExtension.class)
+class StreamsEngineIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JackpotContributionRepository contributionRepository;
+
+    @Autowired
+    private JackpotRepository jackpotRepository;
+
+    @Autowired
+    private KafkaTemplate<String, PoolAdjustment> poolAdjustmentKafkaTemplate;
+
+    @BeforeEach
+    void seedJackpotProfiles() {
+        if (jackpotRepository.findById("fixed-warmup").isEmpty()) {
+            jackpotRepository.save(Jackpot.builder()
+                    .id("fixed-warmup")
+                    .name("Fixed Warmup")
+                    .initialPool(new BigDecimal("500.00"))
+                    .currentPool(new BigDecimal("500.00"))
+                    .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                    .rewardStrategy(RewardStrategyType.FIXED)
+                    .contributionRate(new BigDecimal("0.10"))
+                    .rewardBaseProbability(new BigDecimal("0.05"))
+                    .rewardMaxProbability(new BigDecimal("0.05"))
+                    .rewardRampRate(BigDecimal.ZERO)
+                    .rewardCap(new BigDecimal("1000.00"))
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        contributionRepository.deleteAll();
+        jackpotRepository.findAll().forEach(jackpot -> {
+            jackpot.setCurrentPool(jackpot.getInitialPool());
+            jackpotRepository.save(jackpot);
+        });
+    }
+
+    @Test
+    void shouldContributeThroughTopologyAndFollowPoolAdjustments() throws Exception {
+        BigDecimal poolBefore = Money.toDecimal(jackpotRepository.findCurrentPool("fixed-warmup").orElseThrow());
+
+        placeBet("streams-1", 50.0);
+        placeBet("streams-2", 100.0);
+
+        Awaitility.await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(contributionRepository.count()).isEqualTo(2));
+        List<JackpotContribution> contributions = contributionsInPoolOrder();
+        assertThat(contributions).extracting(JackpotContribution::getContributionAmount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("5.00"), new BigDecimal("10.00"));
+        assertThat(contributions.getLast().getPostContributionPool()).isEqualByComparingTo(poolBefore.add(new BigDecimal("15.00")));
+        assertThat(Money.toDecimal(jackpotRepository.findCurrentPool("fixed-warmup").orElseThrow()))
+                .isEqualByComparingTo(poolBefore.add(new BigDecimal("15.00")));
+
+        // As a win would: the pool held by the topology must drop with the database pool
+        poolAdjustmentKafkaTemplate.send(KafkaTopicsConfig.POOL_ADJUSTMENTS_TOPIC, "fixed-warmup", PoolAdjustment.newBuilder()
+                .setJackpotId("fixed-warmup")
+                .setAmount(new BigDecimal("-15.00"))
+                .setCreatedAt(Instant.now())
+                .build()).get();
+        placeBet("streams-3", 20.0);
+
+        Awaitility.await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(contributionRepository.findByBetIdAndJackpotId("streams-3", "fixed-warmup")).isPresent());
+        assertThat(contributionRepository.findByBetIdAndJackpotId("streams-3", "fixed-warmup").orElseThrow()
+                .getPostContributionPool()).isEqualByComparingTo(poolBefore.add(new BigDecimal("2.00")));
+    }
+
+    private void placeBet(String betId, double betAmount) throws Exception {
+        String payload = "{" +
+                "\"betId\":\"" + betId + "\"," +
+                "\"userId\":\"user-1\"," +
+                "\"jackpotId\":\"fixed-warmup\"," +
+                "\"betAmount\":" + betAmount +
+                "}";
+        mockMvc.perform(post("/api/bets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isAccepted());
+    }
+
+    private List<JackpotContribution> contributionsInPoolOrder() {
+        return contributionRepository.findAll().stream()
+                .sorted(Comparator.comparing(JackpotContribution::getPostContributionPool))
+                .toList();
+    }
+}
@@ -0,0 +1,188 @@
+package com.pshakhlovich.jackpot.domain.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the fixed-point strategies against the {@link BigDecimal} arithmetic they replaced, on random inputs.
+ */
+class FixedPointStrategyTests {
+
+    private static final int ITERATIONS = 200_000;
+
+    private final SplittableRandom random = new SplittableRandom(20_251_017L);
+
+    @Test
+    void shouldConvertBetAmountsLikeBigDecimal() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double amount = switch (i % 3) {
+                case 0 -> random.nextLong(1, 100_000_000) / 100.0;
+                case 1 -> random.nextDouble(0, 10_000);
+                default -> random.nextLong(1, 1_000_000_000) / 1000.0;
+            };
+            long expected = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertThat(Money.ofBetAmount(amount)).as("bet amount %s", amount).isEqualTo(expected);
+        }
+        assertThat(Money.ofBetAmount(0.005)).isEqualTo(1);
+        assertThat(Money.ofBetAmount(1.0E15)).isEqualTo(100_000_000_000_000_000L);
+        assertThatThrownBy(() -> Money.ofBetAmount(Double.NaN)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldMultiplyAndDivideLikeBigInteger() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            long a = i % 2 == 0 ? random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L) : random.nextLong(-100_000, 100_000);
+            long b = random.nextLong(-100_000_000_000_000L, 100_000_000_000_000L);
+            long divisor = i % 4 == 0 ? 100_000_000_000_000L : random.nextLong(1_000_000L, Long.MAX_VALUE);
+            BigDecimal expected = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP);
+            if (expected.toBigIntegerExact().bitLength() < 64) {
+                assertThat(Money.mulDivHalfUp(a, b, divisor)).as("%d * %d / %d", a, b, divisor).isEqualTo(expected.longValueExact());
+            }
+        }
+        assertThat(Money.mulDivHalfUp(5, 1, 10)).isEqualTo(1);
+        assertThat(Money.mulDivHalfUp(-5, 1, 10)).isEqualTo(-1);
+        assertThat(Money.mulDivHalfUp(4, 1, 10)).isZero();
+        assertThatThrownBy(() -> Money.mulDivHalfUp(Long.MAX_VALUE, Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldContributeAtFixedRateLikeBigDecimal() {
+        FixedContributionStrategy strategy = new FixedContributionStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Jackpot jackpot = jackpot();
+            BigDecimal pool = jackpot.getCurrentPool();
+            long bet = betAmount();
+            BigDecimal rate = Money.ppmToDecimal(jackpot.getContributionRatePpm());
+
+            BigDecimal contribution = Money.toDecimal(bet).multiply(rate).setScale(2, RoundingMode.HALF_UP);
+
+            ContributionResult result = strategy.contribute(jackpot, bet);
+            assertThat(result.contributionAmount()).isEqualTo(contribution);
+            assertThat(result.updatedPool()).isEqualTo(pool.add(contribution));
+        }
+    }
+
+    @Test
+    void shouldContributeWithDecayLikeBigDecimal() {
+        VariableDecayContributionStrategy strategy = new VariableDecayContributionStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Jackpot jackpot = jackpot();
+            BigDecimal pool = jackpot.getCurrentPool();
+            long bet = betAmount();
+            BigDecimal baseRate = Money.ppmToDecimal(jackpot.getContributionRatePpm());
+            BigDecimal minRate = Money.ppmToDecimal(jackpot.getMinContributionRatePpm());
+            BigDecimal decaySlope = Money.ppmToDecimal(jackpot.getDecaySlopePpm());
+            BigDecimal decayThreshold = Money.toDecimal(jackpot.getDecayThresholdMinor());
+
+            BigDecimal poolRatio = pool.divide(decayThreshold, 8, RoundingMode.HALF_UP).min(BigDecimal.ONE);
+            BigDecimal effectiveRate = baseRate.subtract(decaySlope.multiply(poolRatio)).max(minRate);
+            BigDecimal contribution = Money.toDecimal(bet).multiply(effectiveRate).setScale(2, RoundingMode.HALF_UP);
+
+            ContributionResult result = strategy.contribute(jackpot, bet);
+            assertThat(result.contributionAmount()).isEqualTo(contribution);
+            assertThat(result.updatedPool()).isEqualTo(pool.add(contribution));
+        }
+    }
+
+    @Test
+    void shouldRewardAtFixedProbabilityLikeBigDecimal() {
+        FixedRewardStrategy strategy = new FixedRewardStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Jackpot jackpot = jackpot();
+            BigDecimal pool = jackpot.getCurrentPool();
+            BigDecimal probability = Money.ppmToDecimal(jackpot.getRewardBaseProbabilityPpm());
+            BigDecimal rewardCap = Money.toDecimal(jackpot.getRewardCapMinor());
+            double randomDraw = i % 4 == 0 ? nearby(probability) : random.nextDouble();
+
+            boolean win = BigDecimal.valueOf(randomDraw).compareTo(probability) < 0;
+            BigDecimal payout = win ? pool.min(rewardCap).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+
+            RewardResult result = strategy.evaluate(jackpot, randomDraw);
+            assertThat(result.win()).as("draw %s against %s", randomDraw, probability).isEqualTo(win);
+            assertThat(result.probability()).isEqualTo(probability.setScale(6, RoundingMode.HALF_UP));
+            assertThat(result.payoutAmount()).isEqualByComparingTo(payout);
+            assertThat(result.updatedPool()).isEqualTo(win ? jackpot.getInitialPool() : pool);
+        }
+    }
+
+    @Test
+    void shouldRewardWithRampLikeBigDecimal() {
+        VariableRampRewardStrategy strategy = new VariableRampRewardStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Jackpot jackpot = jackpot();
+            BigDecimal pool = jackpot.getCurrentPool();
+            BigDecimal baseProbability = Money.ppmToDecimal(jackpot.getRewardBaseProbabilityPpm());
+            BigDecimal maxProbability = Money.ppmToDecimal(jackpot.getRewardMaxProbabilityPpm());
+            BigDecimal rampRate = Money.ppmToDecimal(jackpot.getRewardRampRatePpm());
+            BigDecimal rewardCap = Money.toDecimal(jackpot.getRewardCapMinor());
+
+            BigDecimal poolRatio = pool.divide(rewardCap, 6, RoundingMode.HALF_UP).min(BigDecimal.ONE);
+            BigDecimal probability = baseProbability.add(rampRate.multiply(poolRatio)).min(maxProbability);
+            double randomDraw = i % 4 == 0 ? nearby(probability) : random.nextDouble();
+            boolean win = BigDecimal.valueOf(randomDraw).compareTo(probability) < 0;
+            BigDecimal payout = win ? pool.min(rewardCap).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+
+            RewardResult result = strategy.evaluate(jackpot, randomDraw);
+            assertThat(result.win()).as("draw %s against %s", randomDraw, probability).isEqualTo(win);
+            assertThat(result.probability()).isEqualTo(probability.setScale(6, RoundingMode.HALF_UP));
+            assertThat(result.payoutAmount()).isEqualByComparingTo(payout);
+            assertThat(result.updatedPool()).isEqualTo(win ? jackpot.getInitialPool() : pool);
+        }
+    }
+
+    private Jackpot jackpot() {
+        long baseRate = random.nextLong(0, 200_001);
+        long minRate = random.nextLong(0, baseRate + 1);
+        long baseProbability = random.nextLong(0, 100_001);
+        long maxProbability = random.nextLong(baseProbability, 1_000_001);
+        return Jackpot.builder()
+                .id("differential")
+                .name("Differential")
+                .initialPoolMinor(random.nextLong(0, 100_000_000))
+                .currentPoolMinor(random.nextLong(0, 10_000_000_000L))
+                .contributionStrategy(ContributionStrategyType.VARIABLE_DECAY)
+                .rewardStrategy(RewardStrategyType.VARIABLE_RAMP)
+                .contributionRatePpm(baseRate)
+                .minContributionRatePpm(minRate)
+                // Sometimes steeper than the base rate, so the minimum rate floor is reached
+                .decaySlopePpm(random.nextLong(0, 2 * baseRate + 1))
+                .decayThresholdMinor(random.nextLong(1, 10_000_000_000L))
+                .rewardBaseProbabilityPpm(baseProbability)
+                .rewardMaxProbabilityPpm(maxProbability)
+                .rewardRampRatePpm(random.nextLong(0, 1_000_001))
+                .rewardCapMinor(random.nextLong(1, 10_000_000_000L))
+                .build();
+    }
+
+    private long betAmount() {
+        // Large bets take the 128-bit path of the decay calculation
+        return random.nextBoolean() ? random.nextLong(1, 100_000) : random.nextLong(1, 100_000_000_000L);
+    }
+
+    // A draw at, or one ulp either side of, the probability, where the comparison is decided by rounding
+    private double nearby(BigDecimal probability) {
+        double draw = probability.doubleValue();
+        return switch (random.nextInt(3)) {
+            case 0 -> Math.nextDown(draw);
+            case 1 -> draw;
+            default -> Math.nextUp(draw);
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.pshakhlovich.jackpot.domain.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FormulaContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.formula.FormulaCompiler;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FormulaRewardStrategy;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.DoubleBinaryOperator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks formulas against the Java expressions they stand for, and the strategies built on them.
+ */
+class FormulaStrategyTests {
+
+    private static final List<String> VARIABLES = List.of("pool", "bet");
+
+    private final SplittableRandom random = new SplittableRandom(20_251_017L);
+
+    @Test
+    void shouldComputeFormulaLikeJava() {
+        Map<String, Double> parameters = Map.of("rate", 0.12, "minRate", 0.04, "threshold", 10_000.0, "slope", 0.08);
+        DoubleBinaryOperator formula = FormulaCompiler.compile(
+                "max(rate - slope * min(pool / threshold, 1), minRate) + bet * 0.0001", VARIABLES, parameters);
+
+        for (int i = 0; i < 10_000; i++) {
+            double pool = random.nextDouble(0, 20_000);
+            double bet = random.nextDouble(0, 500);
+            double expected = Math.max(0.12 - 0.08 * Math.min(pool / 10_000.0, 1), 0.04) + bet * 0.0001;
+            assertThat(formula.applyAsDouble(pool, bet)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldFollowOperatorPrecedence() {
+        Map<String, Double> parameters = Map.of("two", 2.0);
+        assertThat(evaluate("1 + 2 * 3 - 4 / 2", parameters)).isEqualTo(5.0);
+        assertThat(evaluate("-two ^ 2", parameters)).isEqualTo(-4.0);
+        assertThat(evaluate("2 ^ 3 ^ 2", parameters)).isEqualTo(512.0);
+        assertThat(evaluate("(1 + 2) * 3", parameters)).isEqualTo(9.0);
+        assertThat(evaluate("clamp(pool, 1, 3) + abs(-bet) + sqrt(16) + exp(ln(1)) + 1.5e1", parameters)).isEqualTo(3 + 7 + 4 + 1 + 15.0);
+    }
+
+    @Test
+    void shouldRejectInvalidFormulas() {
+        Map<String, Double> parameters = Map.of("rate", 0.1);
+        assertThatThrownBy(() -> FormulaCompiler.compile("rate *", VARIABLES, parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula 'rate *': unexpected end at position 7");
+        assertThatThrownBy(() -> FormulaCompiler.compile("rate + cap", VARIABLES, parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula 'rate + cap': unknown or unconfigured name cap at position 8");
+        assertThatThrownBy(() -> FormulaCompiler.compile("max(rate)", VARIABLES, parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula 'max(rate)': max takes 2 arguments at position 1");
+        assertThatThrownBy(() -> FormulaCompiler.compile("rate * bet", List.of("pool"), parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown or unconfigured name bet");
+        assertThatThrownBy(() -> FormulaCompiler.compile("rate 2", VARIABLES, parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula 'rate 2': unexpected '2' at position 6");
+        assertThatThrownBy(() -> FormulaCompiler.compile("rate(2)", VARIABLES, parameters))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown function rate");
+    }
+
+    @Test
+    void shouldContributeAtFormulaRate() {
+        FormulaContributionStrategy strategy = new FormulaContributionStrategy();
+        Jackpot jackpot = jackpot(1_000_000L)
+                .contributionFormula("max(contributionRate * exp(-pool / decayThreshold), minContributionRate)")
+                .build();
+
+        ContributionResult result = strategy.contribute(jackpot, 10_000);
+
+        long rate = Math.round(0.10 * Math.exp(-10_000.0 / 20_000.0) * Money.PPM);
+        long contribution = Money.mulDivHalfUp(10_000, rate, Money.PPM);
+        assertThat(result.strategy()).isEqualTo(ContributionStrategyType.FORMULA);
+        assertThat(result.contributionMinor()).isEqualTo(contribution);
+        assertThat(result.updatedPoolMinor()).isEqualTo(1_000_000L + contribution);
+    }
+
+    @Test
+    void shouldClampFormulaRate() {
+        FormulaContributionStrategy strategy = new FormulaContributionStrategy();
+
+        assertThat(strategy.contribute(jackpot(0).contributionFormula("2").build(), 10_000).contributionMinor()).isEqualTo(10_000);
+        assertThat(strategy.contribute(jackpot(0).contributionFormula("-1").build(), 10_000).contributionMinor()).isZero();
+        // Outside its domain a formula contributes nothing rather than failing the bet
+        assertThat(strategy.contribute(jackpot(0).contributionFormula("sqrt(pool - 100)").build(), 10_000).contributionMinor()).isZero();
+        assertThat(strategy.contribute(jackpot(20_000L).contributionFormula("sqrt(pool - 100)").build(), 10_000).contributionMinor()).isEqualTo(10_000);
+    }
+
+    @Test
+    void shouldEvaluateFormulaProbability() {
+        FormulaRewardStrategy strategy = new FormulaRewardStrategy();
+        String formula = "min(rewardBaseProbability + rewardRampRate * (pool / rewardCap) ^ 2, rewardMaxProbability)";
+
+        // Pool at half the cap: 0.01 + 0.40 * 0.25 = 0.11
+        RewardResult loss = strategy.evaluate(jackpot(400_000L).rewardFormula(formula).build(), 0.11);
+        assertThat(loss.strategy()).isEqualTo(RewardStrategyType.FORMULA);
+        assertThat(loss.probability()).isEqualByComparingTo(new BigDecimal("0.11"));
+        assertThat(loss.win()).isFalse();
+        assertThat(loss.updatedPoolMinor()).isEqualTo(400_000L);
+
+        // Pool above the cap: the probability reaches its maximum and the payout the cap
+        RewardResult win = strategy.evaluate(jackpot(900_000L).rewardFormula(formula).build(), 0.40);
+        assertThat(win.probability()).isEqualByComparingTo(new BigDecimal("0.50"));
+        assertThat(win.win()).isTrue();
+        assertThat(win.payoutMinor()).isEqualTo(800_000L);
+        assertThat(win.updatedPoolMinor()).isEqualTo(75_000L);
+
+        // Without a cap the whole pool is paid out
+        RewardResult uncapped = strategy.evaluate(jackpot(900_000L).rewardCapMinor(null).rewardFormula("1").build(), 0.99);
+        assertThat(uncapped.payoutMinor()).isEqualTo(900_000L);
+    }
+
+    @Test
+    void shouldRejectMisconfiguredFormulaStrategies() {
+        JackpotConfig noFormula = JackpotConfig.from(jackpot(0).build());
+        assertThatThrownBy(() -> new FormulaContributionStrategy().compile(noFormula))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Formula contribution strategy requires contributionFormula configuration");
+        assertThatThrownBy(() -> new FormulaRewardStrategy().compile(noFormula))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Formula reward strategy requires rewardFormula");
+
+        // decaySlope is not configured on this jackpot
+        JackpotConfig unconfigured = JackpotConfig.from(jackpot(0).contributionFormula("contributionRate - decaySlope").build());
+        assertThatThrownBy(() -> new FormulaContributionStrategy().compile(unconfigured))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown or unconfigured name decaySlope");
+
+        // A formula that never yields a number is rejected when the jackpot is loaded, not on every bet
+        JackpotConfig notANumber = JackpotConfig.from(jackpot(0).contributionFormula("0 / 0").rewardFormula("ln(-rewardCap)").build());
+        assertThatThrownBy(() -> new FormulaContributionStrategy().compile(notANumber))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula '0 / 0': always evaluates to NaN");
+        assertThatThrownBy(() -> new FormulaRewardStrategy().compile(notANumber))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula 'ln(-rewardCap)': always evaluates to NaN");
+        assertThatThrownBy(() -> FormulaCompiler.compile("1 / 0", VARIABLES, Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Invalid formula '1 / 0': always evaluates to Infinity");
+        assertThatThrownBy(() -> FormulaCompiler.compile("pool", List.of("pool", "bet", "stake"), Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("A formula has at most two variables: [pool, bet, stake]");
+    }
+
+    private double evaluate(String formula, Map<String, Double> parameters) {
+        return FormulaCompiler.compile(formula, VARIABLES, parameters).applyAsDouble(10, 7);
+    }
+
+    private Jackpot.JackpotBuilder jackpot(long currentPoolMinor) {
+        return Jackpot.builder()
+                .id("formula-curve")
+                .name("Formula Curve")
+                .initialPoolMinor(75_000L)
+                .currentPoolMinor(currentPoolMinor)
+                .contributionStrategy(ContributionStrategyType.FORMULA)
+                .rewardStrategy(RewardStrategyType.FORMULA)
+                .contributionRatePpm(100_000L)
+                .minContributionRatePpm(30_000L)
+                .decayThresholdMinor(2_000_000L)
+                .rewardBaseProbabilityPpm(10_000L)
+                .rewardMaxProbabilityPpm(500_000L)
+                .rewardRampRatePpm(400_000L)
+                .rewardCapMinor(800_000L);
+    }
+}
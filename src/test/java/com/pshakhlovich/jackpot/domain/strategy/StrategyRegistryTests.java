@@ -0,0 +1,108 @@
+package com.pshakhlovich.jackpot.domain.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.CompiledContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.CompiledRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StrategyRegistryTests {
+
+    private final StrategyRegistry strategyRegistry = new StrategyRegistry(
+            List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy()),
+            List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy()));
+
+    @Test
+    void shouldReuseCompiledStrategiesWhileConfigurationIsUnchanged() {
+        Jackpot jackpot = baseJackpot().build();
+
+        CompiledContributionStrategy contribution = strategyRegistry.contributionStrategyFor(jackpot);
+        CompiledRewardStrategy reward = strategyRegistry.rewardStrategyFor(jackpot);
+
+        // Pool changes leave the configuration, and so the compiled strategies, as they were
+        jackpot.increasePool(2_500);
+        assertThat(strategyRegistry.contributionStrategyFor(jackpot)).isSameAs(contribution);
+        assertThat(strategyRegistry.rewardStrategyFor(JackpotConfig.from(jackpot))).isSameAs(reward);
+    }
+
+    @Test
+    void shouldRecompileWhenConfigurationChanges() {
+        Jackpot jackpot = baseJackpot().build();
+        CompiledContributionStrategy compiled = strategyRegistry.contributionStrategyFor(jackpot);
+
+        jackpot.setContributionRatePpm(200_000L);
+        CompiledContributionStrategy recompiled = strategyRegistry.contributionStrategyFor(jackpot);
+
+        assertThat(recompiled).isNotSameAs(compiled);
+        assertThat(recompiled.contribute(jackpot, 10_000).contributionAmount()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    void shouldRecompileAfterInvalidation() {
+        JackpotConfig config = JackpotConfig.from(baseJackpot().build());
+        CompiledRewardStrategy compiled = strategyRegistry.rewardStrategyFor(config);
+
+        strategyRegistry.invalidate(config.id());
+
+        assertThat(strategyRegistry.rewardStrategyFor(config)).isNotSameAs(compiled);
+    }
+
+    @Test
+    void shouldRejectMisconfigurationWhenCompiling() {
+        JackpotConfig withoutThreshold = JackpotConfig.from(baseJackpot()
+                .contributionStrategy(ContributionStrategyType.VARIABLE_DECAY)
+                .minContributionRate(new BigDecimal("0.02"))
+                .decaySlope(new BigDecimal("0.08"))
+                .decayThreshold(BigDecimal.ZERO)
+                .build());
+        JackpotConfig outOfRange = JackpotConfig.from(baseJackpot()
+                .rewardBaseProbability(new BigDecimal("1.5"))
+                .build());
+
+        assertThatThrownBy(() -> strategyRegistry.contributionStrategyFor(withoutThreshold))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("decayThreshold must be positive");
+        assertThatThrownBy(() -> strategyRegistry.compile(outOfRange))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("rewardBaseProbability must be between 0 and 1");
+    }
+
+    @Test
+    void shouldNotCacheFailedCompilation() {
+        Jackpot jackpot = baseJackpot().contributionRatePpm(null).build();
+        assertThatThrownBy(() -> strategyRegistry.contributionStrategyFor(jackpot))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Fixed contribution strategy requires contributionRate configuration");
+
+        jackpot.setContributionRatePpm(100_000L);
+
+        assertThat(strategyRegistry.contributionStrategyFor(jackpot).contribute(jackpot, 10_000).contributionAmount())
+                .isEqualByComparingTo("10.00");
+    }
+
+    private Jackpot.JackpotBuilder baseJackpot() {
+        return Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal("500.00"))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.pshakhlovich.jackpot.domain.strategy.contribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.service.dto.ContributionResult;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that batch contributions, scalar and vectorized, match contributing the same bets one at a time.
+ */
+class ContributionKernelTests {
+
+    private static final int ITERATIONS = 2_000;
+
+    private final SplittableRandom random = new SplittableRandom(20_251_017L);
+
+    @Test
+    void shouldComputeVectorizedContributionsLikeScalarOnes() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "Vector API not available");
+        ContributionKernel vector = new VectorContributionKernel();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long rate = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> Money.PPM;
+                default -> random.nextLong(0, Money.PPM + 1);
+            };
+            long[] bets = betAmounts(random.nextInt(0, 70));
+            int from = random.nextInt(0, bets.length + 1);
+            int to = random.nextInt(from, bets.length + 1);
+
+            long[] expected = new long[bets.length];
+            long[] actual = new long[bets.length];
+            ContributionKernels.SCALAR.contributeAtRate(rate, bets, from, to, expected);
+            vector.contributeAtRate(rate, bets, from, to, actual);
+
+            assertThat(actual).as("rate %d", rate).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void shouldContributeBatchAtFixedRateLikeOneBetAtATime() {
+        FixedContributionStrategy strategy = new FixedContributionStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertBatchMatchesSingleBets(strategy, jackpot(ContributionStrategyType.FIXED_RATE), betAmounts(random.nextInt(0, 70)));
+        }
+    }
+
+    @Test
+    void shouldContributeBatchWithVariableDecayLikeOneBetAtATime() {
+        VariableDecayContributionStrategy strategy = new VariableDecayContributionStrategy();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertBatchMatchesSingleBets(strategy, jackpot(ContributionStrategyType.VARIABLE_DECAY), betAmounts(random.nextInt(0, 70)));
+        }
+    }
+
+    private void assertBatchMatchesSingleBets(ContributionStrategy strategy, Jackpot jackpot, long[] bets) {
+        CompiledContributionStrategy compiled = strategy.compile(JackpotConfig.from(jackpot));
+        Jackpot single = JackpotConfig.from(jackpot).detached(jackpot.getCurrentPoolMinor());
+        long[] expectedContributions = new long[bets.length];
+        long[] expectedPools = new long[bets.length];
+        for (int i = 0; i < bets.length; i++) {
+            ContributionResult result = compiled.contribute(single, bets[i]);
+            expectedContributions[i] = result.contributionMinor();
+            expectedPools[i] = result.updatedPoolMinor();
+        }
+
+        long[] contributions = new long[bets.length];
+        long[] pools = new long[bets.length];
+        compiled.contributeAll(jackpot, bets, contributions, pools);
+
+        assertThat(contributions).containsExactly(expectedContributions);
+        assertThat(pools).containsExactly(expectedPools);
+        assertThat(jackpot.getCurrentPoolMinor()).isEqualTo(single.getCurrentPoolMinor());
+    }
+
+    private Jackpot jackpot(ContributionStrategyType strategy) {
+        long baseRate = random.nextLong(0, 200_001);
+        long decayThreshold = random.nextLong(1, 1_000_000);
+        return Jackpot.builder()
+                .id("batch")
+                .name("Batch")
+                .initialPoolMinor(0)
+                // Around the threshold, so that batches cross it
+                .currentPoolMinor(random.nextLong(0, 2 * decayThreshold))
+                .contributionStrategy(strategy)
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .contributionRatePpm(baseRate)
+                .minContributionRatePpm(random.nextLong(0, baseRate + 1))
+                .decaySlopePpm(random.nextLong(0, 2 * baseRate + 1))
+                .decayThresholdMinor(decayThreshold)
+                .build();
+    }
+
+    private long[] betAmounts(int count) {
+        long[] bets = new long[count];
+        for (int i = 0; i < count; i++) {
+            bets[i] = switch (random.nextInt(20)) {
+                // Too large for the vectorized division, and negative, both computed by the scalar kernel
+                case 0 -> random.nextLong(1_000_000_000_000L, 1_000_000_000_000_000L);
+                case 1 -> -random.nextLong(1, 100_000);
+                default -> random.nextLong(1, 1_000_000);
+            };
+        }
+        return bets;
+    }
+}
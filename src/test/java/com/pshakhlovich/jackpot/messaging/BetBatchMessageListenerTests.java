@@ -0,0 +1,176 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.service.ContributionService;
+import com.pshakhlovich.jackpot.service.JackpotConcurrencyControl;
+import com.pshakhlovich.jackpot.service.JackpotRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+class BetBatchMessageListenerTests {
+
+    @Mock
+    private ContributionService contributionService;
+
+    @Mock
+    private ConsumerOffsetStore offsetStore;
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    private JackpotConcurrencyControl concurrencyControl;
+
+    private BetBatchMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyControl = new JackpotConcurrencyControl(
+                jackpotRegistry,
+                new JackpotConcurrencyProperties(new JackpotConcurrencyProperties.Retry(3, Duration.ofMillis(1), Duration.ofMillis(4))),
+                new SimpleMeterRegistry());
+        listener = new BetBatchMessageListener(contributionService, offsetStore, concurrencyControl,
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void shouldApplyBatchAndSkipUndeserializableRecords() {
+        when(offsetStore.isEnabled()).thenReturn(true);
+        Bet first = bet("bet-1");
+        Bet second = bet("bet-2");
+
+        List<ConsumerRecord<String, Bet>> records = records(first, null, second);
+
+        listener.onBets(records);
+
+        verify(contributionService).applyContributions(List.of(first, second));
+        verify(contributionService, never()).applyContribution(first);
+        verify(offsetStore).store(records);
+    }
+
+    @Test
+    void shouldReplayFailedBatchAndReportFirstFailingRecord() {
+        when(offsetStore.isEnabled()).thenReturn(true);
+        Bet first = bet("bet-1");
+        Bet second = bet("bet-2");
+        Bet third = bet("bet-3");
+        doThrow(new IllegalArgumentException("Jackpot missing not found")).when(contributionService).applyContributions(anyList());
+        doThrow(new IllegalArgumentException("Jackpot missing not found")).when(contributionService).applyContribution(second);
+
+        List<ConsumerRecord<String, Bet>> records = records(first, second, third);
+
+        assertThatThrownBy(() -> listener.onBets(records))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        ex -> assertThat(ex.getIndex()).isEqualTo(1));
+
+        InOrder order = inOrder(contributionService);
+        order.verify(contributionService).applyContribution(first);
+        order.verify(contributionService).applyContribution(second);
+        verify(contributionService, never()).applyContribution(third);
+        // Only the bet applied on its own has its offset stored
+        verify(offsetStore).store(records.get(0));
+        verify(offsetStore, never()).store(records.get(1));
+    }
+
+    @Test
+    void shouldNotOpenATransactionUnlessOffsetsAreStoredInTheDatabase() {
+        TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        listener = new BetBatchMessageListener(contributionService, offsetStore, concurrencyControl, transactionOperations);
+        Bet first = bet("bet-1");
+
+        listener.onBets(records(first));
+
+        verify(contributionService).applyContributions(List.of(first));
+        verify(offsetStore, never()).store(anyList());
+        verifyNoInteractions(transactionOperations);
+    }
+
+    @Test
+    void shouldRepeatTransactionStoringOffsetsWhenOptimisticJackpotConflicts() {
+        when(offsetStore.isEnabled()).thenReturn(true);
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(optimisticConfig()));
+        Bet first = bet("bet-1");
+        Bet second = bet("bet-2");
+        doThrow(new ObjectOptimisticLockingFailureException(Jackpot.class, "fixed-warmup"))
+                .doNothing()
+                .when(contributionService).applyContributions(anyList());
+
+        List<ConsumerRecord<String, Bet>> records = records(first, second);
+
+        listener.onBets(records);
+
+        // The conflicting attempt is repeated as a whole instead of falling back to single bets
+        verify(contributionService, times(2)).applyContributions(List.of(first, second));
+        verify(contributionService, never()).applyContribution(first);
+        verify(offsetStore).store(records);
+    }
+
+    private List<ConsumerRecord<String, Bet>> records(Bet... bets) {
+        List<ConsumerRecord<String, Bet>> records = new ArrayList<>();
+        for (int offset = 0; offset < bets.length; offset++) {
+            records.add(new ConsumerRecord<>(KafkaTopicsConfig.BETS_TOPIC, 0, offset, "fixed-warmup", bets[offset]));
+        }
+        return records;
+    }
+
+    private JackpotConfig optimisticConfig() {
+        return JackpotConfig.from(Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal("500.00"))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .concurrencyMode(ConcurrencyMode.OPTIMISTIC)
+                .build());
+    }
+
+    private Bet bet(String betId) {
+        return Bet.newBuilder()
+                .setBetId(betId)
+                .setJackpotId("fixed-warmup")
+                .setUserId("user-1")
+                .setBetAmount(10.0)
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.service.ContributionService;
+import java.time.Instant;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+
+@ExtendWith(MockitoExtension.class)
+class BetParallelMessageListenerTests {
+
+    @Mock
+    private ContributionService contributionService;
+
+    @Mock
+    private ConsumerRecordRecoverer betRecoverer;
+
+    private BetParallelMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new BetParallelMessageListener(contributionService, betRecoverer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.destroy();
+    }
+
+    @Test
+    void shouldAcknowledgeBetOnceApplied() {
+        Bet bet = bet("bet-1");
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onBet(record(bet, 0), acknowledgment);
+
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+        verify(contributionService).applyContribution(bet);
+        verify(betRecoverer, never()).accept(any(), any());
+    }
+
+    @Test
+    void shouldForwardFailingBetForRetryAndAcknowledgeIt() {
+        Bet bet = bet("bet-1");
+        ConsumerRecord<String, Bet> record = record(bet, 0);
+        IllegalArgumentException failure = new IllegalArgumentException("Jackpot missing not found");
+        doThrow(failure).when(contributionService).applyContribution(bet);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onBet(record, acknowledgment);
+
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+        verify(betRecoverer).accept(eq(record), eq(failure));
+    }
+
+    @Test
+    void shouldAcknowledgeRecordWithoutValueWithoutApplyingIt() {
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.onBet(new ConsumerRecord<>(KafkaTopicsConfig.BETS_TOPIC, 0, 0, "fixed-warmup", null), acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verify(contributionService, never()).applyContribution(any());
+        verify(betRecoverer, never()).accept(any(), any());
+    }
+
+    private ConsumerRecord<String, Bet> record(Bet bet, long offset) {
+        return new ConsumerRecord<>(KafkaTopicsConfig.BETS_TOPIC, 0, offset, bet.getJackpotId(), bet);
+    }
+
+    private Bet bet(String betId) {
+        return Bet.newBuilder()
+                .setBetId(betId)
+                .setJackpotId("fixed-warmup")
+                .setUserId("user-1")
+                .setBetAmount(10.0)
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+}
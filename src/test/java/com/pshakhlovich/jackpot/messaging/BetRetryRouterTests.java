@@ -0,0 +1,97 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+class BetRetryRouterTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private BetRetryRouter retryRouter;
+
+    @BeforeEach
+    void setUp() {
+        BetConsumerProperties consumerProperties = new BetConsumerProperties(
+                BetConsumerProperties.Mode.BATCH, 1, BetConsumerProperties.OffsetStorage.KAFKA, Duration.ofSeconds(5),
+                new BetConsumerProperties.Dedupe(1000, 0.01, 100, Duration.ofHours(24)),
+                new BetConsumerProperties.Retry(List.of(Duration.ofSeconds(1), Duration.ofSeconds(10))));
+        retryRouter = new BetRetryRouter(consumerProperties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldForwardThroughRetryTopicsToDeadLetterTopic() {
+        IllegalArgumentException failure = new IllegalArgumentException("Jackpot missing not found");
+
+        assertThat(retryRouter.destination(record(KafkaTopicsConfig.BETS_TOPIC), failure))
+                .isEqualTo(new TopicPartition("jackpot-bets-retry-0", -1));
+        assertThat(retryRouter.destination(record("jackpot-bets-retry-0"), failure))
+                .isEqualTo(new TopicPartition("jackpot-bets-retry-1", -1));
+        assertThat(retryRouter.destination(record("jackpot-bets-retry-1"), failure))
+                .isEqualTo(new TopicPartition(KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC, -1));
+    }
+
+    @Test
+    void shouldStampDueTimeOfNextRetryTopic() {
+        Headers headers = retryRouter.headers(record("jackpot-bets-retry-0"), new IllegalStateException("Lock timeout"));
+
+        assertThat(new String(headers.lastHeader(BetRetryRouter.DUE_AT_HEADER).value(), StandardCharsets.UTF_8))
+                .isEqualTo(Long.toString(NOW.plusSeconds(10).toEpochMilli()));
+        assertThat(retryRouter.headers(record("jackpot-bets-retry-1"), new IllegalStateException("Lock timeout")))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldHoldBackRecordUntilDue() {
+        ConsumerRecord<String, Object> record = record("jackpot-bets-retry-0");
+        record.headers().add(BetRetryRouter.DUE_AT_HEADER,
+                Long.toString(NOW.plusMillis(750).toEpochMilli()).getBytes(StandardCharsets.UTF_8));
+
+        assertThat(retryRouter.remainingDelay(record)).isEqualTo(Duration.ofMillis(750));
+        assertThat(retryRouter.remainingDelay(record(KafkaTopicsConfig.BETS_TOPIC))).isZero();
+    }
+
+    @Test
+    void shouldSkipRetriesForBetsThatCanNeverSucceed() {
+        DeserializationException poison = new DeserializationException("Unknown magic byte", new byte[] {1}, false, null);
+
+        assertThat(retryRouter.destination(record(KafkaTopicsConfig.BETS_TOPIC),
+                new ListenerExecutionFailedException("Listener failed", poison)))
+                .isEqualTo(new TopicPartition(KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC, -1));
+        assertThat(retryRouter.destination(record(KafkaTopicsConfig.BETS_TOPIC),
+                new ListenerExecutionFailedException("Listener failed", new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation: \"public.uq_jackpot_contribution_bet_INDEX_5\"", "23505")))))
+                .isNull();
+    }
+
+    @Test
+    void shouldRetryIntegrityViolationsOtherThanDuplicateBets() {
+        DataIntegrityViolationException tooLong = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Value too long for column \"bet_id CHARACTER VARYING(64)\"", "22001"));
+
+        assertThat(retryRouter.destination(record(KafkaTopicsConfig.BETS_TOPIC), tooLong))
+                .isEqualTo(new TopicPartition("jackpot-bets-retry-0", -1));
+        assertThat(retryRouter.destination(record("jackpot-bets-retry-1"), tooLong))
+                .isEqualTo(new TopicPartition(KafkaTopicsConfig.BETS_DEAD_LETTER_TOPIC, -1));
+    }
+
+    private ConsumerRecord<String, Object> record(String topic) {
+        return new ConsumerRecord<>(topic, 0, 42, "fixed-warmup", null);
+    }
+}
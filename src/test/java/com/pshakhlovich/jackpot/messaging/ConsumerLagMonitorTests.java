@@ -0,0 +1,102 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerLagMonitorTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private Admin admin;
+
+    @Mock
+    private Clock clock;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConsumerLagMonitor lagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ConsumerLagMonitor(() -> admin, "jackpot-contribution-consumer", true, clock, meterRegistry);
+    }
+
+    @Test
+    void shouldMeasureLagAndSmoothedRatePerPartition() {
+        when(clock.instant()).thenReturn(NOW, NOW.plusSeconds(2), NOW.plusSeconds(4));
+
+        lagMonitor.update(Map.of(0, 1_000L, 1, 500L), Map.of(0, 400L, 1, 500L));
+        lagMonitor.update(Map.of(0, 1_400L, 1, 500L), Map.of(0, 800L, 1, 500L));
+
+        String jackpotId = jackpotOn(0);
+        ConsumerLagMonitor.PartitionLag lag = lagMonitor.lagOf(jackpotId).orElseThrow();
+        assertThat(lag.lag()).isEqualTo(600);
+        // 400 bets in 2 seconds, halved by smoothing against the unknown rate before
+        assertThat(lag.rate()).isEqualTo(100.0);
+
+        lagMonitor.update(Map.of(0, 1_400L, 1, 500L), Map.of(0, 1_200L, 1, 500L));
+
+        assertThat(lagMonitor.lagOf(jackpotId).orElseThrow().rate()).isEqualTo(150.0);
+        assertThat(meterRegistry.get("jackpot.consumer.lag").tag("partition", "0").gauge().value()).isEqualTo(200.0);
+        assertThat(meterRegistry.get("jackpot.consumer.lag").tag("partition", "1").gauge().value()).isZero();
+        assertThat(meterRegistry.get("jackpot.consumer.rate").tag("partition", "0").gauge().value()).isEqualTo(150.0);
+    }
+
+    @Test
+    void shouldNotReportLagBeforeTheGroupHasCommitted() {
+        when(clock.instant()).thenReturn(NOW);
+
+        assertThat(lagMonitor.lagOf("fixed-warmup")).isEmpty();
+
+        lagMonitor.update(Map.of(0, 1_000L, 1, 1_000L), Map.of());
+
+        assertThat(lagMonitor.lagOf("fixed-warmup")).isEmpty();
+        assertThat(meterRegistry.find("jackpot.consumer.lag").gauges()).isEmpty();
+    }
+
+    @Test
+    void shouldNotCreateAdminClientWhileAdmissionControlIsDisabled() {
+        ConsumerLagMonitor disabled = new ConsumerLagMonitor(() -> {
+            throw new AssertionError("Admin client created");
+        }, "jackpot-contribution-consumer", false, clock, meterRegistry);
+
+        disabled.refresh();
+        disabled.destroy();
+
+        assertThat(disabled.lagOf("fixed-warmup")).isEmpty();
+    }
+
+    @Test
+    void shouldMapJackpotsToPartitionsLikeTheDefaultPartitioner() {
+        for (String jackpotId : List.of("fixed-warmup", "decaying-marathon", "jackpot-42")) {
+            assertThat(ConsumerLagMonitor.partitionOf(jackpotId, 3))
+                    .isEqualTo(BuiltInPartitioner.partitionForKey(jackpotId.getBytes(StandardCharsets.UTF_8), 3));
+        }
+    }
+
+    private static String jackpotOn(int partition) {
+        for (int i = 0; ; i++) {
+            String jackpotId = "jackpot-" + i;
+            if (ConsumerLagMonitor.partitionOf(jackpotId, 2) == partition) {
+                return jackpotId;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.pshakhlovich.jackpot.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.config.KafkaTopicsConfig;
+import com.pshakhlovich.jackpot.domain.model.ConsumerOffset;
+import com.pshakhlovich.jackpot.repository.ConsumerOffsetRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerOffsetStoreTests {
+
+    private static final String GROUP_ID = "jackpot-contribution-consumer";
+
+    @Mock
+    private ConsumerOffsetRepository offsetRepository;
+
+    private ConsumerOffsetStore offsetStore;
+
+    @BeforeEach
+    void setUp() {
+        offsetStore = store(BetConsumerProperties.OffsetStorage.DATABASE);
+    }
+
+    @Test
+    void shouldStoreNextOffsetPerPartition() {
+        ConsumerOffset partitionOne = ConsumerOffset.builder().key(key(1)).nextOffset(40).build();
+        when(offsetRepository.findById(key(0))).thenReturn(Optional.empty());
+        when(offsetRepository.findById(key(1))).thenReturn(Optional.of(partitionOne));
+
+        offsetStore.store(List.of(record(0, 10), record(1, 41), record(0, 12), record(0, 11)));
+
+        ArgumentCaptor<ConsumerOffset> captor = ArgumentCaptor.forClass(ConsumerOffset.class);
+        verify(offsetRepository).save(captor.capture());
+        assertThat(captor.getValue().getKey()).isEqualTo(key(0));
+        assertThat(captor.getValue().getNextOffset()).isEqualTo(13);
+        assertThat(partitionOne.getNextOffset()).isEqualTo(42);
+    }
+
+    @Test
+    void shouldSeekAssignedPartitionsToStoredOffsets() {
+        when(offsetRepository.findByGroupIdAndTopic(GROUP_ID, KafkaTopicsConfig.BETS_TOPIC))
+                .thenReturn(List.of(ConsumerOffset.builder().key(key(0)).nextOffset(13).build()));
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        TopicPartition stored = new TopicPartition(KafkaTopicsConfig.BETS_TOPIC, 0);
+        TopicPartition fresh = new TopicPartition(KafkaTopicsConfig.BETS_TOPIC, 2);
+
+        offsetStore.onPartitionsAssigned(consumer, List.of(stored, fresh));
+
+        verify(consumer).seek(stored, 13);
+        verify(consumer, never()).seek(eq(fresh), anyLong());
+    }
+
+    @Test
+    void shouldDoNothingWithKafkaOffsetStorage() {
+        ConsumerOffsetStore kafkaStore = store(BetConsumerProperties.OffsetStorage.KAFKA);
+
+        kafkaStore.store(List.of(record(0, 10)));
+        kafkaStore.onPartitionsAssigned(mock(Consumer.class), List.of(new TopicPartition(KafkaTopicsConfig.BETS_TOPIC, 0)));
+
+        verify(offsetRepository, never()).save(any());
+        verify(offsetRepository, never()).findByGroupIdAndTopic(any(), any());
+    }
+
+    @Test
+    void shouldRejectDatabaseOffsetStorageWithInMemoryEngine() {
+        assertThatThrownBy(() -> store(BetConsumerProperties.OffsetStorage.DATABASE, JackpotEngineProperties.Mode.IN_MEMORY))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("jackpot.consumer.offset-storage=DATABASE cannot be used with jackpot.engine.mode=IN_MEMORY");
+    }
+
+    private ConsumerOffsetStore store(BetConsumerProperties.OffsetStorage offsetStorage) {
+        return store(offsetStorage, JackpotEngineProperties.Mode.DATABASE);
+    }
+
+    private ConsumerOffsetStore store(BetConsumerProperties.OffsetStorage offsetStorage, JackpotEngineProperties.Mode engineMode) {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.getConsumer().setGroupId(GROUP_ID);
+        return new ConsumerOffsetStore(offsetRepository, kafkaProperties, new BetConsumerProperties(
+                BetConsumerProperties.Mode.BATCH, 1, offsetStorage, Duration.ofSeconds(5),
+                new BetConsumerProperties.Dedupe(1000, 0.01, 100, Duration.ofHours(24)),
+                new BetConsumerProperties.Retry(List.of(Duration.ofSeconds(1)))),
+                new JackpotEngineProperties(engineMode,
+                        new JackpotEngineProperties.Streams(JackpotEngineProperties.StoreType.ROCKS_DB, Duration.ofHours(24))));
+    }
+
+    private ConsumerOffset.Key key(int partition) {
+        return new ConsumerOffset.Key(GROUP_ID, KafkaTopicsConfig.BETS_TOPIC, partition);
+    }
+
+    private ConsumerRecord<String, Object> record(int partition, long offset) {
+        return new ConsumerRecord<>(KafkaTopicsConfig.BETS_TOPIC, partition, offset, "fixed-warmup", null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pshakhlovich.jackpot.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Runs the migrations against databases holding data written by earlier versions.
+ */
+class FlywayMigrationTests {
+
+    private static final Instant CREATED_AT = Instant.parse("2025-01-01T12:00:00Z");
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+                "sa",
+                "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void shouldDropDuplicateContributionsBeforeAddingUniqueConstraint() {
+        migrate("3");
+        jdbcTemplate.update("""
+                INSERT INTO jackpot (jackpot_id, name, initial_pool, current_pool, contribution_strategy, reward_strategy,
+                                     contribution_rate, reward_base_probability, reward_max_probability, reward_ramp_rate,
+                                     reward_cap, created_at, updated_at)
+                VALUES (?, ?, 500.00, 515.00, 'FIXED_RATE', 'FIXED', 0.10, 0.05, 0.05, 0, 1000.00, ?, ?)
+                """, "fixed-warmup", "Fixed Warmup", timestamp(0), timestamp(0));
+        UUID first = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID sameTime = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        UUID redelivered = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID other = UUID.fromString("00000000-0000-0000-0000-000000000004");
+        insertContribution(first, "bet-1", 1);
+        insertContribution(sameTime, "bet-1", 1);
+        insertContribution(redelivered, "bet-1", 2);
+        insertContribution(other, "bet-2", 3);
+
+        migrate(null);
+
+        List<UUID> remaining = jdbcTemplate.queryForList(
+                "SELECT contribution_id FROM jackpot_contribution ORDER BY bet_id", UUID.class);
+        assertThat(remaining).containsExactly(first, other);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT current_pool_minor FROM jackpot WHERE jackpot_id = 'fixed-warmup'", Long.class))
+                .isEqualTo(51_500L);
+    }
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private void insertContribution(UUID contributionId, String betId, long createdAtSeconds) {
+        jdbcTemplate.update("""
+                INSERT INTO jackpot_contribution (contribution_id, bet_id, jackpot_id, bet_amount, contribution_amount,
+                                                  post_contribution_pool, strategy, created_at)
+                VALUES (?, ?, 'fixed-warmup', 50.00, 5.00, 505.00, 'FIXED_RATE', ?)
+                """, contributionId, betId, timestamp(createdAtSeconds));
+    }
+
+    private static Timestamp timestamp(long secondsAfterCreation) {
+        return Timestamp.from(CREATED_AT.plusSeconds(secondsAfterCreation));
+    }
+}
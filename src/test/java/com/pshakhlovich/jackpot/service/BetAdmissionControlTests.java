@@ -0,0 +1,91 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.BetIngestionProperties;
+import com.pshakhlovich.jackpot.messaging.ConsumerLagMonitor;
+import com.pshakhlovich.jackpot.service.BetAdmissionControl.Admission;
+import com.pshakhlovich.jackpot.service.BetAdmissionControl.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BetAdmissionControlTests {
+
+    @Mock
+    private ConsumerLagMonitor lagMonitor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldAcceptBelowThrottleLagAndWhileLagIsUnknown() {
+        BetAdmissionControl admissionControl = admissionControl(true);
+        when(lagMonitor.lagOf("fixed-warmup")).thenReturn(lag(999, 100));
+        when(lagMonitor.lagOf("decaying-marathon")).thenReturn(Optional.empty());
+
+        assertThat(admissionControl.admit("fixed-warmup").outcome()).isEqualTo(Outcome.ACCEPT);
+        assertThat(admissionControl.admit("decaying-marathon").outcome()).isEqualTo(Outcome.ACCEPT);
+    }
+
+    @Test
+    void shouldDelayInProportionToLagBetweenThresholds() {
+        BetAdmissionControl admissionControl = admissionControl(true);
+        when(lagMonitor.lagOf("fixed-warmup")).thenReturn(lag(3_000, 100));
+
+        Admission admission = admissionControl.admit("fixed-warmup");
+
+        assertThat(admission.outcome()).isEqualTo(Outcome.THROTTLE);
+        assertThat(admission.delay()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void shouldRejectWithTimeToDrainBackToThrottleLag() {
+        BetAdmissionControl admissionControl = admissionControl(true);
+        when(lagMonitor.lagOf("fixed-warmup")).thenReturn(lag(6_000, 1_000));
+
+        assertThatThrownBy(() -> admissionControl.acquire("fixed-warmup"))
+                .isInstanceOfSatisfying(BetAdmissionException.class, ex -> {
+                    assertThat(ex.getJackpotId()).isEqualTo("fixed-warmup");
+                    assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(5));
+                });
+        assertThat(meterRegistry.get("jackpot.bets.admission").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldCapRetryAfterWhenConsumerIsStalled() {
+        BetAdmissionControl admissionControl = admissionControl(true);
+        when(lagMonitor.lagOf("fixed-warmup")).thenReturn(lag(6_000, 0));
+
+        Admission admission = admissionControl.admit("fixed-warmup");
+
+        assertThat(admission.rejected()).isTrue();
+        assertThat(admission.delay()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(admissionControl.rejectionReason("fixed-warmup", admission))
+                .isEqualTo("Jackpot fixed-warmup is overloaded, retry after 30 seconds");
+    }
+
+    @Test
+    void shouldAdmitEverythingWhenDisabled() {
+        BetAdmissionControl admissionControl = admissionControl(false);
+
+        assertThat(admissionControl.admit("fixed-warmup").outcome()).isEqualTo(Outcome.ACCEPT);
+    }
+
+    private BetAdmissionControl admissionControl(boolean enabled) {
+        BetIngestionProperties properties = new BetIngestionProperties(1000, 100, 8192, new BetIngestionProperties.Admission(
+                enabled, Duration.ofSeconds(1), 1_000, 5_000, Duration.ofMillis(200), Duration.ofSeconds(30)));
+        return new BetAdmissionControl(lagMonitor, properties, meterRegistry);
+    }
+
+    private static Optional<ConsumerLagMonitor.PartitionLag> lag(long lag, double rate) {
+        return Optional.of(new ConsumerLagMonitor.PartitionLag(0, 0, lag, rate));
+    }
+}
@@ -1,13 +1,22 @@
 package com.pshakhlovich.jackpot.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.Money;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
 import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
@@ -16,16 +25,22 @@ import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(MockitoExtension.class)
 class ContributionServiceTests {
@@ -36,6 +51,23 @@ class ContributionServiceTests {
     @Mock
     private JackpotContributionRepository contributionRepository;
 
+    @Mock
+    private JackpotPoolSnapshotStore poolSnapshotStore;
+
+    @Mock
+    private DuplicateBetFilter duplicateBetFilter;
+
+    @Mock
+    private JackpotPoolStripes poolStripes;
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    @Mock
+    private InMemoryJackpotEngine engine;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private ContributionService contributionService;
 
     @BeforeEach
@@ -44,7 +76,12 @@ class ContributionServiceTests {
                 List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy()),
                 List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy()));
 
-        contributionService = new ContributionService(jackpotRepository, contributionRepository, strategyRegistry);
+        contributionService = new ContributionService(
+                jackpotRepository, contributionRepository, strategyRegistry, jackpotRegistry, poolSnapshotStore, duplicateBetFilter,
+                poolStripes,
+                new JackpotConcurrencyControl(jackpotRegistry, new JackpotConcurrencyProperties(
+                        new JackpotConcurrencyProperties.Retry(3, Duration.ofMillis(1), Duration.ofMillis(5))), meterRegistry),
+                engine, TransactionOperations.withoutTransaction());
     }
 
     @Test
@@ -77,6 +114,41 @@ class ContributionServiceTests {
         assertThat(jackpot.getCurrentPool()).isEqualByComparingTo("520.00");
 
         verify(jackpotRepository).save(jackpot);
+        verify(poolSnapshotStore).publishAfterCommit(jackpot);
+        verify(duplicateBetFilter).rememberAfterCommit("bet-123", "fixed-warmup");
+    }
+
+    @Test
+    void shouldSkipDuplicateBetWithoutLockingJackpot() {
+        when(duplicateBetFilter.isDuplicate("bet-1", "fixed-warmup")).thenReturn(true);
+
+        contributionService.applyContribution(bet("bet-1", "fixed-warmup", 200.0));
+
+        verify(jackpotRepository, never()).findByIdForUpdate(any());
+        verify(contributionRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldSkipDuplicatesWithinAndAcrossBatches() {
+        Jackpot jackpot = baseJackpot()
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .build();
+        when(jackpotRepository.findByIdForUpdate("fixed-warmup")).thenReturn(Optional.of(jackpot));
+        when(duplicateBetFilter.isDuplicate("bet-old", "fixed-warmup")).thenReturn(true);
+
+        contributionService.applyContributions(List.of(
+                bet("bet-1", "fixed-warmup", 100.0),
+                bet("bet-old", "fixed-warmup", 100.0),
+                bet("bet-1", "fixed-warmup", 100.0)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<com.pshakhlovich.jackpot.domain.model.JackpotContribution>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contributionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .extracting(com.pshakhlovich.jackpot.domain.model.JackpotContribution::getBetId)
+                .isEqualTo("bet-1");
+        assertThat(jackpot.getCurrentPool()).isEqualByComparingTo("510.00");
     }
 
     @Test
@@ -114,6 +186,169 @@ class ContributionServiceTests {
         verify(jackpotRepository).save(jackpot);
     }
 
+    @Test
+    void shouldApplyBatchLockingEachJackpotOnce() {
+        Jackpot fixed = baseJackpot()
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .currentPool(new BigDecimal("500.00"))
+                .build();
+        Jackpot decaying = baseJackpot()
+                .id("decaying-marathon")
+                .contributionStrategy(ContributionStrategyType.VARIABLE_DECAY)
+                .contributionRate(new BigDecimal("0.12"))
+                .minContributionRate(new BigDecimal("0.04"))
+                .decaySlope(new BigDecimal("0.08"))
+                .decayThreshold(new BigDecimal("10000.00"))
+                .currentPool(new BigDecimal("2000.00"))
+                .build();
+
+        when(jackpotRepository.findByIdForUpdate("fixed-warmup")).thenReturn(Optional.of(fixed));
+        when(jackpotRepository.findByIdForUpdate("decaying-marathon")).thenReturn(Optional.of(decaying));
+
+        contributionService.applyContributions(List.of(
+                bet("bet-1", "fixed-warmup", 200.0),
+                bet("bet-2", "decaying-marathon", 150.0),
+                bet("bet-3", "fixed-warmup", 100.0)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<com.pshakhlovich.jackpot.domain.model.JackpotContribution>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contributionRepository).saveAll(captor.capture());
+
+        // Jackpots are visited in id order; bets of a jackpot keep their order
+        assertThat(captor.getValue())
+                .extracting(com.pshakhlovich.jackpot.domain.model.JackpotContribution::getBetId)
+                .containsExactly("bet-2", "bet-1", "bet-3");
+        assertThat(captor.getValue())
+                .extracting(com.pshakhlovich.jackpot.domain.model.JackpotContribution::getPostContributionPool)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("2015.60"), new BigDecimal("520.00"), new BigDecimal("530.00"));
+        assertThat(fixed.getCurrentPool()).isEqualByComparingTo("530.00");
+
+        verify(jackpotRepository, times(1)).findByIdForUpdate("fixed-warmup");
+        verify(jackpotRepository, times(1)).findByIdForUpdate("decaying-marathon");
+        verify(poolSnapshotStore, times(1)).publishAfterCommit(fixed);
+        verify(poolSnapshotStore, times(1)).publishAfterCommit(decaying);
+        verify(contributionRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldAddContributionsOfStripedJackpotToStripesWithoutLocking() {
+        Jackpot estimate = baseJackpot()
+                .id("decaying-marathon")
+                .contributionStrategy(ContributionStrategyType.VARIABLE_DECAY)
+                .contributionRate(new BigDecimal("0.12"))
+                .minContributionRate(new BigDecimal("0.04"))
+                .decaySlope(new BigDecimal("0.08"))
+                .decayThreshold(new BigDecimal("10000.00"))
+                .currentPool(new BigDecimal("2000.00"))
+                .poolStripes(4)
+                .build();
+        when(poolStripes.stripedConfig("decaying-marathon")).thenReturn(Optional.of(JackpotConfig.from(estimate)));
+        when(poolStripes.estimate(JackpotConfig.from(estimate))).thenReturn(estimate);
+
+        List<Bet> bets = List.of(
+                bet("bet-1", "decaying-marathon", 150.0),
+                bet("bet-2", "decaying-marathon", 150.0),
+                bet("bet-3", "decaying-marathon", 150.0));
+        contributionService.applyContributions(bets);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JackpotContribution>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contributionRepository).saveAll(captor.capture());
+        List<JackpotContribution> contributions = captor.getValue();
+        // The decaying rate is taken from the estimated pool, moved on by each contribution of the batch
+        assertThat(contributions.getFirst().getContributionAmount()).isEqualByComparingTo("15.60");
+        assertThat(contributions.getFirst().getPostContributionPool()).isEqualByComparingTo("2015.60");
+
+        Map<Integer, Long> deltas = new TreeMap<>();
+        contributions.forEach(contribution -> deltas.merge(
+                JackpotPoolStripes.stripeOf(contribution.getBetId(), 4), Money.ofDecimal(contribution.getContributionAmount()), Long::sum));
+        deltas.forEach((stripe, delta) -> verify(poolStripes).add("decaying-marathon", stripe, delta));
+
+        verify(jackpotRepository, never()).findByIdForUpdate(any());
+        verify(poolSnapshotStore, never()).publishAfterCommit(any());
+        bets.forEach(bet -> verify(duplicateBetFilter).rememberAfterCommit(bet.getBetId(), "decaying-marathon"));
+    }
+
+    @Test
+    void shouldRetryOptimisticContributionWithoutLockingAfterConflict() {
+        Jackpot.JackpotBuilder optimistic = baseJackpot()
+                .contributionStrategy(ContributionStrategyType.VARIABLE_DECAY)
+                .contributionRate(new BigDecimal("0.12"))
+                .minContributionRate(new BigDecimal("0.04"))
+                .decaySlope(new BigDecimal("0.08"))
+                .decayThreshold(new BigDecimal("10000.00"))
+                .concurrencyMode(ConcurrencyMode.OPTIMISTIC);
+        Jackpot stale = optimistic.currentPool(new BigDecimal("500.00")).build();
+        Jackpot current = optimistic.currentPool(new BigDecimal("600.00")).build();
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(JackpotConfig.from(stale)));
+        when(jackpotRepository.findByIdOptimistic("fixed-warmup")).thenReturn(Optional.of(stale), Optional.of(current));
+        // The first attempt loses the race with a concurrent writer when it commits
+        when(jackpotRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(Jackpot.class, "fixed-warmup"));
+
+        contributionService.applyContribution(bet("bet-1", "fixed-warmup", 200.0));
+
+        ArgumentCaptor<JackpotContribution> captor = ArgumentCaptor.forClass(JackpotContribution.class);
+        verify(contributionRepository).save(captor.capture());
+        // Recomputed against the pool left by the concurrent writer
+        assertThat(captor.getValue().getPostContributionPool()).isEqualByComparingTo("623.04");
+        verify(jackpotRepository, never()).findByIdForUpdate(any());
+        verify(poolSnapshotStore).publishAfterCommit(current);
+        assertThat(meterRegistry.get("jackpot.concurrency.conflicts")
+                .tags("jackpot", "fixed-warmup", "operation", "contribution").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldAddPoolIndependentContributionsWithOneUpdateAndNoLoad() {
+        Jackpot fixed = baseJackpot()
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .build();
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(JackpotConfig.from(fixed)));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), eq(3000L), any(Instant.class))).thenReturn(1);
+        // Another writer added 70.00 before these bets
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(60000L));
+
+        contributionService.applyContributions(List.of(
+                bet("bet-1", "fixed-warmup", 200.0),
+                bet("bet-2", "fixed-warmup", 100.0)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JackpotContribution>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contributionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(JackpotContribution::getPostContributionPool)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("590.00"), new BigDecimal("600.00"));
+
+        verify(jackpotRepository, never()).findByIdForUpdate(any());
+        verify(jackpotRepository, never()).save(any());
+        ArgumentCaptor<Jackpot> published = ArgumentCaptor.forClass(Jackpot.class);
+        verify(poolSnapshotStore).publishAfterCommit(published.capture());
+        assertThat(published.getValue().getCurrentPool()).isEqualByComparingTo("600.00");
+    }
+
+    @Test
+    void shouldRejectBatchWithUnknownJackpot() {
+        when(jackpotRepository.findByIdForUpdate("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> contributionService.applyContributions(List.of(bet("bet-1", "missing", 10.0))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Jackpot missing not found");
+        verify(contributionRepository, never()).saveAll(any());
+    }
+
+    private Bet bet(String betId, String jackpotId, double amount) {
+        return Bet.newBuilder()
+                .setBetId(betId)
+                .setJackpotId(jackpotId)
+                .setUserId("user-1")
+                .setBetAmount(amount)
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+
     private Jackpot.JackpotBuilder baseJackpot() {
         return Jackpot.builder()
                 .id("fixed-warmup")
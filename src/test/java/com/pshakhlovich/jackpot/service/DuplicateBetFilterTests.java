@@ -0,0 +1,115 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.BetConsumerProperties;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository.ContributionKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class DuplicateBetFilterTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private JackpotContributionRepository contributionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DuplicateBetFilter duplicateBetFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        duplicateBetFilter = filter(100);
+    }
+
+    @Test
+    void shouldTreatUnseenBetsAsNewWithoutDatabaseAccess() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(duplicateBetFilter.isDuplicate("bet-" + i, "fixed-warmup")).isFalse();
+        }
+
+        verify(contributionRepository, never()).existsByBetIdAndJackpotId(anyString(), anyString());
+    }
+
+    @Test
+    void shouldRecogniseRecentlyAppliedBetsFromMemory() {
+        // Outside a transaction the bet is remembered immediately
+        duplicateBetFilter.rememberAfterCommit("bet-1", "fixed-warmup");
+
+        assertThat(duplicateBetFilter.isDuplicate("bet-1", "fixed-warmup")).isTrue();
+        assertThat(duplicateBetFilter.isDuplicate("bet-1", "decaying-marathon")).isFalse();
+        verify(contributionRepository, never()).existsByBetIdAndJackpotId(anyString(), anyString());
+        assertThat(meterRegistry.get("jackpot.bets.duplicates").tag("detected-by", "recent").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldConfirmBetsMissingFromRecentListInDatabase() {
+        // Without a recent list every Bloom filter hit goes to the database
+        duplicateBetFilter = filter(0);
+        duplicateBetFilter.rememberAfterCommit("bet-1", "fixed-warmup");
+        when(contributionRepository.existsByBetIdAndJackpotId("bet-1", "fixed-warmup")).thenReturn(true);
+
+        assertThat(duplicateBetFilter.isDuplicate("bet-1", "fixed-warmup")).isTrue();
+        assertThat(duplicateBetFilter.isDuplicate("bet-1", "fixed-warmup")).isTrue();
+
+        verify(contributionRepository, times(2)).existsByBetIdAndJackpotId("bet-1", "fixed-warmup");
+        assertThat(meterRegistry.get("jackpot.bets.duplicates").tag("detected-by", "database").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldWarmUpFromRecentContributions() {
+        when(contributionRepository.findKeysCreatedSince(any(), any()))
+                .thenReturn(List.of(key("bet-2", "fixed-warmup"), key("bet-1", "fixed-warmup")));
+
+        duplicateBetFilter.warmUp();
+
+        assertThat(duplicateBetFilter.isDuplicate("bet-2", "fixed-warmup")).isTrue();
+        verify(contributionRepository).findKeysCreatedSince(NOW.minus(Duration.ofHours(24)), Limit.of(10_000));
+    }
+
+    private DuplicateBetFilter filter(int recentBets) {
+        return new DuplicateBetFilter(
+                contributionRepository,
+                new BetConsumerProperties(BetConsumerProperties.Mode.BATCH, 1, BetConsumerProperties.OffsetStorage.KAFKA,
+                        Duration.ofSeconds(5), new BetConsumerProperties.Dedupe(10_000, 0.01, recentBets, Duration.ofHours(24)),
+                        new BetConsumerProperties.Retry(List.of(Duration.ofSeconds(1)))),
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                meterRegistry);
+    }
+
+    private ContributionKey key(String betId, String jackpotId) {
+        return new ContributionKey() {
+            @Override
+            public String getBetId() {
+                return betId;
+            }
+
+            @Override
+            public String getJackpotId() {
+                return jackpotId;
+            }
+        };
+    }
+}
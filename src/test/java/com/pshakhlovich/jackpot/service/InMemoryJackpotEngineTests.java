@@ -0,0 +1,267 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.avro.Bet;
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.config.JackpotEngineProperties;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotEvaluationRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRewardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryJackpotEngineTests {
+
+    @Mock
+    private JackpotRepository jackpotRepository;
+
+    @Mock
+    private JackpotContributionRepository contributionRepository;
+
+    @Mock
+    private JackpotEvaluationRepository evaluationRepository;
+
+    @Mock
+    private JackpotRewardRepository rewardRepository;
+
+    @Mock
+    private JackpotPoolSnapshotStore poolSnapshotStore;
+
+    @Mock
+    private DuplicateBetFilter duplicateBetFilter;
+
+    @Mock
+    private JackpotPoolStripes poolStripes;
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    private InMemoryJackpotEngine engine;
+
+    private ContributionService contributionService;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryJackpotEngine(
+                jackpotRepository,
+                contributionRepository,
+                evaluationRepository,
+                rewardRepository,
+                poolSnapshotStore,
+                duplicateBetFilter,
+                poolStripes,
+                TransactionOperations.withoutTransaction(),
+                Clock.systemUTC(),
+                new JackpotEngineProperties(JackpotEngineProperties.Mode.IN_MEMORY,
+                        new JackpotEngineProperties.Streams(JackpotEngineProperties.StoreType.ROCKS_DB, Duration.ofHours(24))),
+                new SimpleMeterRegistry());
+        engine.start();
+
+        StrategyRegistry strategyRegistry = new StrategyRegistry(
+                List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy()),
+                List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy()));
+        contributionService = new ContributionService(
+                jackpotRepository, contributionRepository, strategyRegistry, jackpotRegistry, poolSnapshotStore, duplicateBetFilter,
+                poolStripes,
+                new JackpotConcurrencyControl(jackpotRegistry, new JackpotConcurrencyProperties(
+                        new JackpotConcurrencyProperties.Retry(3, Duration.ofMillis(1), Duration.ofMillis(5))), new SimpleMeterRegistry()),
+                engine, TransactionOperations.withoutTransaction());
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldApplyContributionsWithoutLockingAndWriteThemBehind() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("500.00")));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class))).thenReturn(1);
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(53000L));
+
+        contributionService.applyContributions(List.of(bet("bet-1", 100.0), bet("bet-2", 200.0)));
+
+        ArgumentCaptor<Iterable<JackpotContribution>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(contributionRepository, atLeastOnce()).saveAll(captor.capture());
+        List<JackpotContribution> written = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(written::add));
+        assertThat(written).extracting(JackpotContribution::getBetId).containsExactly("bet-1", "bet-2");
+        assertThat(written.get(1).getPostContributionPool()).isEqualByComparingTo("530.00");
+
+        verify(jackpotRepository).addToPool(eq("fixed-warmup"), eq(3000L), any(Instant.class));
+        verify(duplicateBetFilter).rememberAfterCommit("bet-1", "fixed-warmup");
+        verify(jackpotRepository, never()).findByIdForUpdate(anyString());
+    }
+
+    @Test
+    void shouldSkipBetsThatArePendingOrAlreadyApplied() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("500.00")));
+        when(duplicateBetFilter.isDuplicate("bet-old", "fixed-warmup")).thenReturn(true);
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class))).thenReturn(1);
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(51000L));
+
+        contributionService.applyContributions(List.of(bet("bet-1", 100.0), bet("bet-1", 100.0), bet("bet-old", 100.0)));
+
+        verify(jackpotRepository).addToPool(eq("fixed-warmup"), eq(1000L), any(Instant.class));
+    }
+
+    @Test
+    void shouldSkipBetsWrittenBeforeTheDuplicateFiltersWereWarmedUp() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("500.00")));
+        when(contributionRepository.findContributedBetIds("fixed-warmup", Set.of("bet-1", "bet-ancient")))
+                .thenReturn(List.of("bet-ancient"));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class))).thenReturn(1);
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(51000L));
+
+        contributionService.applyContributions(List.of(bet("bet-1", 100.0), bet("bet-ancient", 100.0)));
+
+        verify(jackpotRepository).addToPool(eq("fixed-warmup"), eq(1000L), any(Instant.class));
+    }
+
+    @Test
+    void shouldApplyConcurrentOperationsOnAJackpotOneAtATime() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("0.00")));
+
+        List<CompletableFuture<Long>> operations = IntStream.range(0, 1_000)
+                .mapToObj(i -> engine.submit("fixed-warmup", state -> state.jackpot().increasePool(100)))
+                .toList();
+        operations.forEach(CompletableFuture::join);
+
+        BigDecimal finalPool = engine.submit("fixed-warmup", state -> state.jackpot().getCurrentPool()).join();
+        assertThat(finalPool).isEqualByComparingTo("1000.00");
+        verify(jackpotRepository, times(1)).findById("fixed-warmup");
+    }
+
+    @Test
+    void shouldFailWaitingOperationsAndReloadPoolsWhenAFlushFails() {
+        when(jackpotRepository.findById("fixed-warmup"))
+                .thenReturn(Optional.of(jackpot("500.00")), Optional.of(jackpot("500.00")));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(1);
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(51000L));
+
+        assertThatThrownBy(() -> contributionService.applyContribution(bet("bet-1", 100.0)))
+                .isInstanceOf(JackpotEngineFlushException.class)
+                .hasNoCause();
+
+        // The redelivered bet is applied to the pool reloaded from the database, not to the lost one
+        contributionService.applyContribution(bet("bet-1", 100.0));
+
+        verify(jackpotRepository, times(2)).findById("fixed-warmup");
+        verify(jackpotRepository, times(2)).addToPool(eq("fixed-warmup"), eq(1000L), any(Instant.class));
+    }
+
+    @Test
+    void shouldKeepPoolChangesOfOtherWriters() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("500.00")));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class))).thenReturn(1);
+        // Another writer adds 50.00 between the two flushes
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(56000L), Optional.of(57000L));
+
+        contributionService.applyContribution(bet("bet-1", 100.0));
+        contributionService.applyContribution(bet("bet-2", 100.0));
+
+        // Only the engine's own contributions are added, never an absolute pool
+        verify(jackpotRepository, times(2)).addToPool(eq("fixed-warmup"), eq(1000L), any(Instant.class));
+        BigDecimal pool = engine.submit("fixed-warmup", state -> state.jackpot().getCurrentPool()).join();
+        assertThat(pool).isEqualByComparingTo("570.00");
+    }
+
+    @Test
+    void shouldReloadConfigurationWhenTheRegistryInvalidatesIt() {
+        Jackpot reconfigured = jackpot("900.00");
+        reconfigured.setContributionRatePpm(200_000L);
+        when(jackpotRepository.findById("fixed-warmup"))
+                .thenReturn(Optional.of(jackpot("500.00")), Optional.of(reconfigured));
+        when(jackpotRepository.addToPool(eq("fixed-warmup"), anyLong(), any(Instant.class))).thenReturn(1);
+        when(jackpotRepository.findCurrentPool("fixed-warmup")).thenReturn(Optional.of(51000L), Optional.of(53000L));
+
+        contributionService.applyContribution(bet("bet-1", 100.0));
+        engine.onJackpotInvalidated(new JackpotRegistry.Invalidated("fixed-warmup"));
+        contributionService.applyContribution(bet("bet-2", 100.0));
+
+        // The new rate applies to the pool held in memory, not to the pool of the reloaded row
+        verify(jackpotRepository).addToPool(eq("fixed-warmup"), eq(1000L), any(Instant.class));
+        verify(jackpotRepository).addToPool(eq("fixed-warmup"), eq(2000L), any(Instant.class));
+        BigDecimal pool = engine.submit("fixed-warmup", state -> state.jackpot().getCurrentPool()).join();
+        assertThat(pool).isEqualByComparingTo("530.00");
+    }
+
+    @Test
+    void shouldRejectUnknownJackpots() {
+        when(jackpotRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> InMemoryJackpotEngine.join(engine.submit("missing", InMemoryJackpotEngine.JackpotState::jackpot)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Jackpot missing not found");
+    }
+
+    private Bet bet(String betId, double amount) {
+        return Bet.newBuilder()
+                .setBetId(betId)
+                .setJackpotId("fixed-warmup")
+                .setUserId("user-1")
+                .setBetAmount(amount)
+                .setCreatedAt(Instant.now())
+                .build();
+    }
+
+    private Jackpot jackpot(String currentPool) {
+        return Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal(currentPool))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
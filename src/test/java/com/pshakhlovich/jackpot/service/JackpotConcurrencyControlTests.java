@@ -0,0 +1,107 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
+import com.pshakhlovich.jackpot.domain.model.ConcurrencyMode;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class JackpotConcurrencyControlTests {
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JackpotConcurrencyControl concurrencyControl;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyControl = new JackpotConcurrencyControl(
+                jackpotRegistry,
+                new JackpotConcurrencyProperties(new JackpotConcurrencyProperties.Retry(3, Duration.ofMillis(1), Duration.ofMillis(4))),
+                meterRegistry);
+    }
+
+    @Test
+    void shouldRetryOptimisticJackpotUntilAttemptCommits() {
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(config(ConcurrencyMode.OPTIMISTIC)));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = concurrencyControl.execute("evaluation", List.of("fixed-warmup"), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Jackpot.class, "fixed-warmup");
+            }
+            return "committed";
+        });
+
+        assertThat(result).isEqualTo("committed");
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.get("jackpot.concurrency.conflicts")
+                .tags("jackpot", "fixed-warmup", "operation", "evaluation").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("jackpot.concurrency.attempts").summary().max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldReportConflictOnceAttemptsAreExhausted() {
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(config(ConcurrencyMode.OPTIMISTIC)));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> concurrencyControl.run("contribution", List.of("fixed-warmup"), () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Jackpot.class, "fixed-warmup");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void shouldNotRetryPessimisticOrUnknownJackpots() {
+        when(jackpotRegistry.find("fixed-warmup")).thenReturn(Optional.of(config(ConcurrencyMode.PESSIMISTIC)));
+        when(jackpotRegistry.find("missing")).thenReturn(Optional.empty());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> concurrencyControl.run("contribution-batch", List.of("fixed-warmup", "missing"), () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Jackpot.class, "fixed-warmup");
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.find("jackpot.concurrency.conflicts").counter()).isNull();
+    }
+
+    private JackpotConfig config(ConcurrencyMode concurrencyMode) {
+        return JackpotConfig.from(Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal("500.00"))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .concurrencyMode(concurrencyMode)
+                .build());
+    }
+}
@@ -3,24 +3,37 @@ package com.pshakhlovich.jackpot.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
 import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.config.JackpotCacheProperties;
+import com.pshakhlovich.jackpot.config.JackpotConcurrencyProperties;
 import com.pshakhlovich.jackpot.domain.model.JackpotContribution;
+import com.pshakhlovich.jackpot.domain.model.JackpotEvaluation;
+import com.pshakhlovich.jackpot.domain.model.JackpotReward;
 import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
 import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
 import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
 import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import com.pshakhlovich.jackpot.messaging.PoolAdjustmentProducer;
 import com.pshakhlovich.jackpot.repository.JackpotContributionRepository;
+import com.pshakhlovich.jackpot.repository.JackpotEvaluationRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRepository;
 import com.pshakhlovich.jackpot.repository.JackpotRewardRepository;
+import com.pshakhlovich.jackpot.service.dto.EvaluationOutcome;
 import com.pshakhlovich.jackpot.service.dto.RewardResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +42,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(MockitoExtension.class)
 class JackpotEvaluationServiceTests {
@@ -42,6 +57,24 @@ class JackpotEvaluationServiceTests {
     @Mock
     private JackpotRewardRepository rewardRepository;
 
+    @Mock
+    private JackpotEvaluationRepository evaluationRepository;
+
+    @Mock
+    private JackpotPoolSnapshotStore poolSnapshotStore;
+
+    @Mock
+    private JackpotPoolStripes poolStripes;
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    @Mock
+    private InMemoryJackpotEngine engine;
+
+    @Mock
+    private PoolAdjustmentProducer poolAdjustments;
+
     private JackpotEvaluationService evaluationService;
 
     @BeforeEach
@@ -50,11 +83,27 @@ class JackpotEvaluationServiceTests {
                 List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy()),
                 List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy()));
 
+        JackpotEvaluationCache evaluationCache = new JackpotEvaluationCache(
+                new JackpotCacheProperties(
+                        new JackpotCacheProperties.Registry(100, Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(1)),
+                        new JackpotCacheProperties.Evaluations(100, Duration.ofMinutes(10))),
+                new SimpleMeterRegistry());
+
         evaluationService = new JackpotEvaluationService(
                 contributionRepository,
                 jackpotRepository,
                 rewardRepository,
-                strategyRegistry);
+                evaluationRepository,
+                evaluationCache,
+                strategyRegistry,
+                jackpotRegistry,
+                poolSnapshotStore,
+                poolStripes,
+                new JackpotConcurrencyControl(jackpotRegistry, new JackpotConcurrencyProperties(
+                        new JackpotConcurrencyProperties.Retry(3, Duration.ofMillis(1), Duration.ofMillis(5))), new SimpleMeterRegistry()),
+                TransactionOperations.withoutTransaction(),
+                engine,
+                poolAdjustments);
     }
 
     @Test
@@ -89,6 +138,39 @@ class JackpotEvaluationServiceTests {
 
         verify(rewardRepository).save(any());
         verify(jackpotRepository).save(jackpot);
+        verify(poolAdjustments).publishAfterCommit(jackpotId, -70000L);
+    }
+
+    @Test
+    void shouldFoldStripesIntoPoolBeforeDrawingAndResetThemOnWin() {
+        String betId = "bet-win-striped";
+        String jackpotId = "fixed-warmup";
+
+        Jackpot jackpot = baseJackpot()
+                .id(jackpotId)
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("1.000000"))
+                .currentPool(new BigDecimal("500.00"))
+                .rewardCap(new BigDecimal("1000.00"))
+                .poolStripes(4)
+                .build();
+
+        when(contributionRepository.findByBetIdAndJackpotId(betId, jackpotId))
+                .thenReturn(Optional.of(createContribution(betId, jackpot)));
+        when(jackpotRepository.findByIdForUpdate(jackpotId)).thenReturn(Optional.of(jackpot));
+        // Contributions held in stripes, zeroed by the fold
+        when(poolStripes.fold(jackpot)).thenAnswer(invocation -> {
+            jackpot.increasePool(70000);
+            return true;
+        });
+
+        RewardResult result = evaluationService.evaluate(betId, jackpotId);
+
+        assertThat(result.win()).isTrue();
+        assertThat(result.payoutAmount()).isEqualByComparingTo("1000.00");
+        assertThat(result.updatedPool()).isEqualByComparingTo("500.00");
+        assertThat(jackpot.getCurrentPool()).isEqualByComparingTo("500.00");
+        verify(poolStripes).fold(jackpot);
     }
 
     @Test
@@ -263,6 +345,164 @@ class JackpotEvaluationServiceTests {
                 .hasMessageContaining("not found");
     }
 
+    @Test
+    void shouldRecordLosingEvaluationAndServeRepeatsFromMemory() {
+        // Given: A losing bet
+        String betId = "bet-repeat";
+        String jackpotId = "fixed-warmup";
+
+        Jackpot jackpot = baseJackpot()
+                .id(jackpotId)
+                .rewardBaseProbability(new BigDecimal("0.000000"))
+                .currentPool(new BigDecimal("800.00"))
+                .build();
+
+        when(contributionRepository.findByBetIdAndJackpotId(betId, jackpotId))
+                .thenReturn(Optional.of(createContribution(betId, jackpot)));
+        when(jackpotRepository.findByIdForUpdate(jackpotId)).thenReturn(Optional.of(jackpot));
+
+        // When: Evaluated, then retried after the pool has changed
+        RewardResult first = evaluationService.evaluate(betId, jackpotId);
+        jackpot.setCurrentPool(new BigDecimal("900.00"));
+        RewardResult retry = evaluationService.evaluate(betId, jackpotId);
+
+        // Then: The loss is recorded once and the retry neither locks nor changes the outcome
+        assertThat(retry).isEqualTo(first);
+        assertThat(retry.updatedPool()).isEqualByComparingTo("800.00");
+
+        ArgumentCaptor<JackpotEvaluation> captor = ArgumentCaptor.forClass(JackpotEvaluation.class);
+        verify(evaluationRepository).save(captor.capture());
+        assertThat(captor.getValue().isWin()).isFalse();
+        assertThat(captor.getValue().getPostEvaluationPool()).isEqualByComparingTo("800.00");
+        verify(jackpotRepository, times(1)).findByIdForUpdate(jackpotId);
+    }
+
+    @Test
+    void shouldReturnRecordedOutcomeWithoutLockingJackpot() {
+        // Given: An outcome recorded by an earlier evaluation
+        String betId = "bet-recorded";
+        String jackpotId = "fixed-warmup";
+
+        JackpotEvaluation recorded = JackpotEvaluation.builder()
+                .betId(betId)
+                .jackpot(baseJackpot().build())
+                .win(true)
+                .payoutAmount(new BigDecimal("1000.00"))
+                .postEvaluationPool(new BigDecimal("500.00"))
+                .probability(new BigDecimal("0.050000"))
+                .strategy(RewardStrategyType.FIXED)
+                .build();
+        when(evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId)).thenReturn(Optional.of(recorded));
+
+        // When
+        RewardResult result = evaluationService.evaluate(betId, jackpotId);
+
+        // Then
+        assertThat(result.win()).isTrue();
+        assertThat(result.payoutAmount()).isEqualByComparingTo("1000.00");
+        verify(jackpotRepository, never()).findByIdForUpdate(any());
+        verify(rewardRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReturnOutcomeRecordedByConcurrentFirstEvaluation() {
+        // Given: A concurrent evaluation of the same bet records its outcome while this one draws
+        String betId = "bet-concurrent";
+        String jackpotId = "fixed-warmup";
+
+        Jackpot jackpot = baseJackpot()
+                .id(jackpotId)
+                .rewardBaseProbability(new BigDecimal("0.000000"))
+                .currentPool(new BigDecimal("800.00"))
+                .build();
+        JackpotEvaluation recorded = JackpotEvaluation.builder()
+                .betId(betId)
+                .jackpot(jackpot)
+                .win(false)
+                .payoutAmount(BigDecimal.ZERO)
+                .postEvaluationPool(new BigDecimal("750.00"))
+                .probability(new BigDecimal("0.000000"))
+                .strategy(RewardStrategyType.FIXED)
+                .build();
+
+        when(evaluationRepository.findByBetIdAndJackpotId(betId, jackpotId))
+                .thenReturn(Optional.empty(), Optional.empty(), Optional.of(recorded));
+        when(contributionRepository.findByBetIdAndJackpotId(betId, jackpotId))
+                .thenReturn(Optional.of(createContribution(betId, jackpot)));
+        when(jackpotRepository.findByIdForUpdate(jackpotId)).thenReturn(Optional.of(jackpot));
+        when(evaluationRepository.save(any())).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Unique index or primary key violation: \"public.uq_jackpot_evaluation_bet_INDEX_A\"", "23505")));
+
+        // When
+        RewardResult result = evaluationService.evaluate(betId, jackpotId);
+
+        // Then: The recorded outcome is returned instead of the failure
+        assertThat(result).isEqualTo(recorded.toResult());
+        assertThat(result.updatedPool()).isEqualByComparingTo("750.00");
+    }
+
+    @Test
+    void shouldNotMistakeOtherIntegrityViolationsForConcurrentEvaluation() {
+        String betId = "bet-" + "x".repeat(64);
+        String jackpotId = "fixed-warmup";
+
+        Jackpot jackpot = baseJackpot().id(jackpotId).build();
+        when(contributionRepository.findByBetIdAndJackpotId(betId, jackpotId))
+                .thenReturn(Optional.of(createContribution(betId, jackpot)));
+        when(jackpotRepository.findByIdForUpdate(jackpotId)).thenReturn(Optional.of(jackpot));
+        when(evaluationRepository.save(any())).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Value too long for column \"bet_id CHARACTER VARYING(64)\"", "22001")));
+
+        assertThatThrownBy(() -> evaluationService.evaluate(betId, jackpotId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldEvaluateBatchInContributionOrderUnderOneLock() {
+        // Given: Every draw wins, so the second evaluated bet must see the pool reset by the first
+        String jackpotId = "fixed-warmup";
+
+        Jackpot jackpot = baseJackpot()
+                .id(jackpotId)
+                .rewardBaseProbability(new BigDecimal("1.000000"))
+                .currentPool(new BigDecimal("1200.00"))
+                .rewardCap(new BigDecimal("1000.00"))
+                .build();
+
+        when(contributionRepository.findContributedBetIds(eq(jackpotId), anyCollection()))
+                .thenReturn(List.of("bet-b", "bet-a"));
+        when(jackpotRepository.findByIdForUpdate(jackpotId)).thenReturn(Optional.of(jackpot));
+
+        // When
+        List<EvaluationOutcome> outcomes = evaluationService.evaluateBatch(
+                jackpotId, List.of("bet-a", "bet-b", "bet-missing", "bet-a"));
+
+        // Then: Results follow request order, evaluation follows contribution order
+        assertThat(outcomes).extracting(EvaluationOutcome::betId)
+                .containsExactly("bet-a", "bet-b", "bet-missing", "bet-a");
+
+        EvaluationOutcome first = outcomes.get(1);
+        assertThat(first.sequence()).isZero();
+        assertThat(first.result().payoutAmount()).isEqualByComparingTo("1000.00");
+
+        EvaluationOutcome second = outcomes.get(0);
+        assertThat(second.sequence()).isEqualTo(1);
+        assertThat(second.result().payoutAmount()).isEqualByComparingTo("500.00");
+        assertThat(second.result().updatedPool()).isEqualByComparingTo("500.00");
+
+        assertThat(outcomes.get(2).evaluated()).isFalse();
+        assertThat(outcomes.get(2).reason()).startsWith("No contribution found");
+        assertThat(outcomes.get(3).evaluated()).isFalse();
+        assertThat(outcomes.get(3).reason()).startsWith("Duplicate betId");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JackpotReward>> rewards = ArgumentCaptor.forClass(List.class);
+        verify(rewardRepository).saveAll(rewards.capture());
+        assertThat(rewards.getValue()).extracting(JackpotReward::getBetId).containsExactly("bet-b", "bet-a");
+        verify(jackpotRepository, times(1)).findByIdForUpdate(jackpotId);
+        verify(jackpotRepository, times(1)).save(jackpot);
+    }
+
     private Jackpot.JackpotBuilder baseJackpot() {
         return Jackpot.builder()
                 .id("fixed-warmup")
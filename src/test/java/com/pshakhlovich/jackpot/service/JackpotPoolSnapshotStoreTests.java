@@ -0,0 +1,140 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.JackpotPoolProperties;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.repository.JackpotPoolStripeRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JackpotPoolSnapshotStoreTests {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private JackpotRepository jackpotRepository;
+
+    @Mock
+    private JackpotPoolStripeRepository stripeRepository;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private JackpotPoolSnapshotStore snapshotStore;
+
+    @BeforeEach
+    void setUp() {
+        snapshotStore = new JackpotPoolSnapshotStore(
+                jackpotRepository,
+                stripeRepository,
+                new JackpotPoolProperties(Duration.ofSeconds(5), new JackpotPoolProperties.Stream(
+                        Duration.ofMillis(200), Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ofSeconds(5))),
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                publishedEvents::add);
+    }
+
+    @Test
+    void shouldPublishCommittedPoolAndBumpVersionOnChange() {
+        // Outside a transaction the snapshot is published immediately
+        snapshotStore.publishAfterCommit(jackpot("500.00", NOW.minusSeconds(2)));
+        snapshotStore.publishAfterCommit(jackpot("510.00", NOW.minusSeconds(1)));
+
+        JackpotPoolSnapshot snapshot = snapshotStore.find("fixed-warmup").orElseThrow();
+        assertThat(snapshot.currentPool()).isEqualByComparingTo("510.00");
+        assertThat(snapshot.version()).isEqualTo(2);
+        assertThat(snapshot.confirmedAt()).isEqualTo(NOW);
+        assertThat(snapshot.config().contributionStrategy()).isEqualTo(ContributionStrategyType.FIXED_RATE);
+    }
+
+    @Test
+    void shouldIgnoreCommitOvertakenByLaterOne() {
+        snapshotStore.publishAfterCommit(jackpot("520.00", NOW.minusSeconds(1)));
+        snapshotStore.publishAfterCommit(jackpot("510.00", NOW.minusSeconds(2)));
+
+        JackpotPoolSnapshot snapshot = snapshotStore.find("fixed-warmup").orElseThrow();
+        assertThat(snapshot.currentPool()).isEqualByComparingTo("520.00");
+        assertThat(snapshot.version()).isEqualTo(1);
+        assertThat(publishedEvents).containsExactly(snapshot);
+    }
+
+    @Test
+    void shouldReconcileWithDatabaseAndDropRemovedJackpots() {
+        snapshotStore.publishAfterCommit(jackpot("500.00", NOW.minusSeconds(3)));
+        Jackpot other = jackpot("900.00", NOW.minusSeconds(3));
+        other.setId("other");
+        snapshotStore.publishAfterCommit(other);
+
+        // Another instance has since moved the pool on and the second jackpot was removed
+        when(jackpotRepository.findAll()).thenReturn(List.of(jackpot("650.00", NOW.minusSeconds(1))));
+        snapshotStore.refresh();
+
+        assertThat(snapshotStore.findAll()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.currentPool()).isEqualByComparingTo("650.00");
+            assertThat(snapshot.version()).isEqualTo(2);
+        });
+        assertThat(snapshotStore.find("other")).isEmpty();
+    }
+
+    @Test
+    void shouldLetDatabaseReplaceSnapshotStampedLater() {
+        // A win stamped by a clock ahead of the one that stamped the later contribution
+        snapshotStore.publishAfterCommit(jackpot("500.00", NOW.plusSeconds(30)));
+        snapshotStore.publishAfterCommit(jackpot("510.00", NOW.minusSeconds(1)));
+        assertThat(snapshotStore.find("fixed-warmup").orElseThrow().currentPool()).isEqualByComparingTo("500.00");
+
+        when(jackpotRepository.findAll()).thenReturn(List.of(jackpot("510.00", NOW.minusSeconds(1))));
+        snapshotStore.refresh();
+
+        JackpotPoolSnapshot snapshot = snapshotStore.find("fixed-warmup").orElseThrow();
+        assertThat(snapshot.currentPool()).isEqualByComparingTo("510.00");
+        assertThat(snapshot.updatedAt()).isEqualTo(NOW.minusSeconds(1));
+        assertThat(snapshot.version()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIncludePoolStripesWhenReconciling() {
+        JackpotPoolStripeRepository.StripeTotal stripes = mock(JackpotPoolStripeRepository.StripeTotal.class);
+        when(stripes.getJackpotId()).thenReturn("fixed-warmup");
+        when(stripes.getAmountMinor()).thenReturn(3500L);
+        when(stripeRepository.sumAllByJackpot()).thenReturn(List.of(stripes));
+        when(jackpotRepository.findAll()).thenReturn(List.of(jackpot("500.00", NOW.minusSeconds(1))));
+
+        snapshotStore.refresh();
+
+        assertThat(snapshotStore.find("fixed-warmup").orElseThrow().currentPool()).isEqualByComparingTo("535.00");
+    }
+
+    private Jackpot jackpot(String pool, Instant updatedAt) {
+        return Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal(pool))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.JackpotPoolStripe;
+import com.pshakhlovich.jackpot.domain.model.Money;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.repository.JackpotPoolStripeRepository;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import com.pshakhlovich.jackpot.service.dto.JackpotPoolSnapshot;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JackpotPoolStripesTests {
+
+    @Mock
+    private JackpotPoolStripeRepository stripeRepository;
+
+    @Mock
+    private JackpotRepository jackpotRepository;
+
+    @Mock
+    private JackpotRegistry jackpotRegistry;
+
+    @Mock
+    private JackpotPoolSnapshotStore poolSnapshotStore;
+
+    private JackpotPoolStripes poolStripes;
+
+    @BeforeEach
+    void setUp() {
+        poolStripes = new JackpotPoolStripes(stripeRepository, jackpotRepository, jackpotRegistry, poolSnapshotStore);
+    }
+
+    @Test
+    void shouldFoldAllStripesIntoPoolAndZeroThem() {
+        Jackpot jackpot = jackpot("500.00", 2);
+        List<JackpotPoolStripe> stripes = List.of(stripe(0, "12.50"), stripe(1, "7.50"));
+        when(stripeRepository.findByJackpotIdForUpdate("fixed-warmup")).thenReturn(stripes);
+
+        assertThat(poolStripes.fold(jackpot)).isTrue();
+
+        assertThat(jackpot.getCurrentPool()).isEqualByComparingTo("520.00");
+        assertThat(stripes).allSatisfy(stripe -> assertThat(stripe.getAmountMinor()).isZero());
+    }
+
+    @Test
+    void shouldLeavePoolAloneWhenStripesAreEmpty() {
+        Jackpot jackpot = jackpot("500.00", 1);
+        when(stripeRepository.findByJackpotIdForUpdate("fixed-warmup")).thenReturn(List.of());
+
+        assertThat(poolStripes.fold(jackpot)).isFalse();
+        assertThat(jackpot.getCurrentPool()).isEqualByComparingTo("500.00");
+    }
+
+    @Test
+    void shouldCreateStripeOnItsFirstContribution() {
+        when(stripeRepository.addToStripe("fixed-warmup", 3, 1000L)).thenReturn(0);
+
+        poolStripes.add("fixed-warmup", 3, 1000L);
+
+        ArgumentCaptor<JackpotPoolStripe> captor = ArgumentCaptor.forClass(JackpotPoolStripe.class);
+        verify(stripeRepository).save(captor.capture());
+        assertThat(captor.getValue().getKey()).isEqualTo(new JackpotPoolStripe.Key("fixed-warmup", 3));
+        assertThat(captor.getValue().getAmountMinor()).isEqualTo(1000L);
+    }
+
+    @Test
+    void shouldAddToExistingStripeWithoutInserting() {
+        when(stripeRepository.addToStripe("fixed-warmup", 3, 1000L)).thenReturn(1);
+
+        poolStripes.add("fixed-warmup", 3, 1000L);
+
+        verify(stripeRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldEstimatePoolFromSnapshot() {
+        JackpotConfig config = JackpotConfig.from(jackpot("500.00", 4));
+        when(poolSnapshotStore.find("fixed-warmup"))
+                .thenReturn(Optional.of(new JackpotPoolSnapshot(config, new BigDecimal("640.00"), Instant.now(), 3, Instant.now())));
+
+        Jackpot estimate = poolStripes.estimate(config);
+
+        assertThat(estimate.getCurrentPool()).isEqualByComparingTo("640.00");
+        assertThat(JackpotConfig.from(estimate)).isEqualTo(config);
+        verify(jackpotRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldEstimatePoolFromDatabaseWithoutSnapshot() {
+        JackpotConfig config = JackpotConfig.from(jackpot("500.00", 4));
+        when(poolSnapshotStore.find("fixed-warmup")).thenReturn(Optional.empty());
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot("600.00", 4)));
+        when(stripeRepository.sumByJackpotId("fixed-warmup")).thenReturn(4500L);
+
+        assertThat(poolStripes.estimate(config).getCurrentPool()).isEqualByComparingTo("645.00");
+    }
+
+    @Test
+    void shouldSpreadBetsOverAllStripes() {
+        List<Integer> stripes = IntStream.range(0, 1_000)
+                .mapToObj(i -> JackpotPoolStripes.stripeOf("bet-" + i, 8))
+                .distinct()
+                .toList();
+
+        assertThat(stripes).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7);
+    }
+
+    private JackpotPoolStripe stripe(int stripe, String amount) {
+        return new JackpotPoolStripe(new JackpotPoolStripe.Key("fixed-warmup", stripe), Money.ofDecimal(new BigDecimal(amount)));
+    }
+
+    private Jackpot jackpot(String currentPool, int poolStripes) {
+        return Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal(currentPool))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"))
+                .poolStripes(poolStripes)
+                .build();
+    }
+}
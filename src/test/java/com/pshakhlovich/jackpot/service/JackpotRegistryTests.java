@@ -0,0 +1,151 @@
+package com.pshakhlovich.jackpot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pshakhlovich.jackpot.config.JackpotCacheProperties;
+import com.pshakhlovich.jackpot.domain.model.ContributionStrategyType;
+import com.pshakhlovich.jackpot.domain.model.Jackpot;
+import com.pshakhlovich.jackpot.domain.model.JackpotConfig;
+import com.pshakhlovich.jackpot.domain.model.RewardStrategyType;
+import com.pshakhlovich.jackpot.domain.strategy.StrategyRegistry;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.FixedContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.contribution.VariableDecayContributionStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.FixedRewardStrategy;
+import com.pshakhlovich.jackpot.domain.strategy.reward.VariableRampRewardStrategy;
+import com.pshakhlovich.jackpot.repository.JackpotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JackpotRegistryTests {
+
+    @Mock
+    private JackpotRepository jackpotRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private JackpotRegistry jackpotRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JackpotCacheProperties properties = new JackpotCacheProperties(
+                new JackpotCacheProperties.Registry(100, Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(1)),
+                new JackpotCacheProperties.Evaluations(100, Duration.ofMinutes(10)));
+
+        StrategyRegistry strategyRegistry = new StrategyRegistry(
+                List.of(new FixedContributionStrategy(), new VariableDecayContributionStrategy()),
+                List.of(new FixedRewardStrategy(), new VariableRampRewardStrategy()));
+
+        jackpotRegistry = new JackpotRegistry(jackpotRepository, strategyRegistry, properties, meterRegistry, publishedEvents::add);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromMemory() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(baseJackpot().build()));
+
+        JackpotConfig first = jackpotRegistry.require("fixed-warmup");
+        JackpotConfig second = jackpotRegistry.require("fixed-warmup");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.contributionRatePpm()).isEqualTo(100_000L);
+        verify(jackpotRepository, times(1)).findById("fixed-warmup");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JackpotRegistry.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JackpotRegistry.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRememberUnknownJackpotsUntilInvalidated() {
+        when(jackpotRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> jackpotRegistry.require("missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Jackpot missing not found");
+        assertThat(jackpotRegistry.find("missing")).isEmpty();
+        assertThat(jackpotRegistry.findAll(List.of("missing"))).isEmpty();
+        verify(jackpotRepository, times(1)).findById("missing");
+
+        // Creating the jackpot invalidates its id
+        when(jackpotRepository.findById("missing")).thenReturn(Optional.of(baseJackpot().id("missing").build()));
+        jackpotRegistry.invalidate("missing");
+
+        assertThat(jackpotRegistry.find("missing")).isPresent();
+        verify(jackpotRepository, times(2)).findById("missing");
+    }
+
+    @Test
+    void shouldFailToLoadMisconfiguredJackpot() {
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(baseJackpot()
+                .rewardCapMinor(null)
+                .build()));
+
+        assertThatThrownBy(() -> jackpotRegistry.find("fixed-warmup"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Fixed reward strategy requires rewardCap");
+    }
+
+    @Test
+    void shouldLoadMissingEntriesInOneQuery() {
+        when(jackpotRepository.findAllById(Set.of("fixed-warmup", "missing")))
+                .thenReturn(List.of(baseJackpot().build()));
+
+        assertThat(jackpotRegistry.findAll(List.of("fixed-warmup", "missing"))).containsOnlyKeys("fixed-warmup");
+        assertThat(jackpotRegistry.find("fixed-warmup")).isPresent();
+        assertThat(jackpotRegistry.find("missing")).isEmpty();
+        verify(jackpotRepository, never()).findById("missing");
+    }
+
+    @Test
+    void shouldReplaceCachedConfigurationOnlyWhenItChanged() {
+        Jackpot jackpot = baseJackpot().build();
+        when(jackpotRepository.findById("fixed-warmup")).thenReturn(Optional.of(jackpot));
+        jackpotRegistry.require("fixed-warmup");
+
+        jackpot.setCurrentPool(new BigDecimal("750.00"));
+        assertThat(jackpotRegistry.isStale(JackpotConfig.from(jackpot))).isFalse();
+
+        jackpot.setContributionRatePpm(200_000L);
+        JackpotConfig changed = JackpotConfig.from(jackpot);
+        assertThat(jackpotRegistry.isStale(changed)).isTrue();
+
+        jackpotRegistry.update(changed);
+
+        assertThat(jackpotRegistry.require("fixed-warmup").contributionRatePpm()).isEqualTo(200_000L);
+        verify(jackpotRepository, times(1)).findById("fixed-warmup");
+        assertThat(publishedEvents).containsExactly(new JackpotRegistry.Invalidated("fixed-warmup"));
+    }
+
+    private Jackpot.JackpotBuilder baseJackpot() {
+        return Jackpot.builder()
+                .id("fixed-warmup")
+                .name("Fixed Warmup")
+                .initialPool(new BigDecimal("500.00"))
+                .currentPool(new BigDecimal("500.00"))
+                .contributionStrategy(ContributionStrategyType.FIXED_RATE)
+                .contributionRate(new BigDecimal("0.10"))
+                .rewardStrategy(RewardStrategyType.FIXED)
+                .rewardBaseProbability(new BigDecimal("0.05"))
+                .rewardMaxProbability(new BigDecimal("0.05"))
+                .rewardRampRate(BigDecimal.ZERO)
+                .rewardCap(new BigDecimal("1000.00"));
+    }
+}
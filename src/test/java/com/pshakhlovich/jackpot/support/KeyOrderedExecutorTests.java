@@ -0,0 +1,64 @@
+package com.pshakhlovich.jackpot.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedExecutorTests {
+
+    private final KeyOrderedExecutor<String> executor = new KeyOrderedExecutor<>(Executors.newVirtualThreadPerTaskExecutor());
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldRunTasksOfOneKeyInSubmissionOrder() {
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int sequence = i;
+            futures.add(executor.submit("fixed-warmup", () -> {
+                if (sequence == 0) {
+                    throw new IllegalStateException("first task fails");
+                }
+                applied.add(sequence);
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+
+        // A failed task does not stop the tasks queued behind it
+        assertThat(applied).hasSize(199).isSorted();
+        assertThat(executor.activeKeys()).isZero();
+    }
+
+    @Test
+    void shouldNotHoldBackOtherKeysBehindABlockedOne() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = executor.submit("fixed-warmup", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch otherRan = new CountDownLatch(1);
+        executor.submit("decaying-marathon", otherRan::countDown);
+
+        assertThat(otherRan.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(blocked).isNotDone();
+
+        release.countDown();
+        blocked.join();
+    }
+}